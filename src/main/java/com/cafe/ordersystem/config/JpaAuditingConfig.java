@@ -0,0 +1,12 @@
+package com.cafe.ordersystem.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Enables the auditing fields of {@link com.cafe.ordersystem.model.common.AuditableEntity}.
+ */
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
@@ -0,0 +1,22 @@
+package com.cafe.ordersystem.config;
+
+import com.cafe.ordersystem.model.product.MenuAvailabilities;
+import com.cafe.ordersystem.service.MenuAvailabilityService;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Installs the menu availability checked when items are added to orders.
+ */
+@Configuration
+public class MenuAvailabilityConfig {
+
+    /**
+     * Installs the availability for the Order entities, which are not Spring-managed.
+     */
+    @Bean
+    public InitializingBean menuAvailabilityInstaller(MenuAvailabilityService menuAvailabilityService) {
+        return () -> MenuAvailabilities.install(menuAvailabilityService);
+    }
+}
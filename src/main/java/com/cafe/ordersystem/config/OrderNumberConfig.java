@@ -0,0 +1,41 @@
+package com.cafe.ordersystem.config;
+
+import com.cafe.ordersystem.model.order.OrderNumberGenerator;
+import com.cafe.ordersystem.model.order.OrderNumberGenerators;
+import com.cafe.ordersystem.model.order.SequenceOrderNumberGenerator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the order number generator.
+ *
+ * The default generator needs a node id that is unique per running instance
+ * (property "cafe.orders.node-id", 0-99). There is no default: two instances left on
+ * the same id would generate the same order numbers, so startup fails when it is not set.
+ * Declaring another OrderNumberGenerator bean replaces the default one.
+ */
+@Configuration
+public class OrderNumberConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OrderNumberGenerator orderNumberGenerator(@Value("${cafe.orders.node-id:#{null}}") Integer nodeId) {
+        if(nodeId == null) {
+            throw new IllegalStateException("Property cafe.orders.node-id must be set to a node id (0-99) " +
+                    "unique per running instance");
+        }
+
+        return new SequenceOrderNumberGenerator(nodeId);
+    }
+
+    /**
+     * Installs the generator for the Order entities, which are not Spring-managed.
+     */
+    @Bean
+    public InitializingBean orderNumberGeneratorInstaller(OrderNumberGenerator orderNumberGenerator) {
+        return () -> OrderNumberGenerators.install(orderNumberGenerator);
+    }
+}
@@ -0,0 +1,12 @@
+package com.cafe.ordersystem.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs (@Scheduled methods) of the application.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,62 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.service.BestSellerService;
+import com.cafe.ordersystem.service.BestSellerView;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Best-selling products, approximate from memory for the last week, or exact on request.
+ * Time ranges default to the last 24 hours.
+ */
+@RestController
+@RequestMapping("/api/sales/best-sellers")
+public class BestSellerController {
+
+    private final BestSellerService bestSellerService;
+
+    public BestSellerController(BestSellerService bestSellerService) {
+        this.bestSellerService = bestSellerService;
+    }
+
+    /**
+     * Gets the best sellers of a time range, of all products or of a category.
+     */
+    @GetMapping
+    public List<BestSellerView> topSellers(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean exact,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return exact
+                ? bestSellerService.exactTopSellers(categoryId, fromOrLastDay(from), toOrNow(to), limit)
+                : bestSellerService.topSellers(categoryId, fromOrLastDay(from), toOrNow(to), limit);
+    }
+
+    /**
+     * Suggests products to feature: active best sellers that are not featured yet.
+     */
+    @GetMapping("/featured-suggestions")
+    public List<BestSellerView> featuredSuggestions(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return bestSellerService.suggestFeatured(categoryId, fromOrLastDay(from), toOrNow(to), limit);
+    }
+
+    private static LocalDateTime fromOrLastDay(LocalDateTime from) {
+        return from != null ? from : LocalDateTime.now().minusDays(1);
+    }
+
+    private static LocalDateTime toOrNow(LocalDateTime to) {
+        return to != null ? to : LocalDateTime.now().plusSeconds(1);
+    }
+}
@@ -0,0 +1,33 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.service.CustomerSearchEntry;
+import com.cafe.ordersystem.service.CustomerSearchService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Customer lookup at the register, by phone number, email, member number or name.
+ */
+@RestController
+@RequestMapping("/api/customers/search")
+public class CustomerSearchController {
+
+    private final CustomerSearchService customerSearchService;
+
+    public CustomerSearchController(CustomerSearchService customerSearchService) {
+        this.customerSearchService = customerSearchService;
+    }
+
+    /**
+     * Searches customers with what was typed, e.g. "+44 7911 123456", "LP-00000042" or "jon smi".
+     */
+    @GetMapping
+    public List<CustomerSearchEntry> search(@RequestParam("q") String query,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return customerSearchService.search(query, limit);
+    }
+}
@@ -0,0 +1,65 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.service.KitchenFeedService;
+import com.cafe.ordersystem.service.KitchenSchedulerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Endpoints used by the kitchen displays.
+ */
+@RestController
+@RequestMapping("/api/kitchen")
+public class KitchenFeedController {
+
+    private final KitchenFeedService kitchenFeedService;
+    private final KitchenSchedulerService kitchenSchedulerService;
+
+    public KitchenFeedController(KitchenFeedService kitchenFeedService, KitchenSchedulerService kitchenSchedulerService) {
+        this.kitchenFeedService = kitchenFeedService;
+        this.kitchenSchedulerService = kitchenSchedulerService;
+    }
+
+    /**
+     * Opens the Server-Sent Events feed of a kitchen screen.
+     *
+     * @param stationCategoryId Only receive item events for this product category (all stations if omitted)
+     * @return The event stream
+     */
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter feed(@RequestParam(required = false) Long stationCategoryId) {
+        return kitchenFeedService.subscribe(stationCategoryId);
+    }
+
+    /**
+     * Marks an order item as prepared.
+     *
+     * @param itemId The id of the order item
+     * @return 204 if the item was prepared, 409 if it already was, 404 if there is no such item
+     */
+    @PostMapping("/items/{itemId}/prepared")
+    public ResponseEntity<Void> markItemPrepared(@PathVariable Long itemId) {
+        if(!kitchenFeedService.markItemPrepared(itemId)) return ResponseEntity.status(409).build();
+
+        // the preparation is committed, the ticket can leave the station queue
+        kitchenSchedulerService.complete(itemId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Reports unknown order items as 404.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> notFound(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+}
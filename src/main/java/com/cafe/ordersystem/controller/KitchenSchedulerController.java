@@ -0,0 +1,64 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.service.KitchenSchedulerService;
+import com.cafe.ordersystem.service.KitchenTicket;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+/**
+ * Endpoints for kitchen sequencing and order ETAs.
+ */
+@RestController
+@RequestMapping("/api/kitchen")
+public class KitchenSchedulerController {
+
+    private final KitchenSchedulerService kitchenSchedulerService;
+
+    public KitchenSchedulerController(KitchenSchedulerService kitchenSchedulerService) {
+        this.kitchenSchedulerService = kitchenSchedulerService;
+    }
+
+    /**
+     * Claims the next item to prepare at a station.
+     *
+     * @param stationId The station (category id)
+     * @return The ticket, or 204 if the station has nothing queued
+     */
+    @PostMapping("/stations/{stationId}/next")
+    public ResponseEntity<KitchenTicket> next(@PathVariable Long stationId) {
+        KitchenTicket ticket = kitchenSchedulerService.next(stationId);
+
+        return ticket != null ? ResponseEntity.ok(ticket) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Sets the number of cooks working at a station.
+     */
+    @PutMapping("/stations/{stationId}/workers")
+    public ResponseEntity<Void> setWorkers(@PathVariable Long stationId, @RequestBody Integer workers) {
+        kitchenSchedulerService.setWorkers(stationId, workers);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Gets the estimated ready time of an order.
+     *
+     * @param orderId The order
+     * @return The estimate, or 404 if the order is not in the kitchen
+     */
+    @GetMapping("/orders/{orderId}/eta")
+    public ResponseEntity<LocalDateTime> eta(@PathVariable Long orderId) {
+        LocalDateTime readyAt = kitchenSchedulerService.estimateReadyAt(orderId);
+
+        return readyAt != null ? ResponseEntity.ok(readyAt) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.repository.CustomerListView;
+import com.cafe.ordersystem.repository.KeysetPage;
+import com.cafe.ordersystem.repository.OrderListView;
+import com.cafe.ordersystem.repository.ProductListView;
+import com.cafe.ordersystem.service.ListingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Listing endpoints for orders, customers and products, newest first.
+ * The next page is requested with the cursor returned as "next" by the previous one.
+ */
+@RestController
+@RequestMapping("/api")
+public class ListingController {
+
+    private final ListingService listingService;
+
+    public ListingController(ListingService listingService) {
+        this.listingService = listingService;
+    }
+
+    /**
+     * Lists orders, optionally in a given status.
+     */
+    @GetMapping("/orders")
+    public KeysetPage<OrderListView> orders(@RequestParam(required = false) OrderStatus status,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int size) {
+        return listingService.listOrders(status, cursor, size);
+    }
+
+    /**
+     * Lists customers.
+     */
+    @GetMapping("/customers")
+    public KeysetPage<CustomerListView> customers(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int size) {
+        return listingService.listCustomers(cursor, size);
+    }
+
+    /**
+     * Lists products, optionally of a given category.
+     */
+    @GetMapping("/products")
+    public KeysetPage<ProductListView> products(@RequestParam(required = false) Long categoryId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "50") int size) {
+        return listingService.listProducts(categoryId, cursor, size);
+    }
+
+    /**
+     * Rejects a malformed cursor or a page size of 0 or less.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
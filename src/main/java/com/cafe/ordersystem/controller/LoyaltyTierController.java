@@ -0,0 +1,53 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.model.customer.TierTable;
+import com.cafe.ordersystem.service.LoyaltyTierService;
+import com.cafe.ordersystem.service.TierRetierResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * The loyalty tier table: thresholds, point multipliers and perks.
+ */
+@RestController
+@RequestMapping("/api/loyalty/tiers")
+public class LoyaltyTierController {
+
+    private final LoyaltyTierService loyaltyTierService;
+
+    public LoyaltyTierController(LoyaltyTierService loyaltyTierService) {
+        this.loyaltyTierService = loyaltyTierService;
+    }
+
+    /**
+     * Gets the tiers in force, lowest first.
+     */
+    @GetMapping
+    public List<TierTable.Level> tiers() {
+        return loyaltyTierService.getTiers().levels();
+    }
+
+    /**
+     * Replaces the tiers (one level per tier). Members are re-tiered if the thresholds moved.
+     *
+     * @return The outcome of the re-tiering, empty if none was needed
+     */
+    @PutMapping
+    public TierRetierResult update(@RequestBody List<TierTable.Level> levels) {
+        return loyaltyTierService.update(levels);
+    }
+
+    /**
+     * Re-tiers all the members with the tiers in force.
+     */
+    @PostMapping("/retier")
+    public TierRetierResult retier() {
+        return loyaltyTierService.retierAll();
+    }
+}
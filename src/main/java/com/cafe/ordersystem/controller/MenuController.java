@@ -0,0 +1,82 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.service.MenuAvailabilityService;
+import com.cafe.ordersystem.service.MenuCategory;
+import com.cafe.ordersystem.service.MenuService;
+import com.cafe.ordersystem.service.MenuSnapshot;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Endpoints serving the menu to the terminals.
+ * Responses carry the hash of the menu content as ETag, so unchanged menus are answered
+ * with 304, also after a restart or by another instance.
+ */
+@RestController
+@RequestMapping("/api/menu")
+public class MenuController {
+
+    private final MenuService menuService;
+    private final MenuAvailabilityService menuAvailabilityService;
+
+    public MenuController(MenuService menuService, MenuAvailabilityService menuAvailabilityService) {
+        this.menuService = menuService;
+        this.menuAvailabilityService = menuAvailabilityService;
+    }
+
+    /**
+     * Gets the whole menu.
+     */
+    @GetMapping
+    public ResponseEntity<MenuSnapshot> menu(WebRequest request) {
+        MenuSnapshot menu = menuService.getMenu();
+        String etag = etag(menu);
+
+        if(request.checkNotModified(etag)) return null;
+
+        return ResponseEntity.ok().eTag(etag).body(menu);
+    }
+
+    /**
+     * Gets a category of the menu, with its products and sub-categories.
+     *
+     * @return The category, 404 if it is not on the menu
+     */
+    @GetMapping("/categories/{categoryId}")
+    public ResponseEntity<MenuCategory> category(@PathVariable Long categoryId, WebRequest request) {
+        MenuSnapshot menu = menuService.getMenu();
+        String etag = etag(menu);
+
+        if(request.checkNotModified(etag)) return null;
+
+        MenuCategory category = menu.category(categoryId);
+        if(category == null) return ResponseEntity.notFound().build();
+
+        return ResponseEntity.ok().eTag(etag).body(category);
+    }
+
+    /**
+     * Lists the categories whose products can be ordered at a given time.
+     *
+     * @param at The time (now if omitted)
+     * @return The ids of the available categories
+     */
+    @GetMapping("/available-categories")
+    public List<Long> availableCategories(@RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return menuAvailabilityService.findAvailableCategoryIds(at != null ? at : LocalDateTime.now());
+    }
+
+    private static String etag(MenuSnapshot menu) {
+        return "\"menu-" + menu.getContentHash() + "\"";
+    }
+}
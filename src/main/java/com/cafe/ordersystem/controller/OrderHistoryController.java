@@ -0,0 +1,71 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.OrderSummary;
+import com.cafe.ordersystem.repository.KeysetPage;
+import com.cafe.ordersystem.service.OrderHistoryService;
+import com.cafe.ordersystem.service.OrderStatusTotals;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read endpoints for the order history and dashboard screens, served from the order summaries.
+ * Lists are paginated with the cursor returned as "next" by the previous page.
+ */
+@RestController
+@RequestMapping("/api")
+public class OrderHistoryController {
+
+    private final OrderHistoryService orderHistoryService;
+
+    public OrderHistoryController(OrderHistoryService orderHistoryService) {
+        this.orderHistoryService = orderHistoryService;
+    }
+
+    /**
+     * Lists orders, newest first, optionally in a given status.
+     */
+    @GetMapping("/orders/history")
+    public KeysetPage<OrderSummary> orders(@RequestParam(required = false) OrderStatus status,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "50") int size) {
+        return orderHistoryService.list(status, cursor, size);
+    }
+
+    /**
+     * Lists the orders of a customer, newest first.
+     */
+    @GetMapping("/customers/{customerId}/orders")
+    public KeysetPage<OrderSummary> customerOrders(@PathVariable Long customerId,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int size) {
+        return orderHistoryService.listForCustomer(customerId, cursor, size);
+    }
+
+    /**
+     * Gets the number and total amount of the orders of a day per status, today by default.
+     */
+    @GetMapping("/orders/dashboard")
+    public List<OrderStatusTotals> dashboard(@RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return orderHistoryService.dailyTotals(date != null ? date : LocalDate.now());
+    }
+
+    /**
+     * An invalid cursor or page size is a bad request.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
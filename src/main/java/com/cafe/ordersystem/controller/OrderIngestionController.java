@@ -0,0 +1,37 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.service.OfflineOrder;
+import com.cafe.ordersystem.service.OrderIngestionResult;
+import com.cafe.ordersystem.service.OrderIngestionService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Endpoint used by the terminals to upload the orders taken while offline.
+ */
+@RestController
+@RequestMapping("/api/orders")
+public class OrderIngestionController {
+
+    private final OrderIngestionService orderIngestionService;
+
+    public OrderIngestionController(OrderIngestionService orderIngestionService) {
+        this.orderIngestionService = orderIngestionService;
+    }
+
+    /**
+     * Uploads a batch of offline orders. Uploading the same orders again is harmless,
+     * they are reported as duplicates.
+     *
+     * @param orders The orders
+     * @return The outcome of each order, in the same order
+     */
+    @PostMapping("/batch")
+    public List<OrderIngestionResult> ingest(@RequestBody List<OfflineOrder> orders) {
+        return orderIngestionService.ingest(orders);
+    }
+}
@@ -0,0 +1,47 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.model.order.Promotion;
+import com.cafe.ordersystem.repository.PromotionRepository;
+import com.cafe.ordersystem.service.AppliedPromotion;
+import com.cafe.ordersystem.service.PromotionService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * The promotions, and their application to new orders.
+ */
+@RestController
+@RequestMapping("/api")
+public class PromotionController {
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionService promotionService;
+
+    public PromotionController(PromotionRepository promotionRepository, PromotionService promotionService) {
+        this.promotionRepository = promotionRepository;
+        this.promotionService = promotionService;
+    }
+
+    /**
+     * Gets all the promotions, active or not.
+     */
+    @GetMapping("/promotions")
+    public List<Promotion> promotions() {
+        return promotionRepository.findAll();
+    }
+
+    /**
+     * Applies the promotions to a new order.
+     *
+     * @return The promotions applied, by index in the order's items
+     */
+    @PostMapping("/orders/{orderId}/promotions")
+    public List<AppliedPromotion> apply(@PathVariable Long orderId) {
+        return promotionService.applyPromotions(orderId);
+    }
+}
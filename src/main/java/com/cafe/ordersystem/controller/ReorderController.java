@@ -0,0 +1,65 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.repository.KeysetPage;
+import com.cafe.ordersystem.service.ReorderAlertService;
+import com.cafe.ordersystem.service.ReorderItem;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Endpoints listing what to reorder now.
+ * The next page is requested with the cursor returned as "next" by the previous one.
+ */
+@RestController
+@RequestMapping("/api/inventory/reorder")
+public class ReorderController {
+
+    private final ReorderAlertService reorderAlertService;
+
+    public ReorderController(ReorderAlertService reorderAlertService) {
+        this.reorderAlertService = reorderAlertService;
+    }
+
+    /**
+     * Lists the products at or below their reorder threshold, most depleted first.
+     */
+    @GetMapping("/products")
+    public KeysetPage<ReorderItem> products(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int size) {
+        return reorderAlertService.findToReorder(ReorderItem.Kind.PRODUCT, cursor, size);
+    }
+
+    /**
+     * Lists the ingredients at or below their reorder threshold, most depleted first.
+     */
+    @GetMapping("/ingredients")
+    public KeysetPage<ReorderItem> ingredients(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int size) {
+        return reorderAlertService.findToReorder(ReorderItem.Kind.INGREDIENT, cursor, size);
+    }
+
+    /**
+     * Opens the Server-Sent Events feed of reorder-needed and back-in-stock alerts.
+     *
+     * @return The event stream
+     */
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter feed() {
+        return reorderAlertService.subscribe();
+    }
+
+    /**
+     * Reports invalid cursors and page sizes as 400.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
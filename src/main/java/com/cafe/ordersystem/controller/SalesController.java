@@ -0,0 +1,65 @@
+package com.cafe.ordersystem.controller;
+
+import com.cafe.ordersystem.service.SalesAggregationService;
+import com.cafe.ordersystem.service.SalesFigures;
+import com.cafe.ordersystem.service.SalesKey;
+import com.cafe.ordersystem.service.SalesRollups;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live sales figures for the managers' dashboards, answered from the in-memory rollups.
+ * Time ranges default to today so far.
+ */
+@RestController
+@RequestMapping("/api/sales")
+public class SalesController {
+
+    private final SalesAggregationService salesAggregationService;
+
+    public SalesController(SalesAggregationService salesAggregationService) {
+        this.salesAggregationService = salesAggregationService;
+    }
+
+    /**
+     * Gets the figures of a time range, per value of a dimension
+     * (TOTAL, PAYMENT_METHOD, SERVICE or CATEGORY).
+     */
+    @GetMapping("/totals")
+    public Map<String, SalesFigures> totals(
+            @RequestParam(defaultValue = "TOTAL") SalesKey.Dimension dimension,
+            @RequestParam(defaultValue = "MINUTE") SalesRollups.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return salesAggregationService.breakdown(granularity, dimension, fromOrToday(from), toOrNow(to));
+    }
+
+    /**
+     * Gets the figures of a time range bucket by bucket, for one dimension value.
+     */
+    @GetMapping("/series")
+    public List<SalesRollups.Bucket> series(
+            @RequestParam(defaultValue = "TOTAL") SalesKey.Dimension dimension,
+            @RequestParam(defaultValue = "all") String value,
+            @RequestParam(defaultValue = "HOUR") SalesRollups.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return salesAggregationService.series(granularity, new SalesKey(dimension, value), fromOrToday(from), toOrNow(to));
+    }
+
+    private static LocalDateTime fromOrToday(LocalDateTime from) {
+        return from != null ? from : LocalDate.now().atStartOfDay();
+    }
+
+    private static LocalDateTime toOrNow(LocalDateTime to) {
+        return to != null ? to : LocalDateTime.now().plusSeconds(1);
+    }
+}
@@ -32,7 +32,8 @@ import java.util.List;
 public class Customer extends AuditableEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_ids")
+    @SequenceGenerator(name = "customer_ids", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -174,9 +175,12 @@ public class Customer extends AuditableEntity {
 
     /**
      * Get the count of orders placed by this customer.
+     * This loads the whole order history, OrderHistoryService.countOrders reads it from the order summaries.
      *
      * @return The number of orders
+     * @deprecated Use OrderHistoryService.countOrders(customerId)
      */
+    @Deprecated
     @Transient
     public int getOrderCount() {
         return orders.size();
@@ -13,6 +13,11 @@ import java.time.LocalDateTime;
 /**
  * Entity representing a customer's loyalty program membership.
  * Tracks points, tier level, and related loyalty program information.
+ *
+ * The points balance, its dates and the tier belong to the points ledger: they are changed by
+ * atomic SQL updates of LoyaltyLedgerService only, never written back from a loaded entity.
+ * The tier follows from the balance; the tier column is a copy, rewritten by the ledger when
+ * a change of balance crosses a threshold.
  */
 
 @Entity
@@ -25,24 +30,32 @@ public class LoyaltyProgram extends AuditableEntity {
 
     /**
      * Enum representing the different tiers in the loyalty program.
-     * Each tier has different benefits and point thresholds.
+     * Their thresholds, multipliers and perks are configurable, see {@link TierTables}.
      */
     public enum Tier {
-        BRONZE(0), SILVER(100), GOLD(300), PLATINUM(500);
+        BRONZE, SILVER, GOLD, PLATINUM;
 
-        private final int pointsRequired;
-
-        Tier(int pointsRequired) {
-            this.pointsRequired = pointsRequired;
+        /**
+         * Gets the points required for this tier in the tier table in force.
+         */
+        public int getPointsRequired() {
+            return TierTables.current().level(this).pointsRequired();
         }
 
-        public int getPointsRequired() {
-            return pointsRequired;
+        /**
+         * Gets the tier of a points balance in the tier table in force.
+         *
+         * @param points The balance
+         * @return The highest tier whose threshold is reached
+         */
+        public static Tier forPoints(int points) {
+            return TierTables.current().tierFor(points);
         }
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loyalty_program_ids")
+    @SequenceGenerator(name = "loyalty_program_ids", sequenceName = "loyalty_programs_seq", allocationSize = 50)
     private Long id;
 
     // One-to-one relationship with Customer
@@ -51,12 +64,15 @@ public class LoyaltyProgram extends AuditableEntity {
     @JoinColumn(name = "customer_id", nullable = false, unique = true)
     private Customer customer;
 
-    @Column(nullable = false)
+    /**
+     * Running balance of the points ledger.
+     */
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer points = 0;
 
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false, length = 20)
+    @Column(nullable = false, updatable = false, length = 20)
     @Builder.Default
     private Tier tier = Tier.BRONZE;
 
@@ -64,13 +80,13 @@ public class LoyaltyProgram extends AuditableEntity {
     @Builder.Default
     private LocalDateTime enrollmentDate = LocalDateTime.now();
 
-    @Column(name = "last_points_earned_date")
+    @Column(name = "last_points_earned_date", updatable = false)
     private LocalDateTime lastPointsEarnedDate;
 
-    @Column(name = "last_points_redeemed_date")
+    @Column(name = "last_points_redeemed_date", updatable = false)
     private LocalDateTime lastPointsRedeemedDate;
 
-    @Column(name = "points_expiration_date")
+    @Column(name = "points_expiration_date", updatable = false)
     private LocalDateTime pointsExpirationDate;
 
     @Column(nullable = false)
@@ -85,68 +101,15 @@ public class LoyaltyProgram extends AuditableEntity {
     private boolean eligibleForSpecialOffers = true;
 
     /**
-     * Adds points to the loyalty program and updates the tier if necessary.
-     *
-     * @param pointsToAdd The number of points to add
-     * @return The updated total points
+     * Gets the tier of the current points balance.
      */
-    public int addPoints(int pointsToAdd) {
-        if(pointsToAdd <= 0) throw new IllegalArgumentException("Points to add cannot be negative");
-
-        this.points += pointsToAdd;
-        this.lastPointsEarnedDate = LocalDateTime.now();
-
-        // calculate point expiration, ex 1 year from now
-        this.pointsExpirationDate = LocalDateTime.now().plusYears(1);
-
-        // update tier
-        updateTier();
-
-        return this.points;
-    }
-
-    /**
-     * Redeems points from the loyalty program.
-     *
-     * @param pointsToRedeem The number of points to redeem
-     * @return The remaining points after redemption
-     * @throws IllegalArgumentException if trying to redeem more points than available
-     */
-    public int redeemPoints(int pointsToRedeem) {
-        if(pointsToRedeem <= 0) throw new IllegalArgumentException("Points to redeem cannot be negative");
-
-        if(pointsToRedeem > this.points) throw new IllegalArgumentException("Cannot redeem more points than available");
-
-        this.points -= pointsToRedeem;
-        this.lastPointsRedeemedDate = LocalDateTime.now();
-
-        updateTier();
-
-        return  this.points;
+    public Tier getTier() {
+        return Tier.forPoints(points != null ? points : 0);
     }
 
-    /**
-     * Updates the tier based on the current points balance.
-     * This is called automatically when points are added or redeemed.
-     */
-    private void updateTier() {
-        Tier newTier = Tier.BRONZE;
-
-        // determine the appropriate tier based on points
-        // base case in which looping is not necessary since above 500 points there's only PLATINUM tier
-        if(this.points >= 500) {
-            newTier = Tier.PLATINUM;
-        }
-
-        for(Tier tier : Tier.values()) {
-            if(this.points >= tier.getPointsRequired()) {
-                newTier = tier; // jumps to the next tier until it finds that this tier has more points than required
-            } else {
-                break;
-            }
-        }
-
-        this.tier = newTier;
+    @PrePersist
+    private void initTier() {
+        this.tier = getTier();
     }
 
     /**
@@ -156,18 +119,7 @@ public class LoyaltyProgram extends AuditableEntity {
      */
     @Transient
     public int getPointsToNextTier() {
-
-        // If already at highest tier
-        if(this.tier == Tier.PLATINUM) {
-            return 0;
-        }
-
-        // Get the next tier
-        Tier[] tiers = Tier.values();
-        Tier nextTier = tiers[this.tier.ordinal() + 1];
-
-        // Calculate points needed
-        return Math.max(0, nextTier.getPointsRequired() - this.points);
+        return TierTables.current().pointsToNextTier(points != null ? points : 0);
     }
 
     /**
@@ -177,14 +129,21 @@ public class LoyaltyProgram extends AuditableEntity {
      */
     @Transient
     public boolean isPointsExpiringSoon() {
+        return isPointsExpiringSoon(LocalDateTime.now());
+    }
+
+    /**
+     * Checks if points are about to expire (within 30 days) at a given time.
+     *
+     * @param now The time to check at
+     * @return true if points are going to expire soon, false otherwise
+     */
+    public boolean isPointsExpiringSoon(LocalDateTime now) {
         if(pointsExpirationDate == null) {
             return false;
         }
 
-        LocalDateTime thirtyDaysFromNow = LocalDateTime.now().plusDays(30);
-
-        return pointsExpirationDate.isBefore(thirtyDaysFromNow)
-                && pointsExpirationDate.isAfter(LocalDateTime.now());
+        return pointsExpirationDate.isBefore(now.plusDays(30)) && pointsExpirationDate.isAfter(now);
     }
 
     /**
@@ -0,0 +1,160 @@
+package com.cafe.ordersystem.model.customer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The loyalty tiers in force: the points required for each tier, the multiplier applied
+ * to the points earned in it and its perks.
+ *
+ * The thresholds are kept in a sorted int array, the tier of a balance is found by binary
+ * search over it, nothing is allocated per lookup. Tables are immutable, a new table is
+ * installed in {@link TierTables} when the configuration changes.
+ */
+public final class TierTable {
+
+    /**
+     * The definition of a tier.
+     *
+     * @param tier The tier
+     * @param pointsRequired The balance from which a member is in the tier
+     * @param pointsMultiplier Applied to the points earned by the members of the tier
+     * @param perks What the members of the tier get, for display
+     */
+    public record Level(LoyaltyProgram.Tier tier, int pointsRequired, BigDecimal pointsMultiplier, List<String> perks) {
+
+        public Level {
+            if(tier == null) throw new IllegalArgumentException("Tier is required");
+            if(pointsRequired < 0) throw new IllegalArgumentException("Points required cannot be negative");
+            if(pointsMultiplier == null || pointsMultiplier.signum() <= 0) {
+                throw new IllegalArgumentException("Points multiplier must be positive");
+            }
+            // 1.50 and 1.5 are the same multiplier
+            pointsMultiplier = pointsMultiplier.stripTrailingZeros();
+            perks = perks != null ? List.copyOf(perks) : List.of();
+        }
+    }
+
+    /**
+     * The thresholds the tiers were introduced with.
+     */
+    public static final TierTable DEFAULT = new TierTable(List.of(
+            new Level(LoyaltyProgram.Tier.BRONZE, 0, BigDecimal.ONE, List.of()),
+            new Level(LoyaltyProgram.Tier.SILVER, 100, BigDecimal.ONE, List.of()),
+            new Level(LoyaltyProgram.Tier.GOLD, 300, BigDecimal.ONE, List.of()),
+            new Level(LoyaltyProgram.Tier.PLATINUM, 500, BigDecimal.ONE, List.of())));
+
+    private final Level[] levels;
+    private final int[] thresholds;
+
+    /**
+     * Position of each tier (by ordinal) in the levels.
+     */
+    private final int[] positions;
+
+    /**
+     * @param levels One level per tier, in any order
+     * @throws IllegalArgumentException if a tier is missing or repeated, the lowest tier does not start at 0,
+     *                                  or the thresholds do not rise in the order of the tiers
+     */
+    public TierTable(List<Level> levels) {
+        LoyaltyProgram.Tier[] tiers = LoyaltyProgram.Tier.values();
+        if(levels.size() != tiers.length) throw new IllegalArgumentException("Every tier needs exactly one level");
+
+        this.levels = levels.toArray(new Level[0]);
+        Arrays.sort(this.levels, Comparator.comparingInt(Level::pointsRequired));
+
+        this.thresholds = new int[this.levels.length];
+        this.positions = new int[tiers.length];
+        Arrays.fill(positions, -1);
+        for(int i = 0; i < this.levels.length; i++) {
+            Level level = this.levels[i];
+            if(positions[level.tier().ordinal()] >= 0) throw new IllegalArgumentException("Tier " + level.tier() + " is repeated");
+            if(i > 0 && level.pointsRequired() == thresholds[i - 1]) {
+                throw new IllegalArgumentException("Tiers " + this.levels[i - 1].tier() + " and " + level.tier()
+                        + " have the same threshold");
+            }
+            if(level.tier().ordinal() != i) {
+                throw new IllegalArgumentException("Tier " + level.tier() + " must require more points than "
+                        + (i > 0 ? this.levels[i - 1].tier() : "the tiers below it") + " and fewer than the tiers above it");
+            }
+
+            thresholds[i] = level.pointsRequired();
+            positions[level.tier().ordinal()] = i;
+        }
+
+        if(thresholds[0] != 0) throw new IllegalArgumentException("The lowest tier must start at 0 points");
+    }
+
+    /**
+     * Gets the tier of a points balance.
+     *
+     * @param points The balance
+     * @return The highest tier whose threshold is reached
+     */
+    public LoyaltyProgram.Tier tierFor(int points) {
+        return levels[position(points)].tier();
+    }
+
+    /**
+     * Gets the points missing to reach the next tier.
+     *
+     * @param points The balance
+     * @return The points needed, 0 in the highest tier
+     */
+    public int pointsToNextTier(int points) {
+        int next = position(points) + 1;
+        return next < thresholds.length ? thresholds[next] - points : 0;
+    }
+
+    /**
+     * Calculates the points earned by spending an amount: 1 point per whole currency unit,
+     * times the multiplier of the tier, rounded down.
+     *
+     * @param tier The member's tier
+     * @param amount The amount spent
+     * @return The points earned
+     */
+    public int pointsEarned(LoyaltyProgram.Tier tier, BigDecimal amount) {
+        return BigDecimal.valueOf(amount.intValue()).multiply(level(tier).pointsMultiplier())
+                .setScale(0, RoundingMode.DOWN).intValue();
+    }
+
+    /**
+     * Gets the definition of a tier.
+     */
+    public Level level(LoyaltyProgram.Tier tier) {
+        return levels[positions[tier.ordinal()]];
+    }
+
+    /**
+     * Gets the levels, lowest first.
+     */
+    public List<Level> levels() {
+        return List.of(levels);
+    }
+
+    /**
+     * Checks whether the tiers of the balances differ between this table and another,
+     * i.e. whether members need re-tiering.
+     */
+    public boolean sameThresholds(TierTable other) {
+        for(int i = 0; i < levels.length; i++) {
+            if(levels[i].tier() != other.levels[i].tier() || thresholds[i] != other.thresholds[i]) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the position of the highest threshold at or below a balance.
+     */
+    private int position(int points) {
+        int found = Arrays.binarySearch(thresholds, points);
+        // not found: -(insertion point) - 1, the threshold below is just before the insertion point
+        return found >= 0 ? found : Math.max(0, -found - 2);
+    }
+}
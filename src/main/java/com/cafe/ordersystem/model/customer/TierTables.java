@@ -0,0 +1,35 @@
+package com.cafe.ordersystem.model.customer;
+
+/**
+ * Holds the loyalty tier table used by LoyaltyProgram and Order.
+ *
+ * Entities are not Spring-managed, so the application installs the configured table here
+ * at startup and each time it changes. Until then the default thresholds apply.
+ */
+public final class TierTables {
+
+    private static volatile TierTable current = TierTable.DEFAULT;
+
+    private TierTables() {
+    }
+
+    /**
+     * Gets the tier table currently in use.
+     *
+     * @return The installed table
+     */
+    public static TierTable current() {
+        return current;
+    }
+
+    /**
+     * Installs the tier table to apply from now on.
+     *
+     * @param table The table to install
+     */
+    public static void install(TierTable table) {
+        if(table == null) throw new IllegalArgumentException("Tier table cannot be null");
+
+        current = table;
+    }
+}
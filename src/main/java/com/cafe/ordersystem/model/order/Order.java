@@ -3,42 +3,94 @@ package com.cafe.ordersystem.model.order;
 import com.cafe.ordersystem.model.common.AuditableEntity;
 import com.cafe.ordersystem.model.customer.Customer;
 import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import com.cafe.ordersystem.model.customer.TierTables;
+import com.cafe.ordersystem.model.product.MenuAvailabilities;
 import com.cafe.ordersystem.model.product.Product;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Entity representing a customer order in the café system.
  * An order contains multiple order items, tracks status, payment information,
  * and provides business methods for order operations.
+ *
+ * All associations are lazy. The common read shapes are named entity graphs,
+ * each loaded with a single SELECT:
+ * - {@value #SUMMARY_GRAPH}: the order and its customer
+ * - {@value #RECEIPT_GRAPH}: the order, its customer and its items with their products
+ * - {@value #KITCHEN_TICKET_GRAPH}: the order and its items with their products and categories
+ * - {@value #PRICING_GRAPH}: the order, its customer and its items with their products and categories
  */
 
 @Entity
 @Data
 @Builder
 @Table(name = "orders")
+@NamedEntityGraph(name = Order.SUMMARY_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "customer", subgraph = "customer")
+}, subgraphs = {
+        @NamedSubgraph(name = "customer", attributeNodes = @NamedAttributeNode("loyaltyProgram"))
+})
+@NamedEntityGraph(name = Order.RECEIPT_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "customer", subgraph = "customer"),
+        @NamedAttributeNode(value = "items", subgraph = "items")
+}, subgraphs = {
+        @NamedSubgraph(name = "customer", attributeNodes = @NamedAttributeNode("loyaltyProgram")),
+        @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product"))
+})
+@NamedEntityGraph(name = Order.KITCHEN_TICKET_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "items", subgraph = "items")
+}, subgraphs = {
+        @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+        @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("category"))
+})
+@NamedEntityGraph(name = Order.PRICING_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "customer", subgraph = "customer"),
+        @NamedAttributeNode(value = "items", subgraph = "items")
+}, subgraphs = {
+        @NamedSubgraph(name = "customer", attributeNodes = @NamedAttributeNode("loyaltyProgram")),
+        @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+        @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("category"))
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order extends AuditableEntity {
 
+    public static final String SUMMARY_GRAPH = "Order.summary";
+    public static final String RECEIPT_GRAPH = "Order.receipt";
+    public static final String KITCHEN_TICKET_GRAPH = "Order.kitchenTicket";
+    public static final String PRICING_GRAPH = "Order.pricing";
+
+    /**
+     * Allocated in blocks of 50 from orders_seq, so order inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_ids")
+    @SequenceGenerator(name = "order_ids", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     /**
      * Unique order number for customer reference.
-     * Format: Year + Month + Day + Random alphanumeric sequence
+     * Format depends on the installed {@link OrderNumberGenerator},
+     * by default YYYYMMDD-NN-XXXXXXXX (day, node id, day sequence).
      */
     @Column(name = "order_number", nullable = false, unique = true, length = 20)
     private String orderNumber;
 
+    /**
+     * Number given to the order by the terminal that took it (e.g. while offline).
+     * Unique, so uploading the same order twice is detected.
+     */
+    @Column(name = "client_order_number", unique = true, length = 64)
+    private String clientOrderNumber;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
@@ -111,39 +163,50 @@ public class Order extends AuditableEntity {
     private Integer loyaltyPointsUsed = 0;
 
     /**
-     * Initializes a new order by generating a unique order number.
+     * Running totals in cents, updated incrementally on every item or discount change
+     * (item-level discounts notify the order, see {@link #refreshItem}).
+     * Built lazily from the items the first time they are needed.
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private OrderTotals totals;
+
+    /**
+     * Initializes a new order by generating a unique order number
+     * with the installed {@link OrderNumberGenerator}.
      */
     @PrePersist
     public void prePersist() {
         if(orderNumber == null) {
-            this.orderNumber = generateOrderNumber();
+            this.orderNumber = OrderNumberGenerators.current().nextOrderNumber();
+        }
+
+        // items given up front (e.g. through the builder) were never accounted
+        if(totals == null && !items.isEmpty()) {
+            recalculateAmounts();
         }
     }
 
     /**
-     * Generates a unique order number based on date and a random UUID segment.
-     * Format: YYYYMMDD-XXXX (XXXX is from UUID)
+     * Replaces the items of the order and recalculates the amounts from them.
      *
-     * @return A unique order number
+     * @param items The new items
      */
-    private String generateOrderNumber() {
-        LocalDateTime now = LocalDateTime.now();
-
-        String datePart = String.format("%d%02d%02d", now.getYear(), now.getMonthValue(), now.getDayOfMonth());
-
-        // take first 4 chars of a UUID
-        String randomPart = UUID.randomUUID().toString().replace("-", "").substring(0,4).toUpperCase();
-
-        return datePart + "-" + randomPart;
+    public void setItems(List<OrderItem> items) {
+        this.items = items;
+        recalculateAmounts();
     }
 
     /**
      * Adds an item to the order.
+     * The product must be orderable at the order date, see {@link MenuAvailabilities}.
      *
      * @param product The product to add
      * @param quantity The quantity to add
      * @param specialInstructions Special instructions for this item
      * @return The created OrderItem
+     * @throws IllegalArgumentException if the product is not available at the order date
      */
     public OrderItem addItem(Product product, int quantity, String specialInstructions) {
 
@@ -151,6 +214,11 @@ public class Order extends AuditableEntity {
 
         if(quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
 
+        LocalDateTime at = orderDate != null ? orderDate : LocalDateTime.now();
+        if(!MenuAvailabilities.current().isOrderable(product, at)) {
+            throw new IllegalArgumentException("Product " + product.getName() + " is not available at this time");
+        }
+
         OrderItem item = OrderItem.builder()
                 .order(this)
                 .product(product)
@@ -159,8 +227,10 @@ public class Order extends AuditableEntity {
                 .specialInstructions(specialInstructions)
                 .build();
 
+        OrderTotals running = runningTotals();
         this.items.add(item);
-        recalculateAmounts();
+        running.addLine(item);
+        applyTotals();
 
         return item;
     }
@@ -172,10 +242,12 @@ public class Order extends AuditableEntity {
      * @return true if the item was removed, false otherwise
      */
     public boolean removeItem(OrderItem item) {
+        OrderTotals running = runningTotals();
         boolean removed = this.items.remove(item);
 
         if(removed) {
-            recalculateAmounts();
+            running.removeLine(item);
+            applyTotals();
         }
 
         return removed;
@@ -194,30 +266,80 @@ public class Order extends AuditableEntity {
 
         if(!this.items.contains(item)) return false;
 
+        OrderTotals running = runningTotals();
         item.setQuantity(newQuantity);
-        recalculateAmounts();
+        running.updateLine(item);
+        applyTotals();
 
         return true;
     }
 
     /**
-     * Recalculates subtotal, tax, and total amounts based on the current items.
+     * Recalculates subtotal, tax, and total amounts with a full pass over the current items.
+     * Mutations go through the running totals instead, this is only needed when items
+     * were changed behind the order's back (e.g. through their setters).
      */
     public void recalculateAmounts() {
+        this.totals = OrderTotals.recompute(items, discountAmount);
+        applyTotals();
+    }
 
-        // calculate subtotal from items
-        BigDecimal newSubtotal = items.stream()
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Re-accounts a single item after it was changed.
+     * Called by the item itself when a discount is applied or removed; only needed
+     * directly after changing an item through its setters.
+     *
+     * @param item The item that changed
+     * @return true if the item belongs to this order and was re-accounted
+     */
+    public boolean refreshItem(OrderItem item) {
+        if(!containsItem(item)) return false;
 
-        this.subtotal = newSubtotal;
+        runningTotals().updateLine(item);
+        applyTotals();
 
-        // calculate tax (assuming 10%)
-        BigDecimal taxRate = new BigDecimal("0.10");
-        this.taxAmount = this.subtotal.multiply(taxRate).setScale(2, BigDecimal.ROUND_HALF_UP);
+        return true;
+    }
+
+    private boolean containsItem(OrderItem item) {
+        for(OrderItem candidate : items) {
+            if(candidate == item) return true;
+        }
 
-        // calculate tax (subtot + tax - order-level discount)
-        this.totalAmount = this.subtotal.add(this.taxAmount).subtract(this.discountAmount);
+        return false;
+    }
+
+    /**
+     * Gets the running totals, building them from the items on first use
+     * (e.g. for an order that was just loaded from the database).
+     */
+    private OrderTotals runningTotals() {
+        if(this.totals == null) {
+            this.totals = OrderTotals.recompute(items, discountAmount);
+        }
+
+        return this.totals;
+    }
+
+    /**
+     * Writes the running totals back to the persistent amount fields.
+     * In verification mode the running totals are cross-checked against a full recompute first,
+     * which leaves the running totals and the items untouched.
+     */
+    private void applyTotals() {
+        OrderTotals running = runningTotals();
+
+        if(OrderTotals.isVerificationEnabled()) {
+            OrderTotals expected = OrderTotals.compute(items, OrderTotals.toAmount(running.getDiscountCents()));
+
+            if(!running.matches(expected)) {
+                throw new IllegalStateException("Running totals of order " + orderNumber + " diverged from a full recompute");
+            }
+        }
+
+        this.subtotal = OrderTotals.toAmount(running.getSubtotalCents());
+        this.taxAmount = OrderTotals.toAmount(running.getTaxCents());
+        this.totalAmount = OrderTotals.toAmount(running.getTotalCents());
     }
 
     /**
@@ -232,10 +354,11 @@ public class Order extends AuditableEntity {
 
         BigDecimal discountMultiplier = BigDecimal.valueOf(percentage/100.0);
 
-        this.discountAmount = this.subtotal.multiply(discountMultiplier).setScale(2, BigDecimal.ROUND_HALF_UP);
+        this.discountAmount = this.subtotal.multiply(discountMultiplier).setScale(2, RoundingMode.HALF_UP);
         this.discountReason = reason;
 
-        recalculateAmounts();
+        runningTotals().setDiscountCents(OrderTotals.toCents(this.discountAmount));
+        applyTotals();
         return this.discountAmount;
     }
 
@@ -252,7 +375,8 @@ public class Order extends AuditableEntity {
         this.discountAmount = amount;
         this.discountReason = reason;
 
-        recalculateAmounts();
+        runningTotals().setDiscountCents(OrderTotals.toCents(amount));
+        applyTotals();
         return this.discountAmount;
     }
 
@@ -263,11 +387,14 @@ public class Order extends AuditableEntity {
         this.discountAmount = BigDecimal.ZERO;
         this.discountReason = null;
 
-        recalculateAmounts();
+        runningTotals().setDiscountCents(0);
+        applyTotals();
     }
 
     /**
      * Processes payment for this order.
+     * Orders are paid through OrderStatusTransitionService.pay, which notifies the PAID
+     * listeners (stock, loyalty points, kitchen); this method alone notifies no one.
      *
      * @param method The payment method
      * @param reference Payment reference (e.g., transaction ID, receipt number)
@@ -285,8 +412,10 @@ public class Order extends AuditableEntity {
 
     /**
      * Calculates loyalty points for this order.
-     * Basic calculation: 1 point per whole currency unit spent (rounded down).
+     * Basic calculation: 1 point per whole currency unit spent, times the multiplier of the
+     * member's tier (rounded down).
      * Only applicable if customer has a loyalty program and payment method is eligible.
+     * The points are credited to the program by LoyaltyLedgerService.
      */
     private void calculateLoyaltyPoints() {
         if(customer == null || paymentMethod == null || !paymentMethod.isEligibleForLoyaltyPoints()) return;
@@ -294,10 +423,7 @@ public class Order extends AuditableEntity {
         LoyaltyProgram loyaltyProgram = customer.getLoyaltyProgram();
         if(loyaltyProgram == null) return;
 
-        this.loyaltyPointsEarned = totalAmount.intValue();
-
-        // award points
-        loyaltyProgram.addPoints(this.loyaltyPointsEarned);
+        this.loyaltyPointsEarned = TierTables.current().pointsEarned(loyaltyProgram.getTier(), totalAmount);
     }
 
     /**
@@ -307,28 +433,10 @@ public class Order extends AuditableEntity {
      * @return true if the status was updated, false if the update is not allowed
      */
     public boolean updateStatus(OrderStatus newStatus) {
+        if(!OrderStatusTransitions.isAllowed(this.status, newStatus)) return false;
 
-        if(!this.status.canProgress() && newStatus != OrderStatus.REFUNDED) {
-            return false;
-        }
-
-        if(newStatus == OrderStatus.CANCELLED && this.status.canCancel()) {
-            this.status = OrderStatus.CANCELLED;
-            return true;
-        }
-
-        if(newStatus == OrderStatus.REFUNDED && this.status.canRefund()) {
-            this.status = OrderStatus.REFUNDED;
-            return true;
-        }
-
-        // progress normally
-        if(this.status.getNextStatus() == newStatus) {
-            this.status = newStatus;
-            return true;
-        }
-
-        return false;
+        this.status = newStatus;
+        return true;
     }
 
     /**
@@ -5,10 +5,7 @@ import com.cafe.ordersystem.model.product.Product;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
 
 import java.math.BigDecimal;
 
@@ -26,15 +23,22 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class OrderItem extends AuditableEntity {
 
+    /**
+     * Allocated in blocks of 50 from order_items_seq, so item inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_ids")
+    @SequenceGenerator(name = "order_item_ids", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    /**
+     * Lazy: read paths that need the product use one of the entity graphs of {@link Order}.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -79,6 +83,17 @@ public class OrderItem extends AuditableEntity {
     @Column(name = "discount_reason", length = 50)
     private String discountReason;
 
+    /**
+     * Amount in cents this item currently contributes to the order's running subtotal.
+     * Maintained by {@link OrderTotals}, never persisted.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    long accountedCents;
+
     /**
      * Calculates the subtotal for this item (quantity * unit price - discount).
      *
@@ -92,7 +107,7 @@ public class OrderItem extends AuditableEntity {
     }
 
     /**
-     * Applies a percentage discount to this item.
+     * Applies a percentage discount to this item, reflected in the totals of its order.
      *
      * @param percentage The discount percentage (e.g., 10 for 10%)
      * @param reason The reason for the discount
@@ -106,12 +121,13 @@ public class OrderItem extends AuditableEntity {
 
         this.discountAmount = baseAmount.multiply(discountMultiplier).setScale(2, BigDecimal.ROUND_HALF_UP);
         this.discountReason = reason;
+        notifyOrder();
 
         return this.discountAmount;
     }
 
     /**
-     * Applies a fixed amount discount to this item.
+     * Applies a fixed amount discount to this item, reflected in the totals of its order.
      *
      * @param amount The fixed discount amount
      * @param reason The reason for the discount
@@ -124,16 +140,25 @@ public class OrderItem extends AuditableEntity {
 
         this.discountAmount = amount;
         this.discountReason = reason;
+        notifyOrder();
 
         return this.discountAmount;
     }
 
     /**
-     * Removes any discount applied to this item.
+     * Removes any discount applied to this item, reflected in the totals of its order.
      */
     public void removeDiscount() {
         this.discountAmount = BigDecimal.ZERO;
         this.discountReason = null;
+        notifyOrder();
+    }
+
+    /**
+     * Lets the order re-account this item, so its totals include the new discount.
+     */
+    private void notifyOrder() {
+        if(order != null) order.refreshItem(this);
     }
 
     /**
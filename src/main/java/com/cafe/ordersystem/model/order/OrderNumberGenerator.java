@@ -0,0 +1,19 @@
+package com.cafe.ordersystem.model.order;
+
+/**
+ * Strategy for generating customer-facing order numbers.
+ *
+ * Implementations must be thread-safe and return numbers that fit the
+ * order_number column (at most 20 characters). The generator used by
+ * {@link Order#prePersist()} is the one installed in {@link OrderNumberGenerators}.
+ */
+@FunctionalInterface
+public interface OrderNumberGenerator {
+
+    /**
+     * Generates the next order number.
+     *
+     * @return A new, unique order number
+     */
+    String nextOrderNumber();
+}
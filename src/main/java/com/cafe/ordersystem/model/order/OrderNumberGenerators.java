@@ -0,0 +1,40 @@
+package com.cafe.ordersystem.model.order;
+
+/**
+ * Holds the order number generator used by {@link Order} entities.
+ *
+ * Entities are not Spring-managed, so the application installs its generator here
+ * at startup. There is no default: a generator picked here could share its node with
+ * another instance, so numbering an order before one is installed fails.
+ */
+public final class OrderNumberGenerators {
+
+    private static volatile OrderNumberGenerator current;
+
+    private OrderNumberGenerators() {
+    }
+
+    /**
+     * Gets the generator currently in use.
+     *
+     * @return The installed generator
+     * @throws IllegalStateException if no generator was installed yet
+     */
+    public static OrderNumberGenerator current() {
+        OrderNumberGenerator generator = current;
+        if(generator == null) throw new IllegalStateException("No order number generator installed yet");
+
+        return generator;
+    }
+
+    /**
+     * Installs the generator to use for new orders.
+     *
+     * @param generator The generator to install
+     */
+    public static void install(OrderNumberGenerator generator) {
+        if(generator == null) throw new IllegalArgumentException("Generator cannot be null");
+
+        current = generator;
+    }
+}
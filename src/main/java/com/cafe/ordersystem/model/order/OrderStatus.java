@@ -77,17 +77,19 @@ public enum OrderStatus {
      * @return the next status, or null if there is no next status
      */
     public OrderStatus getNextStatus() {
-        switch (this) {
-            case CREATED:
-                return PAID;
-            case PAID:
-                return IN_PREPARATION;
-            case IN_PREPARATION:
-                return READY;
-            case READY:
-                return COMPLETED;
-            default:
-                return null;
-        }
+        return NEXT[ordinal()];
     }
+
+    /**
+     * Next status in the normal flow, indexed by ordinal (null for terminal statuses).
+     */
+    private static final OrderStatus[] NEXT = {
+            PAID,           // CREATED
+            IN_PREPARATION, // PAID
+            READY,          // IN_PREPARATION
+            COMPLETED,      // READY
+            null,           // COMPLETED
+            null,           // CANCELLED
+            null            // REFUNDED
+    };
 }
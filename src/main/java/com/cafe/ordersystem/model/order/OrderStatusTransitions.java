@@ -0,0 +1,79 @@
+package com.cafe.ordersystem.model.order;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Precomputed transition matrix for {@link OrderStatus}.
+ *
+ * The rules (normal progression, cancellation, refund) are evaluated once for every
+ * pair of statuses when the class is loaded. Each status maps to a bitmask of the
+ * statuses it can move to, so checking a transition is a single array lookup.
+ */
+public final class OrderStatusTransitions {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    /**
+     * allowed[from.ordinal()] has bit to.ordinal() set if from → to is allowed.
+     */
+    private static final int[] ALLOWED = new int[STATUSES.length];
+
+    private static final Map<OrderStatus, EnumSet<OrderStatus>> SOURCES = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for(OrderStatus to : STATUSES) {
+            SOURCES.put(to, EnumSet.noneOf(OrderStatus.class));
+        }
+
+        for(OrderStatus from : STATUSES) {
+            for(OrderStatus to : STATUSES) {
+                if(evaluate(from, to)) {
+                    ALLOWED[from.ordinal()] |= 1 << to.ordinal();
+                    SOURCES.get(to).add(from);
+                }
+            }
+        }
+    }
+
+    private OrderStatusTransitions() {
+    }
+
+    /**
+     * Checks if an order can move from one status to another.
+     *
+     * @param from The current status
+     * @param to The requested status
+     * @return true if the transition is allowed
+     */
+    public static boolean isAllowed(OrderStatus from, OrderStatus to) {
+        return from != null && to != null && (ALLOWED[from.ordinal()] & (1 << to.ordinal())) != 0;
+    }
+
+    /**
+     * Gets all statuses from which an order can move to the given status.
+     *
+     * @param to The target status
+     * @return A copy of the set of source statuses
+     */
+    public static EnumSet<OrderStatus> sourcesOf(OrderStatus to) {
+        return EnumSet.copyOf(SOURCES.get(to));
+    }
+
+    /**
+     * The transition rules, only evaluated while building the matrix:
+     * - terminal statuses can only be refunded
+     * - cancellation and refund are allowed where the status permits them
+     * - otherwise only the next status in the normal flow is allowed
+     */
+    private static boolean evaluate(OrderStatus from, OrderStatus to) {
+        if(!from.canProgress() && to != OrderStatus.REFUNDED) return false;
+
+        if(to == OrderStatus.CANCELLED) return from.canCancel();
+
+        if(to == OrderStatus.REFUNDED) return from.canRefund();
+
+        return from.getNextStatus() == to;
+    }
+}
@@ -0,0 +1,95 @@
+package com.cafe.ordersystem.model.order;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized, read-only view of an order for history and dashboard screens.
+ *
+ * Rows are written by the OrderSummaryProjector only, after the changes to the
+ * orders are committed, so they may briefly lag behind the Order aggregates.
+ */
+
+@Entity
+@Data
+@Builder
+@Table(name = "order_summary")
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+    /**
+     * The id of the summarized order.
+     */
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    /**
+     * Null until first persisted, so new summaries are inserted without a lookup.
+     */
+    @Version
+    private Long version;
+
+    @Column(name = "order_number", nullable = false, length = 20)
+    private String orderNumber;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    /**
+     * First and last name of the customer when the order was last projected.
+     */
+    @Column(name = "customer_name", length = 101)
+    private String customerName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", length = 20)
+    private PaymentMethod paymentMethod;
+
+    @Column(name = "is_takeaway", nullable = false)
+    private boolean takeaway;
+
+    @Column(name = "table_number")
+    private Integer tableNumber;
+
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(name = "tax_amount", precision = 10, scale = 2)
+    private BigDecimal taxAmount;
+
+    @Column(name = "discount_amount", precision = 10, scale = 2)
+    private BigDecimal discountAmount;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(name = "payment_date")
+    private LocalDateTime paymentDate;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * When this row was last written by the projector.
+     */
+    @Column(name = "projected_at", nullable = false)
+    private LocalDateTime projectedAt;
+}
@@ -0,0 +1,215 @@
+package com.cafe.ordersystem.model.order;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Running totals of an order, kept in fixed-point cents.
+ *
+ * Instead of re-streaming every item on each change, the order feeds line deltas
+ * into this class (add, remove, replace) so each mutation costs O(1).
+ * BigDecimal is only used at the boundary, when the totals are written back to the
+ * persistent fields of the order.
+ *
+ * When verification is enabled (system property "cafe.orders.totals.verify=true"),
+ * every incremental update is cross-checked against a full recompute.
+ */
+public final class OrderTotals {
+
+    /**
+     * Tax rate expressed in basis points (1000 = 10%).
+     */
+    public static final long TAX_RATE_BASIS_POINTS = 1_000L;
+
+    /**
+     * Tax rate as a decimal, for callers that still work with BigDecimal.
+     */
+    public static final BigDecimal TAX_RATE = BigDecimal.valueOf(TAX_RATE_BASIS_POINTS, 4);
+
+    private static final long BASIS_POINTS = 10_000L;
+
+    private static volatile boolean verificationEnabled = Boolean.getBoolean("cafe.orders.totals.verify");
+
+    private long subtotalCents;
+    private long discountCents;
+    private long taxCents;
+
+    OrderTotals(long subtotalCents, long discountCents) {
+        this.subtotalCents = subtotalCents;
+        this.discountCents = discountCents;
+        this.taxCents = computeTax(subtotalCents);
+    }
+
+    /**
+     * Builds the totals with a full pass over the items.
+     * Also records the contribution of each item so later deltas stay consistent.
+     *
+     * @param items The items of the order
+     * @param discountAmount The order-level discount
+     * @return The freshly computed totals
+     */
+    static OrderTotals recompute(List<OrderItem> items, BigDecimal discountAmount) {
+        long subtotal = 0;
+
+        for(OrderItem item : items) {
+            long line = lineCents(item);
+            item.accountedCents = line;
+            subtotal += line;
+        }
+
+        return new OrderTotals(subtotal, toCents(discountAmount));
+    }
+
+    /**
+     * Computes the totals with a full pass over the items, without touching them
+     * (e.g. to cross-check the running totals).
+     *
+     * @param items The items of the order
+     * @param discountAmount The order-level discount
+     * @return The computed totals
+     */
+    static OrderTotals compute(List<OrderItem> items, BigDecimal discountAmount) {
+        long subtotal = 0;
+
+        for(OrderItem item : items) {
+            subtotal += lineCents(item);
+        }
+
+        return new OrderTotals(subtotal, toCents(discountAmount));
+    }
+
+    /**
+     * Adds a new line to the running subtotal.
+     *
+     * @param item The item that was added
+     */
+    void addLine(OrderItem item) {
+        long line = lineCents(item);
+        item.accountedCents = line;
+        subtotalCents += line;
+        taxCents = computeTax(subtotalCents);
+    }
+
+    /**
+     * Removes a line from the running subtotal, using the amount it contributed when accounted.
+     *
+     * @param item The item that was removed
+     */
+    void removeLine(OrderItem item) {
+        subtotalCents -= item.accountedCents;
+        item.accountedCents = 0;
+        taxCents = computeTax(subtotalCents);
+    }
+
+    /**
+     * Re-accounts a line whose quantity, price or discount has changed.
+     *
+     * @param item The item that changed
+     */
+    void updateLine(OrderItem item) {
+        long line = lineCents(item);
+        subtotalCents += line - item.accountedCents;
+        item.accountedCents = line;
+        taxCents = computeTax(subtotalCents);
+    }
+
+    void setDiscountCents(long discountCents) {
+        this.discountCents = discountCents;
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public long getTaxCents() {
+        return taxCents;
+    }
+
+    public long getDiscountCents() {
+        return discountCents;
+    }
+
+    /**
+     * Gets the total (subtotal + tax - order-level discount).
+     *
+     * @return The total in cents
+     */
+    public long getTotalCents() {
+        return subtotalCents + taxCents - discountCents;
+    }
+
+    /**
+     * Checks whether these totals match another set of totals.
+     *
+     * @param other The totals to compare with
+     * @return true if subtotal, tax and discount are identical
+     */
+    public boolean matches(OrderTotals other) {
+        return subtotalCents == other.subtotalCents
+                && taxCents == other.taxCents
+                && discountCents == other.discountCents;
+    }
+
+    public static boolean isVerificationEnabled() {
+        return verificationEnabled;
+    }
+
+    /**
+     * Turns the cross-check against a full recompute on or off.
+     * Meant for tests and troubleshooting, it makes every mutation O(n) again.
+     *
+     * @param enabled Whether verification is enabled
+     */
+    public static void setVerificationEnabled(boolean enabled) {
+        verificationEnabled = enabled;
+    }
+
+    /**
+     * Calculates the contribution of a single item (quantity * unit price - discount) in cents.
+     *
+     * @param item The order item
+     * @return The line subtotal in cents
+     */
+    static long lineCents(OrderItem item) {
+        if(item.getUnitPrice() == null || item.getQuantity() == null) return 0;
+
+        long base = Math.multiplyExact(toCents(item.getUnitPrice()), item.getQuantity().longValue());
+
+        return base - toCents(item.getDiscountAmount());
+    }
+
+    /**
+     * Converts an amount to cents, rounding half up if it has more than two decimals.
+     *
+     * @param amount The amount, may be null
+     * @return The amount in cents (0 for null)
+     */
+    public static long toCents(BigDecimal amount) {
+        if(amount == null) return 0;
+
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts cents back to a BigDecimal amount with scale 2.
+     *
+     * @param cents The amount in cents
+     * @return The amount as BigDecimal
+     */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Computes the tax on a subtotal, rounding half up (away from zero) like BigDecimal.ROUND_HALF_UP.
+     */
+    static long computeTax(long subtotalCents) {
+        long scaled = subtotalCents * TAX_RATE_BASIS_POINTS;
+        long half = BASIS_POINTS / 2;
+
+        return scaled >= 0
+                ? (scaled + half) / BASIS_POINTS
+                : -((-scaled + half) / BASIS_POINTS);
+    }
+}
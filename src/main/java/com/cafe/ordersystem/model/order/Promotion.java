@@ -0,0 +1,128 @@
+package com.cafe.ordersystem.model.order;
+
+import com.cafe.ordersystem.model.common.AuditableEntity;
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entity representing a promotion, applied to the order items by the PromotionService.
+ *
+ * A promotion takes a percentage off the items in its scope: the products and the categories
+ * (with their subcategories) listed, or every item if both are empty. What else is needed
+ * depends on its type:
+ * - HAPPY_HOUR: the order is placed on one of the days of week, between the start and end time
+ * - COMBO: one item of the scope is discounted per item of the trigger category in the order
+ * - TIER_DISCOUNT: the customer is at least at the minimum loyalty tier
+ * - BIRTHDAY: it is the customer's birthday, one unit of the cheapest item of the scope is discounted
+ *
+ * An item gets at most one promotion, the one giving the largest discount.
+ */
+
+@Entity
+@Table(name = "promotions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Promotion extends AuditableEntity {
+
+    public enum Type {
+        HAPPY_HOUR, COMBO, TIER_DISCOUNT, BIRTHDAY
+    }
+
+    /**
+     * Also the discount reason of the items it applies to.
+     */
+    @Id
+    @NotBlank
+    @Size(max = 40)
+    @Column(length = 40)
+    private String code;
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "promotion_type", nullable = false, length = 20)
+    private Type type;
+
+    @NotNull
+    @Column(name = "percent_off", nullable = false, precision = 5, scale = 2)
+    private BigDecimal percentOff;
+
+    /**
+     * The products in scope.
+     */
+    @ElementCollection
+    @CollectionTable(name = "promotion_products", joinColumns = @JoinColumn(name = "promotion_code"))
+    @Column(name = "product_id", nullable = false)
+    @Builder.Default
+    private Set<Long> productIds = new HashSet<>();
+
+    /**
+     * The categories in scope, their subcategories included.
+     */
+    @ElementCollection
+    @CollectionTable(name = "promotion_categories", joinColumns = @JoinColumn(name = "promotion_code"))
+    @Column(name = "category_id", nullable = false)
+    @Builder.Default
+    private Set<Long> categoryIds = new HashSet<>();
+
+    /**
+     * COMBO: the category (with its subcategories) of the items that unlock the discount.
+     */
+    @Column(name = "trigger_category_id")
+    private Long triggerCategoryId;
+
+    /**
+     * TIER_DISCOUNT: the lowest tier getting the discount.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "min_tier", length = 20)
+    private LoyaltyProgram.Tier minTier;
+
+    /**
+     * HAPPY_HOUR: comma-separated DayOfWeek names, every day if empty.
+     */
+    @Size(max = 100)
+    @Column(name = "days_of_week", length = 100)
+    private String daysOfWeek;
+
+    /**
+     * HAPPY_HOUR: start of the window, included.
+     */
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    /**
+     * HAPPY_HOUR: end of the window, excluded. Before the start time for a window past midnight.
+     */
+    @Column(name = "end_time")
+    private LocalTime endTime;
+
+    @Column(name = "valid_from")
+    private LocalDateTime validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDateTime validTo;
+
+    @Column(name = "is_active", nullable = false)
+    @Builder.Default
+    private boolean active = true;
+}
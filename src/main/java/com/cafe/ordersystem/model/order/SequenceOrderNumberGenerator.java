@@ -0,0 +1,171 @@
+package com.cafe.ordersystem.model.order;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Default order number generator based on a per-node day sequence.
+ *
+ * Format: YYYYMMDD-NN-XXXXXXXX (20 characters)
+ * - YYYYMMDD: the current day
+ * - NN: the node id (00-99), unique per application instance
+ * - XXXXXXXX: a hexadecimal day sequence
+ *
+ * The sequence is split in a few stripes, each one a lock-free CAS counter, so
+ * concurrent threads rarely contend on the same cache line. Stripe i hands out
+ * the values i, i + STRIPES, i + 2 * STRIPES... so stripes never overlap.
+ *
+ * Uniqueness across instances comes from the node id, no database round trip needed.
+ * To stay unique across restarts on the same day, the sequence of the boot day
+ * starts from the time of day at boot (40 values per elapsed millisecond), which
+ * a previous run of the same node cannot have caught up with at café order rates.
+ */
+public class SequenceOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final int STRIPES = 8;
+
+    // one counter every 8 longs (64 bytes) to keep stripes on separate cache lines
+    private static final int PADDING = 8;
+
+    private static final long SEED_PER_MILLI = 40L;
+
+    private static final long MAX_SEQUENCE = 0xFFFF_FFFFL;
+
+    private static final int PREFIX_LENGTH = 12;
+
+    private static final int NUMBER_LENGTH = 20;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final int nodeId;
+    private final Clock clock;
+    private final long bootDay;
+    private final long bootBase;
+
+    /**
+     * Each slot holds (epoch day << 32) | next sequence of the stripe for that day.
+     */
+    private final AtomicLongArray counters = new AtomicLongArray(STRIPES * PADDING);
+
+    private volatile DayState day;
+
+    public SequenceOrderNumberGenerator(int nodeId) {
+        this(nodeId, Clock.systemDefaultZone());
+    }
+
+    public SequenceOrderNumberGenerator(int nodeId, Clock clock) {
+        if(nodeId < 0 || nodeId > 99) throw new IllegalArgumentException("Node id must be between 0 and 99");
+
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.day = dayOf(clock.millis());
+        this.bootDay = this.day.epochDay;
+        this.bootBase = (clock.millis() - this.day.startMillis) * SEED_PER_MILLI;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        DayState current;
+        long value;
+
+        do {
+            current = currentDay();
+            value = nextValue(current.epochDay);
+        } while(value < 0);
+
+        char[] number = new char[NUMBER_LENGTH];
+        System.arraycopy(current.prefix, 0, number, 0, PREFIX_LENGTH);
+
+        for(int i = NUMBER_LENGTH - 1; i >= PREFIX_LENGTH; i--) {
+            number[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+
+        return new String(number);
+    }
+
+    /**
+     * Gets the current day, rolling over at midnight.
+     * If the clock goes back the day is kept, so the sequence never restarts.
+     */
+    private DayState currentDay() {
+        long now = clock.millis();
+
+        DayState current = this.day;
+        if(now >= current.endMillis) {
+            current = dayOf(now);
+            this.day = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Claims the next value of the day sequence from the stripe of the calling thread.
+     *
+     * @return The claimed value, or -1 if another thread already moved the stripe to a newer day
+     */
+    private long nextValue(long epochDay) {
+        int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+        int slot = stripe * PADDING;
+
+        long sequence;
+        while(true) {
+            long state = counters.get(slot);
+            long stateDay = state >>> 32;
+
+            if(stateDay > epochDay) return -1;
+
+            sequence = stateDay == epochDay ? state & MAX_SEQUENCE : 0;
+
+            if(counters.compareAndSet(slot, state, (epochDay << 32) | (sequence + 1))) {
+                break;
+            }
+        }
+
+        long base = epochDay == bootDay ? bootBase : 0;
+        long value = base + sequence * STRIPES + stripe;
+
+        if(value > MAX_SEQUENCE) {
+            throw new IllegalStateException("Order number sequence exhausted for node " + nodeId);
+        }
+
+        return value;
+    }
+
+    /**
+     * Builds the day boundaries and the "YYYYMMDD-NN-" prefix, once per day.
+     */
+    private DayState dayOf(long millis) {
+        LocalDate date = Instant.ofEpochMilli(millis).atZone(clock.getZone()).toLocalDate();
+        ZonedDateTime start = date.atStartOfDay(clock.getZone());
+        ZonedDateTime end = date.plusDays(1).atStartOfDay(clock.getZone());
+
+        char[] prefix = new char[PREFIX_LENGTH];
+        writeDigits(prefix, 0, 4, date.getYear());
+        writeDigits(prefix, 4, 2, date.getMonthValue());
+        writeDigits(prefix, 6, 2, date.getDayOfMonth());
+        prefix[8] = '-';
+        writeDigits(prefix, 9, 2, nodeId);
+        prefix[11] = '-';
+
+        return new DayState(date.toEpochDay(), start.toInstant().toEpochMilli(), end.toInstant().toEpochMilli(), prefix);
+    }
+
+    private static void writeDigits(char[] target, int offset, int length, int value) {
+        for(int i = offset + length - 1; i >= offset; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private record DayState(long epochDay, long startMillis, long endMillis, char[] prefix) {
+    }
+}
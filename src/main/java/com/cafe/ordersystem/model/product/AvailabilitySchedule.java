@@ -0,0 +1,208 @@
+package com.cafe.ordersystem.model.product;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled availability of the categories, by minute of the day.
+ *
+ * Category.availabilityTime is parsed once into time windows:
+ * - null, blank, "all-day" or "always": the whole day
+ * - a named period such as "breakfast", defined as a window
+ * - an explicit window "HH:mm-HH:mm" (end excluded, may wrap past midnight)
+ * - a comma-separated list of the above
+ * A sub-category is only available when its parent is (the windows are intersected),
+ * and is seasonal when one of its ancestors is.
+ *
+ * For each of the 1440 minutes of the day, the schedule keeps the bitset of the
+ * categories available then, so checking an order line is two bit lookups.
+ * Seasonal categories are only available during the season months.
+ */
+public final class AvailabilitySchedule implements MenuAvailability {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Availability settings of a category, as stored.
+     */
+    public record CategoryRule(Long id, Long parentId, String availabilityTime, boolean seasonal) {
+    }
+
+    private final Map<Long, Integer> categoryIndex;
+    private final Long[] categoryIds;
+    private final BitSet[] availableByMinute;
+    private final BitSet seasonal;
+    private final Set<Month> seasonMonths;
+
+    private AvailabilitySchedule(Map<Long, Integer> categoryIndex, Long[] categoryIds, BitSet[] availableByMinute,
+                                 BitSet seasonal, Set<Month> seasonMonths) {
+        this.categoryIndex = categoryIndex;
+        this.categoryIds = categoryIds;
+        this.availableByMinute = availableByMinute;
+        this.seasonal = seasonal;
+        this.seasonMonths = seasonMonths;
+    }
+
+    /**
+     * Compiles the availability rules of all the categories.
+     *
+     * @param rules The rules of every category
+     * @param periods The named periods, e.g. "breakfast" → "07:00-11:00"
+     * @param seasonMonths The months when seasonal categories are available
+     * @return The schedule
+     * @throws IllegalArgumentException if a rule cannot be parsed
+     */
+    public static AvailabilitySchedule compile(List<CategoryRule> rules, Map<String, String> periods,
+                                               Set<Month> seasonMonths) {
+        Map<Long, CategoryRule> byId = new HashMap<>();
+        Map<Long, Integer> index = new HashMap<>();
+        Long[] ids = new Long[rules.size()];
+        for(CategoryRule rule : rules) {
+            byId.put(rule.id(), rule);
+            index.put(rule.id(), index.size());
+            ids[index.get(rule.id())] = rule.id();
+        }
+
+        Map<String, BitSet> compiled = new HashMap<>();
+        BitSet[] byMinute = new BitSet[MINUTES_PER_DAY];
+        for(int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            byMinute[minute] = new BitSet(rules.size());
+        }
+        BitSet seasonal = new BitSet(rules.size());
+
+        for(CategoryRule rule : rules) {
+            int i = index.get(rule.id());
+            BitSet minutes = allDay();
+            boolean inheritedSeasonal = false;
+
+            // intersect with the ancestors, guarding against cycles
+            CategoryRule current = rule;
+            for(int depth = 0; current != null && depth <= rules.size(); depth++) {
+                minutes.and(compiled.computeIfAbsent(normalize(current.availabilityTime()),
+                        spec -> parse(spec, periods)));
+                inheritedSeasonal |= current.seasonal();
+                current = current.parentId() != null ? byId.get(current.parentId()) : null;
+            }
+
+            for(int minute = minutes.nextSetBit(0); minute >= 0; minute = minutes.nextSetBit(minute + 1)) {
+                byMinute[minute].set(i);
+            }
+            if(inheritedSeasonal) seasonal.set(i);
+        }
+
+        Set<Month> months = seasonMonths.isEmpty() ? EnumSet.noneOf(Month.class) : EnumSet.copyOf(seasonMonths);
+        return new AvailabilitySchedule(Map.copyOf(index), ids, byMinute, seasonal, months);
+    }
+
+    /**
+     * Parses an availability rule into the set of minutes of the day it covers.
+     *
+     * @param availabilityTime The rule, see the class description
+     * @param periods The named periods
+     * @return The minutes of the day, as a bitset
+     * @throws IllegalArgumentException if the rule cannot be parsed
+     */
+    public static BitSet parse(String availabilityTime, Map<String, String> periods) {
+        String spec = normalize(availabilityTime);
+        if(spec.isEmpty() || spec.equals("all-day") || spec.equals("always")) return allDay();
+
+        BitSet minutes = new BitSet(MINUTES_PER_DAY);
+        for(String token : spec.split(",")) {
+            String part = token.trim();
+            if(part.isEmpty()) continue;
+
+            String period = periods.get(part);
+            minutes.or(period != null ? parse(period, Map.of()) : parseWindow(part));
+        }
+
+        return minutes;
+    }
+
+    private static BitSet parseWindow(String window) {
+        String[] bounds = window.split("-");
+        if(bounds.length != 2) throw new IllegalArgumentException("Unknown availability period: " + window);
+
+        int start;
+        int end;
+        try {
+            start = LocalTime.parse(bounds[0].trim()).toSecondOfDay() / 60;
+            end = bounds[1].trim().equals("24:00") ? MINUTES_PER_DAY : LocalTime.parse(bounds[1].trim()).toSecondOfDay() / 60;
+        } catch(DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid availability window: " + window, e);
+        }
+
+        BitSet minutes = new BitSet(MINUTES_PER_DAY);
+        if(start < end) {
+            minutes.set(start, end);
+        } else {
+            // wraps past midnight
+            minutes.set(start, MINUTES_PER_DAY);
+            minutes.set(0, end);
+        }
+        return minutes;
+    }
+
+    private static BitSet allDay() {
+        BitSet minutes = new BitSet(MINUTES_PER_DAY);
+        minutes.set(0, MINUTES_PER_DAY);
+        return minutes;
+    }
+
+    private static String normalize(String availabilityTime) {
+        return availabilityTime == null ? "" : availabilityTime.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks if the products of a category can be ordered at a given time.
+     * Unknown categories (and products without a category) are always available.
+     *
+     * @param categoryId The category
+     * @param at The time
+     * @return true if the category is available
+     */
+    public boolean isAvailable(Long categoryId, LocalDateTime at) {
+        Integer i = categoryId != null ? categoryIndex.get(categoryId) : null;
+        if(i == null) return true;
+
+        return availableByMinute[minuteOfDay(at)].get(i)
+                && (!seasonal.get(i) || seasonMonths.contains(at.getMonth()));
+    }
+
+    @Override
+    public boolean isOrderable(Product product, LocalDateTime at) {
+        Category category = product.getCategory();
+
+        return category == null || isAvailable(category.getId(), at);
+    }
+
+    /**
+     * Gets the categories available at a given time.
+     *
+     * @param at The time
+     * @return The ids of the available categories
+     */
+    public List<Long> availableCategoryIds(LocalDateTime at) {
+        BitSet available = (BitSet) availableByMinute[minuteOfDay(at)].clone();
+        if(!seasonMonths.contains(at.getMonth())) available.andNot(seasonal);
+
+        List<Long> ids = new ArrayList<>(available.cardinality());
+        for(int i = available.nextSetBit(0); i >= 0; i = available.nextSetBit(i + 1)) {
+            ids.add(categoryIds[i]);
+        }
+        return ids;
+    }
+
+    private static int minuteOfDay(LocalDateTime at) {
+        return at.getHour() * 60 + at.getMinute();
+    }
+}
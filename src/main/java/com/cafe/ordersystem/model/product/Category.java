@@ -11,12 +11,18 @@ import lombok.NoArgsConstructor;
 import org.springframework.security.core.parameters.P;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Entity representing a product category in the café system.
  * Categories organize products into logical groups such as "Hot Drinks",
  * "Pastries", "Sandwiches", etc.
+ *
+ * Besides the parent pointer, each category stores its materialized path: the ids from
+ * the root down to itself, e.g. "/1/4/12/". A whole subtree is then a single indexed
+ * prefix query (path LIKE '/1/4/%'). The path is recomputed whenever the parent is set,
+ * and assigned when the category is first persisted.
  */
 
 @Entity
@@ -28,7 +34,8 @@ import java.util.List;
 public class Category extends AuditableEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_ids")
+    @SequenceGenerator(name = "category_ids", sequenceName = "category_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -79,6 +86,20 @@ public class Category extends AuditableEntity {
     @JoinColumn(name = "parent_id")
     private Category parent;
 
+    /**
+     * Ids of the ancestors and of this category, from the root, e.g. "/1/4/12/".
+     * Null until the category is persisted.
+     */
+    @Column(name = "path", length = 255)
+    private String path;
+
+    /**
+     * Depth of this category in the tree, 0 for top-level categories.
+     */
+    @Column(name = "depth")
+    @Builder.Default
+    private Integer depth = 0;
+
     /**
      * Sub-categories of this category.
      */
@@ -126,6 +147,72 @@ public class Category extends AuditableEntity {
         subCategory.setParent(null);
     }
 
+    /**
+     * Moves this category under another one, which recomputes the paths of its whole subtree.
+     *
+     * @param parent The new parent, null for a top-level category
+     */
+    public void setParent(Category parent) {
+        this.parent = parent;
+        updatePath();
+    }
+
+    /**
+     * Recomputes the path and depth of this category from its parent,
+     * then those of its whole subtree.
+     */
+    public void updatePath() {
+        depth = parent == null ? 0 : parent.getDepth() + 1;
+
+        if(id == null || (parent != null && parent.getPath() == null)) {
+            path = null;
+        } else {
+            path = (parent == null ? "/" : parent.getPath()) + id + "/";
+        }
+
+        for(Category subCategory : subCategories) {
+            subCategory.updatePath();
+        }
+    }
+
+    /**
+     * Assigns the path before the insert, the id being allocated from category_seq beforehand,
+     * or before an update if the parent had no path yet when it was set.
+     */
+    @PrePersist
+    @PreUpdate
+    void assignPath() {
+        if(path == null) updatePath();
+    }
+
+    /**
+     * Gets the ids of the ancestors of this category, from the root, using the materialized path.
+     *
+     * @return The ancestor ids, empty for a top-level category
+     */
+    @Transient
+    public List<Long> getAncestorIds() {
+        if(path == null) return List.of();
+
+        List<Long> ids = Arrays.stream(path.split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .map(Long::valueOf)
+                .toList();
+
+        return ids.subList(0, ids.size() - 1);
+    }
+
+    /**
+     * Checks if this category is in the subtree of another one (or is that category).
+     *
+     * @param ancestor The other category
+     * @return true if this category is the other category or one of its descendants
+     */
+    @Transient
+    public boolean isInSubtreeOf(Category ancestor) {
+        return path != null && ancestor.getPath() != null && path.startsWith(ancestor.getPath());
+    }
+
     /**
      * Gets the full path name of the category (including parent categories).
      * For example, "Drinks > Hot Drinks > Coffee".
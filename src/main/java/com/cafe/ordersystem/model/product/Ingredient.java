@@ -28,31 +28,56 @@ public class Ingredient extends AuditableEntity {
 
     /**
      * Enum representing units of measurement for ingredients.
+     * Each unit knows its dimension and how many base units it is worth
+     * (micrograms for mass, nanoliters for volume, thousandths for counts),
+     * which is what {@link Quantity} uses to convert between units.
      */
     @Getter
     public enum UnitOfMeasure {
-        GRAM("g"),
-        KILOGRAM("kg"),
-        MILLILITER("ml"),
-        LITER("L"),
-        TEASPOON("tsp"),
-        TABLESPOON("tbsp"),
-        OUNCE("oz"),
-        POUND("lb"),
-        PIECE("pc"),
-        CUP("cup"),
-        PINCH("pinch"),
-        EACH("each");
+        GRAM("g", Dimension.MASS, 1_000_000L),
+        KILOGRAM("kg", Dimension.MASS, 1_000_000_000L),
+        MILLILITER("ml", Dimension.VOLUME, 1_000_000L),
+        LITER("L", Dimension.VOLUME, 1_000_000_000L),
+        TEASPOON("tsp", Dimension.VOLUME, 4_928_922L),
+        TABLESPOON("tbsp", Dimension.VOLUME, 14_786_765L),
+        OUNCE("oz", Dimension.MASS, 28_349_523L),
+        POUND("lb", Dimension.MASS, 453_592_370L),
+        PIECE("pc", Dimension.COUNT, 1_000L),
+        CUP("cup", Dimension.VOLUME, 236_588_237L),
+        PINCH("pinch", Dimension.VOLUME, 308_058L),
+        EACH("each", Dimension.COUNT, 1_000L);
+
+        /**
+         * What a unit measures, only units of the same dimension can be converted.
+         */
+        public enum Dimension {
+            MASS, VOLUME, COUNT
+        }
 
         private final String abbreviation;
+        private final Dimension dimension;
+        private final long baseUnits;
 
-        UnitOfMeasure(String abbreviation) {
+        UnitOfMeasure(String abbreviation, Dimension dimension, long baseUnits) {
             this.abbreviation = abbreviation;
+            this.dimension = dimension;
+            this.baseUnits = baseUnits;
+        }
+
+        /**
+         * Checks if quantities in this unit can be converted to another unit.
+         *
+         * @param other The other unit
+         * @return true if both units measure the same dimension
+         */
+        public boolean isConvertibleTo(UnitOfMeasure other) {
+            return other != null && dimension == other.dimension;
         }
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredient_ids")
+    @SequenceGenerator(name = "ingredient_ids", sequenceName = "ingredients_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -106,6 +131,13 @@ public class Ingredient extends AuditableEntity {
     @Column(name = "reorder_threshold", precision = 10, scale = 3)
     private BigDecimal reorderThreshold;
 
+    /**
+     * Generated column holding stock level minus reorder threshold, null without a threshold.
+     * Read-only: only up to date when the ingredient is read from the database.
+     */
+    @Column(name = "reorder_gap", precision = 11, scale = 3, insertable = false, updatable = false)
+    private BigDecimal reorderGap;
+
     /**
      * Unit of measurement for this ingredient.
      */
@@ -238,8 +270,22 @@ public class Ingredient extends AuditableEntity {
         return stockLevel.toString() + unitOfMeasure.getAbbreviation();
     }
 
+    /**
+     * Gets the current stock level as a {@link Quantity}.
+     *
+     * @return The stock quantity, or null if the ingredient has no unit of measure
+     */
+    @Transient
+    public Quantity getStockQuantity() {
+        if(unitOfMeasure == null) return null;
+
+        return Quantity.of(stockLevel, unitOfMeasure);
+    }
+
     /**
      * Calculates the total value of the current stock.
+     * Stock (scale 3) and cost (scale 4) are multiplied as fixed-point longs,
+     * the result has scale 7.
      *
      * @return The total value (stock level * cost per unit)
      */
@@ -249,7 +295,7 @@ public class Ingredient extends AuditableEntity {
             return BigDecimal.ZERO;
         }
 
-        return stockLevel.multiply(costPerUnit);
+        return Quantity.stockValue(stockLevel, costPerUnit);
     }
 
     /**
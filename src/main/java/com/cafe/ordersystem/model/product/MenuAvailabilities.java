@@ -0,0 +1,35 @@
+package com.cafe.ordersystem.model.product;
+
+/**
+ * Holds the menu availability checked by Order.addItem.
+ *
+ * Entities are not Spring-managed, so the application installs its availability
+ * engine here at startup. Until then every product is orderable.
+ */
+public final class MenuAvailabilities {
+
+    private static volatile MenuAvailability current = MenuAvailability.ALWAYS;
+
+    private MenuAvailabilities() {
+    }
+
+    /**
+     * Gets the availability currently in use.
+     *
+     * @return The installed availability
+     */
+    public static MenuAvailability current() {
+        return current;
+    }
+
+    /**
+     * Installs the availability to check new order lines against.
+     *
+     * @param availability The availability to install
+     */
+    public static void install(MenuAvailability availability) {
+        if(availability == null) throw new IllegalArgumentException("Availability cannot be null");
+
+        current = availability;
+    }
+}
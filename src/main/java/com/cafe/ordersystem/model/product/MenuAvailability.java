@@ -0,0 +1,24 @@
+package com.cafe.ordersystem.model.product;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tells whether a product can be ordered at a given time, according to the
+ * availability of its category.
+ */
+public interface MenuAvailability {
+
+    /**
+     * Availability used when nothing is configured: every product, all the time.
+     */
+    MenuAvailability ALWAYS = (product, at) -> true;
+
+    /**
+     * Checks if a product can be ordered.
+     *
+     * @param product The product
+     * @param at The time of the order
+     * @return true if the product is orderable at that time
+     */
+    boolean isOrderable(Product product, LocalDateTime at);
+}
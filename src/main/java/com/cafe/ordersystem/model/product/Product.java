@@ -10,6 +10,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,9 +20,13 @@ import java.util.Set;
 /**
  * Entity representing a product (menu item) that can be ordered in the café.
  * Products belong to categories and can have multiple ingredients.
+ *
+ * Updates only write the changed columns: the stock level is written behind with relative
+ * updates by StockReservationService, and editing a loaded product must not write it back.
  */
 
 @Entity
+@DynamicUpdate
 @Table(name = "products")
 @Data
 @Builder
@@ -30,7 +35,8 @@ import java.util.Set;
 public class Product extends AuditableEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_ids")
+    @SequenceGenerator(name = "product_ids", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -54,13 +60,14 @@ public class Product extends AuditableEntity {
     @Column(nullable = false)
     private boolean active = true;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
     /**
      * Many-to-many relationship with Ingredient.
      * Uses a join table named "product_ingredients" with product_id and ingredient_id columns.
+     * The quantities used per product are mapped on the same table by {@link RecipeIngredient}.
      */
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
@@ -122,6 +129,13 @@ public class Product extends AuditableEntity {
     @Builder.Default
     private Integer stockLevel = 0;
 
+    /**
+     * Stock level minus reorder threshold, computed and indexed by the database
+     * (null without a threshold). Not refreshed when the entity is written.
+     */
+    @Column(name = "reorder_gap", insertable = false, updatable = false)
+    private Integer reorderGap;
+
     /**
      * Date and time when this product was last restocked.
      */
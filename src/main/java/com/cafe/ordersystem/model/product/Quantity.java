@@ -0,0 +1,270 @@
+package com.cafe.ordersystem.model.product;
+
+import com.cafe.ordersystem.model.product.Ingredient.UnitOfMeasure;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Immutable quantity of an ingredient, backed by a long in the smallest unit of its
+ * dimension (micrograms, nanoliters or thousandths of a piece).
+ *
+ * Arithmetic, comparisons and conversions between units of the same dimension
+ * (e.g. GRAM ↔ OUNCE, MILLILITER ↔ TEASPOON) are plain long operations.
+ * BigDecimal is only involved when reading from or writing to the stock columns,
+ * which hold the amount in the ingredient's unit with scale 3.
+ *
+ * The static helpers work on unscaled longs directly, for loops over many ingredients
+ * that should not allocate at all.
+ */
+public final class Quantity implements Comparable<Quantity> {
+
+    /**
+     * Scale of the stock columns (stock_level, reorder_threshold).
+     */
+    public static final int STOCK_SCALE = 3;
+
+    /**
+     * Scale of the cost_per_unit column.
+     */
+    public static final int COST_SCALE = 4;
+
+    /**
+     * Scale of a stock value (stock * cost).
+     */
+    public static final int VALUE_SCALE = STOCK_SCALE + COST_SCALE;
+
+    private static final long STOCK_FACTOR = 1_000L;
+
+    private final long baseAmount;
+    private final UnitOfMeasure unit;
+
+    private Quantity(long baseAmount, UnitOfMeasure unit) {
+        this.baseAmount = baseAmount;
+        this.unit = Objects.requireNonNull(unit, "Unit cannot be null");
+    }
+
+    /**
+     * Creates a quantity from an amount expressed in a unit.
+     *
+     * @param amount The amount (rounded half up to 3 decimals)
+     * @param unit The unit of the amount
+     * @return The quantity
+     */
+    public static Quantity of(BigDecimal amount, UnitOfMeasure unit) {
+        return new Quantity(toBase(toThousandths(amount), unit), unit);
+    }
+
+    /**
+     * Creates a quantity from an amount in thousandths of a unit (the unscaled stock value).
+     *
+     * @param thousandths The amount in thousandths of the unit
+     * @param unit The unit of the amount
+     * @return The quantity
+     */
+    public static Quantity ofThousandths(long thousandths, UnitOfMeasure unit) {
+        return new Quantity(toBase(thousandths, unit), unit);
+    }
+
+    public long getBaseAmount() {
+        return baseAmount;
+    }
+
+    public UnitOfMeasure getUnit() {
+        return unit;
+    }
+
+    /**
+     * Expresses this quantity in another unit of the same dimension.
+     *
+     * @param target The target unit
+     * @return The same quantity, displayed in the target unit
+     * @throws IllegalArgumentException if the units measure different dimensions
+     */
+    public Quantity to(UnitOfMeasure target) {
+        checkConvertible(unit, target);
+
+        return target == unit ? this : new Quantity(baseAmount, target);
+    }
+
+    public Quantity plus(Quantity other) {
+        checkConvertible(unit, other.unit);
+
+        return new Quantity(Math.addExact(baseAmount, other.baseAmount), unit);
+    }
+
+    public Quantity minus(Quantity other) {
+        checkConvertible(unit, other.unit);
+
+        return new Quantity(Math.subtractExact(baseAmount, other.baseAmount), unit);
+    }
+
+    public Quantity times(long factor) {
+        return new Quantity(Math.multiplyExact(baseAmount, factor), unit);
+    }
+
+    /**
+     * Gets the amount in thousandths of this quantity's unit, rounded half up.
+     *
+     * @return The unscaled value of {@link #toDecimal()}
+     */
+    public long toThousandths() {
+        return fromBase(baseAmount, unit);
+    }
+
+    /**
+     * Gets the amount in this quantity's unit, with the scale of the stock columns.
+     *
+     * @return The amount as BigDecimal
+     */
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(toThousandths(), STOCK_SCALE);
+    }
+
+    @Override
+    public int compareTo(Quantity other) {
+        checkConvertible(unit, other.unit);
+
+        return Long.compare(baseAmount, other.baseAmount);
+    }
+
+    /**
+     * Two quantities are equal if they measure the same amount of the same dimension,
+     * whatever unit they are displayed in (1 kg equals 1000 g).
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Quantity other)) return false;
+
+        return baseAmount == other.baseAmount && unit.getDimension() == other.unit.getDimension();
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(baseAmount) * 31 + unit.getDimension().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().stripTrailingZeros().toPlainString() + unit.getAbbreviation();
+    }
+
+    /**
+     * Converts an amount in thousandths of a unit to base units.
+     *
+     * @param thousandths The amount in thousandths of the unit
+     * @param unit The unit
+     * @return The amount in base units, rounded half up
+     */
+    public static long toBase(long thousandths, UnitOfMeasure unit) {
+        return divideHalfUp(Math.multiplyExact(thousandths, unit.getBaseUnits()), STOCK_FACTOR);
+    }
+
+    /**
+     * Converts base units to thousandths of a unit.
+     *
+     * @param baseAmount The amount in base units
+     * @param unit The unit
+     * @return The amount in thousandths of the unit, rounded half up
+     */
+    public static long fromBase(long baseAmount, UnitOfMeasure unit) {
+        return divideHalfUp(Math.multiplyExact(baseAmount, STOCK_FACTOR), unit.getBaseUnits());
+    }
+
+    /**
+     * Converts an amount in thousandths from one unit to another, without allocating.
+     *
+     * @param thousandths The amount in thousandths of the source unit
+     * @param from The source unit
+     * @param to The target unit
+     * @return The amount in thousandths of the target unit
+     */
+    public static long convertThousandths(long thousandths, UnitOfMeasure from, UnitOfMeasure to) {
+        checkConvertible(from, to);
+
+        return from == to ? thousandths : fromBase(toBase(thousandths, from), to);
+    }
+
+    /**
+     * Converts an amount from one unit to another.
+     *
+     * @param amount The amount in the source unit
+     * @param from The source unit
+     * @param to The target unit
+     * @return The amount in the target unit, with the scale of the stock columns
+     */
+    public static BigDecimal convert(BigDecimal amount, UnitOfMeasure from, UnitOfMeasure to) {
+        return BigDecimal.valueOf(convertThousandths(toThousandths(amount), from, to), STOCK_SCALE);
+    }
+
+    /**
+     * Multiplies a stock amount (thousandths) by a cost (ten-thousandths),
+     * giving the value with scale {@link #VALUE_SCALE}.
+     *
+     * @throws ArithmeticException on overflow
+     */
+    public static long stockValueUnits(long stockThousandths, long costTenThousandths) {
+        return Math.multiplyExact(stockThousandths, costTenThousandths);
+    }
+
+    /**
+     * Calculates the value of a stock with fixed-point longs, falling back to BigDecimal
+     * for amounts with more decimals than the columns allow or that would overflow.
+     *
+     * @param stockLevel The stock amount
+     * @param costPerUnit The cost of one unit
+     * @return The stock value
+     */
+    public static BigDecimal stockValue(BigDecimal stockLevel, BigDecimal costPerUnit) {
+        if(stockLevel.scale() <= STOCK_SCALE && costPerUnit.scale() <= COST_SCALE
+                && stockLevel.precision() <= 15 && costPerUnit.precision() <= 15) {
+            try {
+                long stock = stockLevel.movePointRight(STOCK_SCALE).longValueExact();
+                long cost = costPerUnit.movePointRight(COST_SCALE).longValueExact();
+
+                return BigDecimal.valueOf(stockValueUnits(stock, cost), VALUE_SCALE);
+            } catch(ArithmeticException e) {
+                // overflow, use the exact path below
+            }
+        }
+
+        return stockLevel.multiply(costPerUnit);
+    }
+
+    /**
+     * Gets the thousandths of an amount (its unscaled value at the stock scale), rounded half up.
+     */
+    public static long toThousandths(BigDecimal amount) {
+        if(amount == null) return 0;
+
+        return amount.setScale(STOCK_SCALE, RoundingMode.HALF_UP).movePointRight(STOCK_SCALE).longValueExact();
+    }
+
+    /**
+     * Gets the ten-thousandths of a cost (its unscaled value at the cost scale), rounded half up.
+     */
+    public static long toCostUnits(BigDecimal cost) {
+        if(cost == null) return 0;
+
+        return cost.setScale(COST_SCALE, RoundingMode.HALF_UP).movePointRight(COST_SCALE).longValueExact();
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+
+        if(Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+
+        return quotient;
+    }
+
+    private static void checkConvertible(UnitOfMeasure from, UnitOfMeasure to) {
+        if(from == null || !from.isConvertibleTo(to)) {
+            throw new IllegalArgumentException("Cannot convert " + from + " to " + to);
+        }
+    }
+}
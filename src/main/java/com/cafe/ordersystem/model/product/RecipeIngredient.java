@@ -0,0 +1,87 @@
+package com.cafe.ordersystem.model.product;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Entity representing a line of a product's recipe: how much of an ingredient
+ * goes into one unit of the product.
+ *
+ * It maps the product_ingredients join table of {@link Product#getIngredients()},
+ * which carries the quantity and its unit of measure. A null unit means the
+ * ingredient's own unit of measure.
+ */
+
+@Entity
+@Table(name = "product_ingredients")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeIngredient {
+
+    /**
+     * Composite key of a recipe line (product, ingredient).
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "product_id")
+        private Long productId;
+
+        @Column(name = "ingredient_id")
+        private Long ingredientId;
+    }
+
+    @EmbeddedId
+    @Builder.Default
+    private Key id = new Key();
+
+    @MapsId("productId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @MapsId("ingredientId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingredient_id")
+    private Ingredient ingredient;
+
+    /**
+     * Quantity of the ingredient used per unit of product.
+     */
+    @NotNull
+    @Positive
+    @Column(name = "quantity", precision = 10, scale = 3)
+    private BigDecimal quantity;
+
+    /**
+     * Unit of the quantity, null for the ingredient's own unit.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "unit_of_measure", length = 20)
+    private Ingredient.UnitOfMeasure unitOfMeasure;
+
+    /**
+     * Gets the unit the quantity is expressed in.
+     *
+     * @return The unit of this line, or the ingredient's unit if none is set
+     */
+    @Transient
+    public Ingredient.UnitOfMeasure getEffectiveUnit() {
+        if(unitOfMeasure != null || ingredient == null) return unitOfMeasure;
+
+        return ingredient.getUnitOfMeasure();
+    }
+}
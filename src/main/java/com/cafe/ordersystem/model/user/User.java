@@ -31,7 +31,8 @@ import java.util.Set;
 public class User extends AuditableEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_ids")
+    @SequenceGenerator(name = "user_ids", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -0,0 +1,48 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.product.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for {@link Category} entities.
+ */
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    /**
+     * Reads [id, name, description, display order, icon url, color code, parent id,
+     * availability time, seasonal] of the categories shown on the menu, without loading the entities.
+     */
+    @Query("select c.id, c.name, c.description, c.displayOrder, c.iconUrl, c.colorCode, parent.id, " +
+            "c.availabilityTime, c.seasonal from Category c left join c.parent parent " +
+            "where c.active = true and c.showInMenu = true")
+    List<Object[]> findMenuRows();
+
+    /**
+     * Finds a category and all its descendants, with one prefix range on the indexed path.
+     *
+     * @param path The materialized path of the subtree root, e.g. "/1/4/"
+     * @return The categories of the subtree, parents before their children
+     */
+    @Query("select c from Category c where c.path like concat(:path, '%') order by c.depth, c.path")
+    List<Category> findSubtree(@Param("path") String path);
+
+    /**
+     * Finds the ids of a category and all its descendants.
+     *
+     * @param path The materialized path of the subtree root
+     */
+    @Query("select c.id from Category c where c.path like concat(:path, '%')")
+    List<Long> findSubtreeIds(@Param("path") String path);
+
+    /**
+     * Reads [id, parent id, availability time, seasonal] of every category.
+     */
+    @Query("select c.id, parent.id, c.availabilityTime, c.seasonal from Category c left join c.parent parent")
+    List<Object[]> findAvailabilityRows();
+}
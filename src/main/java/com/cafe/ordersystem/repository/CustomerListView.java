@@ -0,0 +1,18 @@
+package com.cafe.ordersystem.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the customer list, read without loading the customers.
+ *
+ * @param id The id of the customer
+ * @param firstName The first name
+ * @param lastName The last name
+ * @param email The email address
+ * @param phoneNumber The phone number
+ * @param active Whether the customer is active
+ * @param createdAt When the customer was created, the pagination key with the id
+ */
+public record CustomerListView(Long id, String firstName, String lastName, String email, String phoneNumber,
+                               boolean active, LocalDateTime createdAt) {
+}
@@ -0,0 +1,45 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for {@link Customer} entities.
+ * Lists are paginated by keyset on (createdAt, id), newest first, see {@link KeysetCursor}.
+ */
+@Repository
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    String LIST_VIEW = "select new com.cafe.ordersystem.repository.CustomerListView(c.id, c.firstName, c.lastName, " +
+            "c.email, c.phoneNumber, c.active, c.createdAt) from Customer c ";
+
+    /**
+     * Loads customers with their loyalty program in a single query.
+     */
+    @Query("select c from Customer c left join fetch c.loyaltyProgram where c.id in :ids")
+    List<Customer> findAllWithLoyaltyProgram(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lists the first page of customers, newest first.
+     *
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     */
+    @Query(LIST_VIEW + "order by c.createdAt desc, c.id desc")
+    List<CustomerListView> findListViews(Pageable pageable);
+
+    /**
+     * Lists the customers created before the cursor (createdAt, id), newest first.
+     *
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     */
+    @Query(LIST_VIEW + "where c.createdAt <= :at and (c.createdAt < :at or c.id < :id) order by c.createdAt desc, c.id desc")
+    List<CustomerListView> findListViewsAfter(@Param("at") LocalDateTime at, @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,28 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.product.Ingredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for {@link Ingredient} entities.
+ */
+@Repository
+public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+
+    /**
+     * Reads [stock level, cost per unit] of every costed ingredient, without loading the entities.
+     */
+    @Query("select i.stockLevel, i.costPerUnit from Ingredient i where i.costPerUnit is not null")
+    List<Object[]> findStockAndCost();
+
+    /**
+     * Reads [id, name, stock level, reorder threshold] of the ingredients at or below their
+     * reorder threshold, using the index on the generated reorder_gap column.
+     */
+    @Query("select i.id, i.name, i.stockLevel, i.reorderThreshold from Ingredient i where i.reorderGap <= 0")
+    List<Object[]> findReorderLevelsAtThreshold();
+}
@@ -0,0 +1,57 @@
+package com.cafe.ordersystem.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list sorted by a timestamp then an id, both descending: the last row of a page.
+ * The next page is read with "where (at, id) &lt; (cursor.at, cursor.id)", which the database
+ * answers with an index range scan whatever the page number, unlike OFFSET.
+ *
+ * Clients get it as an opaque URL-safe token.
+ *
+ * @param at The timestamp of the last row
+ * @param id The id of the last row
+ */
+public record KeysetCursor(LocalDateTime at, Long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public KeysetCursor {
+        if(at == null || id == null) throw new IllegalArgumentException("Cursor timestamp and id are required");
+    }
+
+    /**
+     * Encodes this cursor as a token.
+     *
+     * @return The token
+     */
+    public String encode() {
+        return ENCODER.encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token returned by {@link #encode()}.
+     *
+     * @param token The token, may be null or empty for the first page
+     * @return The cursor, or null for the first page
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public static KeysetCursor decode(String token) {
+        if(token == null || token.isBlank()) return null;
+
+        try {
+            String value = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            if(separator < 0) throw new IllegalArgumentException("Invalid cursor " + token);
+
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch(DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor " + token, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cafe.ordersystem.repository;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a list paginated by keyset (see {@link KeysetCursor}).
+ *
+ * @param items The rows of the page
+ * @param next The cursor of the next page, null if this is the last page
+ * @param <T> The type of the rows
+ */
+public record KeysetPage<T>(List<T> items, String next) {
+
+    /**
+     * Largest page served, whatever the client asks for.
+     */
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * Gives the limit to pass to the keyset queries.
+     *
+     * @param size The requested page size, capped to {@link #MAX_SIZE}
+     * @return The pageable carrying the page size
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public static Pageable limit(int size) {
+        if(size <= 0) throw new IllegalArgumentException("Page size must be positive");
+
+        return Pageable.ofSize(Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds a page from the rows read with a limit of the page size.
+     * A full page is assumed to have a next one, which is at worst empty.
+     *
+     * @param items The rows read
+     * @param size The page size
+     * @param cursorOf Gives the cursor of a row
+     * @return The page
+     */
+    public static <T> KeysetPage<T> of(List<T> items, int size, Function<T, KeysetCursor> cursorOf) {
+        if(items.isEmpty() || items.size() < size) return new KeysetPage<>(items, null);
+
+        return new KeysetPage<>(items, cursorOf.apply(items.get(items.size() - 1)).encode());
+    }
+}
@@ -0,0 +1,38 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based operations on orders that never load Order, OrderItem or Product entities.
+ * Implemented by {@link OrderBulkOperationsImpl} and exposed through {@link OrderRepository}.
+ */
+public interface OrderBulkOperations {
+
+    /**
+     * Moves orders from one status to another with set-based UPDATEs.
+     * Each order is only updated if it is still in the source status and its version
+     * still matches the expected one (the same check as optimistic locking). The orders
+     * are locked while checked, so an order reported UPDATED was moved by this call.
+     *
+     * @param expectedVersions The expected version of each order, by order id
+     * @param from The source status
+     * @param to The target status
+     * @return The outcome for every requested order
+     */
+    List<OrderTransitionResult> bulkTransition(Map<Long, Long> expectedVersions, OrderStatus from, OrderStatus to);
+
+    /**
+     * Moves every order currently in the source status to the target status
+     * (e.g. closing out all READY orders at the end of the day).
+     * The current versions are read with a projection query and then checked by the UPDATEs,
+     * so orders changed concurrently are reported as conflicts instead of being overwritten.
+     *
+     * @param from The source status
+     * @param to The target status
+     * @return The outcome for every order that was in the source status
+     */
+    List<OrderTransitionResult> bulkTransitionAll(OrderStatus from, OrderStatus to);
+}
@@ -0,0 +1,121 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.repository.OrderTransitionResult.Outcome;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL implementation of {@link OrderBulkOperations}.
+ *
+ * The requested orders are first read as a projection of (id, status, version) and locked
+ * (SELECT ... FOR UPDATE, in id order), which decides the outcome of each order: nobody can
+ * change them until the end of the transaction. The orders found in the source status with
+ * their expected version are then moved with UPDATEs of up to {@value #CHUNK_SIZE} ids each.
+ */
+public class OrderBulkOperationsImpl implements OrderBulkOperations {
+
+    static final int CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<OrderTransitionResult> bulkTransition(Map<Long, Long> expectedVersions, OrderStatus from, OrderStatus to) {
+        if(expectedVersions.isEmpty()) return List.of();
+
+        // write pending changes first, so they are not lost or overwritten by the UPDATEs
+        entityManager.flush();
+
+        List<Long> ids = new ArrayList<>(expectedVersions.keySet());
+        Collections.sort(ids);
+        Map<Long, Object[]> current = lock(ids);
+
+        List<OrderTransitionResult> results = new ArrayList<>(ids.size());
+        List<Long> movable = new ArrayList<>(ids.size());
+        for(Long id : ids) {
+            Object[] row = current.get(id);
+
+            if(row == null) {
+                results.add(new OrderTransitionResult(id, Outcome.NOT_FOUND, null, null));
+                continue;
+            }
+
+            OrderStatus status = (OrderStatus) row[1];
+            Long version = (Long) row[2];
+            Long expected = expectedVersions.get(id);
+
+            if(expected == null || !expected.equals(version)) {
+                results.add(new OrderTransitionResult(id, Outcome.VERSION_CONFLICT, status, version));
+            } else if(status != from) {
+                results.add(new OrderTransitionResult(id, Outcome.STATUS_CONFLICT, status, version));
+            } else {
+                results.add(new OrderTransitionResult(id, Outcome.UPDATED, to, version + 1));
+                movable.add(id);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for(int start = 0; start < movable.size(); start += CHUNK_SIZE) {
+            entityManager.createQuery("update Order o set o.status = :to, o.version = o.version + 1, o.updatedAt = :now " +
+                            "where o.id in :ids and o.status = :from")
+                    .setParameter("to", to)
+                    .setParameter("now", now)
+                    .setParameter("ids", movable.subList(start, Math.min(start + CHUNK_SIZE, movable.size())))
+                    .setParameter("from", from)
+                    .executeUpdate();
+        }
+
+        // entities loaded before the UPDATEs are stale now
+        if(!movable.isEmpty()) entityManager.clear();
+
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<OrderTransitionResult> bulkTransitionAll(OrderStatus from, OrderStatus to) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "select o.id, o.version from Order o where o.status = :from", Object[].class)
+                .setParameter("from", from)
+                .getResultList();
+
+        Map<Long, Long> expectedVersions = new HashMap<>(rows.size() * 2);
+        for(Object[] row : rows) {
+            expectedVersions.put((Long) row[0], (Long) row[1]);
+        }
+
+        return bulkTransition(expectedVersions, from, to);
+    }
+
+    /**
+     * Reads (id, status, version) of the given orders and locks them until the end of the transaction.
+     *
+     * @param ids The ids of the orders, sorted so concurrent callers lock them in the same order
+     * @return The rows found, by order id
+     */
+    private Map<Long, Object[]> lock(List<Long> ids) {
+        Map<Long, Object[]> current = new HashMap<>(ids.size() * 2);
+
+        for(int start = 0; start < ids.size(); start += CHUNK_SIZE) {
+            entityManager.createQuery("select o.id, o.status, o.version from Order o where o.id in :ids order by o.id",
+                            Object[].class)
+                    .setParameter("ids", ids.subList(start, Math.min(start + CHUNK_SIZE, ids.size())))
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList()
+                    .forEach(row -> current.put((Long) row[0], row));
+        }
+
+        return current;
+    }
+}
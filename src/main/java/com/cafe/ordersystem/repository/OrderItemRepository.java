@@ -0,0 +1,89 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for {@link OrderItem} entities.
+ */
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Marks an item as prepared without loading it.
+     *
+     * @return 1 if the item was prepared by this call, 0 if it was already prepared or does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update OrderItem i set i.prepared = true, i.version = i.version + 1 where i.id = :id and i.prepared = false")
+    int markAsPrepared(@Param("id") Long id);
+
+    /**
+     * Reads what the kitchen needs to know about an item:
+     * [order id, product id, product name, category id, quantity].
+     */
+    @Query("select i.order.id, p.id, p.name, c.id, i.quantity from OrderItem i join i.product p left join p.category c " +
+            "where i.id = :id")
+    List<Object[]> findKitchenView(@Param("id") Long id);
+
+    /**
+     * Counts the items of an order and how many of them are prepared: [total, prepared].
+     */
+    @Query("select count(i), coalesce(sum(case when i.prepared = true then 1 else 0 end), 0) from OrderItem i " +
+            "where i.order.id = :orderId")
+    List<Object[]> countPreparation(@Param("orderId") Long orderId);
+
+    /**
+     * Reads what the kitchen scheduler needs about the items of an order:
+     * [item id, category id, preparation time, quantity, table number].
+     */
+    @Query("select i.id, c.id, p.preparationTime, i.quantity, o.tableNumber from OrderItem i " +
+            "join i.order o join i.product p left join p.category c where o.id = :orderId")
+    List<Object[]> findSchedulingLines(@Param("orderId") Long orderId);
+
+    /**
+     * Sums the items of the given orders per order and product category:
+     * [order id, category id (null without category), quantity, line amount net of item discounts].
+     */
+    @Query("select i.order.id, c.id, sum(i.quantity), sum(i.unitPrice * i.quantity - coalesce(i.discountAmount, 0)) " +
+            "from OrderItem i join i.product p left join p.category c where i.order.id in :orderIds " +
+            "group by i.order.id, c.id")
+    List<Object[]> sumSalesByCategory(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Sums the quantities of the given orders per product: [product id, category id (null without category), quantity].
+     */
+    @Query("select p.id, c.id, sum(i.quantity) from OrderItem i join i.product p left join p.category c " +
+            "where i.order.id in :orderIds group by p.id, c.id")
+    List<Object[]> sumQuantitiesByProduct(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Lists the exact best sellers among the orders paid in a time range and now in one of the given
+     * statuses: [product id, quantity], best seller first.
+     */
+    @Query("select i.product.id, sum(i.quantity) from OrderItem i join i.order o " +
+            "where o.paymentDate >= :from and o.paymentDate < :to and o.status in :statuses " +
+            "group by i.product.id order by sum(i.quantity) desc, i.product.id")
+    List<Object[]> findBestSellers(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("statuses") Collection<OrderStatus> statuses, Pageable pageable);
+
+    /**
+     * Same as {@link #findBestSellers} for the products of a category.
+     */
+    @Query("select p.id, sum(i.quantity) from OrderItem i join i.order o join i.product p " +
+            "where p.category.id = :categoryId and o.paymentDate >= :from and o.paymentDate < :to " +
+            "and o.status in :statuses group by p.id order by sum(i.quantity) desc, p.id")
+    List<Object[]> findBestSellersInCategory(@Param("categoryId") Long categoryId, @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("statuses") Collection<OrderStatus> statuses, Pageable pageable);
+}
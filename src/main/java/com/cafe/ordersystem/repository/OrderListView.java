@@ -0,0 +1,37 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A row of an order list, read with a single query instead of loading the orders.
+ *
+ * @param id The id of the order
+ * @param orderNumber The order number
+ * @param status The status of the order
+ * @param orderDate When the order was placed
+ * @param totalAmount The amount to pay
+ * @param takeaway Whether the order is takeaway
+ * @param tableNumber The table, null for takeaway
+ * @param customerFirstName The first name of the customer, null for anonymous orders
+ * @param customerLastName The last name of the customer, null for anonymous orders
+ * @param itemCount The number of order lines
+ */
+public record OrderListView(Long id, String orderNumber, OrderStatus status, LocalDateTime orderDate,
+                            BigDecimal totalAmount, boolean takeaway, Integer tableNumber,
+                            String customerFirstName, String customerLastName, int itemCount) {
+
+    /**
+     * Gets the full name of the customer.
+     *
+     * @return The name, or null for anonymous orders
+     */
+    public String getCustomerName() {
+        if(customerFirstName == null && customerLastName == null) return null;
+
+        return ((customerFirstName != null ? customerFirstName : "") + " "
+                + (customerLastName != null ? customerLastName : "")).trim();
+    }
+}
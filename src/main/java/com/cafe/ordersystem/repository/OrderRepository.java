@@ -0,0 +1,178 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for {@link Order} entities.
+ * Set-based, version-checked operations come from {@link OrderBulkOperations}.
+ *
+ * Single orders are read with one of the entity graphs of {@link Order}, order lists with
+ * the {@link OrderListView} projection, so no read path depends on lazy loading.
+ * Lists are paginated by keyset on (orderDate, id), see {@link KeysetCursor}.
+ */
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderBulkOperations {
+
+    String LIST_VIEW = "select new com.cafe.ordersystem.repository.OrderListView(o.id, o.orderNumber, o.status, " +
+            "o.orderDate, o.totalAmount, o.takeaway, o.tableNumber, c.firstName, c.lastName, size(o.items)) " +
+            "from Order o left join o.customer c ";
+
+    /**
+     * Finds the ids of the orders of a table that are in a given status,
+     * without loading the orders themselves.
+     */
+    @Query("select o.id from Order o where o.tableNumber = :tableNumber and o.status = :status")
+    List<Long> findIdsByTableNumberAndStatus(@Param("tableNumber") Integer tableNumber,
+                                             @Param("status") OrderStatus status);
+
+    /**
+     * Finds which of the given orders are in a given status and locks them (SELECT ... FOR UPDATE)
+     * until the end of the transaction, so they stay in that status until moved.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.id from Order o where o.id in :ids and o.status = :status")
+    List<Long> lockIdsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                      @Param("status") OrderStatus status);
+
+    /**
+     * Moves the given orders from one status to another with a single UPDATE.
+     * Orders no longer in the source status are left untouched.
+     * The version is incremented so entities loaded elsewhere detect the change.
+     *
+     * The persistence context is flushed before and cleared after the UPDATE, so no loaded
+     * Order keeps its old status: entities loaded before by the caller are detached.
+     *
+     * @return The number of orders updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :to, o.version = o.version + 1, o.updatedAt = :now " +
+            "where o.id in :ids and o.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") OrderStatus from,
+                     @Param("to") OrderStatus to,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Reads [client order number, id, order number] of the orders with one of the given client order numbers.
+     */
+    @Query("select o.clientOrderNumber, o.id, o.orderNumber from Order o where o.clientOrderNumber in :numbers")
+    List<Object[]> findByClientOrderNumbers(@Param("numbers") Collection<String> clientOrderNumbers);
+
+    /**
+     * Finds an order with its customer.
+     */
+    @EntityGraph(Order.SUMMARY_GRAPH)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Finds an order with its customer and its items with their products, to print a receipt.
+     */
+    @EntityGraph(Order.RECEIPT_GRAPH)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findReceiptById(@Param("id") Long id);
+
+    /**
+     * Finds an order with its items, their products and categories, for the kitchen.
+     */
+    @EntityGraph(Order.KITCHEN_TICKET_GRAPH)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findKitchenTicketById(@Param("id") Long id);
+
+    /**
+     * Finds an order with its customer and its items, their products and categories, to apply promotions.
+     */
+    @EntityGraph(Order.PRICING_GRAPH)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findPricingById(@Param("id") Long id);
+
+    /**
+     * Lists the first page of orders, most recent first, without loading them.
+     * Next pages are read by keyset with {@link #findListViewsAfter}.
+     *
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     * @return The orders of the page
+     */
+    @Query(LIST_VIEW + "order by o.orderDate desc, o.id desc")
+    List<OrderListView> findListViews(Pageable pageable);
+
+    /**
+     * Lists the orders placed before the cursor (orderDate, id), most recent first.
+     *
+     * @param at The order date of the last order of the previous page
+     * @param id The id of the last order of the previous page
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     * @return The orders of the page
+     */
+    @Query(LIST_VIEW + "where o.orderDate <= :at and (o.orderDate < :at or o.id < :id) order by o.orderDate desc, o.id desc")
+    List<OrderListView> findListViewsAfter(@Param("at") LocalDateTime at, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Lists the first page of orders in a given status, most recent first, without loading them.
+     * Next pages are read by keyset with {@link #findListViewsByStatusAfter}.
+     *
+     * @param status The status
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     * @return The orders of the page
+     */
+    @Query(LIST_VIEW + "where o.status = :status order by o.orderDate desc, o.id desc")
+    List<OrderListView> findListViewsByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    /**
+     * Lists the orders in a given status placed before the cursor (orderDate, id), most recent first.
+     */
+    @Query(LIST_VIEW + "where o.status = :status and o.orderDate <= :at and (o.orderDate < :at or o.id < :id) " +
+            "order by o.orderDate desc, o.id desc")
+    List<OrderListView> findListViewsByStatusAfter(@Param("status") OrderStatus status, @Param("at") LocalDateTime at,
+                                                   @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Reads what the order summaries need about the given orders:
+     * [id, order number, customer id, customer first name, customer last name, status, payment method,
+     * takeaway, table number, item count, subtotal, tax, discount, total, order date, payment date,
+     * created at, updated at].
+     */
+    @Query("select o.id, o.orderNumber, c.id, c.firstName, c.lastName, o.status, o.paymentMethod, " +
+            "o.takeaway, o.tableNumber, size(o.items), o.subtotal, o.taxAmount, o.discountAmount, o.totalAmount, " +
+            "o.orderDate, o.paymentDate, o.createdAt, o.updatedAt from Order o left join o.customer c where o.id in :ids")
+    List<Object[]> findSummaryRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads what the sales rollups need about the given orders:
+     * [id, payment method, takeaway, total, tax, discount].
+     */
+    @Query("select o.id, o.paymentMethod, o.takeaway, o.totalAmount, o.taxAmount, o.discountAmount " +
+            "from Order o where o.id in :ids")
+    List<Object[]> findSalesRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads what the loyalty ledger needs about an order of a loyalty member:
+     * [loyalty program id, payment method, total, loyalty points earned, member's balance].
+     * Empty if the order has no customer or the customer is not a member.
+     */
+    @Query("select lp.id, o.paymentMethod, o.totalAmount, o.loyaltyPointsEarned, lp.points " +
+            "from Order o join o.customer c join c.loyaltyProgram lp where o.id = :id")
+    List<Object[]> findLoyaltyRow(@Param("id") Long id);
+
+    /**
+     * Finds the orders created or changed after a time, including the orders of customers changed after it.
+     */
+    @Query("select o.id from Order o left join o.customer c " +
+            "where o.createdAt > :since or o.updatedAt > :since or c.updatedAt > :since")
+    List<Long> findIdsChangedSince(@Param("since") LocalDateTime since);
+}
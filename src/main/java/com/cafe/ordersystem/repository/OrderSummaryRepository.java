@@ -0,0 +1,84 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the {@link OrderSummary} read model.
+ *
+ * Lists are newest first and paginated by keyset (see {@link KeysetCursor}): each scope has a
+ * first-page query and an "after" query, both walking the matching composite index.
+ * The pageable only carries the page size, see {@link KeysetPage#limit}.
+ */
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    @Query("select s from OrderSummary s order by s.orderDate desc, s.orderId desc")
+    List<OrderSummary> findFirstPage(Pageable pageable);
+
+    @Query("select s from OrderSummary s where s.orderDate <= :at and (s.orderDate < :at or s.orderId < :id) " +
+            "order by s.orderDate desc, s.orderId desc")
+    List<OrderSummary> findPageAfter(@Param("at") LocalDateTime at, @Param("id") Long id, Pageable pageable);
+
+    @Query("select s from OrderSummary s where s.status = :status order by s.orderDate desc, s.orderId desc")
+    List<OrderSummary> findFirstPageByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    @Query("select s from OrderSummary s where s.status = :status " +
+            "and s.orderDate <= :at and (s.orderDate < :at or s.orderId < :id) " +
+            "order by s.orderDate desc, s.orderId desc")
+    List<OrderSummary> findPageByStatusAfter(@Param("status") OrderStatus status, @Param("at") LocalDateTime at,
+                                             @Param("id") Long id, Pageable pageable);
+
+    @Query("select s from OrderSummary s where s.customerId = :customerId order by s.orderDate desc, s.orderId desc")
+    List<OrderSummary> findFirstPageByCustomer(@Param("customerId") Long customerId, Pageable pageable);
+
+    @Query("select s from OrderSummary s where s.customerId = :customerId " +
+            "and s.orderDate <= :at and (s.orderDate < :at or s.orderId < :id) " +
+            "order by s.orderDate desc, s.orderId desc")
+    List<OrderSummary> findPageByCustomerAfter(@Param("customerId") Long customerId, @Param("at") LocalDateTime at,
+                                               @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Counts the orders of a customer, using the customer index.
+     */
+    long countByCustomerId(Long customerId);
+
+    /**
+     * Sums the orders placed in a time range per status: [status, order count, total amount].
+     */
+    @Query("select s.status, count(s), coalesce(sum(s.totalAmount), 0) from OrderSummary s " +
+            "where s.orderDate >= :from and s.orderDate < :to group by s.status")
+    List<Object[]> sumByStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Renames a customer in the summaries of their orders.
+     *
+     * @return The number of summaries updated
+     */
+    @Modifying
+    @Query("update OrderSummary s set s.customerName = :name where s.customerId = :customerId")
+    int updateCustomerName(@Param("customerId") Long customerId, @Param("name") String name);
+
+    /**
+     * Gets the time of the latest projection.
+     *
+     * @return The time, or null if nothing was projected
+     */
+    @Query("select max(s.projectedAt) from OrderSummary s")
+    LocalDateTime findLastProjectedAt();
+
+    /**
+     * Finds the summaries whose order no longer exists.
+     */
+    @Query("select s.orderId from OrderSummary s where not exists (select o.id from Order o where o.id = s.orderId)")
+    List<Long> findOrphanIds();
+}
@@ -0,0 +1,29 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+
+/**
+ * Outcome of a bulk status transition for a single order.
+ *
+ * @param orderId The id of the order
+ * @param outcome What happened to the order
+ * @param status The status of the order after the operation (null if not found)
+ * @param version The version of the order after the operation (null if not found)
+ */
+public record OrderTransitionResult(Long orderId, Outcome outcome, OrderStatus status, Long version) {
+
+    public enum Outcome {
+        /** The order was moved to the new status. */
+        UPDATED,
+        /** The order was modified by someone else since its version was read. */
+        VERSION_CONFLICT,
+        /** The order is no longer in the expected source status. */
+        STATUS_CONFLICT,
+        /** No order exists with this id. */
+        NOT_FOUND
+    }
+
+    public boolean isUpdated() {
+        return outcome == Outcome.UPDATED;
+    }
+}
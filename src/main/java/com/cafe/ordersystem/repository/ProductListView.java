@@ -0,0 +1,19 @@
+package com.cafe.ordersystem.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A row of the product list, read without loading the products.
+ *
+ * @param id The id of the product
+ * @param name The name
+ * @param price The price
+ * @param categoryId The category, null if the product has none
+ * @param active Whether the product is on sale
+ * @param stockLevel The stock level
+ * @param createdAt When the product was created, the pagination key with the id
+ */
+public record ProductListView(Long id, String name, BigDecimal price, Long categoryId, boolean active,
+                              Integer stockLevel, LocalDateTime createdAt) {
+}
@@ -0,0 +1,118 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.product.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for {@link Product} entities.
+ * Lists are paginated by keyset on (createdAt, id), newest first, see {@link KeysetCursor}.
+ */
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    String LIST_VIEW = "select new com.cafe.ordersystem.repository.ProductListView(p.id, p.name, p.price, " +
+            "p.category.id, p.active, p.stockLevel, p.createdAt) from Product p ";
+
+    /**
+     * Reads the stock level of a product without loading it.
+     *
+     * @return The stock level, or null if the product does not exist
+     */
+    @Query("select p.stockLevel from Product p where p.id = :id")
+    Integer findStockLevel(@Param("id") Long id);
+
+    /**
+     * Reads [id, name, stock level, reorder threshold] of the products at or below their
+     * reorder threshold, using the index on the generated reorder_gap column.
+     */
+    @Query("select p.id, p.name, p.stockLevel, p.reorderThreshold from Product p where p.reorderGap <= 0")
+    List<Object[]> findReorderLevelsAtThreshold();
+
+    /**
+     * Reads [id, name, stock level, reorder threshold] of the given products, when they have a threshold.
+     */
+    @Query("select p.id, p.name, p.stockLevel, p.reorderThreshold from Product p " +
+            "where p.id in :ids and p.reorderThreshold is not null")
+    List<Object[]> findReorderLevels(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads [id, name, description, price, image url, category id, preparation time, calories,
+     * vegetarian, vegan, gluten free, contains allergens, featured] of the active products
+     * that have a category, without loading the entities.
+     */
+    @Query("select p.id, p.name, p.description, p.price, p.imageUrl, c.id, p.preparationTime, p.calories, " +
+            "p.vegetarian, p.vegan, p.glutenFree, p.containsAllergens, p.featured " +
+            "from Product p join p.category c where p.active = true")
+    List<Object[]> findMenuRows();
+
+    /**
+     * Finds the products of a category and of all its sub-categories, at any depth,
+     * with one prefix range on the indexed category path.
+     *
+     * @param path The materialized path of the category, e.g. "/1/"
+     */
+    @Query("select p from Product p join fetch p.category c where c.path like concat(:path, '%')")
+    List<Product> findInCategorySubtree(@Param("path") String path);
+
+    /**
+     * Counts the products of a category and of all its sub-categories.
+     *
+     * @param path The materialized path of the category
+     */
+    @Query("select count(p) from Product p join p.category c where c.path like concat(:path, '%')")
+    long countInCategorySubtree(@Param("path") String path);
+
+    /**
+     * Reads [id, name, category id, featured, active] of the given products without loading the entities.
+     */
+    @Query("select p.id, p.name, p.category.id, p.featured, p.active from Product p where p.id in :ids")
+    List<Object[]> findBestSellerRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads products with their category in a single query.
+     */
+    @Query("select p from Product p left join fetch p.category where p.id in :ids")
+    List<Product> findAllWithCategory(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lists the first page of products, newest first.
+     *
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     */
+    @Query(LIST_VIEW + "order by p.createdAt desc, p.id desc")
+    List<ProductListView> findListViews(Pageable pageable);
+
+    /**
+     * Lists the products created before the cursor (createdAt, id), newest first.
+     *
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     */
+    @Query(LIST_VIEW + "where p.createdAt <= :at and (p.createdAt < :at or p.id < :id) order by p.createdAt desc, p.id desc")
+    List<ProductListView> findListViewsAfter(@Param("at") LocalDateTime at, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Lists the first page of products of a category, newest first.
+     *
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     */
+    @Query(LIST_VIEW + "where p.category.id = :categoryId order by p.createdAt desc, p.id desc")
+    List<ProductListView> findListViewsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    /**
+     * Lists the products of a category created before the cursor (createdAt, id), newest first.
+     *
+     * @param pageable The page size (see {@link KeysetPage#limit})
+     */
+    @Query(LIST_VIEW + "where p.category.id = :categoryId and p.createdAt <= :at and (p.createdAt < :at or p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<ProductListView> findListViewsByCategoryAfter(@Param("categoryId") Long categoryId, @Param("at") LocalDateTime at,
+                                                       @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.order.Promotion;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for {@link Promotion} entities.
+ * Lists are read with the products and categories in scope, in the same SELECT.
+ */
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, String> {
+
+    /**
+     * Finds the promotions that are switched on, whatever their validity period.
+     */
+    @EntityGraph(attributePaths = {"productIds", "categoryIds"})
+    List<Promotion> findByActiveTrue();
+
+    @Override
+    @EntityGraph(attributePaths = {"productIds", "categoryIds"})
+    List<Promotion> findAll();
+}
@@ -0,0 +1,32 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.product.RecipeIngredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for {@link RecipeIngredient} entities (product recipes).
+ */
+@Repository
+public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredient, RecipeIngredient.Key> {
+
+    /**
+     * Finds the recipe of a product.
+     */
+    List<RecipeIngredient> findByProductId(Long productId);
+
+    /**
+     * Sums the ingredients consumed by the items of several orders, in the database:
+     * [ingredient id, recipe unit (may be null), total quantity].
+     */
+    @Query("select r.ingredient.id, r.unitOfMeasure, sum(r.quantity * i.quantity) " +
+            "from RecipeIngredient r, OrderItem i " +
+            "where i.product = r.product and r.quantity is not null and i.order.id in :orderIds " +
+            "group by r.ingredient.id, r.unitOfMeasure")
+    List<Object[]> sumConsumption(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,11 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * A promotion applied to an order line.
+ *
+ * @param line The index of the line
+ * @param code The promotion code
+ * @param discountCents The discount on the line, in cents
+ */
+public record AppliedPromotion(int line, String code, long discountCents) {
+}
@@ -0,0 +1,239 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.repository.OrderItemRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Best-selling products per time range, in total and per category.
+ *
+ * The quantities sold are fed to a {@link BestSellerTracker} as orders are paid, or uploaded
+ * already paid by offline terminals (see {@link #record(Collection)}): the items of
+ * the orders paid by a transaction are summed per product with one query just before it commits,
+ * and counted once it has committed. Best sellers of the last week are then answered from memory,
+ * approximately, without scanning the order items. The exact answer, a GROUP BY over the order
+ * items, is still available for reports.
+ *
+ * The tracker is not persisted, it starts empty after a restart.
+ */
+@Service
+public class BestSellerService {
+
+    private static final Logger log = LoggerFactory.getLogger(BestSellerService.class);
+
+    /**
+     * Statuses of the orders counted as sold by the exact queries.
+     */
+    private static final Set<OrderStatus> SOLD = Set.of(OrderStatus.PAID, OrderStatus.IN_PREPARATION,
+            OrderStatus.READY, OrderStatus.COMPLETED);
+
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final BestSellerTracker tracker;
+
+    public BestSellerService(OrderItemRepository orderItemRepository, ProductRepository productRepository,
+                             OrderStatusTransitionService transitionService,
+                             @Value("${cafe.sales.best-sellers.capacity:200}") int capacity,
+                             @Value("${cafe.sales.best-sellers.category-capacity:50}") int categoryCapacity,
+                             @Value("${cafe.sales.best-sellers.sketch-width:512}") int sketchWidth,
+                             @Value("${cafe.sales.best-sellers.sketch-depth:4}") int sketchDepth) {
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+        this.tracker = new BestSellerTracker(capacity, categoryCapacity, sketchWidth, sketchDepth);
+
+        transitionService.register(OrderStatus.PAID, change -> record(change.orderId()));
+    }
+
+    /**
+     * Gets the approximate best sellers of a time range within the last week.
+     *
+     * @param categoryId The category, null for all products
+     * @param from The start of the range, included (truncated to the hour)
+     * @param to The end of the range, excluded
+     * @param n The number of products
+     * @return Up to n products, best seller first
+     */
+    public List<BestSellerView> topSellers(Long categoryId, LocalDateTime from, LocalDateTime to, int n) {
+        if(n <= 0) throw new IllegalArgumentException("The number of best sellers must be positive");
+
+        List<BestSellerTracker.BestSeller> top = tracker.top(categoryId, from, to, n);
+
+        Map<Long, Object[]> products = productRows(top.stream().map(BestSellerTracker.BestSeller::productId).toList());
+        List<BestSellerView> views = new ArrayList<>(top.size());
+        for(BestSellerTracker.BestSeller seller : top) {
+            views.add(view(seller.productId(), products.get(seller.productId()), seller.quantity(), seller.minQuantity()));
+        }
+
+        return views;
+    }
+
+    /**
+     * Gets the exact best sellers of a time range, among the orders paid in the range and not
+     * cancelled or refunded since, with a GROUP BY over their items.
+     *
+     * @param categoryId The category, null for all products
+     * @param from The start of the range, included
+     * @param to The end of the range, excluded
+     * @param n The number of products
+     * @return Up to n products, best seller first
+     */
+    public List<BestSellerView> exactTopSellers(Long categoryId, LocalDateTime from, LocalDateTime to, int n) {
+        if(n <= 0) throw new IllegalArgumentException("The number of best sellers must be positive");
+
+        List<Object[]> rows = categoryId != null
+                ? orderItemRepository.findBestSellersInCategory(categoryId, from, to, SOLD, PageRequest.ofSize(n))
+                : orderItemRepository.findBestSellers(from, to, SOLD, PageRequest.ofSize(n));
+
+        Map<Long, Object[]> products = productRows(rows.stream().map(row -> (Long) row[0]).toList());
+        List<BestSellerView> views = new ArrayList<>(rows.size());
+        for(Object[] row : rows) {
+            long quantity = ((Number) row[1]).longValue();
+            views.add(view((Long) row[0], products.get((Long) row[0]), quantity, quantity));
+        }
+
+        return views;
+    }
+
+    /**
+     * Suggests products to feature: the best sellers of a time range that are active and not featured yet.
+     *
+     * @param categoryId The category, null for all products
+     * @param from The start of the range, included
+     * @param to The end of the range, excluded
+     * @param n The number of suggestions
+     * @return Up to n products, best seller first
+     */
+    public List<BestSellerView> suggestFeatured(Long categoryId, LocalDateTime from, LocalDateTime to, int n) {
+        if(n <= 0) throw new IllegalArgumentException("The number of suggestions must be positive");
+
+        // the featured and inactive products are skipped, look further than n
+        List<BestSellerTracker.BestSeller> top = tracker.top(categoryId, from, to, n * 3);
+
+        Map<Long, Object[]> products = productRows(top.stream().map(BestSellerTracker.BestSeller::productId).toList());
+        List<BestSellerView> suggestions = new ArrayList<>(n);
+        for(BestSellerTracker.BestSeller seller : top) {
+            if(suggestions.size() == n) break;
+
+            Object[] product = products.get(seller.productId());
+            if(product == null || Boolean.TRUE.equals(product[3]) || !Boolean.TRUE.equals(product[4])) continue;
+
+            suggestions.add(view(seller.productId(), product, seller.quantity(), seller.minQuantity()));
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Estimates the quantity of a product sold in a time range within the last week.
+     *
+     * @param productId The product
+     * @param from The start of the range, included (truncated to the hour)
+     * @param to The end of the range, excluded
+     * @return The estimate, never below the quantity sold
+     */
+    public long estimateSold(Long productId, LocalDateTime from, LocalDateTime to) {
+        return tracker.estimate(productId, from, to);
+    }
+
+    /**
+     * Records the items of orders paid without a PAID transition, like the offline orders
+     * stored COMPLETED. Within a transaction, they are counted once it has committed.
+     *
+     * @param orderIds The orders
+     */
+    public void record(Collection<Long> orderIds) {
+        orderIds.forEach(this::record);
+    }
+
+    /**
+     * Records the items of a paid order. Within a transaction, they are read right before
+     * the commit and counted after it, otherwise they are counted immediately.
+     */
+    private void record(Long orderId) {
+        if(orderId == null) return;
+
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            count(orderItemRepository.sumQuantitiesByProduct(Set.of(orderId)), LocalDateTime.now());
+            return;
+        }
+
+        PendingSales pending = (PendingSales) TransactionSynchronizationManager.getResource(this);
+        if(pending == null) {
+            pending = new PendingSales();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+
+        pending.orderIds.add(orderId);
+    }
+
+    private void count(List<Object[]> rows, LocalDateTime at) {
+        for(Object[] row : rows) {
+            if(!tracker.record((Long) row[0], (Long) row[1], ((Number) row[2]).longValue(), at)) {
+                log.warn("Sales of product {} at {} are older than the best sellers tracked, ignored", row[0], at);
+            }
+        }
+    }
+
+    /**
+     * Reads [id, name, category id, featured, active] of products, by id.
+     */
+    private Map<Long, Object[]> productRows(List<Long> productIds) {
+        Map<Long, Object[]> rows = new HashMap<>();
+        if(productIds.isEmpty()) return rows;
+
+        for(Object[] row : productRepository.findBestSellerRows(productIds)) {
+            rows.put((Long) row[0], row);
+        }
+
+        return rows;
+    }
+
+    private static BestSellerView view(Long productId, Object[] product, long quantity, long minQuantity) {
+        if(product == null) return new BestSellerView(productId, null, null, quantity, minQuantity, false);
+
+        return new BestSellerView(productId, (String) product[1], (Long) product[2], quantity, minQuantity,
+                Boolean.TRUE.equals(product[3]));
+    }
+
+    /**
+     * The orders paid by a transaction, read before it commits and counted after.
+     */
+    private final class PendingSales implements TransactionSynchronization {
+        private final Set<Long> orderIds = new LinkedHashSet<>();
+        private List<Object[]> rows = List.of();
+        private LocalDateTime at;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            rows = orderItemRepository.sumQuantitiesByProduct(orderIds);
+            at = LocalDateTime.now();
+        }
+
+        @Override
+        public void afterCommit() {
+            count(rows, at);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BestSellerService.this);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.cafe.ordersystem.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate best sellers per hour over the last week, in total and per category, in bounded memory.
+ *
+ * Each hour has a slot in a ring (like the {@link SalesRollups} rings) holding:
+ * - a {@link SpaceSaving} summary of the products sold, and one per category
+ * - a {@link CountMinSketch} of the quantities sold per product
+ * The top products of a time range are found by merging the summaries of its hours. Their
+ * quantities are then bounded by the sketch too, both overestimate so the smaller one is kept.
+ *
+ * Memory per hour is (capacity + categories × category capacity) counters plus the sketch,
+ * whatever the number of products. Only sales are counted, refunds are not taken back.
+ * Like {@link KitchenScheduler}, the tracker has no clock of its own.
+ */
+public class BestSellerTracker {
+
+    /**
+     * Hours kept: a week.
+     */
+    public static final int SLOTS = 24 * 7;
+
+    /**
+     * An approximate best seller.
+     *
+     * @param productId The product
+     * @param quantity The estimated quantity sold, never below the true quantity
+     * @param minQuantity The quantity the product is guaranteed to have sold
+     */
+    public record BestSeller(long productId, long quantity, long minQuantity) {
+    }
+
+    private final int capacity;
+    private final int categoryCapacity;
+    private final int sketchWidth;
+    private final int sketchDepth;
+
+    private final Slot[] slots = new Slot[SLOTS];
+
+    /**
+     * @param capacity The number of products tracked per hour
+     * @param categoryCapacity The number of products tracked per category and hour
+     * @param sketchWidth The width of the hourly Count-Min sketches
+     * @param sketchDepth The depth of the hourly Count-Min sketches
+     */
+    public BestSellerTracker(int capacity, int categoryCapacity, int sketchWidth, int sketchDepth) {
+        if(capacity <= 0 || categoryCapacity <= 0) throw new IllegalArgumentException("Capacities must be positive");
+
+        this.capacity = capacity;
+        this.categoryCapacity = categoryCapacity;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+    }
+
+    /**
+     * Counts a sale.
+     *
+     * @param productId The product sold
+     * @param categoryId Its category, null if it has none
+     * @param quantity The quantity sold
+     * @param at When it was sold
+     * @return false if the time is older than the week kept, the sale was not counted
+     */
+    public synchronized boolean record(long productId, Long categoryId, long quantity, LocalDateTime at) {
+        if(quantity <= 0) return true;
+
+        long hour = hourOf(at);
+        int index = (int) Math.floorMod(hour, (long) SLOTS);
+        Slot slot = slots[index];
+        if(slot == null || slot.hour < hour) {
+            slot = new Slot(hour);
+            slots[index] = slot;
+        } else if(slot.hour > hour) {
+            return false;
+        }
+
+        slot.products.offer(productId, quantity);
+        slot.quantities.add(productId, quantity);
+        if(categoryId != null) {
+            slot.categories.computeIfAbsent(categoryId, id -> new SpaceSaving(categoryCapacity)).offer(productId, quantity);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the best sellers of a time range.
+     *
+     * @param categoryId The category, null for all products
+     * @param from The start of the range, included (truncated to the hour)
+     * @param to The end of the range, excluded
+     * @param n The number of products
+     * @return Up to n products, best seller first
+     */
+    public synchronized List<BestSeller> top(Long categoryId, LocalDateTime from, LocalDateTime to, int n) {
+        SpaceSaving merged = new SpaceSaving(categoryId != null ? categoryCapacity : capacity);
+        CountMinSketch quantities = new CountMinSketch(sketchWidth, sketchDepth);
+
+        for(Slot slot : slots(from, to)) {
+            SpaceSaving summary = categoryId != null ? slot.categories.get(categoryId) : slot.products;
+            if(summary != null) merged.merge(summary);
+            quantities.merge(slot.quantities);
+        }
+
+        List<BestSeller> top = new ArrayList<>(n);
+        for(SpaceSaving.Entry entry : merged.top(merged.getCapacity())) {
+            long quantity = Math.min(entry.count(), quantities.estimate(entry.item()));
+            top.add(new BestSeller(entry.item(), quantity, Math.min(entry.lowerBound(), quantity)));
+        }
+
+        // the sketch may have lowered some quantities below others
+        top.sort((a, b) -> Long.compare(b.quantity(), a.quantity()));
+        return top.size() > n ? new ArrayList<>(top.subList(0, n)) : top;
+    }
+
+    /**
+     * Estimates the quantity of a product sold in a time range.
+     *
+     * @param productId The product
+     * @param from The start of the range, included (truncated to the hour)
+     * @param to The end of the range, excluded
+     * @return The estimate, never below the true quantity
+     */
+    public synchronized long estimate(long productId, LocalDateTime from, LocalDateTime to) {
+        CountMinSketch quantities = new CountMinSketch(sketchWidth, sketchDepth);
+        for(Slot slot : slots(from, to)) {
+            quantities.merge(slot.quantities);
+        }
+
+        return quantities.estimate(productId);
+    }
+
+    /**
+     * Gets the memory used by the counters of the hours having sales, in bytes (approximate).
+     */
+    public synchronized long getCounterBytes() {
+        long bytes = 0;
+        for(Slot slot : slots) {
+            if(slot == null) continue;
+
+            bytes += slot.quantities.getCounterBytes();
+            bytes += SpaceSaving.ENTRY_BYTES * (slot.products.size()
+                    + slot.categories.values().stream().mapToLong(SpaceSaving::size).sum());
+        }
+
+        return bytes;
+    }
+
+    private List<Slot> slots(LocalDateTime from, LocalDateTime to) {
+        long first = hourOf(from);
+        long end = Math.floorDiv(to.toEpochSecond(ZoneOffset.UTC) - 1, 3_600L) + 1;
+
+        List<Slot> covered = new ArrayList<>();
+        for(Slot slot : slots) {
+            if(slot != null && slot.hour >= first && slot.hour < end) covered.add(slot);
+        }
+
+        return covered;
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3_600L);
+    }
+
+    private final class Slot {
+        private final long hour;
+        private final SpaceSaving products = new SpaceSaving(capacity);
+        private final Map<Long, SpaceSaving> categories = new HashMap<>();
+        private final CountMinSketch quantities = new CountMinSketch(sketchWidth, sketchDepth);
+
+        private Slot(long hour) {
+            this.hour = hour;
+        }
+    }
+}
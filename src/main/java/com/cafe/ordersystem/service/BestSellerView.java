@@ -0,0 +1,15 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * A best seller of a time range.
+ *
+ * @param productId The product
+ * @param productName Its name, null if it was deleted
+ * @param categoryId Its category
+ * @param quantity The quantity sold (an upper bound when approximate)
+ * @param minQuantity The quantity guaranteed to have been sold (equal to quantity when exact)
+ * @param featured Whether the product is currently featured
+ */
+public record BestSellerView(Long productId, String productName, Long categoryId, long quantity, long minQuantity,
+                             boolean featured) {
+}
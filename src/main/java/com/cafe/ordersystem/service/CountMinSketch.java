@@ -0,0 +1,103 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * Count-Min sketch: approximate counts of any number of items in a fixed table of
+ * depth rows of width counters.
+ *
+ * An item is counted in one counter per row, chosen by a row-specific hash, and its
+ * estimate is the smallest of those counters. Estimates never undercount; with
+ * width = ⌈e / ε⌉ and depth = ⌈ln(1 / δ)⌉ they overcount by more than ε × total with
+ * probability at most δ.
+ *
+ * Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counts;
+    private final long[] seeds;
+    private long total;
+
+    /**
+     * @param width The number of counters per row
+     * @param depth The number of rows
+     */
+    public CountMinSketch(int width, int depth) {
+        if(width <= 0 || depth <= 0) throw new IllegalArgumentException("Width and depth must be positive");
+
+        this.width = width;
+        this.depth = depth;
+        this.counts = new long[width * depth];
+        this.seeds = new long[depth];
+        for(int row = 0; row < depth; row++) {
+            seeds[row] = 0x9E3779B97F4A7C15L * (row + 1);
+        }
+    }
+
+    /**
+     * Counts occurrences of an item.
+     *
+     * @param item The item
+     * @param count The number of occurrences, positive
+     */
+    public void add(long item, long count) {
+        if(count <= 0) throw new IllegalArgumentException("Count must be positive");
+
+        for(int row = 0; row < depth; row++) {
+            counts[row * width + column(item, row)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Adds the counts of a sketch of the same dimensions to this one.
+     *
+     * @param other The other sketch
+     */
+    public void merge(CountMinSketch other) {
+        if(other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Sketches of different dimensions cannot be merged");
+        }
+
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Estimates the count of an item.
+     *
+     * @return The estimate, never below the true count
+     */
+    public long estimate(long item) {
+        long estimate = Long.MAX_VALUE;
+        for(int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + column(item, row)]);
+        }
+
+        return estimate;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the memory used by the counters, in bytes.
+     */
+    public long getCounterBytes() {
+        return counts.length * (long) Long.BYTES;
+    }
+
+    private int column(long item, int row) {
+        // splitmix64 finalizer, seeded per row
+        long hash = item + seeds[row];
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash = hash ^ (hash >>> 31);
+
+        return (int) Math.floorMod(hash, (long) width);
+    }
+}
@@ -0,0 +1,25 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * A customer as found by the {@link CustomerSearchIndex}.
+ *
+ * @param customerId The id of the customer
+ * @param firstName The first name
+ * @param lastName The last name
+ * @param email The email address, null if none
+ * @param phoneNumber The phone number, null if none
+ * @param memberNumber The loyalty member number, null if none
+ */
+public record CustomerSearchEntry(Long customerId, String firstName, String lastName, String email,
+                                  String phoneNumber, String memberNumber) {
+
+    /**
+     * Copies the entry with another member number.
+     *
+     * @param memberNumber The member number, null if none
+     * @return The new entry
+     */
+    public CustomerSearchEntry withMemberNumber(String memberNumber) {
+        return new CustomerSearchEntry(customerId, firstName, lastName, email, phoneNumber, memberNumber);
+    }
+}
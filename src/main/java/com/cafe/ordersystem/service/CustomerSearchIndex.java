@@ -0,0 +1,836 @@
+package com.cafe.ordersystem.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of the customers for the lookups at the register: by phone number, email,
+ * loyalty member number, or first and last name.
+ *
+ * Each customer takes a slot. Phone numbers (digits only), emails (lower case) and member numbers
+ * (upper case letters and digits) are hashed to 64 bits into open-addressing tables of slots, the
+ * value found being checked against the customer. Names are split into lower-case ASCII tokens
+ * ("Zoë O'Brien-Smith" gives zoe, obrien and smith) stored in a trie whose nodes list the slots
+ * of the customers having that token.
+ *
+ * A name query matches the customers having, for each of its tokens, a name token starting with it,
+ * up to 1 typo (a wrong, missing, extra or swapped character) for query tokens of 4 characters or
+ * more, 2 from 8. The candidates come from the trie subtrees of one query token, the one that is an
+ * exact prefix for the fewest customers, the other tokens are checked on each candidate. Typos are
+ * only looked for when no customer matches the query exactly.
+ *
+ * Thread-safe: lookups share a read lock, changes take the write lock.
+ */
+public class CustomerSearchIndex {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+    private static final int[] NO_SLOTS = new int[0];
+
+    private static final Pattern PHONE = Pattern.compile("[+0-9 ()./-]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    /**
+     * The fewest digits of a query looked up as a phone number.
+     */
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Indexed[] slots;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int size;
+
+    private final LongIntTable byId;
+    private final LongIntTable byPhone;
+    private final LongIntTable byEmail;
+    private final LongIntTable byMemberNumber;
+    private final TrieNode names = new TrieNode();
+
+    public CustomerSearchIndex() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSize The number of customers to size the tables for
+     */
+    public CustomerSearchIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.slots = new Indexed[capacity];
+        this.byId = new LongIntTable(capacity);
+        this.byPhone = new LongIntTable(capacity);
+        this.byEmail = new LongIntTable(capacity);
+        this.byMemberNumber = new LongIntTable(capacity);
+    }
+
+    /**
+     * Adds a customer, or replaces it.
+     *
+     * @param entry The customer
+     */
+    public void put(CustomerSearchEntry entry) {
+        Indexed indexed = Indexed.of(entry);
+
+        lock.writeLock().lock();
+        try {
+            put(indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a customer unless it is already indexed, e.g. while loading customers that may have
+     * been changed (and indexed) since they were read.
+     *
+     * @param entry The customer
+     * @return true if it was added
+     */
+    public boolean putIfAbsent(CustomerSearchEntry entry) {
+        Indexed indexed = Indexed.of(entry);
+
+        lock.writeLock().lock();
+        try {
+            if(byId.get(entry.customerId()) >= 0) return false;
+
+            put(indexed);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the member number of an indexed customer.
+     *
+     * @param customerId The customer
+     * @param memberNumber The member number, null if none
+     * @return false if the customer is not indexed
+     */
+    public boolean setMemberNumber(Long customerId, String memberNumber) {
+        lock.writeLock().lock();
+        try {
+            int slot = byId.get(customerId);
+            if(slot < 0) return false;
+
+            put(Indexed.of(slots[slot].entry().withMemberNumber(memberNumber)));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a customer.
+     *
+     * @param customerId The customer
+     * @return false if it was not indexed
+     */
+    public boolean remove(Long customerId) {
+        lock.writeLock().lock();
+        try {
+            int slot = byId.get(customerId);
+            if(slot < 0) return false;
+
+            unindex(slot);
+            byId.remove(customerId);
+            slots[slot] = null;
+            release(slot);
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of customers indexed.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets an indexed customer.
+     *
+     * @param customerId The customer
+     * @return The customer, null if not indexed
+     */
+    public CustomerSearchEntry get(Long customerId) {
+        lock.readLock().lock();
+        try {
+            int slot = byId.get(customerId);
+            return slot >= 0 ? slots[slot].entry() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds a customer by phone number, whatever its formatting.
+     *
+     * @param phoneNumber The phone number
+     * @return The customer, null if none
+     */
+    public CustomerSearchEntry findByPhone(String phoneNumber) {
+        String phone = normalizePhone(phoneNumber);
+        return phone == null ? null : find(byPhone, phone, entry -> normalizePhone(entry.phoneNumber()));
+    }
+
+    /**
+     * Finds a customer by email, ignoring case.
+     *
+     * @param email The email
+     * @return The customer, null if none
+     */
+    public CustomerSearchEntry findByEmail(String email) {
+        String normalized = normalizeEmail(email);
+        return normalized == null ? null : find(byEmail, normalized, entry -> normalizeEmail(entry.email()));
+    }
+
+    /**
+     * Finds a customer by loyalty member number, ignoring case and separators.
+     *
+     * @param memberNumber The member number
+     * @return The customer, null if none
+     */
+    public CustomerSearchEntry findByMemberNumber(String memberNumber) {
+        String normalized = normalizeMemberNumber(memberNumber);
+        return normalized == null ? null
+                : find(byMemberNumber, normalized, entry -> normalizeMemberNumber(entry.memberNumber()));
+    }
+
+    /**
+     * Searches customers with what was typed at the register: an email if it contains @,
+     * a member number, a phone number if it only has phone characters and enough digits,
+     * or else (part of) a name.
+     *
+     * @param query What was typed
+     * @param limit The maximum number of customers
+     * @return The customers found, best matches first
+     */
+    public List<CustomerSearchEntry> search(String query, int limit) {
+        if(query == null || query.isBlank() || limit <= 0) return List.of();
+
+        String trimmed = query.trim();
+        if(trimmed.indexOf('@') >= 0) return asList(findByEmail(trimmed));
+
+        CustomerSearchEntry member = findByMemberNumber(trimmed);
+        if(member != null) return List.of(member);
+
+        String phone = normalizePhone(trimmed);
+        if(phone != null && phone.length() >= MIN_PHONE_DIGITS && PHONE.matcher(trimmed).matches()) {
+            return asList(findByPhone(phone));
+        }
+
+        return searchNames(trimmed, limit);
+    }
+
+    /**
+     * Searches customers by first and last name, with prefixes and typos.
+     *
+     * @param query Names or beginnings of names, in any order
+     * @param limit The maximum number of customers
+     * @return The customers found, exact prefixes first
+     */
+    public List<CustomerSearchEntry> searchNames(String query, int limit) {
+        String[] tokens = tokens(query);
+        if(tokens.length == 0 || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            // the token that is an exact prefix for the fewest customers drives the search,
+            // the one that is no exact prefix at all (probably with a typo) if any
+            TrieNode[] exact = new TrieNode[tokens.length];
+            int driving = 0;
+            long drivingCount = Long.MAX_VALUE;
+
+            for(int i = 0; i < tokens.length; i++) {
+                exact[i] = names.find(tokens[i]);
+                long count = exact[i] != null ? exact[i].total : 0;
+                if(count < drivingCount || count == drivingCount && tokens[i].length() > tokens[driving].length()) {
+                    driving = i;
+                    drivingCount = count;
+                }
+            }
+
+            int skipped = driving;
+            List<CustomerSearchEntry> found = new ArrayList<>(Math.min(limit, 64));
+
+            if(exact[driving] != null) {
+                visit(exact[driving], slot -> {
+                    Indexed indexed = slots[slot];
+                    if(matchesAll(indexed.tokens(), tokens, skipped, false)) addOnce(found, indexed.entry());
+                    return found.size() < limit;
+                });
+            }
+            if(!found.isEmpty()) return found;
+
+            // no exact prefix match, look for typos
+            for(TokenMatch match : fuzzyMatches(tokens[driving])) {
+                boolean more = visit(match.node(), slot -> {
+                    Indexed indexed = slots[slot];
+                    if(matchesAll(indexed.tokens(), tokens, skipped, true)) addOnce(found, indexed.entry());
+                    return found.size() < limit;
+                });
+                if(!more) break;
+            }
+
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a customer to the results unless it is already there, e.g. found through another of its names.
+     */
+    private static void addOnce(List<CustomerSearchEntry> found, CustomerSearchEntry entry) {
+        for(CustomerSearchEntry existing : found) {
+            if(existing == entry) return;
+        }
+        found.add(entry);
+    }
+
+    private void put(Indexed indexed) {
+        Long customerId = indexed.entry().customerId();
+        int slot = byId.get(customerId);
+
+        if(slot >= 0) {
+            unindex(slot);
+        } else {
+            slot = allocate();
+            byId.put(customerId, slot);
+            size++;
+        }
+
+        slots[slot] = indexed;
+
+        CustomerSearchEntry entry = indexed.entry();
+        String phone = normalizePhone(entry.phoneNumber());
+        if(phone != null) byPhone.put(hash(phone), slot);
+        String email = normalizeEmail(entry.email());
+        if(email != null) byEmail.put(hash(email), slot);
+        String memberNumber = normalizeMemberNumber(entry.memberNumber());
+        if(memberNumber != null) byMemberNumber.put(hash(memberNumber), slot);
+
+        // the tokens are shared with the trie, one string per distinct name
+        String[] tokens = indexed.tokens();
+        for(int i = 0; i < tokens.length; i++) {
+            tokens[i] = names.add(tokens[i], slot);
+        }
+    }
+
+    /**
+     * Removes a slot from the phone, email, member number and name indexes.
+     */
+    private void unindex(int slot) {
+        Indexed indexed = slots[slot];
+        CustomerSearchEntry entry = indexed.entry();
+
+        String phone = normalizePhone(entry.phoneNumber());
+        if(phone != null) byPhone.remove(hash(phone), slot);
+        String email = normalizeEmail(entry.email());
+        if(email != null) byEmail.remove(hash(email), slot);
+        String memberNumber = normalizeMemberNumber(entry.memberNumber());
+        if(memberNumber != null) byMemberNumber.remove(hash(memberNumber), slot);
+
+        for(String token : indexed.tokens()) {
+            names.remove(token, slot);
+        }
+    }
+
+    private int allocate() {
+        if(freeCount > 0) return freeSlots[--freeCount];
+
+        if(slotCount == slots.length) slots = Arrays.copyOf(slots, slots.length * 2);
+        return slotCount++;
+    }
+
+    private void release(int slot) {
+        if(freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private CustomerSearchEntry find(LongIntTable table, String normalized,
+                                     Function<CustomerSearchEntry, String> indexedValue) {
+        lock.readLock().lock();
+        try {
+            int slot = table.get(hash(normalized));
+            if(slot < 0) return null;
+
+            CustomerSearchEntry entry = slots[slot].entry();
+            return normalized.equals(indexedValue.apply(entry)) ? entry : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the trie nodes whose tokens are within the allowed typos of a query token, closest first.
+     */
+    private List<TokenMatch> fuzzyMatches(String token) {
+        int maxEdits = maxEdits(token);
+        if(maxEdits == 0) return List.of();
+
+        // one row per trie depth, a deeper node being more than maxEdits away
+        int[][] rows = new int[token.length() + maxEdits + 2][token.length() + 1];
+        fillFirstRow(rows[0]);
+
+        List<TokenMatch> matches = new ArrayList<>();
+        for(int i = 0; i < names.keys.length; i++) {
+            matchFuzzy(names.children[i], names.keys[i], (char) 0, token, rows, 1, maxEdits, matches);
+        }
+
+        matches.sort(Comparator.comparingInt(TokenMatch::edits));
+        return matches;
+    }
+
+    /**
+     * Walks the trie with one row of the edit distance matrix per node, emitting the nodes whose
+     * token is within the allowed edits of the query (their whole subtree matches as prefixes).
+     */
+    private static void matchFuzzy(TrieNode node, char c, char previousChar, String token, int[][] rows, int depth,
+                                   int maxEdits, List<TokenMatch> matches) {
+        int[] row = rows[depth];
+        nextRow(token, depth > 1 ? rows[depth - 2] : null, rows[depth - 1], c, previousChar, row);
+        int distance = row[row.length - 1];
+
+        if(distance <= maxEdits) {
+            if(distance > 0 && node.total > 0) matches.add(new TokenMatch(node, distance));
+            return;
+        }
+
+        if(min(row) > maxEdits) return;
+
+        for(int i = 0; i < node.keys.length; i++) {
+            matchFuzzy(node.children[i], node.keys[i], c, token, rows, depth + 1, maxEdits, matches);
+        }
+    }
+
+    /**
+     * Visits the slots of a subtree, the node's own first.
+     *
+     * @return false if the visitor stopped the visit
+     */
+    private static boolean visit(TrieNode node, IntPredicate visitor) {
+        for(int i = 0; i < node.count; i++) {
+            if(!visitor.test(node.slots[i])) return false;
+        }
+        for(TrieNode child : node.children) {
+            if(child.total > 0 && !visit(child, visitor)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that each query token but one starts some name token, exactly or within the allowed typos.
+     */
+    private static boolean matchesAll(String[] nameTokens, String[] queryTokens, int skipped, boolean typos) {
+        for(int i = 0; i < queryTokens.length; i++) {
+            if(i == skipped) continue;
+
+            int maxEdits = typos ? maxEdits(queryTokens[i]) : 0;
+            boolean matched = false;
+            for(String nameToken : nameTokens) {
+                if(isPrefixWithin(queryTokens[i], nameToken, maxEdits)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if(!matched) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a query is within some edits of a prefix of a token.
+     */
+    static boolean isPrefixWithin(String query, String token, int maxEdits) {
+        if(token.startsWith(query)) return true;
+        if(maxEdits == 0) return false;
+
+        int[] beforePrevious = new int[query.length() + 1];
+        int[] previous = new int[query.length() + 1];
+        int[] row = new int[query.length() + 1];
+        fillFirstRow(previous);
+        if(previous[query.length()] <= maxEdits) return true;
+
+        for(int j = 0; j < token.length(); j++) {
+            nextRow(query, j > 0 ? beforePrevious : null, previous, token.charAt(j), j > 0 ? token.charAt(j - 1) : 0, row);
+            if(row[query.length()] <= maxEdits) return true;
+            if(min(row) > maxEdits) return false;
+
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = row;
+            row = recycled;
+        }
+        return false;
+    }
+
+    private static void fillFirstRow(int[] row) {
+        for(int i = 0; i < row.length; i++) row[i] = i;
+    }
+
+    /**
+     * Computes the edit distances (optimal string alignment: insertions, deletions, substitutions
+     * and transpositions of adjacent characters) from the prefixes of the query to a token one
+     * character longer.
+     *
+     * @param query The query
+     * @param beforePrevious The row of the token without its last two characters, null if it has one
+     * @param previous The row of the token without its last character
+     * @param c The last character of the token
+     * @param previousChar The character before it
+     * @param row The row of the token, computed
+     */
+    private static void nextRow(String query, int[] beforePrevious, int[] previous, char c, char previousChar, int[] row) {
+        row[0] = previous[0] + 1;
+
+        for(int i = 1; i < row.length; i++) {
+            char q = query.charAt(i - 1);
+            row[i] = Math.min(previous[i - 1] + (q == c ? 0 : 1), Math.min(row[i - 1], previous[i]) + 1);
+
+            if(beforePrevious != null && i > 1 && q == previousChar && query.charAt(i - 2) == c) {
+                row[i] = Math.min(row[i], beforePrevious[i - 2] + 1);
+            }
+        }
+    }
+
+    private static int min(int[] row) {
+        int min = row[0];
+        for(int value : row) min = Math.min(min, value);
+        return min;
+    }
+
+    private static int maxEdits(String token) {
+        return token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+    }
+
+    /**
+     * Splits names into lower-case ASCII tokens, accents removed and apostrophes dropped.
+     *
+     * @param names The names, e.g. "Zoë O'Brien-Smith"
+     * @return The distinct tokens, e.g. [zoe, obrien, smith]
+     */
+    static String[] tokens(String names) {
+        if(names == null) return new String[0];
+
+        Set<String> tokens = new LinkedHashSet<>(4);
+        StringBuilder token = new StringBuilder();
+
+        for(int i = 0; i < names.length(); i++) {
+            char c = names.charAt(i);
+
+            // outside of ASCII, fold the whole string first
+            if(c > 127) return foldedTokens(names);
+
+            if(c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+                token.append(c);
+            } else if(c >= 'A' && c <= 'Z') {
+                token.append((char) (c + ('a' - 'A')));
+            } else if(c != '\'') {
+                if(!token.isEmpty()) tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if(!token.isEmpty()) tokens.add(token.toString());
+
+        return tokens.toArray(new String[0]);
+    }
+
+    private static String[] foldedTokens(String names) {
+        String folded = MARKS.matcher(Normalizer.normalize(names.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("")
+                .replace("'", "")
+                .replace("’", "");
+
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    static String normalizePhone(String phoneNumber) {
+        if(phoneNumber == null) return null;
+
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for(int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if(c >= '0' && c <= '9') digits.append(c);
+        }
+        return digits.isEmpty() ? null : digits.toString();
+    }
+
+    static String normalizeEmail(String email) {
+        if(email == null || email.isBlank()) return null;
+
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String normalizeMemberNumber(String memberNumber) {
+        if(memberNumber == null) return null;
+
+        StringBuilder normalized = new StringBuilder(memberNumber.length());
+        for(int i = 0; i < memberNumber.length(); i++) {
+            char c = memberNumber.charAt(i);
+            if(c >= 'a' && c <= 'z') {
+                normalized.append((char) (c - ('a' - 'A')));
+            } else if(c >= 'A' && c <= 'Z' || c >= '0' && c <= '9') {
+                normalized.append(c);
+            }
+        }
+        return normalized.isEmpty() ? null : normalized.toString();
+    }
+
+    /**
+     * 64-bit FNV-1a hash, never 0 (the empty key of the tables).
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for(int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static List<CustomerSearchEntry> asList(CustomerSearchEntry entry) {
+        return entry == null ? List.of() : List.of(entry);
+    }
+
+    /**
+     * A customer in its slot, with its name tokens.
+     */
+    private record Indexed(CustomerSearchEntry entry, String[] tokens) {
+
+        private static Indexed of(CustomerSearchEntry entry) {
+            if(entry.customerId() == null) throw new IllegalArgumentException("Customer id cannot be null");
+
+            String[] first = CustomerSearchIndex.tokens(entry.firstName());
+            String[] last = CustomerSearchIndex.tokens(entry.lastName());
+
+            Set<String> tokens = new LinkedHashSet<>(Arrays.asList(first));
+            tokens.addAll(Arrays.asList(last));
+            return new Indexed(entry, tokens.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * A trie node matching a query token, with the number of typos.
+     */
+    private record TokenMatch(TrieNode node, int edits) {
+    }
+
+    /**
+     * A node of the name trie. Children are kept sorted by character. Nodes whose customers are
+     * all gone are left in place, the set of distinct names being small.
+     */
+    private static final class TrieNode {
+        private char[] keys = NO_KEYS;
+        private TrieNode[] children = NO_CHILDREN;
+
+        /**
+         * The token ending here, shared by the customers having it.
+         */
+        private String token;
+
+        /**
+         * The slots of the customers having this token.
+         */
+        private int[] slots = NO_SLOTS;
+        private int count;
+
+        /**
+         * The slots listed in this subtree.
+         */
+        private int total;
+
+        private TrieNode find(String token) {
+            TrieNode node = this;
+            for(int i = 0; i < token.length() && node != null; i++) {
+                int index = Arrays.binarySearch(node.keys, token.charAt(i));
+                node = index >= 0 ? node.children[index] : null;
+            }
+            return node;
+        }
+
+        /**
+         * @return The shared instance of the token
+         */
+        private String add(String token, int slot) {
+            TrieNode node = this;
+            node.total++;
+
+            for(int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                int index = Arrays.binarySearch(node.keys, c);
+
+                if(index < 0) {
+                    index = -index - 1;
+                    node.keys = insert(node.keys, index, c);
+                    node.children = insert(node.children, index, new TrieNode());
+                }
+
+                node = node.children[index];
+                node.total++;
+            }
+
+            if(node.token == null) node.token = token;
+            if(node.count == node.slots.length) node.slots = Arrays.copyOf(node.slots, Math.max(2, node.count * 2));
+            node.slots[node.count++] = slot;
+
+            return node.token;
+        }
+
+        private void remove(String token, int slot) {
+            TrieNode node = find(token);
+            if(node == null) return;
+
+            int index = -1;
+            for(int i = 0; i < node.count; i++) {
+                if(node.slots[i] == slot) {
+                    index = i;
+                    break;
+                }
+            }
+            if(index < 0) return;
+
+            // the order of the slots of a token does not matter
+            node.slots[index] = node.slots[--node.count];
+
+            TrieNode current = this;
+            current.total--;
+            for(int i = 0; i < token.length(); i++) {
+                current = current.children[Arrays.binarySearch(current.keys, token.charAt(i))];
+                current.total--;
+            }
+        }
+
+        private static char[] insert(char[] array, int index, char value) {
+            char[] copy = new char[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+            return copy;
+        }
+
+        private static TrieNode[] insert(TrieNode[] array, int index, TrieNode value) {
+            TrieNode[] copy = new TrieNode[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+            return copy;
+        }
+    }
+
+    /**
+     * Open-addressing hash table from non-zero long keys to slots, with linear probing.
+     */
+    private static final class LongIntTable {
+        private long[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        private LongIntTable(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        /**
+         * @return The slot, -1 if none
+         */
+        private int get(long key) {
+            for(int i = index(key); ; i = (i + 1) & mask) {
+                if(keys[i] == key) return values[i];
+                if(keys[i] == 0) return -1;
+            }
+        }
+
+        private void put(long key, int value) {
+            if((size + 1) * 2 > keys.length) grow();
+
+            int i = index(key);
+            while(keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+
+            if(keys[i] == 0) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void remove(long key) {
+            remove(key, -1);
+        }
+
+        /**
+         * Removes a key, if it maps to the slot (any slot for -1).
+         */
+        private void remove(long key, int slot) {
+            int i = index(key);
+            while(keys[i] != key) {
+                if(keys[i] == 0) return;
+                i = (i + 1) & mask;
+            }
+            if(slot >= 0 && values[i] != slot) return;
+
+            // shift back the following keys that probed past the freed position
+            int gap = i;
+            for(int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = index(keys[j]);
+                boolean movable = gap <= j ? home <= gap || home > j : home <= gap && home > j;
+                if(movable) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+
+            keys[gap] = 0;
+            size--;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            mask = keys.length - 1;
+            size = 0;
+
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldKeys[i] != 0) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private int index(long key) {
+            long mixed = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+            return (int) (mixed ^ (mixed >>> 33)) & mask;
+        }
+    }
+}
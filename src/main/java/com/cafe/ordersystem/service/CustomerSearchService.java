@@ -0,0 +1,198 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Customer lookups at the register, answered from a {@link CustomerSearchIndex} of the active
+ * customers instead of the customers table (names and member numbers have no usable index there).
+ *
+ * The index is loaded at startup with one query, then kept in sync with the committed writes of
+ * Customer and LoyaltyProgram through a Hibernate post-commit listener. Bulk JPQL and JDBC updates
+ * of these columns are not seen until the next restart.
+ */
+@Service
+public class CustomerSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSearchService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CustomerSearchIndex index = new CustomerSearchIndex();
+
+    /**
+     * Guards the index writes of the listener against the rows of a running load.
+     */
+    private final Object loadLock = new Object();
+
+    /**
+     * Customers removed from the index since the running load started, null when no load is running.
+     */
+    private Set<Long> removedDuringLoad;
+
+    public CustomerSearchService(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        new CustomerListener().registerWith(entityManagerFactory);
+    }
+
+    /**
+     * Indexes the active customers. Customers written meanwhile are indexed by the listener,
+     * so the rows read here do not replace them, and customers removed meanwhile are not
+     * added back from a row read before their removal.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        int[] loaded = {0};
+
+        synchronized(loadLock) {
+            removedDuringLoad = new HashSet<>();
+        }
+        try {
+            jdbcTemplate.query("select c.id, c.first_name, c.last_name, c.email, c.phone_number, lp.member_number " +
+                            "from customers c left join loyalty_programs lp on lp.customer_id = c.id where c.is_active = true",
+                    rs -> {
+                        CustomerSearchEntry entry = new CustomerSearchEntry(rs.getLong(1), rs.getString(2),
+                                rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6));
+                        synchronized(loadLock) {
+                            if(!removedDuringLoad.contains(entry.customerId())) index.putIfAbsent(entry);
+                        }
+                        loaded[0]++;
+                    });
+        } finally {
+            synchronized(loadLock) {
+                removedDuringLoad = null;
+            }
+        }
+
+        log.info("{} customers indexed for search in {} ms", loaded[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Searches customers by email, member number, phone number or name, whichever the query looks like.
+     *
+     * @param query What was typed at the register
+     * @param limit The maximum number of customers
+     * @return The customers found, best matches first
+     */
+    public List<CustomerSearchEntry> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    /**
+     * Finds a customer by phone number, whatever its formatting.
+     *
+     * @param phoneNumber The phone number
+     * @return The customer, null if none
+     */
+    public CustomerSearchEntry findByPhone(String phoneNumber) {
+        return index.findByPhone(phoneNumber);
+    }
+
+    /**
+     * Finds a customer by email, ignoring case.
+     *
+     * @param email The email
+     * @return The customer, null if none
+     */
+    public CustomerSearchEntry findByEmail(String email) {
+        return index.findByEmail(email);
+    }
+
+    /**
+     * Finds a customer by loyalty member number, ignoring case and separators.
+     *
+     * @param memberNumber The member number
+     * @return The customer, null if none
+     */
+    public CustomerSearchEntry findByMemberNumber(String memberNumber) {
+        return index.findByMemberNumber(memberNumber);
+    }
+
+    /**
+     * Gets the number of customers indexed.
+     */
+    public int getIndexedCount() {
+        return index.size();
+    }
+
+    private void write(Customer customer) {
+        if(customer.getId() == null) return;
+
+        if(!customer.isActive()) {
+            remove(customer.getId());
+            return;
+        }
+
+        // the loyalty program is only read if it is at hand, otherwise the indexed member number is kept
+        String memberNumber;
+        LoyaltyProgram loyaltyProgram = customer.getLoyaltyProgram();
+        if(loyaltyProgram != null && Hibernate.isInitialized(loyaltyProgram)) {
+            memberNumber = loyaltyProgram.getMemberNumber();
+        } else {
+            CustomerSearchEntry indexed = index.get(customer.getId());
+            memberNumber = indexed != null ? indexed.memberNumber() : null;
+        }
+
+        CustomerSearchEntry entry = new CustomerSearchEntry(customer.getId(), customer.getFirstName(),
+                customer.getLastName(), customer.getEmail(), customer.getPhoneNumber(), memberNumber);
+        synchronized(loadLock) {
+            index.put(entry);
+            if(removedDuringLoad != null) removedDuringLoad.remove(entry.customerId());
+        }
+    }
+
+    private void remove(Long customerId) {
+        synchronized(loadLock) {
+            index.remove(customerId);
+            if(removedDuringLoad != null) removedDuringLoad.add(customerId);
+        }
+    }
+
+    /**
+     * Keeps the index in sync with the committed customers and loyalty programs.
+     */
+    private final class CustomerListener extends EntityCommitListener {
+
+        private static final Set<String> INDEXED_PROPERTIES = Set.of("firstName", "lastName", "email",
+                "phoneNumber", "active");
+
+        private CustomerListener() {
+            super(Customer.class, LoyaltyProgram.class);
+        }
+
+        @Override
+        protected void onWrite(Object entity, Set<String> changedProperties) {
+            if(entity instanceof Customer customer) {
+                if(changedProperties == null || changedProperties.stream().anyMatch(INDEXED_PROPERTIES::contains)) {
+                    write(customer);
+                }
+            } else if(entity instanceof LoyaltyProgram loyaltyProgram && loyaltyProgram.getCustomer() != null
+                    && (changedProperties == null || changedProperties.contains("memberNumber"))) {
+                index.setMemberNumber(loyaltyProgram.getCustomer().getId(), loyaltyProgram.getMemberNumber());
+            }
+        }
+
+        @Override
+        protected void onDelete(Object entity) {
+            if(entity instanceof Customer customer) {
+                remove(customer.getId());
+            } else if(entity instanceof LoyaltyProgram loyaltyProgram && loyaltyProgram.getCustomer() != null) {
+                index.setMemberNumber(loyaltyProgram.getCustomer().getId(), null);
+            }
+        }
+    }
+}
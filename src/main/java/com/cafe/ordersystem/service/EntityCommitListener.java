@@ -0,0 +1,104 @@
+package com.cafe.ordersystem.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Set;
+
+/**
+ * Hibernate listener called once the writes of some entity types are committed,
+ * used by in-memory views to stay in sync with the database.
+ *
+ * Rolled back writes are not reported. Bulk JPQL and JDBC updates bypass it.
+ */
+public abstract class EntityCommitListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final Set<Class<?>> entityTypes;
+
+    protected EntityCommitListener(Class<?>... entityTypes) {
+        this.entityTypes = Set.of(entityTypes);
+    }
+
+    /**
+     * Registers this listener with the session factory behind an entity manager factory.
+     *
+     * @param entityManagerFactory The entity manager factory
+     */
+    public void registerWith(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * Called after an insert or update is committed.
+     *
+     * @param entity The entity, in its committed state
+     * @param changedProperties The names of the properties updated, or null for an insert
+     */
+    protected abstract void onWrite(Object entity, Set<String> changedProperties);
+
+    /**
+     * Called after a delete is committed.
+     *
+     * @param entity The deleted entity
+     */
+    protected abstract void onDelete(Object entity);
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onWrite(event.getEntity(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if(dirty == null) {
+            onWrite(event.getEntity(), null);
+            return;
+        }
+
+        String[] names = event.getPersister().getPropertyNames();
+        String[] changed = new String[dirty.length];
+        for(int i = 0; i < dirty.length; i++) {
+            changed[i] = names[dirty[i]];
+        }
+
+        onWrite(event.getEntity(), Set.of(changed));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onDelete(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return entityTypes.contains(persister.getMappedClass());
+    }
+}
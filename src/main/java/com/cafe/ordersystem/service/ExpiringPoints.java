@@ -0,0 +1,14 @@
+package com.cafe.ordersystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Points of a member that are about to expire.
+ *
+ * @param loyaltyProgramId The member's loyalty program
+ * @param customerId The member
+ * @param points The balance that will expire
+ * @param expiresAt When it expires
+ */
+public record ExpiringPoints(Long loyaltyProgramId, Long customerId, int points, LocalDateTime expiresAt) {
+}
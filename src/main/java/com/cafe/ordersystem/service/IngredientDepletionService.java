@@ -0,0 +1,254 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.product.Ingredient;
+import com.cafe.ordersystem.model.product.Quantity;
+import com.cafe.ordersystem.repository.IngredientRepository;
+import com.cafe.ordersystem.repository.RecipeIngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Consumes ingredients for paid orders, following the product recipes.
+ *
+ * Paid orders are queued once their payment has committed and processed in micro-batches:
+ * the consumption of the whole batch is summed per ingredient by a single aggregate query,
+ * then each ingredient gets one removeStock call for the batch, instead of one BigDecimal
+ * update per order line.
+ *
+ * A batch that does not commit is not lost: its orders are retried one by one, each in its
+ * own transaction, so one order that cannot be depleted does not hold back the others. An
+ * order failing {@code cafe.inventory.depletion.max-attempts} times on its own is parked,
+ * see {@link #getParkedOrders()} and {@link #retryParked()}.
+ *
+ * The queue is kept in memory, orders paid right before a shutdown are not depleted.
+ */
+@Service
+public class IngredientDepletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngredientDepletionService.class);
+
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final IngredientRepository ingredientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final Queue<Long> pendingOrders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Orders of failed batches, retried one per transaction.
+     */
+    private final Queue<Long> retryOrders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Failed attempts of the orders being retried.
+     */
+    private final Map<Long, Integer> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Orders that failed too many times, left aside until {@link #retryParked()}.
+     */
+    private final Set<Long> parkedOrders = ConcurrentHashMap.newKeySet();
+
+    public IngredientDepletionService(RecipeIngredientRepository recipeIngredientRepository,
+                                      IngredientRepository ingredientRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      OrderStatusTransitionService transitionService,
+                                      @Value("${cafe.inventory.depletion.batch-size:200}") int batchSize,
+                                      @Value("${cafe.inventory.depletion.max-attempts:3}") int maxAttempts) {
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+
+        transitionService.register(OrderStatus.PAID, change -> enqueueAfterCommit(change.orderId()));
+    }
+
+    /**
+     * Queues a paid order for ingredient depletion.
+     *
+     * @param orderId The order
+     */
+    public void enqueue(Long orderId) {
+        if(orderId != null) pendingOrders.add(orderId);
+    }
+
+    /**
+     * Gets the number of orders waiting to be depleted, including those being retried.
+     */
+    public int getPendingCount() {
+        return pendingOrders.size() + retryOrders.size();
+    }
+
+    /**
+     * Gets the orders that could not be depleted after the maximum number of attempts.
+     *
+     * @return The ids of the parked orders
+     */
+    public Set<Long> getParkedOrders() {
+        return Set.copyOf(parkedOrders);
+    }
+
+    /**
+     * Queues the parked orders again (e.g. once their recipes were fixed).
+     *
+     * @return The number of orders queued
+     */
+    public int retryParked() {
+        List<Long> orderIds = new ArrayList<>(parkedOrders);
+        parkedOrders.removeAll(orderIds);
+        pendingOrders.addAll(orderIds);
+
+        return orderIds.size();
+    }
+
+    /**
+     * Depletes the ingredients of the orders being retried, one transaction each, then of the
+     * next batch of paid orders. Orders whose transaction did not commit are retried later.
+     *
+     * @return The number of orders depleted
+     */
+    @Scheduled(fixedDelayString = "${cafe.inventory.depletion.interval-ms:2000}")
+    public synchronized int processBatch() {
+        int depleted = 0;
+
+        Long orderId;
+        for(int retried = 0; retried < batchSize && (orderId = retryOrders.poll()) != null; retried++) {
+            depleted += process(List.of(orderId));
+        }
+
+        List<Long> orderIds = new ArrayList<>(batchSize);
+        while(orderIds.size() < batchSize && (orderId = pendingOrders.poll()) != null) {
+            orderIds.add(orderId);
+        }
+
+        if(!orderIds.isEmpty()) depleted += process(orderIds);
+
+        return depleted;
+    }
+
+    /**
+     * Depletes the ingredients of some orders in one transaction.
+     *
+     * @return The number of orders depleted, 0 if the transaction did not commit
+     */
+    private int process(List<Long> orderIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> deplete(orderIds));
+        } catch(RuntimeException e) {
+            failed(orderIds, e);
+            return 0;
+        }
+
+        if(!failures.isEmpty()) orderIds.forEach(failures::remove);
+        return orderIds.size();
+    }
+
+    private void failed(List<Long> orderIds, RuntimeException e) {
+        if(orderIds.size() > 1) {
+            log.warn("Could not deplete the ingredients of {} orders, retrying them one by one", orderIds.size(), e);
+            retryOrders.addAll(orderIds);
+            return;
+        }
+
+        Long orderId = orderIds.get(0);
+        int attempts = failures.merge(orderId, 1, Integer::sum);
+        if(attempts < maxAttempts) {
+            log.warn("Could not deplete the ingredients of order {} (attempt {})", orderId, attempts, e);
+            retryOrders.add(orderId);
+        } else {
+            log.error("Could not deplete the ingredients of order {} after {} attempts, parked", orderId, attempts, e);
+            failures.remove(orderId);
+            parkedOrders.add(orderId);
+        }
+    }
+
+    private void deplete(List<Long> orderIds) {
+        List<Object[]> rows = recipeIngredientRepository.sumConsumption(orderIds);
+
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        for(Ingredient ingredient : ingredientRepository.findAllById(rows.stream().map(row -> (Long) row[0]).toList())) {
+            ingredients.put(ingredient.getId(), ingredient);
+        }
+
+        Map<Long, BigDecimal> consumption = new HashMap<>();
+        for(Object[] row : rows) {
+            Ingredient ingredient = ingredients.get((Long) row[0]);
+            BigDecimal amount = toStockUnit(ingredient, (Ingredient.UnitOfMeasure) row[1], (BigDecimal) row[2]);
+
+            if(amount != null) consumption.merge(ingredient.getId(), amount, BigDecimal::add);
+        }
+
+        consumption.forEach((ingredientId, amount) -> deplete(ingredients.get(ingredientId), amount));
+
+        ingredientRepository.saveAllAndFlush(ingredients.values());
+    }
+
+    /**
+     * Queues an order once the payment has committed, or right away without a transaction.
+     */
+    private void enqueueAfterCommit(Long orderId) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(orderId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(orderId);
+            }
+        });
+    }
+
+    /**
+     * Expresses a recipe quantity in the unit the ingredient is stocked in.
+     *
+     * @return The quantity in the stock unit, or null if it cannot be converted
+     */
+    private BigDecimal toStockUnit(Ingredient ingredient, Ingredient.UnitOfMeasure unit, BigDecimal quantity) {
+        if(ingredient == null) return null;
+
+        if(unit == null || unit == ingredient.getUnitOfMeasure()) return quantity;
+
+        if(unit.isConvertibleTo(ingredient.getUnitOfMeasure())) {
+            return Quantity.convert(quantity, unit, ingredient.getUnitOfMeasure());
+        }
+
+        log.warn("Recipe unit {} cannot be converted to the stock unit {} of ingredient {}, skipped",
+                unit, ingredient.getUnitOfMeasure(), ingredient.getName());
+        return null;
+    }
+
+    private void deplete(Ingredient ingredient, BigDecimal amount) {
+        if(amount == null || amount.signum() <= 0) return;
+
+        BigDecimal available = ingredient.getStockLevel();
+        if(available.compareTo(amount) < 0) {
+            log.warn("Ingredient {} consumed {} but only {} in stock", ingredient.getName(), amount, available);
+            amount = available;
+        }
+
+        if(amount.signum() > 0) {
+            ingredient.removeStock(amount);
+        }
+    }
+}
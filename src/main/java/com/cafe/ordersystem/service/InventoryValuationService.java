@@ -0,0 +1,56 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.Quantity;
+import com.cafe.ordersystem.repository.IngredientRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Values the ingredient stock.
+ */
+@Service
+public class InventoryValuationService {
+
+    private final IngredientRepository ingredientRepository;
+
+    public InventoryValuationService(IngredientRepository ingredientRepository) {
+        this.ingredientRepository = ingredientRepository;
+    }
+
+    /**
+     * Calculates the value of the whole ingredient stock.
+     * Values are accumulated as fixed-point longs (scale 7), switching to BigDecimal
+     * only if the running total would overflow.
+     *
+     * @return The total stock value
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal totalStockValue() {
+        return totalStockValue(ingredientRepository.findStockAndCost());
+    }
+
+    /**
+     * Sums the value of [stock level, cost per unit] rows, see {@link #totalStockValue()}.
+     */
+    static BigDecimal totalStockValue(Iterable<Object[]> rows) {
+        long total = 0;
+        BigDecimal overflow = BigDecimal.ZERO;
+
+        for(Object[] row : rows) {
+            BigDecimal stockLevel = (BigDecimal) row[0];
+            BigDecimal costPerUnit = (BigDecimal) row[1];
+            if(stockLevel == null) continue;
+
+            try {
+                long value = Quantity.stockValueUnits(Quantity.toThousandths(stockLevel), Quantity.toCostUnits(costPerUnit));
+                total = Math.addExact(total, value);
+            } catch(ArithmeticException e) {
+                overflow = overflow.add(stockLevel.multiply(costPerUnit));
+            }
+        }
+
+        return BigDecimal.valueOf(total, Quantity.VALUE_SCALE).add(overflow);
+    }
+}
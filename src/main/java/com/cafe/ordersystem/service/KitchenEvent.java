@@ -0,0 +1,45 @@
+package com.cafe.ordersystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event pushed to the kitchen display feed.
+ *
+ * @param type The event type, also used as the SSE event name
+ * @param orderId The order concerned
+ * @param itemId The prepared item (null for order events)
+ * @param productName The name of the prepared product (null for order events)
+ * @param categoryId The category of the product, i.e. the station (null for order events)
+ * @param preparedItems Items of the order prepared so far
+ * @param totalItems Items in the order
+ * @param timestamp When the event occurred
+ */
+public record KitchenEvent(Type type, Long orderId, Long itemId, String productName, Long categoryId,
+                           int preparedItems, int totalItems, LocalDateTime timestamp) {
+
+    public enum Type {
+        ITEM_PREPARED("item-prepared"),
+        ORDER_READY("order-ready");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    public static KitchenEvent itemPrepared(Long orderId, Long itemId, String productName, Long categoryId,
+                                            int preparedItems, int totalItems) {
+        return new KitchenEvent(Type.ITEM_PREPARED, orderId, itemId, productName, categoryId,
+                preparedItems, totalItems, LocalDateTime.now());
+    }
+
+    public static KitchenEvent orderReady(Long orderId, int totalItems) {
+        return new KitchenEvent(Type.ORDER_READY, orderId, null, null, null,
+                totalItems, totalItems, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,275 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Push-based feed for the kitchen displays.
+ *
+ * Screens subscribe over Server-Sent Events, optionally for a single station
+ * (a product category), and receive item-prepared and order-ready events instead
+ * of polling orders. Preparation progress is kept per order as a pair of counters,
+ * seeded once with an aggregate query and then only incremented.
+ *
+ * Events are published once the transaction that prepared the item (or moved the order)
+ * commits. The counters are updated within the transaction, since they decide when the order
+ * is READY, and the progress of an order is dropped when the transaction rolls back, to be
+ * seeded again from the database. Orders leaving the kitchen otherwise (cancelled, refunded)
+ * are dropped too.
+ *
+ * Each subscriber has a bounded buffer drained on the application task executor, so a slow
+ * screen never blocks the kitchen: when its buffer is full the oldest events are dropped.
+ */
+@Service
+public class KitchenFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenFeedService.class);
+
+    private final OrderItemRepository orderItemRepository;
+    private final OrderStatusTransitionService transitionService;
+    private final TaskExecutor dispatcher;
+    private final int bufferSize;
+
+    /**
+     * Subscribers of a single station, by category id.
+     */
+    private final Map<Long, List<Subscriber>> stationSubscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribers of every station (e.g. the pass).
+     */
+    private final List<Subscriber> allSubscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Preparation progress of the orders currently in the kitchen.
+     */
+    private final Map<Long, Progress> progress = new ConcurrentHashMap<>();
+
+    public KitchenFeedService(OrderItemRepository orderItemRepository,
+                              OrderStatusTransitionService transitionService,
+                              @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor dispatcher,
+                              @Value("${cafe.kitchen.feed.buffer-size:256}") int bufferSize) {
+        this.orderItemRepository = orderItemRepository;
+        this.transitionService = transitionService;
+        this.dispatcher = dispatcher;
+        this.bufferSize = bufferSize;
+
+        transitionService.register(OrderStatus.READY, this::onOrderReady);
+        transitionService.register(OrderStatus.CANCELLED, change -> progress.remove(change.orderId()));
+        transitionService.register(OrderStatus.REFUNDED, change -> progress.remove(change.orderId()));
+    }
+
+    /**
+     * Opens a feed for a kitchen screen.
+     *
+     * @param stationCategoryId The category of the station, or null for all stations
+     * @return The SSE emitter to return to the client
+     */
+    public SseEmitter subscribe(Long stationCategoryId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+
+        List<Subscriber> target = stationCategoryId == null
+                ? allSubscribers
+                : stationSubscribers.computeIfAbsent(stationCategoryId, id -> new CopyOnWriteArrayList<>());
+        target.add(subscriber);
+
+        Runnable remove = () -> target.remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        return emitter;
+    }
+
+    /**
+     * Marks an item as prepared and notifies the kitchen screens.
+     * A paid order moves to IN_PREPARATION with its first prepared item, and from IN_PREPARATION
+     * to READY with its last one.
+     *
+     * @param itemId The id of the order item
+     * @return true if the item was prepared by this call, false if it was already prepared
+     * @throws IllegalArgumentException if the item does not exist
+     */
+    @Transactional
+    public boolean markItemPrepared(Long itemId) {
+        List<Object[]> rows = orderItemRepository.findKitchenView(itemId);
+        if(rows.isEmpty()) throw new IllegalArgumentException("Order item " + itemId + " not found");
+
+        if(orderItemRepository.markAsPrepared(itemId) == 0) return false;
+
+        Object[] item = rows.get(0);
+        Long orderId = (Long) item[0];
+
+        // the seeding query already counts this item, the others just increment
+        AtomicBoolean seeded = new AtomicBoolean();
+        Progress orderProgress = progress.computeIfAbsent(orderId, id -> {
+            seeded.set(true);
+            return seed(id);
+        });
+        int prepared = seeded.get() ? orderProgress.prepared.get() : orderProgress.prepared.incrementAndGet();
+        forgetOnRollback(orderId);
+
+        // the kitchen started on the order: moves it if it is still PAID, once per tracked order
+        if(seeded.get()) transitionService.transitionAll(List.of(orderId), OrderStatus.PAID, OrderStatus.IN_PREPARATION);
+
+        publishAfterCommit(KitchenEvent.itemPrepared(orderId, itemId, (String) item[2], (Long) item[3], prepared, orderProgress.total));
+
+        if(prepared >= orderProgress.total) {
+            transitionService.transitionAll(List.of(orderId), OrderStatus.IN_PREPARATION, OrderStatus.READY);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the number of orders whose progress is currently tracked.
+     */
+    public int getTrackedOrderCount() {
+        return progress.size();
+    }
+
+    private void onOrderReady(OrderStatusChange change) {
+        Progress done = progress.remove(change.orderId());
+        int total = done != null ? done.total : 0;
+
+        publishAfterCommit(KitchenEvent.orderReady(change.orderId(), total));
+    }
+
+    /**
+     * Publishes an event once the current transaction commits, if there is one.
+     */
+    private void publishAfterCommit(KitchenEvent event) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    /**
+     * Drops the progress of an order if the current transaction rolls back: its counters
+     * include changes that were never committed.
+     */
+    private void forgetOnRollback(Long orderId) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if(status != STATUS_COMMITTED) progress.remove(orderId);
+            }
+        });
+    }
+
+    private Progress seed(Long orderId) {
+        Object[] counts = orderItemRepository.countPreparation(orderId).get(0);
+
+        return new Progress(((Number) counts[0]).intValue(), ((Number) counts[1]).intValue());
+    }
+
+    private void publish(KitchenEvent event) {
+        for(Subscriber subscriber : allSubscribers) {
+            subscriber.offer(event);
+        }
+
+        if(event.categoryId() == null) {
+            stationSubscribers.values().forEach(subscribers -> subscribers.forEach(s -> s.offer(event)));
+            return;
+        }
+
+        List<Subscriber> station = stationSubscribers.get(event.categoryId());
+        if(station != null) {
+            station.forEach(s -> s.offer(event));
+        }
+    }
+
+    private static final class Progress {
+        private final int total;
+        private final AtomicInteger prepared;
+
+        private Progress(int total, int prepared) {
+            this.total = total;
+            this.prepared = new AtomicInteger(prepared);
+        }
+    }
+
+    /**
+     * A connected screen with its bounded event buffer.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<KitchenEvent> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(KitchenEvent event) {
+            if(closed) return;
+
+            while(!buffer.offer(event)) {
+                // slow screen: drop the oldest event rather than blocking the kitchen
+                if(buffer.poll() != null) dropped.incrementAndGet();
+            }
+
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if(draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                KitchenEvent event;
+                while((event = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event().name(event.type().getEventName()).data(event));
+                }
+            } catch(IOException | IllegalStateException e) {
+                log.debug("Kitchen screen disconnected after {} dropped events", dropped.get(), e);
+                closed = true;
+                buffer.clear();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+
+            if(!buffer.isEmpty()) scheduleDrain();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.cafe.ordersystem.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequences kitchen work per station using the products' preparation time.
+ *
+ * Paid orders are split into one ticket per item, queued at the station of the
+ * product's category. Each station queue is a lock-free skip list ordered by
+ * score = arrival + preparation time - dine-in boost:
+ * - shorter jobs go first among orders paid at the same time (shortest job first)
+ * - older orders eventually win over newer short ones (earliest due first, no starvation)
+ * - orders served at a table are boosted over takeaway
+ *
+ * The scheduler has no clock of its own: callers pass the current time, which keeps it
+ * usable for simulations.
+ */
+public class KitchenScheduler {
+
+    /**
+     * Station used for products without a category.
+     */
+    public static final Long DEFAULT_STATION = -1L;
+
+    /**
+     * An item of a paid order, as seen by the scheduler.
+     *
+     * @param itemId The order item
+     * @param stationId The product category id, null for the default station
+     * @param preparationMinutes The product preparation time, null if unknown
+     * @param quantity The quantity ordered
+     */
+    public record Line(Long itemId, Long stationId, Integer preparationMinutes, int quantity) {
+    }
+
+    private final long defaultPrepMillis;
+    private final long dineInBoostMillis;
+    private final int defaultWorkers;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Station> stations = new ConcurrentHashMap<>();
+    private final Map<Long, KitchenTicket> openTickets = new ConcurrentHashMap<>();
+    private final Map<Long, List<KitchenTicket>> ticketsByOrder = new ConcurrentHashMap<>();
+
+    /**
+     * @param defaultPrepMinutes Preparation time assumed for products without one
+     * @param dineInBoostMinutes How much earlier dine-in tickets are served compared to takeaway
+     * @param defaultWorkers Number of cooks per station, unless configured otherwise
+     */
+    public KitchenScheduler(int defaultPrepMinutes, int dineInBoostMinutes, int defaultWorkers) {
+        this.defaultPrepMillis = defaultPrepMinutes * 60_000L;
+        this.dineInBoostMillis = dineInBoostMinutes * 60_000L;
+        this.defaultWorkers = Math.max(1, defaultWorkers);
+    }
+
+    /**
+     * Sets the number of cooks working at a station, used for the ETA estimates.
+     *
+     * @param stationId The station (category id)
+     * @param workers The number of cooks
+     */
+    public void setWorkers(Long stationId, int workers) {
+        station(stationId != null ? stationId : DEFAULT_STATION).workers = Math.max(1, workers);
+    }
+
+    /**
+     * Queues the items of a paid order at their stations.
+     *
+     * @param orderId The order
+     * @param dineIn Whether the order is served at a table
+     * @param arrivalMillis When the order was paid
+     * @param lines The items of the order
+     * @return The queued tickets
+     */
+    public List<KitchenTicket> submit(Long orderId, boolean dineIn, long arrivalMillis, List<Line> lines) {
+        List<KitchenTicket> tickets = new ArrayList<>(lines.size());
+
+        for(Line line : lines) {
+            long prep = (line.preparationMinutes() != null ? line.preparationMinutes() * 60_000L : defaultPrepMillis)
+                    * Math.max(1, line.quantity());
+            long score = arrivalMillis + prep - (dineIn ? dineInBoostMillis : 0);
+            Long stationId = line.stationId() != null ? line.stationId() : DEFAULT_STATION;
+
+            tickets.add(new KitchenTicket(orderId, line.itemId(), stationId, prep, arrivalMillis, dineIn,
+                    score, sequence.getAndIncrement()));
+        }
+
+        ticketsByOrder.put(orderId, new CopyOnWriteArrayList<>(tickets));
+        for(KitchenTicket ticket : tickets) {
+            openTickets.put(ticket.itemId(), ticket);
+            station(ticket.stationId()).queue.add(ticket);
+        }
+
+        return tickets;
+    }
+
+    /**
+     * Claims the next ticket of a station.
+     *
+     * @param stationId The station (category id), null for the default station
+     * @param now The current time
+     * @return The ticket to prepare now, or null if the station has nothing queued
+     */
+    public KitchenTicket next(Long stationId, long now) {
+        Station station = station(stationId != null ? stationId : DEFAULT_STATION);
+
+        KitchenTicket ticket = station.queue.pollFirst();
+        if(ticket != null) {
+            station.running.put(ticket.itemId(), now);
+        }
+
+        return ticket;
+    }
+
+    /**
+     * Marks the ticket of an item as done, whether it was claimed or not.
+     *
+     * @param itemId The order item
+     * @return true if the item had an open ticket
+     */
+    public boolean complete(Long itemId) {
+        KitchenTicket ticket = openTickets.remove(itemId);
+        if(ticket == null) return false;
+
+        Station station = station(ticket.stationId());
+        if(station.running.remove(itemId) == null) {
+            station.queue.remove(ticket);
+        }
+
+        ticketsByOrder.computeIfPresent(ticket.orderId(), (orderId, tickets) -> {
+            tickets.remove(ticket);
+            return tickets.isEmpty() ? null : tickets;
+        });
+
+        return true;
+    }
+
+    /**
+     * Drops the open tickets of an order, queued or claimed, e.g. once it is cancelled.
+     *
+     * @param orderId The order
+     * @return The number of tickets dropped
+     */
+    public int cancel(Long orderId) {
+        List<KitchenTicket> tickets = ticketsByOrder.remove(orderId);
+        if(tickets == null) return 0;
+
+        int cancelled = 0;
+        for(KitchenTicket ticket : tickets) {
+            if(openTickets.remove(ticket.itemId()) == null) continue;
+
+            Station station = station(ticket.stationId());
+            if(station.running.remove(ticket.itemId()) == null) {
+                station.queue.remove(ticket);
+            }
+            cancelled++;
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Estimates when all the items of an order will be ready.
+     * Each queued ticket waits for the work queued ahead of it at its station
+     * (plus what is being prepared), shared among the station's cooks.
+     *
+     * @param orderId The order
+     * @param now The current time
+     * @return The estimated ready time in millis, or -1 if the order has no open tickets
+     */
+    public long estimateReadyAt(Long orderId, long now) {
+        List<KitchenTicket> tickets = ticketsByOrder.get(orderId);
+        if(tickets == null) return -1;
+
+        long readyAt = now;
+        for(KitchenTicket ticket : tickets) {
+            readyAt = Math.max(readyAt, estimateReadyAt(ticket, now));
+        }
+
+        return readyAt;
+    }
+
+    /**
+     * Gets the number of tickets waiting at a station.
+     */
+    public int queuedAt(Long stationId) {
+        Station station = stations.get(stationId != null ? stationId : DEFAULT_STATION);
+
+        return station != null ? station.queue.size() : 0;
+    }
+
+    private long estimateReadyAt(KitchenTicket ticket, long now) {
+        Station station = station(ticket.stationId());
+
+        Long startedAt = station.running.get(ticket.itemId());
+        if(startedAt != null) {
+            return Math.max(now, startedAt + ticket.prepMillis());
+        }
+
+        long ahead = 0;
+        for(KitchenTicket queued : station.queue.headSet(ticket, true)) {
+            ahead += queued.prepMillis();
+        }
+
+        for(Map.Entry<Long, Long> running : station.running.entrySet()) {
+            KitchenTicket inProgress = openTickets.get(running.getKey());
+            if(inProgress != null) {
+                ahead += Math.max(0, running.getValue() + inProgress.prepMillis() - now);
+            }
+        }
+
+        return now + ahead / station.workers;
+    }
+
+    private Station station(Long stationId) {
+        return stations.computeIfAbsent(stationId, id -> new Station(defaultWorkers));
+    }
+
+    private static final class Station {
+        private final ConcurrentSkipListSet<KitchenTicket> queue = new ConcurrentSkipListSet<>();
+
+        /**
+         * Claimed tickets: item id → start time.
+         */
+        private final Map<Long, Long> running = new ConcurrentHashMap<>();
+
+        private volatile int workers;
+
+        private Station(int workers) {
+            this.workers = workers;
+        }
+    }
+}
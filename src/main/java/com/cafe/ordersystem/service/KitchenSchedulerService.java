@@ -0,0 +1,176 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds paid orders to the {@link KitchenScheduler} and exposes its ETA estimates.
+ *
+ * Orders moved to PAID through the {@link OrderStatusTransitionService} are picked up
+ * automatically once the payment commits, and dropped again when they are cancelled or refunded;
+ * orders paid directly on the entity can be passed to {@link #schedule(Order)}.
+ * Orders with a table number are served at a table (dine-in) and boosted over the others.
+ */
+@Service
+public class KitchenSchedulerService {
+
+    private final KitchenScheduler scheduler;
+    private final OrderItemRepository orderItemRepository;
+
+    public KitchenSchedulerService(OrderItemRepository orderItemRepository,
+                                   OrderStatusTransitionService transitionService,
+                                   @Value("${cafe.kitchen.scheduler.default-prep-minutes:3}") int defaultPrepMinutes,
+                                   @Value("${cafe.kitchen.scheduler.dine-in-boost-minutes:2}") int dineInBoostMinutes,
+                                   @Value("${cafe.kitchen.scheduler.workers-per-station:1}") int workersPerStation) {
+        this.orderItemRepository = orderItemRepository;
+        this.scheduler = new KitchenScheduler(defaultPrepMinutes, dineInBoostMinutes, workersPerStation);
+
+        transitionService.register(OrderStatus.PAID, this::onOrderPaid);
+        transitionService.register(OrderStatus.CANCELLED, change -> afterCommit(() -> cancel(change.orderId())));
+        transitionService.register(OrderStatus.REFUNDED, change -> afterCommit(() -> cancel(change.orderId())));
+    }
+
+    /**
+     * Queues the items of a paid order.
+     *
+     * @param order The order, with its items and products loaded
+     * @return The queued tickets
+     */
+    public List<KitchenTicket> schedule(Order order) {
+        return scheduler.submit(order.getId(), order.getTableNumber() != null, arrival(order), lines(order));
+    }
+
+    /**
+     * Drops the items of an order that are still in the kitchen.
+     *
+     * @param orderId The order
+     * @return The number of items dropped
+     */
+    public int cancel(Long orderId) {
+        return scheduler.cancel(orderId);
+    }
+
+    /**
+     * Claims the next item to prepare at a station.
+     *
+     * @param stationId The station (category id)
+     * @return The ticket, or null if nothing is queued
+     */
+    public KitchenTicket next(Long stationId) {
+        return scheduler.next(stationId, System.currentTimeMillis());
+    }
+
+    /**
+     * Removes a prepared item from the queues.
+     *
+     * @param itemId The order item
+     * @return true if the item was scheduled
+     */
+    public boolean complete(Long itemId) {
+        return scheduler.complete(itemId);
+    }
+
+    /**
+     * Estimates when an order will be ready.
+     *
+     * @param orderId The order
+     * @return The estimated ready time, or null if the order is not in the kitchen
+     */
+    public LocalDateTime estimateReadyAt(Long orderId) {
+        long readyAt = scheduler.estimateReadyAt(orderId, System.currentTimeMillis());
+        if(readyAt < 0) return null;
+
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(readyAt), ZoneId.systemDefault());
+    }
+
+    /**
+     * Sets the number of cooks at a station.
+     */
+    public void setWorkers(Long stationId, int workers) {
+        scheduler.setWorkers(stationId, workers);
+    }
+
+    /**
+     * Gets the number of items waiting at a station.
+     *
+     * @param stationId The station (category id), null for the default station
+     */
+    public int queuedAt(Long stationId) {
+        return scheduler.queuedAt(stationId);
+    }
+
+    /**
+     * Queues a paid order once the payment commits: a rolled back payment leaves nothing in the kitchen.
+     * The lines are read now, while the order can still be loaded.
+     */
+    private void onOrderPaid(OrderStatusChange change) {
+        Order order = change.order();
+        if(order != null) {
+            List<KitchenScheduler.Line> lines = lines(order);
+            boolean dineIn = order.getTableNumber() != null;
+            long arrival = arrival(order);
+
+            afterCommit(() -> scheduler.submit(order.getId(), dineIn, arrival, lines));
+            return;
+        }
+
+        List<Object[]> rows = orderItemRepository.findSchedulingLines(change.orderId());
+        if(rows.isEmpty()) return;
+
+        List<KitchenScheduler.Line> lines = new ArrayList<>(rows.size());
+        for(Object[] row : rows) {
+            lines.add(new KitchenScheduler.Line((Long) row[0], (Long) row[1], (Integer) row[2], (Integer) row[3]));
+        }
+
+        boolean dineIn = rows.get(0)[4] != null;
+        long arrival = System.currentTimeMillis();
+
+        afterCommit(() -> scheduler.submit(change.orderId(), dineIn, arrival, lines));
+    }
+
+    private static List<KitchenScheduler.Line> lines(Order order) {
+        List<KitchenScheduler.Line> lines = new ArrayList<>(order.getItems().size());
+
+        for(OrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+
+            lines.add(new KitchenScheduler.Line(item.getId(), categoryId, product.getPreparationTime(), item.getQuantity()));
+        }
+
+        return lines;
+    }
+
+    private static long arrival(Order order) {
+        LocalDateTime paidAt = order.getPaymentDate() != null ? order.getPaymentDate() : LocalDateTime.now();
+
+        return paidAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * A unit of kitchen work: one order item queued at one station.
+ *
+ * @param orderId The order the item belongs to
+ * @param itemId The order item
+ * @param stationId The station preparing it (the product category id, null for the default station)
+ * @param prepMillis Expected preparation time (product preparation time * quantity)
+ * @param arrivalMillis When the order was paid
+ * @param dineIn Whether the order is served at a table
+ * @param score Scheduling priority, lower is served first
+ * @param sequence Tie breaker, in submission order
+ */
+public record KitchenTicket(Long orderId, Long itemId, Long stationId, long prepMillis, long arrivalMillis,
+                            boolean dineIn, long score, long sequence) implements Comparable<KitchenTicket> {
+
+    @Override
+    public int compareTo(KitchenTicket other) {
+        int byScore = Long.compare(score, other.score);
+
+        return byScore != 0 ? byScore : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,112 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.repository.CustomerListView;
+import com.cafe.ordersystem.repository.CustomerRepository;
+import com.cafe.ordersystem.repository.KeysetCursor;
+import com.cafe.ordersystem.repository.KeysetPage;
+import com.cafe.ordersystem.repository.OrderListView;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.ProductListView;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Paginated lists of orders, customers and products, newest first.
+ *
+ * Pages are read by keyset instead of OFFSET: the client passes back the cursor of the
+ * previous page, and the next page starts right after it in the matching composite index,
+ * so page 10,000 costs the same as page 1.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ListingService {
+
+    private final OrderRepository orderRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+
+    public ListingService(OrderRepository orderRepository, CustomerRepository customerRepository,
+                          ProductRepository productRepository) {
+        this.orderRepository = orderRepository;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Lists orders by order date.
+     *
+     * @param status Only the orders in this status, or null for all orders
+     * @param cursor The cursor of the previous page, null for the first page
+     * @param size The page size
+     * @return The page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public KeysetPage<OrderListView> listOrders(OrderStatus status, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = KeysetPage.limit(size);
+
+        List<OrderListView> orders;
+        if(status == null) {
+            orders = after == null
+                    ? orderRepository.findListViews(limit)
+                    : orderRepository.findListViewsAfter(after.at(), after.id(), limit);
+        } else {
+            orders = after == null
+                    ? orderRepository.findListViewsByStatus(status, limit)
+                    : orderRepository.findListViewsByStatusAfter(status, after.at(), after.id(), limit);
+        }
+
+        return KeysetPage.of(orders, limit.getPageSize(), order -> new KeysetCursor(order.orderDate(), order.id()));
+    }
+
+    /**
+     * Lists customers by creation date.
+     *
+     * @param cursor The cursor of the previous page, null for the first page
+     * @param size The page size
+     * @return The page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public KeysetPage<CustomerListView> listCustomers(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = KeysetPage.limit(size);
+
+        List<CustomerListView> customers = after == null
+                ? customerRepository.findListViews(limit)
+                : customerRepository.findListViewsAfter(after.at(), after.id(), limit);
+
+        return KeysetPage.of(customers, limit.getPageSize(), customer -> new KeysetCursor(customer.createdAt(), customer.id()));
+    }
+
+    /**
+     * Lists products by creation date.
+     *
+     * @param categoryId Only the products of this category, or null for all products
+     * @param cursor The cursor of the previous page, null for the first page
+     * @param size The page size
+     * @return The page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public KeysetPage<ProductListView> listProducts(Long categoryId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = KeysetPage.limit(size);
+
+        List<ProductListView> products;
+        if(categoryId == null) {
+            products = after == null
+                    ? productRepository.findListViews(limit)
+                    : productRepository.findListViewsAfter(after.at(), after.id(), limit);
+        } else {
+            products = after == null
+                    ? productRepository.findListViewsByCategory(categoryId, limit)
+                    : productRepository.findListViewsByCategoryAfter(categoryId, after.at(), after.id(), limit);
+        }
+
+        return KeysetPage.of(products, limit.getPageSize(), product -> new KeysetCursor(product.createdAt(), product.id()));
+    }
+}
@@ -0,0 +1,292 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Expires the loyalty points of members whose points expiration date has passed, and tells
+ * the members whose points expire soon.
+ *
+ * The sweep walks the members in chunks, in keyset order on the (points_expiration_date, id)
+ * index, so no more than a chunk of rows is read at a time. A chunk is one transaction:
+ * - the members still expired are locked, which waits for points being earned concurrently
+ * - an EXPIRE entry per member is written to the ledger and the balances are reset with one
+ *   set-based INSERT ... SELECT and one UPDATE
+ * - the position of the sweep is checkpointed in loyalty_expiration_sweep
+ * A sweep interrupted by a crash is resumed at its checkpoint by the next run, with the same cutoff.
+ *
+ * Members whose points expire within the notice period are then walked the same way and handed
+ * in batches to the {@link PointsExpiryListener}s, once per expiration date.
+ */
+@Service
+public class LoyaltyExpirationService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoyaltyExpirationService.class);
+
+    private static final Timestamp START = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+    private static final String EXPIRED_CHUNK = "select id, points_expiration_date from loyalty_programs " +
+            "where points_expiration_date <= :cutoff and points_expiration_date >= :at " +
+            "and (points_expiration_date > :at or id > :id) order by points_expiration_date, id limit :size";
+
+    private static final String EXPIRING_CHUNK = "select id, customer_id, points, points_expiration_date, " +
+            "expiry_notified_for from loyalty_programs " +
+            "where points_expiration_date <= :horizon and points_expiration_date >= :at " +
+            "and (points_expiration_date > :at or id > :id) order by points_expiration_date, id limit :size";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int noticeDays;
+
+    private final List<PointsExpiryListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile LoyaltyExpirationSweep lastSweep;
+
+    public LoyaltyExpirationService(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                    List<PointsExpiryListener> listenerBeans,
+                                    @Value("${cafe.loyalty.expiration.chunk-size:500}") int chunkSize,
+                                    @Value("${cafe.loyalty.expiration.notice-days:30}") int noticeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.noticeDays = noticeDays;
+
+        listeners.addAll(listenerBeans);
+    }
+
+    /**
+     * Registers a listener for the members whose points expire soon.
+     *
+     * @param listener The listener to register
+     */
+    public void register(PointsExpiryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Gets the outcome of the last run, null if there was none.
+     */
+    public LoyaltyExpirationSweep getLastSweep() {
+        return lastSweep;
+    }
+
+    /**
+     * Expires the points whose expiration date has passed, resuming an interrupted sweep first,
+     * then notifies the members whose points expire soon.
+     *
+     * @return The outcome
+     */
+    @Scheduled(cron = "${cafe.loyalty.expiration.cron:0 15 3 * * *}")
+    public LoyaltyExpirationSweep sweep() {
+        long start = System.nanoTime();
+        // as precise as the columns, so a resumed sweep reports the same cutoff
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        SweepState state = startOrResume(now);
+        int chunks = 0;
+        long scanned = 0;
+        while(true) {
+            int walked = transactionTemplate.execute(status -> expireChunk(state, now));
+            if(walked == 0) break;
+
+            chunks++;
+            scanned += walked;
+        }
+
+        jdbcTemplate.update("update loyalty_expiration_sweep set finished_at = :now where id = 1",
+                new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now())));
+        long notified = notifyExpiringSoon(now);
+
+        LoyaltyExpirationSweep sweep = new LoyaltyExpirationSweep(state.cutoff.toLocalDateTime(), state.resumed,
+                chunks, scanned, state.membersExpired, state.pointsExpired, notified,
+                (System.nanoTime() - start) / 1_000_000);
+        lastSweep = sweep;
+
+        log.info("Loyalty points expiration done: {} members expired ({} points), {} notified, " +
+                        "{} members walked in {} ms ({} members/s)",
+                sweep.membersExpired(), sweep.pointsExpired(), notified, scanned + notified, sweep.elapsedMillis(),
+                Math.round(sweep.getMembersPerSecond()));
+
+        return sweep;
+    }
+
+    /**
+     * Reads the checkpoint of an unfinished sweep, or starts a new sweep at a cutoff.
+     */
+    private SweepState startOrResume(LocalDateTime now) {
+        List<SweepState> unfinished = jdbcTemplate.query("select cutoff, cursor_date, cursor_id, members_expired, " +
+                        "points_expired from loyalty_expiration_sweep where id = 1 and finished_at is null",
+                (rs, rowNum) -> new SweepState(rs.getTimestamp(1), rs.getTimestamp(2), rs.getLong(3),
+                        rs.getLong(4), rs.getLong(5), true));
+        if(!unfinished.isEmpty()) return unfinished.get(0);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(now))
+                .addValue("start", START)
+                .addValue("now", Timestamp.valueOf(now));
+        int updated = jdbcTemplate.update("update loyalty_expiration_sweep set cutoff = :cutoff, cursor_date = :start, " +
+                "cursor_id = 0, members_expired = 0, points_expired = 0, started_at = :now, finished_at = null " +
+                "where id = 1", params);
+        if(updated == 0) {
+            jdbcTemplate.update("insert into loyalty_expiration_sweep (id, cutoff, cursor_date, cursor_id, " +
+                    "members_expired, points_expired, started_at) values (1, :cutoff, :start, 0, 0, 0, :now)", params);
+        }
+
+        return new SweepState(Timestamp.valueOf(now), START, 0, 0, 0, false);
+    }
+
+    /**
+     * Expires the points of the next chunk of members and checkpoints the sweep, in one transaction.
+     *
+     * @return The number of members walked, 0 when the sweep is over
+     */
+    private int expireChunk(SweepState state, LocalDateTime now) {
+        List<Object[]> chunk = jdbcTemplate.query(EXPIRED_CHUNK, new MapSqlParameterSource()
+                        .addValue("cutoff", state.cutoff)
+                        .addValue("at", state.cursorDate)
+                        .addValue("id", state.cursorId)
+                        .addValue("size", chunkSize),
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getTimestamp(2)});
+        if(chunk.isEmpty()) return 0;
+
+        List<Long> ids = chunk.stream().map(row -> (Long) row[0]).toList();
+
+        // points earned since the chunk was read moved the expiration date, those members are skipped
+        List<Long> locked = jdbcTemplate.queryForList("select id from loyalty_programs where id in (:ids) " +
+                        "and points_expiration_date <= :cutoff for update",
+                new MapSqlParameterSource().addValue("ids", ids).addValue("cutoff", state.cutoff), Long.class);
+
+        long members = 0;
+        long points = 0;
+        if(!locked.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", locked)
+                    .addValue("now", Timestamp.valueOf(now))
+                    .addValue("tier", LoyaltyProgram.Tier.forPoints(0).name());
+
+            Object[] totals = jdbcTemplate.queryForObject("select count(*), coalesce(sum(points), 0) " +
+                    "from loyalty_programs where id in (:ids) and points > 0", params,
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2)});
+            members = (Long) totals[0];
+            points = (Long) totals[1];
+
+            jdbcTemplate.update("insert into loyalty_ledger (loyalty_program_id, entry_type, points, created_at) " +
+                    "select id, '" + LoyaltyLedgerEntry.Type.EXPIRE.name() + "', -points, :now from loyalty_programs " +
+                    "where id in (:ids) and points > 0", params);
+            jdbcTemplate.update("update loyalty_programs set points = 0, tier = :tier, points_expiration_date = null " +
+                    "where id in (:ids)", params);
+        }
+
+        Object[] last = chunk.get(chunk.size() - 1);
+        state.cursorDate = (Timestamp) last[1];
+        state.cursorId = (Long) last[0];
+        state.membersExpired += members;
+        state.pointsExpired += points;
+
+        jdbcTemplate.update("update loyalty_expiration_sweep set cursor_date = :at, cursor_id = :id, " +
+                "members_expired = :members, points_expired = :points where id = 1", new MapSqlParameterSource()
+                .addValue("at", state.cursorDate)
+                .addValue("id", state.cursorId)
+                .addValue("members", state.membersExpired)
+                .addValue("points", state.pointsExpired));
+
+        return chunk.size();
+    }
+
+    /**
+     * Walks the members whose points expire within the notice period, marks those not told
+     * about their expiration date yet and hands them to the listeners, chunk by chunk.
+     *
+     * @return The number of members notified
+     */
+    private long notifyExpiringSoon(LocalDateTime now) {
+        Timestamp horizon = Timestamp.valueOf(now.plusDays(noticeDays));
+        Timestamp[] cursorDate = {Timestamp.valueOf(now)};
+        long[] cursorId = {Long.MAX_VALUE};
+        long notified = 0;
+
+        while(true) {
+            List<ExpiringPoints> batch = transactionTemplate.execute(status -> {
+                List<Object[]> chunk = jdbcTemplate.query(EXPIRING_CHUNK, new MapSqlParameterSource()
+                                .addValue("horizon", horizon)
+                                .addValue("at", cursorDate[0])
+                                .addValue("id", cursorId[0])
+                                .addValue("size", chunkSize),
+                        (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getInt(3),
+                                rs.getTimestamp(4), rs.getTimestamp(5)});
+                if(chunk.isEmpty()) return null;
+
+                Object[] last = chunk.get(chunk.size() - 1);
+                cursorDate[0] = (Timestamp) last[3];
+                cursorId[0] = (Long) last[0];
+
+                List<ExpiringPoints> expiring = new ArrayList<>();
+                List<MapSqlParameterSource> marks = new ArrayList<>();
+                for(Object[] row : chunk) {
+                    if((Integer) row[2] <= 0 || row[3].equals(row[4])) continue;
+
+                    expiring.add(new ExpiringPoints((Long) row[0], (Long) row[1], (Integer) row[2],
+                            ((Timestamp) row[3]).toLocalDateTime()));
+                    marks.add(new MapSqlParameterSource().addValue("id", row[0]).addValue("date", row[3]));
+                }
+
+                if(!marks.isEmpty()) {
+                    // unless the date was moved meanwhile
+                    jdbcTemplate.batchUpdate("update loyalty_programs set expiry_notified_for = :date " +
+                            "where id = :id and points_expiration_date = :date", marks.toArray(new MapSqlParameterSource[0]));
+
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            listeners.forEach(listener -> listener.onPointsExpiringSoon(expiring));
+                        }
+                    });
+                }
+
+                return expiring;
+            });
+
+            if(batch == null) return notified;
+            notified += batch.size();
+        }
+    }
+
+    /**
+     * Cutoff, position and totals of a sweep, as checkpointed.
+     */
+    private static final class SweepState {
+        private final Timestamp cutoff;
+        private final boolean resumed;
+        private Timestamp cursorDate;
+        private long cursorId;
+        private long membersExpired;
+        private long pointsExpired;
+
+        private SweepState(Timestamp cutoff, Timestamp cursorDate, long cursorId, long membersExpired,
+                           long pointsExpired, boolean resumed) {
+            this.cutoff = cutoff;
+            this.cursorDate = cursorDate;
+            this.cursorId = cursorId;
+            this.membersExpired = membersExpired;
+            this.pointsExpired = pointsExpired;
+            this.resumed = resumed;
+        }
+    }
+}
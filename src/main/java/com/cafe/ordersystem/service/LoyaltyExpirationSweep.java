@@ -0,0 +1,27 @@
+package com.cafe.ordersystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a points expiration sweep.
+ *
+ * @param cutoff Points whose expiration date is at or before this time were expired
+ * @param resumed Whether the sweep continued one interrupted before
+ * @param chunks The number of chunks processed by this run
+ * @param membersScanned The members whose expiration date was reached, walked by this run
+ * @param membersExpired The members whose points were expired, by the whole sweep
+ * @param pointsExpired The points expired, by the whole sweep
+ * @param membersNotified The members told that their points expire soon
+ * @param elapsedMillis The duration of this run
+ */
+public record LoyaltyExpirationSweep(LocalDateTime cutoff, boolean resumed, int chunks, long membersScanned,
+                                     long membersExpired, long pointsExpired, long membersNotified,
+                                     long elapsedMillis) {
+
+    /**
+     * Gets the members walked per second, expiration and notification included.
+     */
+    public double getMembersPerSecond() {
+        return elapsedMillis == 0 ? 0 : (membersScanned + membersNotified) * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cafe.ordersystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entry of the loyalty points ledger.
+ *
+ * @param id The entry id, increasing
+ * @param loyaltyProgramId The member's loyalty program
+ * @param type What changed the balance
+ * @param points The change of balance, negative for redemptions and expirations
+ * @param orderId The order that earned or redeemed the points, null otherwise
+ * @param createdAt When the entry was written
+ */
+public record LoyaltyLedgerEntry(Long id, Long loyaltyProgramId, Type type, int points, Long orderId,
+                                 LocalDateTime createdAt) {
+
+    public enum Type {
+        /**
+         * Balance carried over when the ledger was introduced.
+         */
+        OPENING,
+        EARN,
+        REDEEM,
+        EXPIRE
+    }
+}
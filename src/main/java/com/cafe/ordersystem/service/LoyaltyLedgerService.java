@@ -0,0 +1,241 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import com.cafe.ordersystem.model.customer.TierTable;
+import com.cafe.ordersystem.model.customer.TierTables;
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.repository.OrderRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loyalty points as an append-only ledger (loyalty_ledger) with a running balance
+ * (loyalty_programs.points).
+ *
+ * Every change of balance appends an entry and applies the same change to the balance with one
+ * relative UPDATE. Concurrent changes for the same member queue on the row lock of that UPDATE
+ * for the rest of their transaction, instead of failing on the @Version of a loaded
+ * LoyaltyProgram and being retried, and none of them is lost. Redemptions check the balance in
+ * the UPDATE itself, so it never goes below zero. The tier is recomputed from the new balance,
+ * and written only when it changed.
+ *
+ * Points are earned when an order of a member is paid: through the PAID transition, in the
+ * transaction of the transition, or for offline orders through {@link #recordEarnings(List)}.
+ * An order earns its points once.
+ */
+@Service
+public class LoyaltyLedgerService {
+
+    /**
+     * How long points stay valid after the last points were earned.
+     */
+    private static final int VALIDITY_YEARS = 1;
+
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public LoyaltyLedgerService(OrderRepository orderRepository, JdbcTemplate jdbcTemplate,
+                                OrderStatusTransitionService transitionService) {
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+
+        transitionService.register(OrderStatus.PAID, this::earnForOrder);
+    }
+
+    /**
+     * Credits points to a member.
+     *
+     * @param loyaltyProgramId The member's loyalty program
+     * @param points The points to add, positive
+     * @param orderId The order that earned them, null if none
+     * @return The new balance
+     * @throws IllegalArgumentException if the loyalty program does not exist
+     */
+    @Transactional
+    public int earn(Long loyaltyProgramId, int points, Long orderId) {
+        if(points <= 0) throw new IllegalArgumentException("Points to add must be positive");
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update("update loyalty_programs set points = points + ?, " +
+                        "last_points_earned_date = ?, points_expiration_date = ? where id = ?",
+                points, Timestamp.valueOf(now), Timestamp.valueOf(now.plusYears(VALIDITY_YEARS)), loyaltyProgramId);
+        if(updated == 0) throw new IllegalArgumentException("Loyalty program " + loyaltyProgramId + " not found");
+
+        append(loyaltyProgramId, LoyaltyLedgerEntry.Type.EARN, points, orderId, now);
+        return refreshTier(loyaltyProgramId);
+    }
+
+    /**
+     * Debits points from a member.
+     *
+     * @param loyaltyProgramId The member's loyalty program
+     * @param points The points to redeem, positive
+     * @param orderId The order they are redeemed for, null if none
+     * @return The new balance
+     * @throws IllegalArgumentException if the balance is lower than the points, or the loyalty program does not exist
+     */
+    @Transactional
+    public int redeem(Long loyaltyProgramId, int points, Long orderId) {
+        if(points <= 0) throw new IllegalArgumentException("Points to redeem must be positive");
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update("update loyalty_programs set points = points - ?, " +
+                "last_points_redeemed_date = ? where id = ? and points >= ?",
+                points, Timestamp.valueOf(now), loyaltyProgramId, points);
+        if(updated == 0) throw new IllegalArgumentException("Cannot redeem more points than available");
+
+        append(loyaltyProgramId, LoyaltyLedgerEntry.Type.REDEEM, -points, orderId, now);
+        return refreshTier(loyaltyProgramId);
+    }
+
+    /**
+     * Credits the points earned by orders just stored (e.g. uploaded offline), with one batch of
+     * entries and one batch of balance updates. Must be called within the transaction storing them,
+     * after they were flushed.
+     *
+     * @param orders The orders, those without points earned are skipped
+     */
+    public void recordEarnings(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp at = Timestamp.valueOf(now);
+
+        List<Object[]> entries = new ArrayList<>();
+        Map<Long, Integer> pointsByProgram = new LinkedHashMap<>();
+        for(Order order : orders) {
+            Integer points = order.getLoyaltyPointsEarned();
+            if(points == null || points <= 0 || order.getCustomer() == null) continue;
+
+            LoyaltyProgram program = order.getCustomer().getLoyaltyProgram();
+            if(program == null) continue;
+
+            entries.add(new Object[]{program.getId(), LoyaltyLedgerEntry.Type.EARN.name(), points, order.getId(), at});
+            pointsByProgram.merge(program.getId(), points, Integer::sum);
+        }
+
+        if(entries.isEmpty()) return;
+
+        List<Object[]> balances = new ArrayList<>(pointsByProgram.size());
+        Timestamp expiration = Timestamp.valueOf(now.plusYears(VALIDITY_YEARS));
+        pointsByProgram.forEach((programId, points) -> balances.add(new Object[]{points, at, expiration, programId}));
+
+        jdbcTemplate.batchUpdate("insert into loyalty_ledger (loyalty_program_id, entry_type, points, order_id, " +
+                "created_at) values (?, ?, ?, ?, ?)", entries);
+        jdbcTemplate.batchUpdate("update loyalty_programs set points = points + ?, last_points_earned_date = ?, " +
+                "points_expiration_date = ? where id = ?", balances);
+        pointsByProgram.keySet().forEach(this::refreshTier);
+    }
+
+    /**
+     * Gets the balance of a member.
+     *
+     * @param loyaltyProgramId The member's loyalty program
+     * @return The balance
+     * @throws IllegalArgumentException if the loyalty program does not exist
+     */
+    public int getBalance(Long loyaltyProgramId) {
+        List<Integer> balance = jdbcTemplate.queryForList("select points from loyalty_programs where id = ?",
+                Integer.class, loyaltyProgramId);
+        if(balance.isEmpty()) throw new IllegalArgumentException("Loyalty program " + loyaltyProgramId + " not found");
+
+        return balance.get(0);
+    }
+
+    /**
+     * Gets the tier of a member, from the balance.
+     *
+     * @param loyaltyProgramId The member's loyalty program
+     * @return The tier
+     */
+    public LoyaltyProgram.Tier getTier(Long loyaltyProgramId) {
+        return LoyaltyProgram.Tier.forPoints(getBalance(loyaltyProgramId));
+    }
+
+    /**
+     * Sums the ledger entries of a member, which must equal the balance.
+     *
+     * @param loyaltyProgramId The member's loyalty program
+     * @return The sum of the points of all the entries
+     */
+    public long sumEntries(Long loyaltyProgramId) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(points), 0) from loyalty_ledger " +
+                "where loyalty_program_id = ?", Long.class, loyaltyProgramId);
+    }
+
+    /**
+     * Lists the latest ledger entries of a member.
+     *
+     * @param loyaltyProgramId The member's loyalty program
+     * @param limit The maximum number of entries
+     * @return The entries, newest first
+     */
+    public List<LoyaltyLedgerEntry> getHistory(Long loyaltyProgramId, int limit) {
+        return jdbcTemplate.query("select id, loyalty_program_id, entry_type, points, order_id, created_at " +
+                        "from loyalty_ledger where loyalty_program_id = ? order by id desc limit ?",
+                (rs, rowNum) -> new LoyaltyLedgerEntry(rs.getLong(1), rs.getLong(2),
+                        LoyaltyLedgerEntry.Type.valueOf(rs.getString(3)), rs.getInt(4),
+                        rs.getObject(5, Long.class), rs.getTimestamp(6).toLocalDateTime()),
+                loyaltyProgramId, limit);
+    }
+
+    /**
+     * Credits the points of an order moved to PAID, if it belongs to a member and was paid with
+     * a method earning points (or already has its points calculated), unless it already earned them.
+     */
+    private void earnForOrder(OrderStatusChange change) {
+        if(change.orderId() == null) return;
+
+        List<Object[]> rows = orderRepository.findLoyaltyRow(change.orderId());
+        if(rows.isEmpty()) return;
+
+        Object[] row = rows.get(0);
+        PaymentMethod paymentMethod = (PaymentMethod) row[1];
+        Integer points = (Integer) row[3];
+        if((points == null || points <= 0) && paymentMethod != null && paymentMethod.isEligibleForLoyaltyPoints()) {
+            TierTable tiers = TierTables.current();
+            points = tiers.pointsEarned(tiers.tierFor((Integer) row[4]), (BigDecimal) row[2]);
+        }
+        if(points == null || points <= 0) return;
+
+        Integer earned = jdbcTemplate.queryForObject("select count(*) from loyalty_ledger where order_id = ? " +
+                "and entry_type = ?", Integer.class, change.orderId(), LoyaltyLedgerEntry.Type.EARN.name());
+        if(earned > 0) return;
+
+        earn((Long) row[0], points, change.orderId());
+
+        if(change.order() != null) {
+            change.order().setLoyaltyPointsEarned(points);
+        } else {
+            jdbcTemplate.update("update orders set loyalty_points_earned = ? where id = ?", points, change.orderId());
+        }
+    }
+
+    /**
+     * Rewrites the tier of a member if the balance is now in another tier.
+     * The balance row is locked by the UPDATE that just changed it.
+     *
+     * @return The balance
+     */
+    private int refreshTier(Long loyaltyProgramId) {
+        int balance = getBalance(loyaltyProgramId);
+        String tier = LoyaltyProgram.Tier.forPoints(balance).name();
+        jdbcTemplate.update("update loyalty_programs set tier = ? where id = ? and tier <> ?", tier, loyaltyProgramId, tier);
+
+        return balance;
+    }
+
+    private void append(Long loyaltyProgramId, LoyaltyLedgerEntry.Type type, int points, Long orderId, LocalDateTime at) {
+        jdbcTemplate.update("insert into loyalty_ledger (loyalty_program_id, entry_type, points, order_id, created_at) " +
+                "values (?, ?, ?, ?, ?)", loyaltyProgramId, type.name(), points, orderId, Timestamp.valueOf(at));
+    }
+}
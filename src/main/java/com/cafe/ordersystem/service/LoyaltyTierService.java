@@ -0,0 +1,187 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import com.cafe.ordersystem.model.customer.TierTable;
+import com.cafe.ordersystem.model.customer.TierTables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads the loyalty tier table from the loyalty_tiers table and installs it in {@link TierTables}.
+ *
+ * The table is reloaded periodically, so a change made through one instance reaches the others
+ * without a restart. When a change moves the thresholds, the members are re-tiered by the instance
+ * that made it and by each instance reloading it: the loyalty_programs rows are walked by id in
+ * batches, each batch re-tiered with one UPDATE computing the tier from the balance, without loading
+ * any entity. Only the members in the wrong tier are written, so the instances that come second
+ * find little left to do. A re-tiering interrupted by a shutdown is finished at startup.
+ */
+@Service
+public class LoyaltyTierService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoyaltyTierService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public LoyaltyTierService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              @Value("${cafe.loyalty.tiers.retier-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the tier table in force.
+     */
+    public TierTable getTiers() {
+        return TierTables.current();
+    }
+
+    /**
+     * Installs the configured tier table at startup, and re-tiers the members if some are not in
+     * the tier of their balance.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        TierTable previous = TierTables.current();
+        reload();
+
+        // reload re-tiered if the thresholds moved, otherwise a re-tiering may have been interrupted
+        if(TierTables.current().sameThresholds(previous) && hasMistieredMembers()) retierAll();
+    }
+
+    /**
+     * Reads the tier table and installs it if it changed, re-tiering the members if the thresholds moved.
+     *
+     * @return true if a new table was installed
+     */
+    @Scheduled(fixedDelayString = "${cafe.loyalty.tiers.reload-interval-ms:30000}",
+            initialDelayString = "${cafe.loyalty.tiers.reload-interval-ms:30000}")
+    public boolean reload() {
+        List<TierTable.Level> levels = jdbcTemplate.query("select tier, points_required, points_multiplier, perks " +
+                        "from loyalty_tiers",
+                (rs, rowNum) -> new TierTable.Level(LoyaltyProgram.Tier.valueOf(rs.getString(1)), rs.getInt(2),
+                        rs.getBigDecimal(3), perks(rs.getString(4))));
+
+        TierTable table;
+        try {
+            table = new TierTable(levels);
+        } catch(IllegalArgumentException e) {
+            log.error("Invalid loyalty tiers, keeping the current ones: {}", e.getMessage());
+            return false;
+        }
+
+        TierTable previous = TierTables.current();
+        if(table.levels().equals(previous.levels())) return false;
+
+        TierTables.install(table);
+        log.info("Loyalty tiers installed: {}", table.levels());
+
+        if(!table.sameThresholds(previous)) retierAll();
+        return true;
+    }
+
+    /**
+     * Replaces the tier table, and re-tiers the members if the thresholds moved.
+     *
+     * @param levels One level per tier
+     * @return The outcome of the re-tiering, null if the thresholds did not move
+     * @throws IllegalArgumentException if the levels do not make a valid table
+     */
+    public TierRetierResult update(List<TierTable.Level> levels) {
+        TierTable table = new TierTable(levels);
+        TierTable previous = TierTables.current();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(levels.size());
+        for(TierTable.Level level : table.levels()) {
+            rows.add(new Object[]{level.pointsRequired(), level.pointsMultiplier(),
+                    level.perks().isEmpty() ? null : String.join(";", level.perks()), now, level.tier().name()});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate("update loyalty_tiers " +
+                "set points_required = ?, points_multiplier = ?, perks = ?, updated_at = ? where tier = ?", rows));
+        TierTables.install(table);
+
+        return table.sameThresholds(previous) ? null : retierAll();
+    }
+
+    /**
+     * Recomputes the stored tier of every member from the balance, with the tier table in force.
+     *
+     * @return The outcome
+     */
+    public TierRetierResult retierAll() {
+        long start = System.nanoTime();
+        String tierOfBalance = tierOfBalance(TierTables.current());
+
+        long scanned = 0;
+        long retiered = 0;
+        int batches = 0;
+        long lastId = Long.MIN_VALUE;
+        while(true) {
+            List<Long> ids = jdbcTemplate.queryForList("select id from loyalty_programs where id > ? order by id limit ?",
+                    Long.class, lastId, batchSize);
+            if(ids.isEmpty()) break;
+
+            long from = lastId;
+            long to = ids.get(ids.size() - 1);
+            retiered += transactionTemplate.execute(status -> jdbcTemplate.update("update loyalty_programs set tier = " +
+                    tierOfBalance + " where id > ? and id <= ? and tier <> " + tierOfBalance, from, to));
+
+            scanned += ids.size();
+            batches++;
+            lastId = to;
+        }
+
+        TierRetierResult result = new TierRetierResult(scanned, retiered, batches, (System.nanoTime() - start) / 1_000_000);
+        log.info("Loyalty members re-tiered: {} of {} changed tier, {} batches in {} ms",
+                retiered, scanned, batches, result.elapsedMillis());
+
+        return result;
+    }
+
+    /**
+     * Checks whether a member is not in the tier of the balance, with the tier table in force.
+     */
+    private boolean hasMistieredMembers() {
+        return !jdbcTemplate.queryForList("select id from loyalty_programs where tier <> "
+                + tierOfBalance(TierTables.current()) + " limit 1", Long.class).isEmpty();
+    }
+
+    /**
+     * Builds the SQL expression of the tier of the points column, highest tier first.
+     * Only integers and tier names are inlined.
+     */
+    static String tierOfBalance(TierTable table) {
+        List<TierTable.Level> levels = table.levels();
+        StringBuilder sql = new StringBuilder("case");
+        for(int i = levels.size() - 1; i > 0; i--) {
+            sql.append(" when points >= ").append(levels.get(i).pointsRequired())
+                    .append(" then '").append(levels.get(i).tier().name()).append('\'');
+        }
+
+        return sql.append(" else '").append(levels.get(0).tier().name()).append("' end").toString();
+    }
+
+    private static List<String> perks(String perks) {
+        if(perks == null || perks.isBlank()) return List.of();
+
+        return Arrays.stream(perks.split(";")).map(String::trim).filter(perk -> !perk.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,172 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.AvailabilitySchedule;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.MenuAvailability;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Time-of-day and seasonal availability of the menu, checked for every order line.
+ *
+ * The rules of all categories are compiled into an {@link AvailabilitySchedule} on first
+ * use, and compiled again after a committed change to a category's availability time,
+ * seasonal flag or parent. Invalid rules are logged and treated as "all-day", so a typo
+ * never stops sales.
+ */
+@Service
+public class MenuAvailabilityService implements MenuAvailability {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuAvailabilityService.class);
+
+    private static final Set<String> RULE_PROPERTIES = Set.of("availabilityTime", "seasonal", "parent");
+
+    private final CategoryRepository categoryRepository;
+    private final Map<String, String> periods;
+    private final Set<Month> seasonMonths;
+
+    private final AtomicLong generation = new AtomicLong(1);
+    private final AtomicReference<Compiled> compiled = new AtomicReference<>();
+    private final ReentrantLock compileLock = new ReentrantLock();
+
+    public MenuAvailabilityService(CategoryRepository categoryRepository, EntityManagerFactory entityManagerFactory,
+                                   @Value("${cafe.menu.availability.periods:}") String periods,
+                                   @Value("${cafe.menu.availability.season-months:}") String seasonMonths) {
+        this.categoryRepository = categoryRepository;
+        this.periods = parsePeriods(periods);
+        this.seasonMonths = parseMonths(seasonMonths);
+
+        new CategoryListener().registerWith(entityManagerFactory);
+    }
+
+    @Override
+    public boolean isOrderable(Product product, LocalDateTime at) {
+        return schedule().isOrderable(product, at);
+    }
+
+    /**
+     * Gets the categories whose products can be ordered at a given time.
+     *
+     * @param at The time
+     * @return The ids of the available categories
+     */
+    public List<Long> findAvailableCategoryIds(LocalDateTime at) {
+        return schedule().availableCategoryIds(at);
+    }
+
+    /**
+     * Marks the schedule as outdated, it is compiled again on the next check.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private AvailabilitySchedule schedule() {
+        Compiled current = compiled.get();
+        if(current != null && current.generation == generation.get()) return current.schedule;
+
+        // someone is already compiling: keep checking against the previous schedule
+        if(current != null && !compileLock.tryLock()) return current.schedule;
+        if(current == null) compileLock.lock();
+
+        try {
+            current = compiled.get();
+            long target = generation.get();
+            if(current != null && current.generation == target) return current.schedule;
+
+            Compiled fresh = new Compiled(target, compile());
+            compiled.set(fresh);
+            return fresh.schedule;
+        } finally {
+            compileLock.unlock();
+        }
+    }
+
+    private AvailabilitySchedule compile() {
+        List<AvailabilitySchedule.CategoryRule> rules = new ArrayList<>();
+        for(Object[] row : categoryRepository.findAvailabilityRows()) {
+            String availabilityTime = (String) row[2];
+            try {
+                AvailabilitySchedule.parse(availabilityTime, periods);
+            } catch(IllegalArgumentException e) {
+                log.warn("Category {} has an invalid availability time \"{}\", treated as all-day", row[0], availabilityTime);
+                availabilityTime = null;
+            }
+
+            rules.add(new AvailabilitySchedule.CategoryRule((Long) row[0], (Long) row[1], availabilityTime, (Boolean) row[3]));
+        }
+
+        return AvailabilitySchedule.compile(rules, periods, seasonMonths);
+    }
+
+    /**
+     * Parses "name=HH:mm-HH:mm;name=HH:mm-HH:mm".
+     */
+    private static Map<String, String> parsePeriods(String periods) {
+        Map<String, String> parsed = new HashMap<>();
+        for(String entry : periods.split(";")) {
+            if(entry.isBlank()) continue;
+
+            String[] parts = entry.split("=", 2);
+            if(parts.length != 2) throw new IllegalArgumentException("Invalid availability period: " + entry);
+
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            AvailabilitySchedule.parse(parts[1], Map.of());
+            parsed.put(name, parts[1].trim());
+        }
+        return Map.copyOf(parsed);
+    }
+
+    /**
+     * Parses a comma-separated list of month numbers, all year if empty.
+     */
+    private static Set<Month> parseMonths(String months) {
+        if(months.isBlank()) return EnumSet.allOf(Month.class);
+
+        Set<Month> parsed = EnumSet.noneOf(Month.class);
+        for(String month : months.split(",")) {
+            parsed.add(Month.of(Integer.parseInt(month.trim())));
+        }
+        return parsed;
+    }
+
+    private record Compiled(long generation, AvailabilitySchedule schedule) {
+    }
+
+    private final class CategoryListener extends EntityCommitListener {
+
+        private CategoryListener() {
+            super(Category.class);
+        }
+
+        @Override
+        protected void onWrite(Object entity, Set<String> changedProperties) {
+            if(changedProperties == null || changedProperties.stream().anyMatch(RULE_PROPERTIES::contains)) {
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void onDelete(Object entity) {
+            invalidate();
+        }
+    }
+}
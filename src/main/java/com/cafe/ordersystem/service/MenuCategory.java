@@ -0,0 +1,14 @@
+package com.cafe.ordersystem.service;
+
+import java.util.List;
+
+/**
+ * A category as shown on the menu, with its full path precomputed.
+ *
+ * @param products The active products of this category, featured first
+ * @param subCategories The visible sub-categories, in display order
+ */
+public record MenuCategory(Long id, String name, String fullPathName, String description, Integer displayOrder,
+                           String iconUrl, String colorCode, Long parentId, String availabilityTime,
+                           boolean seasonal, List<MenuProduct> products, List<MenuCategory> subCategories) {
+}
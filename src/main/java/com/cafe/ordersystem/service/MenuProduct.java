@@ -0,0 +1,11 @@
+package com.cafe.ordersystem.service;
+
+import java.math.BigDecimal;
+
+/**
+ * A product as shown on the menu.
+ */
+public record MenuProduct(Long id, String name, String description, BigDecimal price, String imageUrl,
+                          Long categoryId, Integer preparationTime, Integer calories, boolean vegetarian,
+                          boolean vegan, boolean glutenFree, boolean containsAllergens, boolean featured) {
+}
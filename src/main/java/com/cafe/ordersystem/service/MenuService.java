@@ -0,0 +1,130 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache of the menu.
+ *
+ * The menu is served from an immutable {@link MenuSnapshot}, built with two flat projection
+ * queries instead of walking the Category/Product entity graph. Committed Category and
+ * Product writes bump a generation counter; the next read rebuilds the snapshot and swaps
+ * it atomically. While a rebuild is running, other readers keep getting the previous
+ * snapshot instead of waiting.
+ *
+ * Product updates that only touch stock are ignored, stock is not on the menu.
+ */
+@Service
+public class MenuService {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuService.class);
+
+    private static final Set<String> STOCK_PROPERTIES = Set.of("stockLevel", "reorderGap", "lastRestocked",
+            "version", "updatedAt", "updatedBy");
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    private final AtomicLong generation = new AtomicLong(1);
+    private final AtomicReference<MenuSnapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public MenuService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                       EntityManagerFactory entityManagerFactory) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+
+        new MenuListener().registerWith(entityManagerFactory);
+    }
+
+    /**
+     * Gets the current menu, rebuilding it first if the catalog changed.
+     *
+     * @return The menu snapshot
+     */
+    public MenuSnapshot getMenu() {
+        MenuSnapshot current = snapshot.get();
+        if(current != null && current.getVersion() == generation.get()) return current;
+
+        // someone is already rebuilding: serve the previous menu rather than wait
+        if(current != null && !rebuildLock.tryLock()) return current;
+        if(current == null) rebuildLock.lock();
+
+        try {
+            current = snapshot.get();
+            long target = generation.get();
+            if(current != null && current.getVersion() == target) return current;
+
+            MenuSnapshot rebuilt = build(target);
+            snapshot.set(rebuilt);
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the menu as outdated, it is rebuilt on the next read.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private MenuSnapshot build(long version) {
+        long start = System.nanoTime();
+
+        List<MenuCategory> categories = new ArrayList<>();
+        for(Object[] row : categoryRepository.findMenuRows()) {
+            categories.add(new MenuCategory((Long) row[0], (String) row[1], null, (String) row[2],
+                    (Integer) row[3], (String) row[4], (String) row[5], (Long) row[6], (String) row[7],
+                    (Boolean) row[8], List.of(), List.of()));
+        }
+
+        List<MenuProduct> products = new ArrayList<>();
+        for(Object[] row : productRepository.findMenuRows()) {
+            products.add(new MenuProduct((Long) row[0], (String) row[1], (String) row[2], (BigDecimal) row[3],
+                    (String) row[4], (Long) row[5], (Integer) row[6], (Integer) row[7], (Boolean) row[8],
+                    (Boolean) row[9], (Boolean) row[10], (Boolean) row[11], (Boolean) row[12]));
+        }
+
+        MenuSnapshot built = MenuSnapshot.build(version, categories, products);
+        log.debug("Menu version {} built in {} µs: {} categories, {} products", version,
+                (System.nanoTime() - start) / 1000, built.categoryCount(), products.size());
+
+        return built;
+    }
+
+    private final class MenuListener extends EntityCommitListener {
+
+        private MenuListener() {
+            super(Category.class, Product.class);
+        }
+
+        @Override
+        protected void onWrite(Object entity, Set<String> changedProperties) {
+            if(entity instanceof Product && changedProperties != null
+                    && STOCK_PROPERTIES.containsAll(changedProperties)) return;
+
+            invalidate();
+        }
+
+        @Override
+        protected void onDelete(Object entity) {
+            invalidate();
+        }
+    }
+}
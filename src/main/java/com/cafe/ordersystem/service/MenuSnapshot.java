@@ -0,0 +1,180 @@
+package com.cafe.ordersystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the whole menu at a given version.
+ *
+ * The category tree is pruned like Category.isVisible: a category is kept when it is
+ * active, shown in the menu, under a kept parent, and has active products of its own
+ * or a kept sub-category. Stock is not part of the snapshot.
+ *
+ * The version only orders the snapshots of one running instance. The content hash, a
+ * digest of everything shown, is the same for the same menu across restarts and instances
+ * and is what clients may cache by.
+ */
+public final class MenuSnapshot {
+
+    private static final Comparator<MenuCategory> DISPLAY_ORDER = Comparator
+            .comparing((MenuCategory c) -> c.displayOrder() != null ? c.displayOrder() : Integer.MAX_VALUE)
+            .thenComparing(MenuCategory::name);
+
+    private static final Comparator<MenuProduct> FEATURED_FIRST = Comparator
+            .comparing((MenuProduct p) -> !p.featured())
+            .thenComparing(MenuProduct::name);
+
+    private final long version;
+    private final String contentHash;
+    private final LocalDateTime builtAt;
+    private final List<MenuCategory> categories;
+    private final Map<Long, MenuCategory> categoriesById;
+    private final Map<Long, MenuProduct> productsById;
+
+    private MenuSnapshot(long version, List<MenuCategory> categories, Map<Long, MenuCategory> categoriesById,
+                         Map<Long, MenuProduct> productsById) {
+        this.version = version;
+        this.contentHash = hash(categories);
+        this.builtAt = LocalDateTime.now();
+        this.categories = categories;
+        this.categoriesById = categoriesById;
+        this.productsById = productsById;
+    }
+
+    /**
+     * Builds a snapshot from flat lists of categories and products.
+     *
+     * @param version The version of the snapshot
+     * @param categories The active categories shown in the menu, with empty product and sub-category lists
+     * @param products The active products
+     * @return The snapshot
+     */
+    public static MenuSnapshot build(long version, List<MenuCategory> categories, List<MenuProduct> products) {
+        Map<Long, MenuCategory> rows = new HashMap<>();
+        Map<Long, List<Long>> children = new HashMap<>();
+        for(MenuCategory category : categories) {
+            rows.put(category.id(), category);
+            children.computeIfAbsent(category.parentId(), id -> new ArrayList<>()).add(category.id());
+        }
+
+        Map<Long, List<MenuProduct>> productsByCategory = new HashMap<>();
+        for(MenuProduct product : products) {
+            productsByCategory.computeIfAbsent(product.categoryId(), id -> new ArrayList<>()).add(product);
+        }
+
+        Map<Long, MenuCategory> categoriesById = new HashMap<>();
+        Map<Long, MenuProduct> productsById = new HashMap<>();
+        List<MenuCategory> roots = new ArrayList<>();
+
+        for(Long rootId : children.getOrDefault(null, List.of())) {
+            MenuCategory root = assemble(rows.get(rootId), rows.get(rootId).name(), rows, children,
+                    productsByCategory, categoriesById, productsById);
+            if(root != null) roots.add(root);
+        }
+        roots.sort(DISPLAY_ORDER);
+
+        return new MenuSnapshot(version, List.copyOf(roots), Map.copyOf(categoriesById), Map.copyOf(productsById));
+    }
+
+    /**
+     * Builds a category with its full path and its kept descendants, top-down.
+     *
+     * @return The category, or null if it has nothing to show
+     */
+    private static MenuCategory assemble(MenuCategory row, String fullPathName, Map<Long, MenuCategory> rows,
+                                         Map<Long, List<Long>> children,
+                                         Map<Long, List<MenuProduct>> productsByCategory,
+                                         Map<Long, MenuCategory> categoriesById, Map<Long, MenuProduct> productsById) {
+        List<MenuCategory> subCategories = new ArrayList<>();
+        for(Long childId : children.getOrDefault(row.id(), List.of())) {
+            MenuCategory child = rows.get(childId);
+            MenuCategory assembled = assemble(child, fullPathName + " > " + child.name(), rows, children,
+                    productsByCategory, categoriesById, productsById);
+            if(assembled != null) subCategories.add(assembled);
+        }
+        subCategories.sort(DISPLAY_ORDER);
+
+        List<MenuProduct> products = new ArrayList<>(productsByCategory.getOrDefault(row.id(), List.of()));
+        if(products.isEmpty() && subCategories.isEmpty()) return null;
+        products.sort(FEATURED_FIRST);
+
+        MenuCategory category = new MenuCategory(row.id(), row.name(), fullPathName, row.description(),
+                row.displayOrder(), row.iconUrl(), row.colorCode(), row.parentId(), row.availabilityTime(),
+                row.seasonal(), List.copyOf(products), List.copyOf(subCategories));
+
+        categoriesById.put(category.id(), category);
+        products.forEach(product -> productsById.put(product.id(), product));
+
+        return category;
+    }
+
+    /**
+     * Digests the menu tree. The records only hold strings, numbers, booleans and lists,
+     * so their toString is the same in every JVM.
+     */
+    private static String hash(List<MenuCategory> categories) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(categories.toString().getBytes(StandardCharsets.UTF_8));
+
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the digest of the menu content, the same whenever the menu shows the same thing.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * Gets the top-level categories, in display order.
+     */
+    public List<MenuCategory> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Finds a category shown on the menu.
+     *
+     * @return The category, or null if it is not on the menu
+     */
+    public MenuCategory category(Long categoryId) {
+        return categoriesById.get(categoryId);
+    }
+
+    /**
+     * Finds a product shown on the menu.
+     *
+     * @return The product, or null if it is not on the menu
+     */
+    public MenuProduct product(Long productId) {
+        return productsById.get(productId);
+    }
+
+    /**
+     * Gets the number of categories on the menu.
+     */
+    public int categoryCount() {
+        return categoriesById.size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.PaymentMethod;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An order taken by a terminal while offline, uploaded later.
+ *
+ * @param clientOrderNumber The number given by the terminal, unique across terminals
+ * @param customerId The customer, if known
+ * @param orderDate When the order was taken
+ * @param paymentMethod How it was paid, must be processable offline
+ * @param paymentReference The receipt number, if any
+ * @param takeaway Whether the order was taken away
+ * @param tableNumber The table, for dine-in orders
+ * @param notes Free notes
+ * @param items The ordered products
+ */
+public record OfflineOrder(String clientOrderNumber, Long customerId, LocalDateTime orderDate,
+                           PaymentMethod paymentMethod, String paymentReference, boolean takeaway,
+                           Integer tableNumber, String notes, List<Line> items) {
+
+    /**
+     * @param productId The product
+     * @param quantity The quantity, positive
+     * @param specialInstructions Special instructions, if any
+     */
+    public record Line(Long productId, int quantity, String specialInstructions) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.OrderSummary;
+import com.cafe.ordersystem.repository.KeysetCursor;
+import com.cafe.ordersystem.repository.KeysetPage;
+import com.cafe.ordersystem.repository.OrderSummaryRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Order history and dashboard queries, answered from the order_summary read model
+ * maintained by the {@link OrderSummaryProjector}, never from the Order aggregates.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderHistoryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    public OrderHistoryService(OrderSummaryRepository orderSummaryRepository) {
+        this.orderSummaryRepository = orderSummaryRepository;
+    }
+
+    /**
+     * Lists orders, newest first.
+     *
+     * @param status Only the orders in this status, or null for all orders
+     * @param cursor The cursor returned with the previous page, null for the first page
+     * @param size The page size
+     * @return The page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public KeysetPage<OrderSummary> list(OrderStatus status, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = KeysetPage.limit(size);
+
+        List<OrderSummary> items;
+        if(status == null) {
+            items = after == null
+                    ? orderSummaryRepository.findFirstPage(page)
+                    : orderSummaryRepository.findPageAfter(after.at(), after.id(), page);
+        } else {
+            items = after == null
+                    ? orderSummaryRepository.findFirstPageByStatus(status, page)
+                    : orderSummaryRepository.findPageByStatusAfter(status, after.at(), after.id(), page);
+        }
+
+        return toPage(items, page);
+    }
+
+    /**
+     * Lists the orders of a customer, newest first.
+     *
+     * @param customerId The customer
+     * @param cursor The cursor returned with the previous page, null for the first page
+     * @param size The page size
+     * @return The page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public KeysetPage<OrderSummary> listForCustomer(Long customerId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = KeysetPage.limit(size);
+
+        List<OrderSummary> items = after == null
+                ? orderSummaryRepository.findFirstPageByCustomer(customerId, page)
+                : orderSummaryRepository.findPageByCustomerAfter(customerId, after.at(), after.id(), page);
+
+        return toPage(items, page);
+    }
+
+    /**
+     * Counts the orders of a customer.
+     *
+     * @param customerId The customer
+     * @return The number of orders
+     */
+    public long countOrders(Long customerId) {
+        return orderSummaryRepository.countByCustomerId(customerId);
+    }
+
+    /**
+     * Gets the number and total amount of the orders placed on a day, per status.
+     *
+     * @param date The day
+     * @return The totals of the statuses having orders, in lifecycle order
+     */
+    public List<OrderStatusTotals> dailyTotals(LocalDate date) {
+        List<OrderStatusTotals> totals = new ArrayList<>();
+        for(Object[] row : orderSummaryRepository.sumByStatus(date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            totals.add(new OrderStatusTotals((OrderStatus) row[0], ((Number) row[1]).longValue(), (BigDecimal) row[2]));
+        }
+
+        totals.sort(Comparator.comparing(OrderStatusTotals::status));
+        return totals;
+    }
+
+    private static KeysetPage<OrderSummary> toPage(List<OrderSummary> items, Pageable page) {
+        return KeysetPage.of(items, page.getPageSize(), summary -> new KeysetCursor(summary.getOrderDate(), summary.getOrderId()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * Outcome of the ingestion of one uploaded order.
+ *
+ * @param clientOrderNumber The number given by the terminal
+ * @param status What happened to the order
+ * @param orderId The id of the stored order (null if rejected)
+ * @param orderNumber The order number of the stored order (null if rejected)
+ * @param error Why the order was rejected (null otherwise)
+ */
+public record OrderIngestionResult(String clientOrderNumber, Status status, Long orderId, String orderNumber,
+                                   String error) {
+
+    public enum Status {
+        /**
+         * Stored by this upload.
+         */
+        ACCEPTED,
+        /**
+         * Already stored by a previous upload, nothing changed.
+         */
+        DUPLICATE,
+        /**
+         * Invalid, not stored.
+         */
+        REJECTED
+    }
+
+    public static OrderIngestionResult accepted(String clientOrderNumber, Long orderId, String orderNumber) {
+        return new OrderIngestionResult(clientOrderNumber, Status.ACCEPTED, orderId, orderNumber, null);
+    }
+
+    public static OrderIngestionResult duplicate(String clientOrderNumber, Long orderId, String orderNumber) {
+        return new OrderIngestionResult(clientOrderNumber, Status.DUPLICATE, orderId, orderNumber, null);
+    }
+
+    public static OrderIngestionResult rejected(String clientOrderNumber, String error) {
+        return new OrderIngestionResult(clientOrderNumber, Status.REJECTED, null, null, error);
+    }
+}
@@ -0,0 +1,296 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.product.MenuAvailabilities;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CustomerRepository;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Stores the orders uploaded in bulk by terminals that were offline.
+ *
+ * A batch is handled in one transaction:
+ * - client order numbers already stored (or repeated in the batch) are reported as duplicates,
+ *   so a terminal can safely upload the same batch again
+ * - products, customers and existing orders are read with one IN query each
+ * - orders are validated in parallel, then built and inserted with JDBC batching
+ *   (Order and OrderItem ids come from a pooled table generator)
+ * Invalid orders are rejected one by one, without failing the rest of the batch.
+ *
+ * Offline orders were paid and handed over at the counter, they are stored COMPLETED.
+ * The kitchen is not notified; loyalty points are credited with the batch, the live sales
+ * figures and best sellers count the orders at upload time, product stock and ingredients
+ * are depleted once committed.
+ */
+@Service
+public class OrderIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestionService.class);
+
+    private static final int MAX_CLIENT_ORDER_NUMBER_LENGTH = 64;
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final StockReservationService stockReservationService;
+    private final IngredientDepletionService ingredientDepletionService;
+    private final LoyaltyLedgerService loyaltyLedgerService;
+    private final SalesAggregationService salesAggregationService;
+    private final BestSellerService bestSellerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+
+    public OrderIngestionService(OrderRepository orderRepository, ProductRepository productRepository,
+                                 CustomerRepository customerRepository,
+                                 StockReservationService stockReservationService,
+                                 IngredientDepletionService ingredientDepletionService,
+                                 LoyaltyLedgerService loyaltyLedgerService,
+                                 SalesAggregationService salesAggregationService,
+                                 BestSellerService bestSellerService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${cafe.orders.ingestion.max-batch-size:1000}") int maxBatchSize) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.stockReservationService = stockReservationService;
+        this.ingredientDepletionService = ingredientDepletionService;
+        this.loyaltyLedgerService = loyaltyLedgerService;
+        this.salesAggregationService = salesAggregationService;
+        this.bestSellerService = bestSellerService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Stores a batch of offline orders.
+     *
+     * @param orders The uploaded orders
+     * @return The outcome of each order, in the same order
+     * @throws IllegalArgumentException if the batch is larger than the configured maximum
+     */
+    public List<OrderIngestionResult> ingest(List<OfflineOrder> orders) {
+        if(orders.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " orders can be uploaded at once");
+        }
+
+        try {
+            return transactionTemplate.execute(status -> ingestBatch(orders));
+        } catch(DataIntegrityViolationException e) {
+            // the same orders were committed concurrently by another upload, they are duplicates now
+            log.info("Concurrent upload of the same offline orders, retrying the batch of {}", orders.size());
+            return transactionTemplate.execute(status -> ingestBatch(orders));
+        }
+    }
+
+    private List<OrderIngestionResult> ingestBatch(List<OfflineOrder> orders) {
+        int count = orders.size();
+        OrderIngestionResult[] results = new OrderIngestionResult[count];
+
+        Map<String, Integer> firstOccurrence = new HashMap<>();
+        Map<Integer, Integer> repeatOf = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> customerIds = new HashSet<>();
+
+        for(int i = 0; i < count; i++) {
+            OfflineOrder order = orders.get(i);
+            if(order == null || order.clientOrderNumber() == null || order.clientOrderNumber().isBlank()) {
+                results[i] = OrderIngestionResult.rejected(null, "Client order number is required");
+                continue;
+            }
+
+            Integer first = firstOccurrence.putIfAbsent(order.clientOrderNumber(), i);
+            if(first != null) {
+                repeatOf.put(i, first);
+                continue;
+            }
+
+            if(order.customerId() != null) customerIds.add(order.customerId());
+            if(order.items() != null) {
+                order.items().forEach(line -> {
+                    if(line != null && line.productId() != null) productIds.add(line.productId());
+                });
+            }
+        }
+
+        Map<String, Object[]> existing = new HashMap<>();
+        if(!firstOccurrence.isEmpty()) {
+            for(Object[] row : orderRepository.findByClientOrderNumbers(firstOccurrence.keySet())) {
+                existing.put((String) row[0], row);
+            }
+        }
+
+        Map<Long, Product> products = productIds.isEmpty() ? Map.of()
+                : productRepository.findAllWithCategory(productIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Customer> customers = customerIds.isEmpty() ? Map.of()
+                : customerRepository.findAllWithLoyaltyProgram(customerIds).stream()
+                        .collect(Collectors.toMap(Customer::getId, Function.identity()));
+
+        for(Map.Entry<String, Integer> entry : firstOccurrence.entrySet()) {
+            Object[] row = existing.get(entry.getKey());
+            if(row != null) results[entry.getValue()] = OrderIngestionResult.duplicate(entry.getKey(), (Long) row[1], (String) row[2]);
+        }
+
+        // validation only reads the loaded entities, the orders are checked in parallel
+        String[] errors = new String[count];
+        IntStream.range(0, count).parallel()
+                .filter(i -> results[i] == null && !repeatOf.containsKey(i))
+                .forEach(i -> errors[i] = validate(orders.get(i), products, customers));
+
+        List<Order> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            if(results[i] != null || repeatOf.containsKey(i)) continue;
+
+            OfflineOrder order = orders.get(i);
+            if(errors[i] != null) {
+                results[i] = OrderIngestionResult.rejected(order.clientOrderNumber(), errors[i]);
+                continue;
+            }
+
+            try {
+                accepted.add(build(order, products, customers));
+                acceptedIndexes.add(i);
+            } catch(IllegalArgumentException e) {
+                results[i] = OrderIngestionResult.rejected(order.clientOrderNumber(), e.getMessage());
+            }
+        }
+
+        orderRepository.saveAll(accepted);
+        orderRepository.flush();
+        loyaltyLedgerService.recordEarnings(accepted);
+
+        for(int i = 0; i < accepted.size(); i++) {
+            Order order = accepted.get(i);
+            results[acceptedIndexes.get(i)] = OrderIngestionResult.accepted(order.getClientOrderNumber(), order.getId(), order.getOrderNumber());
+        }
+
+        repeatOf.forEach((i, first) -> {
+            OrderIngestionResult original = results[first];
+            results[i] = original.status() == OrderIngestionResult.Status.REJECTED
+                    ? original
+                    : OrderIngestionResult.duplicate(original.clientOrderNumber(), original.orderId(), original.orderNumber());
+        });
+
+        afterCommit(accepted);
+
+        return List.of(results);
+    }
+
+    /**
+     * Checks an uploaded order against the loaded products and customers.
+     *
+     * @return Why the order is invalid, or null if it is valid
+     */
+    private String validate(OfflineOrder order, Map<Long, Product> products, Map<Long, Customer> customers) {
+        if(order.clientOrderNumber().length() > MAX_CLIENT_ORDER_NUMBER_LENGTH) {
+            return "Client order number is longer than " + MAX_CLIENT_ORDER_NUMBER_LENGTH + " characters";
+        }
+
+        if(order.paymentMethod() == null) return "Payment method is required";
+        if(!order.paymentMethod().canProcessOffline()) {
+            return "Payment method " + order.paymentMethod().name() + " cannot be processed offline";
+        }
+
+        if(order.orderDate() == null) return "Order date is required";
+        if(order.orderDate().isAfter(LocalDateTime.now().plusMinutes(5))) return "Order date is in the future";
+
+        if(order.customerId() != null && !customers.containsKey(order.customerId())) {
+            return "Customer " + order.customerId() + " not found";
+        }
+
+        if(order.items() == null || order.items().isEmpty()) return "Order has no items";
+
+        for(OfflineOrder.Line line : order.items()) {
+            if(line == null || line.productId() == null) return "Product is required";
+            if(line.quantity() <= 0) return "Quantity must be positive";
+
+            Product product = products.get(line.productId());
+            if(product == null) return "Product " + line.productId() + " not found";
+            if(!product.isActive()) return "Product " + product.getName() + " is not active";
+            if(!MenuAvailabilities.current().isOrderable(product, order.orderDate())) {
+                return "Product " + product.getName() + " was not available at " + order.orderDate();
+            }
+        }
+
+        return null;
+    }
+
+    private Order build(OfflineOrder offline, Map<Long, Product> products, Map<Long, Customer> customers) {
+        Order order = Order.builder()
+                .clientOrderNumber(offline.clientOrderNumber())
+                .customer(offline.customerId() != null ? customers.get(offline.customerId()) : null)
+                .orderDate(offline.orderDate())
+                .takeaway(offline.takeaway())
+                .tableNumber(offline.tableNumber())
+                .notes(offline.notes())
+                .build();
+
+        for(OfflineOrder.Line line : offline.items()) {
+            order.addItem(products.get(line.productId()), line.quantity(), line.specialInstructions())
+                    .markAsPrepared();
+        }
+
+        order.processPayment(offline.paymentMethod(), offline.paymentReference());
+        order.setPaymentDate(offline.orderDate());
+
+        // already handed over at the counter
+        order.updateStatus(OrderStatus.IN_PREPARATION);
+        order.updateStatus(OrderStatus.READY);
+        order.updateStatus(OrderStatus.COMPLETED);
+
+        return order;
+    }
+
+    /**
+     * Depletes product stock and ingredients for the stored orders and adds them to the sales
+     * figures and best sellers, once the batch is committed.
+     */
+    private void afterCommit(List<Order> accepted) {
+        if(accepted.isEmpty()) return;
+
+        Map<Long, Integer> sold = new HashMap<>();
+        List<Long> orderIds = new ArrayList<>(accepted.size());
+        for(Order order : accepted) {
+            orderIds.add(order.getId());
+            for(OrderItem item : order.getItems()) {
+                sold.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+
+        // read before the commit, added after it
+        salesAggregationService.record(orderIds, 1);
+        bestSellerService.record(orderIds);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stockReservationService.recordSales(sold);
+                orderIds.forEach(ingredientDepletionService::enqueue);
+            }
+        });
+    }
+}
@@ -0,0 +1,216 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds orders at the till, takes their payment and cancels them.
+ *
+ * Stock is reserved in the {@link StockReservationService} as lines are added or raised, and
+ * given back as they are lowered or removed. Reservations taken by a transaction that rolls back
+ * are given back; stock given back is only given once the change has committed. Payment and
+ * cancellation go through the {@link OrderStatusTransitionService}, whose listeners commit or
+ * release the reservation, credit the loyalty points and feed the kitchen and sales figures.
+ */
+@Service
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final StockReservationService stockReservationService;
+    private final OrderStatusTransitionService transitionService;
+
+    public OrderService(OrderRepository orderRepository, ProductRepository productRepository,
+                        StockReservationService stockReservationService,
+                        OrderStatusTransitionService transitionService) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.stockReservationService = stockReservationService;
+        this.transitionService = transitionService;
+    }
+
+    /**
+     * Stores a new order, with its items reserved.
+     *
+     * @param order The order, not persisted yet
+     * @return The stored order
+     * @throws IllegalArgumentException if there is insufficient stock for one of its items
+     */
+    @Transactional
+    public Order create(Order order) {
+        if(order.getId() != null) throw new IllegalArgumentException("Order is already stored");
+
+        Order saved = orderRepository.save(order);
+        if(!saved.getItems().isEmpty()) {
+            Map<Long, Integer> quantities = quantities(saved);
+
+            stockReservationService.reserve(saved.getId(), quantities);
+            releaseOnRollback(saved.getId(), quantities);
+        }
+
+        return saved;
+    }
+
+    /**
+     * Adds an item to an order and reserves its stock.
+     *
+     * @param orderId The order
+     * @param productId The product to add
+     * @param quantity The quantity to add
+     * @param specialInstructions Special instructions for this item
+     * @return The created item
+     * @throws IllegalArgumentException if the order or product does not exist, the order is no longer
+     *                                  open, the product is not available or its stock is insufficient
+     */
+    @Transactional
+    public OrderItem addItem(Long orderId, Long productId, int quantity, String specialInstructions) {
+        Order order = findOpenOrder(orderId);
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product " + productId + " not found"));
+
+        OrderItem item = order.addItem(product, quantity, specialInstructions);
+        reserve(orderId, productId, quantity);
+
+        return item;
+    }
+
+    /**
+     * Changes the quantity of an item, reserving or giving back the difference.
+     *
+     * @param orderId The order
+     * @param itemId The item
+     * @param newQuantity The new quantity, 0 or less removes the item
+     * @throws IllegalArgumentException if the order or item does not exist, the order is no longer
+     *                                  open or the stock is insufficient
+     */
+    @Transactional
+    public void updateItemQuantity(Long orderId, Long itemId, int newQuantity) {
+        Order order = findOpenOrder(orderId);
+        OrderItem item = findItem(order, itemId);
+        Long productId = item.getProduct().getId();
+        int difference = Math.max(newQuantity, 0) - item.getQuantity();
+
+        order.updateItemQuantity(item, newQuantity);
+
+        if(difference > 0) {
+            reserve(orderId, productId, difference);
+        } else if(difference < 0) {
+            releaseAfterCommit(orderId, Map.of(productId, -difference));
+        }
+    }
+
+    /**
+     * Removes an item from an order and gives its stock back.
+     *
+     * @param orderId The order
+     * @param itemId The item
+     * @throws IllegalArgumentException if the order or item does not exist, or the order is no longer open
+     */
+    @Transactional
+    public void removeItem(Long orderId, Long itemId) {
+        updateItemQuantity(orderId, itemId, 0);
+    }
+
+    /**
+     * Takes the payment of an order, which commits its reservation and earns its loyalty points.
+     *
+     * @param orderId The order
+     * @param method The payment method
+     * @param reference Payment reference (e.g., transaction ID, receipt number)
+     * @return The paid order
+     * @throws IllegalArgumentException if the order does not exist or is not in CREATED status
+     */
+    @Transactional
+    public Order pay(Long orderId, PaymentMethod method, String reference) {
+        Order order = findOrder(orderId);
+        transitionService.pay(order, method, reference);
+
+        return order;
+    }
+
+    /**
+     * Cancels an order, which releases its reservation.
+     *
+     * @param orderId The order
+     * @return true if the order was cancelled, false if it can no longer be
+     * @throws IllegalArgumentException if the order does not exist
+     */
+    @Transactional
+    public boolean cancel(Long orderId) {
+        return transitionService.transition(findOrder(orderId), OrderStatus.CANCELLED);
+    }
+
+    private Order findOrder(Long orderId) {
+        return orderRepository.findReceiptById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order " + orderId + " not found"));
+    }
+
+    private Order findOpenOrder(Long orderId) {
+        Order order = findOrder(orderId);
+        if(order.getStatus() != OrderStatus.CREATED) {
+            throw new IllegalArgumentException("Cannot change the items of order " + orderId + ", it is " + order.getStatus());
+        }
+
+        return order;
+    }
+
+    private static OrderItem findItem(Order order, Long itemId) {
+        for(OrderItem item : order.getItems()) {
+            if(itemId.equals(item.getId())) return item;
+        }
+
+        throw new IllegalArgumentException("Item " + itemId + " not found in order " + order.getId());
+    }
+
+    private static Map<Long, Integer> quantities(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for(OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        return quantities;
+    }
+
+    private void reserve(Long orderId, Long productId, int quantity) {
+        Map<Long, Integer> quantities = Map.of(productId, quantity);
+
+        stockReservationService.reserve(orderId, quantities);
+        releaseOnRollback(orderId, quantities);
+    }
+
+    /**
+     * Gives back stock reserved in the current transaction if it does not commit.
+     */
+    private void releaseOnRollback(Long orderId, Map<Long, Integer> quantities) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if(status != STATUS_COMMITTED) stockReservationService.release(orderId, quantities);
+            }
+        });
+    }
+
+    /**
+     * Gives back stock once the current transaction has committed: until then the order still holds it.
+     */
+    private void releaseAfterCommit(Long orderId, Map<Long, Integer> quantities) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stockReservationService.release(orderId, quantities);
+            }
+        });
+    }
+}
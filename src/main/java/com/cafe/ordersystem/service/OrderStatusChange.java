@@ -0,0 +1,16 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderStatus;
+
+/**
+ * A status transition that has been applied to an order.
+ *
+ * @param orderId The id of the order (null for an order not persisted yet)
+ * @param order The order entity, or null when the transition was applied in bulk
+ *              without loading the order
+ * @param from The previous status
+ * @param to The new status
+ */
+public record OrderStatusChange(Long orderId, Order order, OrderStatus from, OrderStatus to) {
+}
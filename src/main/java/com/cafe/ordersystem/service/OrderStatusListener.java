@@ -0,0 +1,19 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * Callback for order status transitions (e.g. kitchen display, loyalty awards).
+ *
+ * Listeners are Spring beans picked up by {@link OrderStatusTransitionService},
+ * or registered on it directly. They are called synchronously, in the
+ * transaction that applied the transition.
+ */
+@FunctionalInterface
+public interface OrderStatusListener {
+
+    /**
+     * Called after an order has moved to a new status.
+     *
+     * @param change The applied transition
+     */
+    void onStatusChange(OrderStatusChange change);
+}
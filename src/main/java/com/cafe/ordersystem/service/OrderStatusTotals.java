@@ -0,0 +1,15 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Number and total amount of the orders in a status, for the dashboard.
+ *
+ * @param status The status
+ * @param orderCount The number of orders
+ * @param totalAmount The sum of their total amounts
+ */
+public record OrderStatusTotals(OrderStatus status, long orderCount, BigDecimal totalAmount) {
+}
@@ -0,0 +1,209 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.OrderStatusTransitions;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.OrderTransitionResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Applies order status transitions and notifies the registered listeners.
+ *
+ * Transitions are checked against the precomputed {@link OrderStatusTransitions} matrix.
+ * Besides single orders, many orders can be moved at once with one UPDATE statement,
+ * without loading the Order entities (and their items).
+ */
+@Service
+public class OrderStatusTransitionService {
+
+    private final OrderRepository orderRepository;
+
+    /**
+     * Listeners indexed by the status they are interested in.
+     */
+    private final Map<OrderStatus, List<OrderStatusListener>> listeners = new EnumMap<>(OrderStatus.class);
+
+    public OrderStatusTransitionService(OrderRepository orderRepository, List<OrderStatusListener> listenerBeans) {
+        this.orderRepository = orderRepository;
+
+        for(OrderStatus status : OrderStatus.values()) {
+            listeners.put(status, new CopyOnWriteArrayList<>());
+        }
+
+        listenerBeans.forEach(this::register);
+    }
+
+    /**
+     * Registers a listener for every transition.
+     *
+     * @param listener The listener to register
+     */
+    public void register(OrderStatusListener listener) {
+        for(OrderStatus status : OrderStatus.values()) {
+            register(status, listener);
+        }
+    }
+
+    /**
+     * Registers a listener for the transitions to a given status only.
+     *
+     * @param to The target status
+     * @param listener The listener to register
+     */
+    public void register(OrderStatus to, OrderStatusListener listener) {
+        listeners.get(to).add(listener);
+    }
+
+    /**
+     * Moves a loaded order to a new status.
+     *
+     * @param order The order
+     * @param to The new status
+     * @return true if the status was updated, false if the transition is not allowed
+     */
+    public boolean transition(Order order, OrderStatus to) {
+        OrderStatus from = order.getStatus();
+
+        if(!order.updateStatus(to)) return false;
+
+        fire(new OrderStatusChange(order.getId(), order, from, to));
+        return true;
+    }
+
+    /**
+     * Takes the payment of a loaded order and moves it to PAID, notifying the PAID listeners
+     * (stock, loyalty points, kitchen, sales figures). {@link Order#processPayment} alone
+     * notifies no one.
+     *
+     * @param order The order, managed in the current transaction
+     * @param method The payment method
+     * @param reference Payment reference (e.g., transaction ID, receipt number)
+     * @throws IllegalArgumentException if the order is not in CREATED status
+     */
+    public void pay(Order order, PaymentMethod method, String reference) {
+        OrderStatus from = order.getStatus();
+
+        order.processPayment(method, reference);
+
+        fire(new OrderStatusChange(order.getId(), order, from, OrderStatus.PAID));
+    }
+
+    /**
+     * Moves all the orders of a table from one status to another
+     * (e.g. all READY orders of table 4 to COMPLETED).
+     * Like {@link #transitionAll}, detaches the Order entities loaded in the transaction.
+     *
+     * @param tableNumber The table number
+     * @param from The current status of the orders
+     * @param to The new status
+     * @return The ids of the orders that were moved
+     */
+    @Transactional
+    public List<Long> transitionTable(Integer tableNumber, OrderStatus from, OrderStatus to) {
+        return transitionAll(orderRepository.findIdsByTableNumberAndStatus(tableNumber, from), from, to);
+    }
+
+    /**
+     * Moves the given orders from one status to another with a single batched UPDATE.
+     * Orders that are no longer in the source status are skipped, and the listeners are
+     * only notified of the orders moved by this call: the orders still in the source status
+     * are locked first, then moved.
+     *
+     * The persistence context is flushed and cleared by the UPDATE: Order entities loaded
+     * in the transaction before are detached, and must be read again to see their new status.
+     *
+     * @param orderIds The ids of the orders
+     * @param from The current status of the orders
+     * @param to The new status
+     * @return The ids of the orders that were moved
+     * @throws IllegalArgumentException if the transition is not allowed
+     */
+    @Transactional
+    public List<Long> transitionAll(Collection<Long> orderIds, OrderStatus from, OrderStatus to) {
+        checkAllowed(from, to);
+
+        if(orderIds.isEmpty()) return List.of();
+
+        List<Long> moved = orderRepository.lockIdsByIdInAndStatus(new LinkedHashSet<>(orderIds), from);
+        if(moved.isEmpty()) return List.of();
+
+        orderRepository.updateStatus(moved, from, to, LocalDateTime.now());
+
+        List<OrderStatusListener> interested = listeners.get(to);
+        if(!interested.isEmpty()) {
+            for(Long id : moved) {
+                fire(new OrderStatusChange(id, null, from, to));
+            }
+        }
+
+        return moved;
+    }
+
+    /**
+     * Moves the given orders from one status to another, checking each order's version
+     * like optimistic locking does. Orders changed concurrently are reported as conflicts.
+     *
+     * @param expectedVersions The expected version of each order, by order id
+     * @param from The current status of the orders
+     * @param to The new status
+     * @return The outcome for every requested order
+     * @throws IllegalArgumentException if the transition is not allowed
+     */
+    @Transactional
+    public List<OrderTransitionResult> transitionVersioned(Map<Long, Long> expectedVersions, OrderStatus from, OrderStatus to) {
+        checkAllowed(from, to);
+
+        return notifyUpdated(orderRepository.bulkTransition(expectedVersions, from, to), from, to);
+    }
+
+    /**
+     * Moves every order in the source status to the target status
+     * (e.g. closing out all READY orders at the end of the day).
+     *
+     * @param from The current status of the orders
+     * @param to The new status
+     * @return The outcome for every order that was in the source status
+     * @throws IllegalArgumentException if the transition is not allowed
+     */
+    @Transactional
+    public List<OrderTransitionResult> closeOut(OrderStatus from, OrderStatus to) {
+        checkAllowed(from, to);
+
+        return notifyUpdated(orderRepository.bulkTransitionAll(from, to), from, to);
+    }
+
+    private List<OrderTransitionResult> notifyUpdated(List<OrderTransitionResult> results, OrderStatus from, OrderStatus to) {
+        if(!listeners.get(to).isEmpty()) {
+            for(OrderTransitionResult result : results) {
+                if(result.isUpdated()) {
+                    fire(new OrderStatusChange(result.orderId(), null, from, to));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private void checkAllowed(OrderStatus from, OrderStatus to) {
+        if(!OrderStatusTransitions.isAllowed(from, to)) {
+            throw new IllegalArgumentException("Cannot move orders from " + from + " to " + to);
+        }
+    }
+
+    private void fire(OrderStatusChange change) {
+        for(OrderStatusListener listener : listeners.get(change.to())) {
+            listener.onStatusChange(change);
+        }
+    }
+}
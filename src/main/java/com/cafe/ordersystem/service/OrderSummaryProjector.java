@@ -0,0 +1,252 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.OrderSummary;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.OrderSummaryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the order_summary read model from the order events.
+ *
+ * Events only mark orders as dirty, the projection itself runs asynchronously in micro-batches:
+ * the dirty orders are re-read with one flat query (no aggregate is loaded) and their summaries
+ * inserted, updated or deleted. Several events for the same order before a batch runs cost one
+ * projection. The events are:
+ * - committed inserts, updates and deletes of Order (and OrderItem inserts and deletes),
+ *   through a Hibernate post-commit listener
+ * - status transitions, including the bulk ones that bypass Hibernate, taken after their commit
+ * - customer renames, applied to the summaries of all their orders
+ *
+ * The dirty set is kept in memory. A batch that does not commit marks its orders dirty again,
+ * and what was still dirty at a shutdown is found again at startup by {@link #catchUp}.
+ */
+@Service
+public class OrderSummaryProjector {
+
+    private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final int batchSize;
+    private final Duration catchUpMargin;
+
+    private final Set<Long> dirtyOrders = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Customers renamed since the last batch: customer id → new name.
+     */
+    private final Map<Long, String> renamedCustomers = new ConcurrentHashMap<>();
+
+    public OrderSummaryProjector(OrderRepository orderRepository, OrderSummaryRepository orderSummaryRepository,
+                                 OrderStatusTransitionService transitionService,
+                                 EntityManagerFactory entityManagerFactory,
+                                 @Value("${cafe.orders.summary.batch-size:500}") int batchSize,
+                                 @Value("${cafe.orders.summary.catch-up-margin-minutes:10}") long catchUpMarginMinutes) {
+        this.orderRepository = orderRepository;
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.batchSize = batchSize;
+        this.catchUpMargin = Duration.ofMinutes(catchUpMarginMinutes);
+
+        transitionService.register(change -> markDirtyAfterCommit(change.orderId()));
+        new OrderListener().registerWith(entityManagerFactory);
+    }
+
+    /**
+     * Marks an order as needing a new projection.
+     *
+     * @param orderId The order
+     */
+    public void markDirty(Long orderId) {
+        if(orderId != null) dirtyOrders.add(orderId);
+    }
+
+    /**
+     * Gets the number of orders waiting to be projected.
+     */
+    public int getPendingCount() {
+        return dirtyOrders.size();
+    }
+
+    /**
+     * Marks dirty the orders whose summary may be missing or stale after a restart: the orders
+     * created or changed since the latest projection, and the summaries of deleted orders.
+     * The latest projection is moved back by a margin, a transaction that committed after it
+     * may have written its changes before.
+     *
+     * @return The number of orders marked dirty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public int catchUp() {
+        LocalDateTime lastProjectedAt = orderSummaryRepository.findLastProjectedAt();
+        LocalDateTime since = lastProjectedAt != null ? lastProjectedAt.minus(catchUpMargin) : LocalDateTime.of(1970, 1, 1, 0, 0);
+
+        List<Long> orderIds = new ArrayList<>(orderRepository.findIdsChangedSince(since));
+        orderIds.addAll(orderSummaryRepository.findOrphanIds());
+        dirtyOrders.addAll(orderIds);
+
+        return orderIds.size();
+    }
+
+    /**
+     * Projects the next batch of dirty orders, then applies the pending customer renames.
+     * If the transaction does not commit, its orders and renames are marked pending again.
+     *
+     * @return The number of orders projected
+     */
+    @Scheduled(fixedDelayString = "${cafe.orders.summary.interval-ms:500}")
+    @Transactional
+    public int project() {
+        List<Long> orderIds = new ArrayList<>(Math.min(batchSize, dirtyOrders.size()));
+        Iterator<Long> dirty = dirtyOrders.iterator();
+        while(orderIds.size() < batchSize && dirty.hasNext()) {
+            orderIds.add(dirty.next());
+            dirty.remove();
+        }
+
+        Map<Long, String> renames = new HashMap<>();
+        for(Long customerId : List.copyOf(renamedCustomers.keySet())) {
+            String name = renamedCustomers.remove(customerId);
+            if(name != null) renames.put(customerId, name);
+        }
+
+        remarkOnRollback(orderIds, renames);
+
+        if(!orderIds.isEmpty()) project(orderIds);
+        renames.forEach(orderSummaryRepository::updateCustomerName);
+
+        return orderIds.size();
+    }
+
+    private void project(List<Long> orderIds) {
+        Map<Long, OrderSummary> existing = new HashMap<>();
+        for(OrderSummary summary : orderSummaryRepository.findAllById(orderIds)) {
+            existing.put(summary.getOrderId(), summary);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderSummary> summaries = new ArrayList<>(orderIds.size());
+        for(Object[] row : orderRepository.findSummaryRows(orderIds)) {
+            OrderSummary summary = existing.remove((Long) row[0]);
+            if(summary == null) summary = OrderSummary.builder().orderId((Long) row[0]).build();
+
+            summary.setOrderNumber((String) row[1]);
+            summary.setCustomerId((Long) row[2]);
+            summary.setCustomerName(customerName((String) row[3], (String) row[4]));
+            summary.setStatus((OrderStatus) row[5]);
+            summary.setPaymentMethod((PaymentMethod) row[6]);
+            summary.setTakeaway(Boolean.TRUE.equals(row[7]));
+            summary.setTableNumber((Integer) row[8]);
+            summary.setItemCount(((Number) row[9]).intValue());
+            summary.setSubtotal((BigDecimal) row[10]);
+            summary.setTaxAmount((BigDecimal) row[11]);
+            summary.setDiscountAmount((BigDecimal) row[12]);
+            summary.setTotalAmount((BigDecimal) row[13]);
+            summary.setOrderDate((LocalDateTime) row[14]);
+            summary.setPaymentDate((LocalDateTime) row[15]);
+            summary.setCreatedAt((LocalDateTime) row[16]);
+            summary.setUpdatedAt((LocalDateTime) row[17]);
+            summary.setProjectedAt(now);
+
+            summaries.add(summary);
+        }
+
+        orderSummaryRepository.saveAll(summaries);
+
+        // what is left was not found: the orders were deleted
+        orderSummaryRepository.deleteAll(existing.values());
+    }
+
+    /**
+     * Puts a batch back if the current transaction does not commit. A rename recorded since
+     * is newer and is kept.
+     */
+    private void remarkOnRollback(List<Long> orderIds, Map<Long, String> renames) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if(status == STATUS_COMMITTED) return;
+
+                dirtyOrders.addAll(orderIds);
+                renames.forEach(renamedCustomers::putIfAbsent);
+            }
+        });
+    }
+
+    /**
+     * Marks an order dirty once the current transaction commits, if there is one:
+     * bulk transitions notify their listeners before the new status is visible to other transactions.
+     */
+    private void markDirtyAfterCommit(Long orderId) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markDirty(orderId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markDirty(orderId);
+            }
+        });
+    }
+
+    static String customerName(String firstName, String lastName) {
+        if(firstName == null && lastName == null) return null;
+
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
+    /**
+     * Marks orders dirty when they, or their items, are committed, and records customer renames.
+     */
+    private final class OrderListener extends EntityCommitListener {
+
+        private OrderListener() {
+            super(Order.class, OrderItem.class, Customer.class);
+        }
+
+        @Override
+        protected void onWrite(Object entity, Set<String> changedProperties) {
+            if(entity instanceof Order order) {
+                markDirty(order.getId());
+            } else if(entity instanceof OrderItem item && changedProperties == null && item.getOrder() != null) {
+                markDirty(item.getOrder().getId());
+            } else if(entity instanceof Customer customer && changedProperties != null
+                    && (changedProperties.contains("firstName") || changedProperties.contains("lastName"))) {
+                renamedCustomers.put(customer.getId(), customerName(customer.getFirstName(), customer.getLastName()));
+            }
+        }
+
+        @Override
+        protected void onDelete(Object entity) {
+            if(entity instanceof Order order) {
+                markDirty(order.getId());
+            } else if(entity instanceof OrderItem item && item.getOrder() != null) {
+                markDirty(item.getOrder().getId());
+            }
+        }
+    }
+}
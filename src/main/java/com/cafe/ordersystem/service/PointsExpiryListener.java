@@ -0,0 +1,21 @@
+package com.cafe.ordersystem.service;
+
+import java.util.List;
+
+/**
+ * Callback for members whose points expire soon (e.g. to send them a reminder).
+ *
+ * Listeners are Spring beans picked up by {@link LoyaltyExpirationService}. They are called
+ * with one batch per chunk of the sweep, after the chunk has committed: each expiration date
+ * of a member is announced once.
+ */
+@FunctionalInterface
+public interface PointsExpiryListener {
+
+    /**
+     * Called with a batch of members whose points expire soon.
+     *
+     * @param batch The members, by expiration date
+     */
+    void onPointsExpiringSoon(List<ExpiringPoints> batch);
+}
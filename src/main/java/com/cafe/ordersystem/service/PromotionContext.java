@@ -0,0 +1,15 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a {@link PromotionRuleSet} needs to know about an order besides its lines.
+ *
+ * @param at When the order is placed
+ * @param tier The loyalty tier of the customer, null if none
+ * @param birthday true if it is the customer's birthday
+ */
+public record PromotionContext(LocalDateTime at, LoyaltyProgram.Tier tier, boolean birthday) {
+}
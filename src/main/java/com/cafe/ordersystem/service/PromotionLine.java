@@ -0,0 +1,19 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * An order line as seen by a {@link PromotionRuleSet}.
+ *
+ * @param productId The product
+ * @param categoryIds The category of the product followed by its ancestors, empty if it has none
+ * @param quantity The quantity
+ * @param unitPriceCents The unit price in cents
+ */
+public record PromotionLine(Long productId, long[] categoryIds, int quantity, long unitPriceCents) {
+
+    /**
+     * Gets the amount of the line before any discount, in cents.
+     */
+    public long amountCents() {
+        return unitPriceCents * quantity;
+    }
+}
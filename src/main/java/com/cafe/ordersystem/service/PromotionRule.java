@@ -0,0 +1,152 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import com.cafe.ordersystem.model.order.Promotion;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * A promotion compiled for evaluation by a {@link PromotionRuleSet}: copied scope,
+ * percentage in basis points, days of week as a bit mask and time window in minutes of the day.
+ *
+ * @param code The promotion code
+ * @param type The promotion type
+ * @param basisPoints The discount, 1 to 10,000 (100%)
+ * @param productIds The products in scope
+ * @param categoryIds The categories in scope, their subcategories included
+ * @param triggerCategoryId COMBO: the category unlocking the discount
+ * @param minTier TIER_DISCOUNT: the lowest tier getting the discount
+ * @param dayMask HAPPY_HOUR: bit (1 << DayOfWeek.ordinal()) set for each day of the window
+ * @param startMinute HAPPY_HOUR: start of the window in minutes of the day, included
+ * @param endMinute HAPPY_HOUR: end of the window in minutes of the day, excluded
+ * @param validFrom Start of the validity period, null if none
+ * @param validTo End of the validity period, null if none
+ */
+public record PromotionRule(String code, Promotion.Type type, int basisPoints, Set<Long> productIds,
+                            Set<Long> categoryIds, Long triggerCategoryId, LoyaltyProgram.Tier minTier,
+                            int dayMask, int startMinute, int endMinute,
+                            LocalDateTime validFrom, LocalDateTime validTo) {
+
+    private static final int ALL_DAYS = (1 << 7) - 1;
+
+    public PromotionRule {
+        if(basisPoints <= 0 || basisPoints > 10_000) {
+            throw new IllegalArgumentException("Promotion " + code + " must take between 0 and 100% off");
+        }
+        if(type == Promotion.Type.COMBO && triggerCategoryId == null) {
+            throw new IllegalArgumentException("Combo promotion " + code + " needs a trigger category");
+        }
+        if(type == Promotion.Type.TIER_DISCOUNT && minTier == null) {
+            throw new IllegalArgumentException("Tier promotion " + code + " needs a minimum tier");
+        }
+
+        productIds = Set.copyOf(productIds);
+        categoryIds = Set.copyOf(categoryIds);
+    }
+
+    /**
+     * Compiles a promotion.
+     *
+     * @param promotion The promotion
+     * @return The rule
+     * @throws IllegalArgumentException if the promotion is incomplete for its type or its days are not days of week
+     */
+    public static PromotionRule of(Promotion promotion) {
+        if(promotion.getType() == Promotion.Type.HAPPY_HOUR
+                && (promotion.getStartTime() == null || promotion.getEndTime() == null)) {
+            throw new IllegalArgumentException("Happy hour " + promotion.getCode() + " needs a start and an end time");
+        }
+
+        BigDecimal percentOff = promotion.getPercentOff() != null ? promotion.getPercentOff() : BigDecimal.ZERO;
+
+        return new PromotionRule(promotion.getCode(), promotion.getType(),
+                percentOff.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValue(),
+                idsOrNone(promotion.getProductIds()), idsOrNone(promotion.getCategoryIds()),
+                promotion.getTriggerCategoryId(), promotion.getMinTier(), parseDays(promotion.getDaysOfWeek()),
+                minuteOfDay(promotion.getStartTime()), minuteOfDay(promotion.getEndTime()),
+                promotion.getValidFrom(), promotion.getValidTo());
+    }
+
+    /**
+     * Checks if the rule has no scope, i.e. applies to every line.
+     */
+    public boolean isGlobal() {
+        return productIds.isEmpty() && categoryIds.isEmpty();
+    }
+
+    /**
+     * Checks if a line is in the scope of the rule.
+     *
+     * @param line The order line
+     * @return true if its product or one of its categories is in scope, or the rule is global
+     */
+    public boolean appliesTo(PromotionLine line) {
+        if(isGlobal() || productIds.contains(line.productId())) return true;
+
+        for(long categoryId : line.categoryIds()) {
+            if(categoryIds.contains(categoryId)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks the conditions of the rule that depend on the order, not on its lines.
+     *
+     * @param context The order
+     * @return true if the rule can apply to the order
+     */
+    public boolean isEligible(PromotionContext context) {
+        LocalDateTime at = context.at();
+        if(validFrom != null && at.isBefore(validFrom)) return false;
+        if(validTo != null && !at.isBefore(validTo)) return false;
+
+        return switch(type) {
+            case HAPPY_HOUR -> (dayMask & (1 << at.getDayOfWeek().ordinal())) != 0 && inWindow(at.toLocalTime());
+            case TIER_DISCOUNT -> context.tier() != null && context.tier().compareTo(minTier) >= 0;
+            case BIRTHDAY -> context.birthday();
+            case COMBO -> true;
+        };
+    }
+
+    /**
+     * Computes the discount on an amount, rounded half up to the cent.
+     *
+     * @param amountCents The amount in cents
+     * @return The discount in cents
+     */
+    public long discountCents(long amountCents) {
+        return (amountCents * basisPoints + 5_000) / 10_000;
+    }
+
+    private boolean inWindow(LocalTime time) {
+        int minute = minuteOfDay(time);
+
+        // a window past midnight, e.g. 22:00 to 02:00
+        if(endMinute <= startMinute) return minute >= startMinute || minute < endMinute;
+
+        return minute >= startMinute && minute < endMinute;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time == null ? 0 : time.getHour() * 60 + time.getMinute();
+    }
+
+    private static Set<Long> idsOrNone(Set<Long> ids) {
+        return ids != null ? ids : Set.of();
+    }
+
+    private static int parseDays(String days) {
+        if(days == null || days.isBlank()) return ALL_DAYS;
+
+        int mask = 0;
+        for(String day : days.split(",")) {
+            if(!day.isBlank()) mask |= 1 << DayOfWeek.valueOf(day.trim().toUpperCase()).ordinal();
+        }
+        return mask;
+    }
+}
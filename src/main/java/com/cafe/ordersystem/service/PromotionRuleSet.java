@@ -0,0 +1,281 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Promotion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Promotion rules compiled for evaluation, immutable.
+ *
+ * The rules are indexed by the products and categories of their scope (global rules apart),
+ * and the combos by their trigger category. An order is evaluated in a single pass over its
+ * lines: each line only visits the rules of its product, of its category and ancestors, and
+ * the global ones, the order-level conditions of a rule (time window, tier, birthday) being
+ * checked once per order on its first visit. Combos and birthday offers, which depend on the
+ * other lines, are settled from what the pass collected.
+ *
+ * Each line gets the promotion giving it the largest discount, the first rule winning a tie.
+ */
+public final class PromotionRuleSet {
+
+    public static final PromotionRuleSet EMPTY = compile(List.of());
+
+    private static final int[] NONE = new int[0];
+
+    private static final byte UNKNOWN = 0;
+    private static final byte ELIGIBLE = 1;
+    private static final byte NOT_ELIGIBLE = 2;
+
+    private final PromotionRule[] rules;
+    private final Set<String> codes;
+    private final boolean indexed;
+
+    /**
+     * Rule indexes by product id, by category id, and without scope.
+     */
+    private final Map<Long, int[]> byProduct;
+    private final Map<Long, int[]> byCategory;
+    private final int[] global;
+
+    /**
+     * Combo rule indexes by trigger category id.
+     */
+    private final Map<Long, int[]> combosByTrigger;
+
+    private PromotionRuleSet(PromotionRule[] rules, boolean indexed) {
+        this.rules = rules;
+        this.indexed = indexed;
+
+        Set<String> ruleCodes = new HashSet<>();
+        Map<Long, List<Integer>> products = new HashMap<>();
+        Map<Long, List<Integer>> categories = new HashMap<>();
+        Map<Long, List<Integer>> triggers = new HashMap<>();
+        List<Integer> unscoped = new ArrayList<>();
+
+        for(int i = 0; i < rules.length; i++) {
+            PromotionRule rule = rules[i];
+            if(!ruleCodes.add(rule.code())) throw new IllegalArgumentException("Duplicate promotion " + rule.code());
+
+            if(rule.isGlobal()) unscoped.add(i);
+            for(Long productId : rule.productIds()) products.computeIfAbsent(productId, id -> new ArrayList<>()).add(i);
+            for(Long categoryId : rule.categoryIds()) categories.computeIfAbsent(categoryId, id -> new ArrayList<>()).add(i);
+            if(rule.type() == Promotion.Type.COMBO) triggers.computeIfAbsent(rule.triggerCategoryId(), id -> new ArrayList<>()).add(i);
+        }
+
+        this.codes = Set.copyOf(ruleCodes);
+        this.byProduct = toArrays(products);
+        this.byCategory = toArrays(categories);
+        this.global = unscoped.stream().mapToInt(Integer::intValue).toArray();
+        this.combosByTrigger = toArrays(triggers);
+    }
+
+    /**
+     * Compiles rules.
+     *
+     * @param rules The rules, in order of precedence for ties
+     * @return The rule set
+     * @throws IllegalArgumentException if two rules have the same code
+     */
+    public static PromotionRuleSet compile(Collection<PromotionRule> rules) {
+        return new PromotionRuleSet(rules.toArray(new PromotionRule[0]), true);
+    }
+
+    /**
+     * Compiles rules without the product and category index: every line visits every rule.
+     * Same results as {@link #compile}, kept as the baseline of the benchmark.
+     */
+    static PromotionRuleSet compileUnindexed(Collection<PromotionRule> rules) {
+        return new PromotionRuleSet(rules.toArray(new PromotionRule[0]), false);
+    }
+
+    /**
+     * Gets the number of rules.
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Checks if a discount reason is the code of one of the rules.
+     *
+     * @param reason The discount reason
+     * @return true if it is a promotion code of this set
+     */
+    public boolean isPromotionCode(String reason) {
+        return reason != null && codes.contains(reason);
+    }
+
+    /**
+     * Evaluates the rules against an order.
+     *
+     * @param context The order
+     * @param lines The lines of the order
+     * @return The promotion applied to each discounted line, in line order
+     */
+    public List<AppliedPromotion> evaluate(PromotionContext context, List<PromotionLine> lines) {
+        Evaluation evaluation = new Evaluation(context, lines);
+
+        for(int i = 0; i < lines.size(); i++) {
+            evaluation.visitLine(i);
+        }
+
+        return evaluation.settle();
+    }
+
+    private static Map<Long, int[]> toArrays(Map<Long, List<Integer>> lists) {
+        Map<Long, int[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((id, list) -> arrays.put(id, list.stream().mapToInt(Integer::intValue).toArray()));
+        return arrays;
+    }
+
+    /**
+     * The state of the evaluation of one order.
+     */
+    private final class Evaluation {
+        private final PromotionContext context;
+        private final List<PromotionLine> lines;
+
+        private final byte[] eligibility = new byte[rules.length];
+
+        /**
+         * Last line (index + 1) that visited each rule, so a rule reached through
+         * both the product and a category of a line is visited once.
+         */
+        private final int[] visitedBy = new int[rules.length];
+
+        private final long[] bestDiscount;
+        private final int[] bestRule;
+
+        /**
+         * Combos: units of the trigger category outside of the combo's scope, and the
+         * [rule, line] pairs in scope.
+         */
+        private final int[] triggerUnits = new int[rules.length];
+        private final List<int[]> comboLines = new ArrayList<>();
+
+        /**
+         * Trigger units taken by the combo currently winning each line.
+         */
+        private final int[] comboUnits;
+
+        /**
+         * Birthday offers: the cheapest line in scope, by rule.
+         */
+        private final Map<Integer, Integer> birthdayLines = new HashMap<>();
+
+        private Evaluation(PromotionContext context, List<PromotionLine> lines) {
+            this.context = context;
+            this.lines = lines;
+            this.bestDiscount = new long[lines.size()];
+            this.bestRule = new int[lines.size()];
+            this.comboUnits = new int[lines.size()];
+            Arrays.fill(bestRule, -1);
+        }
+
+        private void visitLine(int line) {
+            PromotionLine promotionLine = lines.get(line);
+            int stamp = line + 1;
+
+            if(indexed) {
+                visitRules(byProduct.getOrDefault(promotionLine.productId(), NONE), line, stamp);
+                for(long categoryId : promotionLine.categoryIds()) {
+                    visitRules(byCategory.getOrDefault(categoryId, NONE), line, stamp);
+                }
+                visitRules(global, line, stamp);
+            } else {
+                for(int rule = 0; rule < rules.length; rule++) {
+                    if(rules[rule].appliesTo(promotionLine)) visitRule(rule, line, stamp);
+                }
+            }
+
+            // the rules visited by this line are the ones it is in scope of, it does not trigger those
+            for(long categoryId : promotionLine.categoryIds()) {
+                for(int rule : combosByTrigger.getOrDefault(categoryId, NONE)) {
+                    if(visitedBy[rule] != stamp && isEligible(rule)) triggerUnits[rule] += promotionLine.quantity();
+                }
+            }
+        }
+
+        private void visitRules(int[] candidates, int line, int stamp) {
+            for(int rule : candidates) {
+                visitRule(rule, line, stamp);
+            }
+        }
+
+        private void visitRule(int rule, int line, int stamp) {
+            if(visitedBy[rule] == stamp) return;
+            visitedBy[rule] = stamp;
+
+            if(!isEligible(rule)) return;
+
+            PromotionRule promotionRule = rules[rule];
+            switch(promotionRule.type()) {
+                case COMBO -> comboLines.add(new int[]{rule, line});
+                case BIRTHDAY -> birthdayLines.merge(rule, line, (cheapest, candidate) ->
+                        lines.get(candidate).unitPriceCents() < lines.get(cheapest).unitPriceCents() ? candidate : cheapest);
+                default -> offer(line, rule, promotionRule.discountCents(lines.get(line).amountCents()));
+            }
+        }
+
+        private boolean isEligible(int rule) {
+            if(eligibility[rule] == UNKNOWN) {
+                eligibility[rule] = rules[rule].isEligible(context) ? ELIGIBLE : NOT_ELIGIBLE;
+            }
+            return eligibility[rule] == ELIGIBLE;
+        }
+
+        /**
+         * @return true if the discount is now the best of the line
+         */
+        private boolean offer(int line, int rule, long discount) {
+            if(discount <= 0) return false;
+
+            if(discount > bestDiscount[line] || (discount == bestDiscount[line] && rule < bestRule[line])) {
+                bestDiscount[line] = discount;
+                bestRule[line] = rule;
+                return true;
+            }
+            return false;
+        }
+
+        private List<AppliedPromotion> settle() {
+            birthdayLines.forEach((rule, line) ->
+                    offer(line, rule, rules[rule].discountCents(lines.get(line).unitPriceCents())));
+
+            // each trigger unit discounts one unit in scope, the cheapest first, and is only
+            // taken if the combo wins the line: otherwise it goes to the next line in scope
+            comboLines.sort(Comparator.<int[]>comparingInt(pair -> pair[0])
+                    .thenComparingLong(pair -> lines.get(pair[1]).unitPriceCents())
+                    .thenComparingInt(pair -> pair[1]));
+
+            for(int[] pair : comboLines) {
+                int rule = pair[0];
+                int line = pair[1];
+                int units = Math.min(lines.get(line).quantity(), triggerUnits[rule]);
+                if(units == 0) continue;
+
+                int previous = bestRule[line];
+                if(offer(line, rule, rules[rule].discountCents(lines.get(line).unitPriceCents() * units))) {
+                    // a combo losing the line gives its units back
+                    if(previous >= 0 && rules[previous].type() == Promotion.Type.COMBO) triggerUnits[previous] += comboUnits[line];
+                    triggerUnits[rule] -= units;
+                    comboUnits[line] = units;
+                }
+            }
+
+            List<AppliedPromotion> applied = new ArrayList<>();
+            for(int line = 0; line < bestRule.length; line++) {
+                if(bestRule[line] >= 0) applied.add(new AppliedPromotion(line, rules[bestRule[line]].code(), bestDiscount[line]));
+            }
+            return applied;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.OrderTotals;
+import com.cafe.ordersystem.model.order.Promotion;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.PromotionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies the promotions to the orders, in place of discounts picked by hand.
+ *
+ * The active promotions are compiled into a {@link PromotionRuleSet} on first use, and compiled
+ * again after a promotion is committed. Applying the promotions to an order evaluates the rule set
+ * against its items and sets their discounts, with the promotion code as the reason. Items with a
+ * discount given for another reason (e.g. by a manager) are left alone.
+ */
+@Service
+public class PromotionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PromotionService.class);
+
+    private final PromotionRepository promotionRepository;
+    private final OrderRepository orderRepository;
+
+    /**
+     * The compiled rules, null when a promotion changed since they were compiled.
+     */
+    private volatile PromotionRuleSet ruleSet;
+
+    /**
+     * Incremented on each committed promotion change, so rules compiled from a
+     * stale read are not kept.
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    public PromotionService(PromotionRepository promotionRepository, OrderRepository orderRepository,
+                            EntityManagerFactory entityManagerFactory) {
+        this.promotionRepository = promotionRepository;
+        this.orderRepository = orderRepository;
+
+        new PromotionListener().registerWith(entityManagerFactory);
+    }
+
+    /**
+     * Gets the compiled rules of the active promotions, compiling them if a promotion changed.
+     * Promotions that cannot be compiled are left out.
+     */
+    public PromotionRuleSet getRuleSet() {
+        PromotionRuleSet current = ruleSet;
+        if(current != null) return current;
+
+        long seen = changes.get();
+
+        List<Promotion> promotions = new ArrayList<>(promotionRepository.findByActiveTrue());
+        promotions.sort(Comparator.comparing(Promotion::getCode));
+
+        List<PromotionRule> rules = new ArrayList<>(promotions.size());
+        for(Promotion promotion : promotions) {
+            try {
+                rules.add(PromotionRule.of(promotion));
+            } catch(IllegalArgumentException e) {
+                log.error("Invalid promotion {}, ignored: {}", promotion.getCode(), e.getMessage());
+            }
+        }
+
+        current = PromotionRuleSet.compile(rules);
+        synchronized(this) {
+            if(changes.get() == seen) ruleSet = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Works out the promotions of an order without changing it.
+     * Items with a discount of their own are not evaluated, as in {@link #applyPromotions(Order)}.
+     *
+     * @param order The order, with its items, their products and categories, and its customer
+     * @return The promotion of each discounted item, by index in the order's items
+     */
+    public List<AppliedPromotion> evaluate(Order order) {
+        List<OrderItem> items = promotableItems(order);
+
+        return byOrderItem(order, items, getRuleSet().evaluate(context(order), lines(items)));
+    }
+
+    /**
+     * Applies the promotions to a new order: the items get the discount of their best promotion,
+     * and lose the promotion discount they had if there is none any more.
+     *
+     * @param order The order, with its items, their products and categories, and its customer
+     * @return The promotions applied, by index in the order's items
+     */
+    public List<AppliedPromotion> applyPromotions(Order order) {
+        PromotionRuleSet rules = getRuleSet();
+        List<OrderItem> items = promotableItems(order);
+
+        List<AppliedPromotion> applied = rules.evaluate(context(order), lines(items));
+
+        int next = 0;
+        for(int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            AppliedPromotion promotion = next < applied.size() && applied.get(next).line() == i ? applied.get(next++) : null;
+
+            // the order re-accounts the item itself
+            if(promotion != null) {
+                item.applyFixedDiscount(BigDecimal.valueOf(promotion.discountCents(), 2), promotion.code());
+            } else if(item.getDiscountReason() != null) {
+                item.removeDiscount();
+            }
+        }
+
+        return byOrderItem(order, items, applied);
+    }
+
+    /**
+     * Applies the promotions to a new order and saves it.
+     *
+     * @param orderId The order
+     * @return The promotions applied, by index in the order's items
+     * @throws IllegalArgumentException if the order does not exist or is past CREATED
+     */
+    @Transactional
+    public List<AppliedPromotion> applyPromotions(Long orderId) {
+        Order order = orderRepository.findPricingById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order " + orderId + " not found"));
+        if(order.getStatus() != OrderStatus.CREATED) {
+            throw new IllegalArgumentException("Cannot apply promotions to an order not created");
+        }
+
+        return applyPromotions(order);
+    }
+
+    /**
+     * Gets the items promotions apply to: those without a discount, or with the discount of a promotion.
+     * Items with a discount of their own (e.g. a manual one) keep it.
+     */
+    private List<OrderItem> promotableItems(Order order) {
+        Set<String> reasons = new HashSet<>();
+        for(OrderItem item : order.getItems()) {
+            if(item.getDiscountReason() != null) reasons.add(item.getDiscountReason());
+        }
+        Set<String> promotionCodes = new HashSet<>();
+        if(!reasons.isEmpty()) {
+            promotionRepository.findAllById(reasons).forEach(promotion -> promotionCodes.add(promotion.getCode()));
+        }
+
+        List<OrderItem> items = new ArrayList<>();
+        for(OrderItem item : order.getItems()) {
+            if(item.getDiscountReason() == null || promotionCodes.contains(item.getDiscountReason())) items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Maps promotions found for some of the items of an order back to the index of the items in the order.
+     */
+    private static List<AppliedPromotion> byOrderItem(Order order, List<OrderItem> items, List<AppliedPromotion> applied) {
+        List<AppliedPromotion> byOrderItem = new ArrayList<>(applied.size());
+        for(AppliedPromotion promotion : applied) {
+            byOrderItem.add(new AppliedPromotion(order.getItems().indexOf(items.get(promotion.line())),
+                    promotion.code(), promotion.discountCents()));
+        }
+        return byOrderItem;
+    }
+
+    private static PromotionContext context(Order order) {
+        LocalDateTime at = order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now();
+
+        Customer customer = order.getCustomer();
+        if(customer == null) return new PromotionContext(at, null, false);
+
+        LoyaltyProgram loyaltyProgram = customer.getLoyaltyProgram();
+        return new PromotionContext(at, loyaltyProgram != null ? loyaltyProgram.getTier() : null,
+                customer.isBirthdayToday());
+    }
+
+    private static List<PromotionLine> lines(List<OrderItem> items) {
+        List<PromotionLine> lines = new ArrayList<>(items.size());
+        for(OrderItem item : items) {
+            lines.add(new PromotionLine(item.getProduct().getId(), categoryIds(item.getProduct().getCategory()),
+                    item.getQuantity(), OrderTotals.toCents(item.getUnitPrice())));
+        }
+        return lines;
+    }
+
+    /**
+     * @return The id of the category followed by the ids of its ancestors
+     */
+    private static long[] categoryIds(Category category) {
+        if(category == null) return new long[0];
+
+        List<Long> ancestors = category.getAncestorIds();
+        long[] ids = new long[ancestors.size() + 1];
+        ids[0] = category.getId();
+        for(int i = 0; i < ancestors.size(); i++) {
+            ids[ancestors.size() - i] = ancestors.get(i);
+        }
+        return ids;
+    }
+
+    /**
+     * Drops the compiled rules when a promotion is committed.
+     */
+    private final class PromotionListener extends EntityCommitListener {
+
+        private PromotionListener() {
+            super(Promotion.class);
+        }
+
+        @Override
+        protected void onWrite(Object entity, Set<String> changedProperties) {
+            invalidate();
+        }
+
+        @Override
+        protected void onDelete(Object entity) {
+            invalidate();
+        }
+
+        private void invalidate() {
+            changes.incrementAndGet();
+            ruleSet = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.cafe.ordersystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event pushed when a product or ingredient crosses its reorder threshold.
+ *
+ * @param type The event type, also used as the SSE event name
+ * @param item The stock position after the change
+ * @param timestamp When the threshold was crossed
+ */
+public record ReorderAlert(Type type, ReorderItem item, LocalDateTime timestamp) {
+
+    public enum Type {
+        REORDER_NEEDED("reorder-needed"),
+        BACK_IN_STOCK("back-in-stock");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    public static ReorderAlert of(Type type, ReorderItem item) {
+        return new ReorderAlert(type, item, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,191 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.Ingredient;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.IngredientRepository;
+import com.cafe.ordersystem.repository.KeysetPage;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps track of what needs to be reordered, without scanning the catalog.
+ *
+ * The {@link ReorderIndex} is loaded at startup from the indexed reorder_gap columns
+ * (only the items at or below their threshold are read), then kept up to date on
+ * every stock mutation:
+ * - Product and Ingredient entity writes, through Hibernate post-commit listeners
+ * - stock deltas written behind by {@link StockReservationService}, refreshed by id
+ *
+ * When an item crosses its threshold, a reorder-needed (or back-in-stock) event
+ * is pushed to the subscribed screens over Server-Sent Events.
+ */
+@Service
+public class ReorderAlertService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReorderAlertService.class);
+
+    private final ProductRepository productRepository;
+    private final IngredientRepository ingredientRepository;
+
+    private final ReorderIndex index = new ReorderIndex();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reorder-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReorderAlertService(ProductRepository productRepository, IngredientRepository ingredientRepository,
+                               EntityManagerFactory entityManagerFactory) {
+        this.productRepository = productRepository;
+        this.ingredientRepository = ingredientRepository;
+
+        new StockListener().registerWith(entityManagerFactory);
+    }
+
+    /**
+     * Loads the items currently at or below their reorder threshold.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for(Object[] row : productRepository.findReorderLevelsAtThreshold()) {
+            index.update(ReorderItem.product((Long) row[0], (String) row[1], (Integer) row[2], (Integer) row[3]));
+        }
+        for(Object[] row : ingredientRepository.findReorderLevelsAtThreshold()) {
+            index.update(ReorderItem.ingredient((Long) row[0], (String) row[1], (BigDecimal) row[2], (BigDecimal) row[3]));
+        }
+
+        log.info("{} products and ingredients need reordering", index.size());
+    }
+
+    /**
+     * Gets a page of the products or ingredients to reorder now, most depleted first.
+     *
+     * @param kind Products or ingredients
+     * @param cursor The "next" cursor of the previous page, null for the first page
+     * @param size The page size
+     * @return The items of the page
+     * @throws IllegalArgumentException if the cursor is not valid or the size is not positive
+     */
+    public KeysetPage<ReorderItem> findToReorder(ReorderItem.Kind kind, String cursor, int size) {
+        return index.page(kind, cursor, size);
+    }
+
+    /**
+     * Whether a product or ingredient is at or below its reorder threshold.
+     */
+    public boolean needsReordering(ReorderItem.Kind kind, Long id) {
+        return index.needsReordering(kind, id);
+    }
+
+    /**
+     * Re-reads the stock position of products whose stock was changed without going
+     * through the entities (e.g. a JDBC batch).
+     *
+     * @param productIds The products
+     */
+    public void refreshProducts(Collection<Long> productIds) {
+        if(productIds.isEmpty()) return;
+
+        Set<Long> withoutThreshold = new HashSet<>(productIds);
+        for(Object[] row : productRepository.findReorderLevels(productIds)) {
+            withoutThreshold.remove((Long) row[0]);
+            apply(ReorderItem.product((Long) row[0], (String) row[1], (Integer) row[2], (Integer) row[3]));
+        }
+
+        withoutThreshold.forEach(id -> index.remove(ReorderItem.Kind.PRODUCT, id));
+    }
+
+    /**
+     * Opens a feed of reorder alerts.
+     *
+     * @return The SSE emitter to return to the client
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        subscribers.add(emitter);
+
+        Runnable remove = () -> subscribers.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        return emitter;
+    }
+
+    private void apply(ReorderItem item) {
+        ReorderAlert.Type crossing = index.update(item);
+        if(crossing != null) publish(ReorderAlert.of(crossing, item));
+    }
+
+    private void publish(ReorderAlert alert) {
+        log.info("{} {} {}: stock {} / threshold {}", alert.type(), alert.item().kind(), alert.item().name(),
+                alert.item().stockLevel(), alert.item().reorderThreshold());
+
+        if(subscribers.isEmpty()) return;
+
+        dispatcher.execute(() -> {
+            for(SseEmitter emitter : subscribers) {
+                try {
+                    emitter.send(SseEmitter.event().name(alert.type().getEventName()).data(alert));
+                } catch(IOException | IllegalStateException e) {
+                    subscribers.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Feeds the index with the committed state of Product and Ingredient entities.
+     */
+    private final class StockListener extends EntityCommitListener {
+
+        private StockListener() {
+            super(Product.class, Ingredient.class);
+        }
+
+        @Override
+        protected void onWrite(Object entity, Set<String> changedProperties) {
+            if(entity instanceof Product product) {
+                apply(ReorderItem.product(product.getId(), product.getName(),
+                        product.getStockLevel(), product.getReorderThreshold()));
+            } else if(entity instanceof Ingredient ingredient) {
+                apply(ReorderItem.ingredient(ingredient.getId(), ingredient.getName(),
+                        ingredient.getStockLevel(), ingredient.getReorderThreshold()));
+            }
+        }
+
+        @Override
+        protected void onDelete(Object entity) {
+            if(entity instanceof Product product) {
+                index.remove(ReorderItem.Kind.PRODUCT, product.getId());
+            } else if(entity instanceof Ingredient ingredient) {
+                index.remove(ReorderItem.Kind.INGREDIENT, ingredient.getId());
+            }
+        }
+    }
+}
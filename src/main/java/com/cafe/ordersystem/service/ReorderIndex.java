@@ -0,0 +1,163 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.repository.KeysetPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of the products and ingredients at or below their reorder threshold.
+ *
+ * Only items needing a reorder are held: a hash map answers "does this item need
+ * reordering" in constant time, and a skip list per kind keeps them sorted by
+ * stock minus threshold, most depleted first, for paging. Feeding an item's new
+ * stock position tells whether it just crossed its threshold, in either direction.
+ *
+ * Pages are read by keyset: the cursor is the (gap, id) of the last item of the previous
+ * page, and the next page starts right after it in the skip list, in O(log n) whatever
+ * the page number.
+ */
+public class ReorderIndex {
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private static final Comparator<Entry> MOST_DEPLETED_FIRST = Comparator
+            .comparingLong(Entry::gap)
+            .thenComparing(Entry::id);
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<ReorderItem.Kind, ConcurrentSkipListSet<Entry>> sorted = new EnumMap<>(ReorderItem.Kind.class);
+
+    public ReorderIndex() {
+        for(ReorderItem.Kind kind : ReorderItem.Kind.values()) {
+            sorted.put(kind, new ConcurrentSkipListSet<>(MOST_DEPLETED_FIRST));
+        }
+    }
+
+    /**
+     * Records the new stock position of an item.
+     *
+     * @param item The item, its threshold may be null
+     * @return REORDER_NEEDED or BACK_IN_STOCK if the item crossed its threshold, null otherwise
+     */
+    public ReorderAlert.Type update(ReorderItem item) {
+        ReorderAlert.Type[] crossing = new ReorderAlert.Type[1];
+        ConcurrentSkipListSet<Entry> kindEntries = sorted.get(item.kind());
+
+        entries.compute(new Key(item.kind(), item.id()), (key, previous) -> {
+            if(previous != null) kindEntries.remove(previous);
+
+            if(!item.needsReordering()) {
+                if(previous != null) crossing[0] = ReorderAlert.Type.BACK_IN_STOCK;
+                return null;
+            }
+
+            Entry entry = new Entry(item.id(), item.gapThousandths(), item);
+            kindEntries.add(entry);
+            if(previous == null) crossing[0] = ReorderAlert.Type.REORDER_NEEDED;
+
+            return entry;
+        });
+
+        return crossing[0];
+    }
+
+    /**
+     * Removes an item, e.g. when it is deleted.
+     *
+     * @return true if the item was in the index
+     */
+    public boolean remove(ReorderItem.Kind kind, Long id) {
+        Entry removed = entries.remove(new Key(kind, id));
+        if(removed == null) return false;
+
+        sorted.get(kind).remove(removed);
+        return true;
+    }
+
+    /**
+     * Whether an item is at or below its reorder threshold.
+     */
+    public boolean needsReordering(ReorderItem.Kind kind, Long id) {
+        return entries.containsKey(new Key(kind, id));
+    }
+
+    /**
+     * Gets a page of the items to reorder, most depleted first.
+     *
+     * @param kind Products or ingredients
+     * @param cursor The "next" cursor of the previous page, null or empty for the first page
+     * @param size The page size, capped to {@link KeysetPage#MAX_SIZE}
+     * @return The items of the page
+     * @throws IllegalArgumentException if the cursor is not valid or the size is not positive
+     */
+    public KeysetPage<ReorderItem> page(ReorderItem.Kind kind, String cursor, int size) {
+        if(size <= 0) throw new IllegalArgumentException("Page size must be positive");
+        int limit = Math.min(size, KeysetPage.MAX_SIZE);
+
+        NavigableSet<Entry> kindEntries = sorted.get(kind);
+        Entry after = decode(cursor);
+        if(after != null) kindEntries = kindEntries.tailSet(after, false);
+
+        List<ReorderItem> items = new ArrayList<>(limit);
+        Entry last = null;
+        for(Entry entry : kindEntries) {
+            if(items.size() == limit) break;
+
+            items.add(entry.item());
+            last = entry;
+        }
+
+        return new KeysetPage<>(items, items.size() == limit ? encode(last) : null);
+    }
+
+    /**
+     * Gets the number of items to reorder.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        sorted.values().forEach(ConcurrentSkipListSet::clear);
+    }
+
+    private record Key(ReorderItem.Kind kind, Long id) {
+    }
+
+    private static String encode(Entry entry) {
+        return CURSOR_ENCODER.encodeToString((entry.gap() + "|" + entry.id()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Entry decode(String cursor) {
+        if(cursor == null || cursor.isBlank()) return null;
+
+        try {
+            String value = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            if(separator < 0) throw new IllegalArgumentException("Invalid cursor " + cursor);
+
+            return new Entry(Long.valueOf(value.substring(separator + 1)), Long.parseLong(value.substring(0, separator)), null);
+        } catch(IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+        }
+    }
+
+    /**
+     * @param id The item id, which breaks ties between equal gaps
+     * @param gap The stock minus the threshold, in thousandths
+     * @param item The item, null for the probe of a cursor
+     */
+    private record Entry(Long id, long gap, ReorderItem item) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.Quantity;
+
+import java.math.BigDecimal;
+
+/**
+ * Stock position of a product or ingredient that has a reorder threshold.
+ *
+ * @param kind Whether the item is a product or an ingredient
+ * @param id The product or ingredient id
+ * @param name The product or ingredient name
+ * @param stockLevel The current stock level
+ * @param reorderThreshold The stock level at which the item should be reordered
+ */
+public record ReorderItem(Kind kind, Long id, String name, BigDecimal stockLevel, BigDecimal reorderThreshold) {
+
+    public enum Kind {
+        PRODUCT,
+        INGREDIENT
+    }
+
+    public static ReorderItem product(Long id, String name, Integer stockLevel, Integer reorderThreshold) {
+        return new ReorderItem(Kind.PRODUCT, id, name,
+                BigDecimal.valueOf(stockLevel != null ? stockLevel : 0),
+                reorderThreshold != null ? BigDecimal.valueOf(reorderThreshold) : null);
+    }
+
+    public static ReorderItem ingredient(Long id, String name, BigDecimal stockLevel, BigDecimal reorderThreshold) {
+        return new ReorderItem(Kind.INGREDIENT, id, name,
+                stockLevel != null ? stockLevel : BigDecimal.ZERO, reorderThreshold);
+    }
+
+    /**
+     * Whether the stock is at or below the reorder threshold, as Product.needsReordering
+     * and Ingredient.needsReordering.
+     */
+    public boolean needsReordering() {
+        return reorderThreshold != null && stockLevel.compareTo(reorderThreshold) <= 0;
+    }
+
+    /**
+     * Gets stock level minus reorder threshold, in thousandths of the stock unit.
+     */
+    public long gapThousandths() {
+        return Quantity.toThousandths(stockLevel) - Quantity.toThousandths(reorderThreshold);
+    }
+}
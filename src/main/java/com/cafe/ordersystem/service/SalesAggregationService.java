@@ -0,0 +1,305 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.repository.OrderItemRepository;
+import com.cafe.ordersystem.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Live sales figures (revenue, tax, discount, items, orders) per minute, hour and day,
+ * in total and by payment method, takeaway/dine-in and product category.
+ *
+ * The figures are kept in memory by {@link SalesRollups} and fed by the order transitions:
+ * PAID adds the order, REFUNDED and CANCELLED (of a paid order) take it back, at the time
+ * of the transition. Orders stored already paid (the offline uploads) are added when stored,
+ * see {@link #record(Collection, int)}. The orders of a transaction are read with two queries just before it
+ * commits, and added once it has committed. Dashboards are then answered without touching
+ * the orders table.
+ *
+ * Changed buckets are checkpointed periodically to the sales_rollup table, which is read
+ * back at startup. Sales of the last few seconds before a crash are lost.
+ */
+@Service
+public class SalesAggregationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAggregationService.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final SalesRollups rollups = new SalesRollups();
+
+    public SalesAggregationService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                                   JdbcTemplate jdbcTemplate, OrderStatusTransitionService transitionService) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+
+        transitionService.register(OrderStatus.PAID, change -> record(change.orderId(), 1));
+        transitionService.register(OrderStatus.REFUNDED, change -> record(change.orderId(), -1));
+        transitionService.register(OrderStatus.CANCELLED, change -> {
+            if(change.from() != OrderStatus.CREATED) record(change.orderId(), -1);
+        });
+    }
+
+    /**
+     * Reloads the checkpointed buckets still covered by the rings.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        LocalDateTime now = LocalDateTime.now();
+        int restored = 0;
+
+        for(SalesRollups.Granularity granularity : SalesRollups.Granularity.values()) {
+            LocalDateTime oldest = oldestKept(granularity, now);
+
+            List<SalesRollups.Bucket> buckets = jdbcTemplate.query("select dimension, dimension_value, bucket_start, " +
+                            "revenue_cents, tax_cents, discount_cents, item_count, order_count from sales_rollup " +
+                            "where granularity = ? and bucket_start >= ?",
+                    (rs, rowNum) -> new SalesRollups.Bucket(granularity,
+                            new SalesKey(SalesKey.Dimension.valueOf(rs.getString(1)), rs.getString(2)),
+                            rs.getTimestamp(3).toLocalDateTime(),
+                            new SalesFigures(rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8))),
+                    granularity.name(), Timestamp.valueOf(oldest));
+
+            buckets.forEach(rollups::restore);
+            restored += buckets.size();
+        }
+
+        log.info("{} sales rollup buckets restored", restored);
+    }
+
+    /**
+     * Sums the figures of a time range.
+     *
+     * @param granularity The granularity to read (the range must be within what it keeps)
+     * @param key What the figures are about
+     * @param from The start of the range, included
+     * @param to The end of the range, excluded
+     * @return The figures
+     */
+    public SalesFigures total(SalesRollups.Granularity granularity, SalesKey key, LocalDateTime from, LocalDateTime to) {
+        return rollups.total(granularity, key, from, to);
+    }
+
+    /**
+     * Sums the figures of a time range for every value of a dimension (e.g. per payment method).
+     *
+     * @param granularity The granularity to read
+     * @param dimension The dimension
+     * @param from The start of the range, included
+     * @param to The end of the range, excluded
+     * @return The figures by dimension value, without the values that had no sales
+     */
+    public Map<String, SalesFigures> breakdown(SalesRollups.Granularity granularity, SalesKey.Dimension dimension,
+                                               LocalDateTime from, LocalDateTime to) {
+        Map<String, SalesFigures> figures = new TreeMap<>();
+        for(SalesKey key : rollups.keys()) {
+            if(key.dimension() != dimension) continue;
+
+            SalesFigures total = rollups.total(granularity, key, from, to);
+            if(!total.isZero()) figures.put(key.value(), total);
+        }
+
+        return figures;
+    }
+
+    /**
+     * Lists the non-empty buckets of a time range, e.g. to draw the revenue per minute.
+     *
+     * @param granularity The bucket size
+     * @param key What the figures are about
+     * @param from The start of the range, included
+     * @param to The end of the range, excluded
+     * @return The buckets, oldest first
+     */
+    public List<SalesRollups.Bucket> series(SalesRollups.Granularity granularity, SalesKey key,
+                                            LocalDateTime from, LocalDateTime to) {
+        return rollups.series(granularity, key, from, to);
+    }
+
+    /**
+     * Writes the buckets changed since the previous checkpoint.
+     * If the write fails, they are written with the next checkpoint.
+     *
+     * @return The number of buckets written
+     */
+    @Scheduled(fixedDelayString = "${cafe.sales.checkpoint-interval-ms:10000}")
+    public int checkpoint() {
+        List<SalesRollups.Bucket> dirty = rollups.drainDirty();
+        if(dirty.isEmpty()) return 0;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>(dirty.size());
+        for(SalesRollups.Bucket bucket : dirty) {
+            SalesFigures figures = bucket.figures();
+            updates.add(new Object[]{figures.revenueCents(), figures.taxCents(), figures.discountCents(),
+                    figures.itemCount(), figures.orderCount(), now, bucket.granularity().name(),
+                    bucket.key().dimension().name(), bucket.key().value(), Timestamp.valueOf(bucket.start())});
+        }
+
+        try {
+            int[] updated = jdbcTemplate.batchUpdate("update sales_rollup set revenue_cents = ?, tax_cents = ?, " +
+                    "discount_cents = ?, item_count = ?, order_count = ?, updated_at = ? " +
+                    "where granularity = ? and dimension = ? and dimension_value = ? and bucket_start = ?", updates);
+
+            List<Object[]> inserts = new ArrayList<>();
+            for(int i = 0; i < updated.length; i++) {
+                if(updated[i] == 0) inserts.add(updates.get(i));
+            }
+
+            if(!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate("insert into sales_rollup (revenue_cents, tax_cents, discount_cents, " +
+                        "item_count, order_count, updated_at, granularity, dimension, dimension_value, bucket_start) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", inserts);
+            }
+        } catch(DataAccessException e) {
+            log.warn("Could not checkpoint {} sales rollup buckets, retrying on next checkpoint", dirty.size(), e);
+            rollups.markDirty(dirty);
+            return 0;
+        }
+
+        return dirty.size();
+    }
+
+    /**
+     * Records sales (sign 1) or their reversal (sign -1) that did not go through a transition,
+     * like offline orders stored already paid. Within a transaction, they are added once it has committed.
+     *
+     * @param orderIds The orders
+     * @param sign 1 to add the orders, -1 to take them back
+     */
+    public void record(Collection<Long> orderIds, int sign) {
+        orderIds.forEach(orderId -> record(orderId, sign));
+    }
+
+    /**
+     * Records a sale (sign 1) or its reversal (sign -1). Within a transaction, the orders are
+     * read right before the commit and added after it, otherwise they are added immediately.
+     */
+    private void record(Long orderId, int sign) {
+        if(orderId == null) return;
+
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(load(Map.of(orderId, sign)), LocalDateTime.now());
+            return;
+        }
+
+        PendingSales pending = (PendingSales) TransactionSynchronizationManager.getResource(this);
+        if(pending == null) {
+            pending = new PendingSales();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+
+        pending.signs.merge(orderId, sign, Integer::sum);
+    }
+
+    /**
+     * Reads the figures of orders.
+     *
+     * @param signs 1 to add an order, -1 to take it back, by order id
+     * @return The figures to add, by key
+     */
+    private Map<SalesKey, SalesFigures> load(Map<Long, Integer> signs) {
+        Map<Long, Integer> effective = new HashMap<>(signs);
+        effective.values().removeIf(sign -> sign == 0);
+        if(effective.isEmpty()) return Map.of();
+
+        Map<SalesKey, long[]> totals = new LinkedHashMap<>();
+        Map<Long, Long> itemsByOrder = new HashMap<>();
+
+        for(Object[] row : orderItemRepository.sumSalesByCategory(effective.keySet())) {
+            Long orderId = (Long) row[0];
+            int sign = effective.get(orderId);
+            long quantity = ((Number) row[2]).longValue();
+            itemsByOrder.merge(orderId, quantity, Long::sum);
+
+            if(row[1] != null) {
+                add(totals, SalesKey.category((Long) row[1]), sign,
+                        new SalesFigures(SalesFigures.cents((BigDecimal) row[3]), 0, 0, quantity, 1));
+            }
+        }
+
+        for(Object[] row : orderRepository.findSalesRows(effective.keySet())) {
+            Long orderId = (Long) row[0];
+            SalesFigures figures = new SalesFigures(SalesFigures.cents((BigDecimal) row[3]),
+                    SalesFigures.cents((BigDecimal) row[4]), SalesFigures.cents((BigDecimal) row[5]),
+                    itemsByOrder.getOrDefault(orderId, 0L), 1);
+            int sign = effective.get(orderId);
+
+            add(totals, SalesKey.TOTAL, sign, figures);
+            add(totals, SalesKey.service(Boolean.TRUE.equals(row[2])), sign, figures);
+            if(row[1] != null) add(totals, SalesKey.paymentMethod((PaymentMethod) row[1]), sign, figures);
+        }
+
+        Map<SalesKey, SalesFigures> figures = new LinkedHashMap<>();
+        totals.forEach((key, values) -> figures.put(key, SalesFigures.of(values, 0)));
+        return figures;
+    }
+
+    private static void add(Map<SalesKey, long[]> totals, SalesKey key, int sign, SalesFigures figures) {
+        (sign < 0 ? figures.negate() : figures).addTo(totals.computeIfAbsent(key, k -> new long[SalesFigures.SIZE]), 0);
+    }
+
+    private void apply(Map<SalesKey, SalesFigures> figures, LocalDateTime at) {
+        figures.forEach((key, delta) -> {
+            if(!rollups.add(key, at, delta)) log.warn("Sales of {} at {} are older than the rollups, ignored", key, at);
+        });
+    }
+
+    private static LocalDateTime oldestKept(SalesRollups.Granularity granularity, LocalDateTime now) {
+        return switch(granularity) {
+            case MINUTE -> now.minusMinutes(granularity.getSlots() - 1);
+            case HOUR -> now.minusHours(granularity.getSlots() - 1);
+            case DAY -> now.minusDays(granularity.getSlots() - 1);
+        };
+    }
+
+    /**
+     * The orders changed by a transaction, read before it commits and recorded after.
+     */
+    private final class PendingSales implements TransactionSynchronization {
+        private final Map<Long, Integer> signs = new HashMap<>();
+        private Map<SalesKey, SalesFigures> figures = Map.of();
+        private LocalDateTime at;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            figures = load(signs);
+            at = LocalDateTime.now();
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(figures, at);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SalesAggregationService.this);
+        }
+    }
+}
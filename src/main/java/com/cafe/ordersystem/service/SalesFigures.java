@@ -0,0 +1,67 @@
+package com.cafe.ordersystem.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Sales totals, amounts in cents.
+ * For a category, revenue is the sum of its order lines and tax and discount are 0
+ * (they are only known per order).
+ *
+ * @param revenueCents Total amount paid
+ * @param taxCents Tax included
+ * @param discountCents Discounts granted
+ * @param itemCount Number of items sold (quantities)
+ * @param orderCount Number of orders
+ */
+public record SalesFigures(long revenueCents, long taxCents, long discountCents, long itemCount, long orderCount) {
+
+    public static final SalesFigures ZERO = new SalesFigures(0, 0, 0, 0, 0);
+
+    /**
+     * Number of values, in the order of the components.
+     */
+    static final int SIZE = 5;
+
+    static SalesFigures of(long[] values, int offset) {
+        return new SalesFigures(values[offset], values[offset + 1], values[offset + 2], values[offset + 3], values[offset + 4]);
+    }
+
+    void addTo(long[] values, int offset) {
+        values[offset] += revenueCents;
+        values[offset + 1] += taxCents;
+        values[offset + 2] += discountCents;
+        values[offset + 3] += itemCount;
+        values[offset + 4] += orderCount;
+    }
+
+    public SalesFigures negate() {
+        return new SalesFigures(-revenueCents, -taxCents, -discountCents, -itemCount, -orderCount);
+    }
+
+    public boolean isZero() {
+        return revenueCents == 0 && taxCents == 0 && discountCents == 0 && itemCount == 0 && orderCount == 0;
+    }
+
+    public BigDecimal getRevenue() {
+        return BigDecimal.valueOf(revenueCents, 2);
+    }
+
+    public BigDecimal getTax() {
+        return BigDecimal.valueOf(taxCents, 2);
+    }
+
+    public BigDecimal getDiscount() {
+        return BigDecimal.valueOf(discountCents, 2);
+    }
+
+    /**
+     * Converts an amount to cents.
+     *
+     * @param amount The amount, may be null
+     * @return The amount in cents, 0 if null
+     */
+    public static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
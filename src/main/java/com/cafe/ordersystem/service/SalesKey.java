@@ -0,0 +1,38 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * What a sales rollup is about: all sales, or those of one payment method, one service
+ * type (takeaway or dine-in) or one product category.
+ *
+ * @param dimension The dimension
+ * @param value The value within the dimension, e.g. "CASH" or a category id ("all" for the total)
+ */
+public record SalesKey(Dimension dimension, String value) {
+
+    public static final SalesKey TOTAL = new SalesKey(Dimension.TOTAL, "all");
+    public static final SalesKey TAKEAWAY = new SalesKey(Dimension.SERVICE, "takeaway");
+    public static final SalesKey DINE_IN = new SalesKey(Dimension.SERVICE, "dine-in");
+
+    public enum Dimension {
+        TOTAL,
+        PAYMENT_METHOD,
+        SERVICE,
+        CATEGORY
+    }
+
+    public SalesKey {
+        if(dimension == null || value == null) throw new IllegalArgumentException("Dimension and value are required");
+    }
+
+    public static SalesKey paymentMethod(Enum<?> paymentMethod) {
+        return new SalesKey(Dimension.PAYMENT_METHOD, paymentMethod.name());
+    }
+
+    public static SalesKey service(boolean takeaway) {
+        return takeaway ? TAKEAWAY : DINE_IN;
+    }
+
+    public static SalesKey category(Long categoryId) {
+        return new SalesKey(Dimension.CATEGORY, String.valueOf(categoryId));
+    }
+}
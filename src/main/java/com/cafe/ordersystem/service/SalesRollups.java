@@ -0,0 +1,293 @@
+package com.cafe.ordersystem.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-minute, per-hour and per-day sales rollups, one set per {@link SalesKey}.
+ *
+ * Each key and granularity has a ring buffer of buckets, backed by primitive arrays of cents:
+ * a bucket lives in slot (bucket number % slots) until a newer bucket takes the slot over,
+ * so the minute ring keeps the last day, the hour ring the last 5 weeks and the day ring
+ * the last 400 days, in constant memory. Adding a sale touches 3 slots, reading a range
+ * sums the slots it covers, nothing is allocated on the write path.
+ *
+ * Buckets changed since the last {@link #drainDirty()} are reported for checkpointing.
+ * Times are local times, bucketed as if they were UTC, so days follow the local calendar.
+ * Like {@link KitchenScheduler}, the rollups have no clock of their own.
+ */
+public class SalesRollups {
+
+    public enum Granularity {
+        MINUTE(60, 24 * 60),
+        HOUR(3_600, 24 * 35),
+        DAY(86_400, 400);
+
+        private final long seconds;
+        private final int slots;
+
+        Granularity(long seconds, int slots) {
+            this.seconds = seconds;
+            this.slots = slots;
+        }
+
+        /**
+         * Gets the number of buckets kept.
+         */
+        public int getSlots() {
+            return slots;
+        }
+
+        long bucketOf(LocalDateTime time) {
+            return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), seconds);
+        }
+
+        /**
+         * Gets the start of the bucket containing a time.
+         *
+         * @param time The time
+         * @return The start of its bucket
+         */
+        public LocalDateTime truncate(LocalDateTime time) {
+            return startOf(bucketOf(time));
+        }
+
+        LocalDateTime startOf(long bucket) {
+            return LocalDateTime.ofEpochSecond(bucket * seconds, 0, ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * The figures of one bucket.
+     *
+     * @param granularity The size of the bucket
+     * @param key What the figures are about
+     * @param start The start of the bucket
+     * @param figures The figures
+     */
+    public record Bucket(Granularity granularity, SalesKey key, LocalDateTime start, SalesFigures figures) {
+    }
+
+    private final Map<SalesKey, Ring[]> rings = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a sale (or, with negated figures, a refund) to the buckets containing a time.
+     *
+     * @param key What the sale is about
+     * @param at When it happened
+     * @param figures The figures to add
+     * @return false if the time is older than what one of the rings keeps, the figures were not added there
+     */
+    public boolean add(SalesKey key, LocalDateTime at, SalesFigures figures) {
+        boolean added = true;
+        for(Ring ring : rings(key)) {
+            added &= ring.add(ring.granularity.bucketOf(at), figures);
+        }
+
+        return added;
+    }
+
+    /**
+     * Puts back the checkpointed figures of a bucket, e.g. after a restart.
+     * The bucket is not reported as dirty.
+     *
+     * @param bucket The bucket
+     */
+    public void restore(Bucket bucket) {
+        rings(bucket.key())[bucket.granularity().ordinal()].set(bucket.granularity().bucketOf(bucket.start()), bucket.figures());
+    }
+
+    /**
+     * Sums the buckets of a time range still kept in memory.
+     *
+     * @param granularity The granularity to read
+     * @param key What the figures are about
+     * @param from The start of the range, included (truncated to its bucket)
+     * @param to The end of the range, excluded
+     * @return The figures
+     */
+    public SalesFigures total(Granularity granularity, SalesKey key, LocalDateTime from, LocalDateTime to) {
+        Ring[] keyRings = rings.get(key);
+        if(keyRings == null) return SalesFigures.ZERO;
+
+        return keyRings[granularity.ordinal()].sum(granularity.bucketOf(from), endBucket(granularity, to));
+    }
+
+    /**
+     * Lists the non-empty buckets of a time range still kept in memory.
+     *
+     * @param granularity The granularity to read
+     * @param key What the figures are about
+     * @param from The start of the range, included (truncated to its bucket)
+     * @param to The end of the range, excluded
+     * @return The buckets, oldest first
+     */
+    public List<Bucket> series(Granularity granularity, SalesKey key, LocalDateTime from, LocalDateTime to) {
+        Ring[] keyRings = rings.get(key);
+        if(keyRings == null) return List.of();
+
+        return keyRings[granularity.ordinal()].buckets(key, granularity.bucketOf(from), endBucket(granularity, to));
+    }
+
+    /**
+     * Gets the keys having figures.
+     */
+    public Set<SalesKey> keys() {
+        return Set.copyOf(rings.keySet());
+    }
+
+    /**
+     * Takes the buckets changed since the previous call, with their current figures.
+     *
+     * @return The dirty buckets
+     */
+    public List<Bucket> drainDirty() {
+        List<Bucket> dirty = new ArrayList<>();
+        rings.forEach((key, keyRings) -> {
+            for(Ring ring : keyRings) {
+                ring.drainDirty(key, dirty);
+            }
+        });
+
+        return dirty;
+    }
+
+    /**
+     * Reports buckets as dirty again, e.g. when their checkpoint failed.
+     *
+     * @param buckets The buckets returned by {@link #drainDirty()}
+     */
+    public void markDirty(List<Bucket> buckets) {
+        for(Bucket bucket : buckets) {
+            rings(bucket.key())[bucket.granularity().ordinal()].markDirty(bucket.granularity().bucketOf(bucket.start()));
+        }
+    }
+
+    private static long endBucket(Granularity granularity, LocalDateTime to) {
+        // the bucket containing the exclusive end is included only if the end is not its start
+        long end = granularity.bucketOf(to);
+        return granularity.startOf(end).equals(to) ? end - 1 : end;
+    }
+
+    private Ring[] rings(SalesKey key) {
+        return rings.computeIfAbsent(key, k -> {
+            Granularity[] granularities = Granularity.values();
+            Ring[] keyRings = new Ring[granularities.length];
+            for(Granularity granularity : granularities) {
+                keyRings[granularity.ordinal()] = new Ring(granularity);
+            }
+            return keyRings;
+        });
+    }
+
+    private static final class Ring {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final Granularity granularity;
+
+        /**
+         * Bucket number held by each slot.
+         */
+        private final long[] buckets;
+
+        /**
+         * {@link SalesFigures#SIZE} values per slot.
+         */
+        private final long[] values;
+
+        private final boolean[] dirty;
+
+        private Ring(Granularity granularity) {
+            this.granularity = granularity;
+            this.buckets = new long[granularity.slots];
+            this.values = new long[granularity.slots * SalesFigures.SIZE];
+            this.dirty = new boolean[granularity.slots];
+            Arrays.fill(buckets, EMPTY);
+        }
+
+        private synchronized boolean add(long bucket, SalesFigures figures) {
+            int slot = claim(bucket);
+            if(slot < 0) return false;
+
+            figures.addTo(values, slot * SalesFigures.SIZE);
+            dirty[slot] = true;
+            return true;
+        }
+
+        private synchronized void set(long bucket, SalesFigures figures) {
+            int slot = claim(bucket);
+            if(slot < 0) return;
+
+            Arrays.fill(values, slot * SalesFigures.SIZE, (slot + 1) * SalesFigures.SIZE, 0);
+            figures.addTo(values, slot * SalesFigures.SIZE);
+        }
+
+        private synchronized void markDirty(long bucket) {
+            int slot = slot(bucket);
+            if(buckets[slot] == bucket) dirty[slot] = true;
+        }
+
+        private synchronized SalesFigures sum(long from, long to) {
+            long[] total = new long[SalesFigures.SIZE];
+            for(long bucket = Math.max(from, to - granularity.slots + 1); bucket <= to; bucket++) {
+                int slot = slot(bucket);
+                if(buckets[slot] != bucket) continue;
+
+                for(int i = 0; i < SalesFigures.SIZE; i++) {
+                    total[i] += values[slot * SalesFigures.SIZE + i];
+                }
+            }
+
+            return SalesFigures.of(total, 0);
+        }
+
+        private synchronized List<Bucket> buckets(SalesKey key, long from, long to) {
+            List<Bucket> series = new ArrayList<>();
+            for(long bucket = Math.max(from, to - granularity.slots + 1); bucket <= to; bucket++) {
+                int slot = slot(bucket);
+                if(buckets[slot] != bucket) continue;
+
+                SalesFigures figures = SalesFigures.of(values, slot * SalesFigures.SIZE);
+                if(!figures.isZero()) series.add(new Bucket(granularity, key, granularity.startOf(bucket), figures));
+            }
+
+            return series;
+        }
+
+        private synchronized void drainDirty(SalesKey key, List<Bucket> into) {
+            for(int slot = 0; slot < dirty.length; slot++) {
+                if(!dirty[slot]) continue;
+
+                dirty[slot] = false;
+                into.add(new Bucket(granularity, key, granularity.startOf(buckets[slot]),
+                        SalesFigures.of(values, slot * SalesFigures.SIZE)));
+            }
+        }
+
+        /**
+         * Gets the slot of a bucket, recycling it if it holds an older bucket.
+         *
+         * @return The slot, or -1 if it already holds a newer bucket
+         */
+        private int claim(long bucket) {
+            int slot = slot(bucket);
+            if(buckets[slot] == bucket) return slot;
+            if(buckets[slot] != EMPTY && buckets[slot] > bucket) return -1;
+
+            buckets[slot] = bucket;
+            Arrays.fill(values, slot * SalesFigures.SIZE, (slot + 1) * SalesFigures.SIZE, 0);
+            dirty[slot] = false;
+            return slot;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) granularity.slots);
+        }
+    }
+}
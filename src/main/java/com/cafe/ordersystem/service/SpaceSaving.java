@@ -0,0 +1,183 @@
+package com.cafe.ordersystem.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy hitters summary: the most frequent items of a stream with a fixed
+ * number of counters.
+ *
+ * When an item without a counter arrives and all counters are taken, the smallest counter
+ * is given to it, keeping its count as the error bound of the newcomer. Any item whose true
+ * count is above total / capacity is guaranteed to have a counter, and each count
+ * overestimates the true count by at most its error.
+ *
+ * Not thread-safe.
+ */
+public class SpaceSaving {
+
+    /**
+     * Approximate memory of a counter: the entry, its hash map node and its tree node.
+     */
+    public static final int ENTRY_BYTES = 128;
+
+    /**
+     * An item with its estimated count.
+     *
+     * @param item The item
+     * @param count The estimated count, never below the true count
+     * @param error How much the count may overestimate the true count
+     */
+    public record Entry(long item, long count, long error) {
+
+        /**
+         * Gets the guaranteed minimum of the true count.
+         */
+        public long lowerBound() {
+            return count - error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<Long, Entry> counters;
+
+    /**
+     * Counters by count, smallest first (ties by item, to keep entries distinct).
+     */
+    private final TreeSet<Entry> byCount = new TreeSet<>((a, b) -> a.count != b.count
+            ? Long.compare(a.count, b.count) : Long.compare(a.item, b.item));
+
+    private long total;
+
+    /**
+     * @param capacity The number of counters
+     */
+    public SpaceSaving(int capacity) {
+        if(capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Counts occurrences of an item.
+     *
+     * @param item The item
+     * @param count The number of occurrences, positive
+     */
+    public void offer(long item, long count) {
+        if(count <= 0) throw new IllegalArgumentException("Count must be positive");
+
+        total += count;
+
+        Entry current = counters.get(item);
+        if(current != null) {
+            byCount.remove(current);
+            put(new Entry(item, current.count + count, current.error));
+            return;
+        }
+
+        if(counters.size() < capacity) {
+            put(new Entry(item, count, 0));
+            return;
+        }
+
+        Entry smallest = byCount.pollFirst();
+        counters.remove(smallest.item);
+        put(new Entry(item, smallest.count + count, smallest.count));
+    }
+
+    /**
+     * Adds the counters of another summary to this one, e.g. to combine time windows.
+     *
+     * An item missing from a full summary may still have occurred up to its smallest count,
+     * which is added to the item's count and error. The largest counts are kept, up to the
+     * capacity of this summary.
+     *
+     * @param other The other summary
+     */
+    public void merge(SpaceSaving other) {
+        long missing = minCount();
+        long otherMissing = other.minCount();
+
+        Map<Long, Entry> merged = new HashMap<>(counters.size() + other.counters.size());
+        for(Entry entry : counters.values()) {
+            Entry added = other.counters.get(entry.item);
+            merged.put(entry.item, added != null
+                    ? new Entry(entry.item, entry.count + added.count, entry.error + added.error)
+                    : new Entry(entry.item, entry.count + otherMissing, entry.error + otherMissing));
+        }
+        for(Entry added : other.counters.values()) {
+            if(!counters.containsKey(added.item)) {
+                merged.put(added.item, new Entry(added.item, added.count + missing, added.error + missing));
+            }
+        }
+
+        counters.clear();
+        byCount.clear();
+        merged.values().forEach(byCount::add);
+        while(byCount.size() > capacity) {
+            byCount.pollFirst();
+        }
+        byCount.forEach(entry -> counters.put(entry.item, entry));
+
+        total += other.total;
+    }
+
+    /**
+     * Gets the most frequent items.
+     *
+     * @param n The number of items
+     * @return Up to n entries, highest count first
+     */
+    public List<Entry> top(int n) {
+        List<Entry> top = new ArrayList<>(Math.min(n, counters.size()));
+        for(Entry entry : byCount.descendingSet()) {
+            if(top.size() == n) break;
+            top.add(entry);
+        }
+
+        return top;
+    }
+
+    /**
+     * Gets the estimated count of an item.
+     *
+     * @return The count, 0 if the item has no counter
+     */
+    public long estimate(long item) {
+        Entry entry = counters.get(item);
+        return entry != null ? entry.count : 0;
+    }
+
+    /**
+     * Gets the sum of all the counts offered.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Gets the most an item without a counter may have occurred: the smallest count once all
+     * counters are taken, 0 before.
+     */
+    private long minCount() {
+        return counters.size() < capacity ? 0 : byCount.first().count;
+    }
+
+    private void put(Entry entry) {
+        counters.put(entry.item, entry);
+        byCount.add(entry);
+    }
+}
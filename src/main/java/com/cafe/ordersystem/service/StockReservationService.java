@@ -0,0 +1,437 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.repository.OrderItemRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stock reservations for products, written behind to the products table.
+ *
+ * Several terminals selling the same product no longer fight over the product row:
+ * each product has a CAS counter of available stock, reservations are taken when an
+ * order is built, committed when it is paid and released when it is cancelled.
+ * Committed sales and restocks accumulate as a pending delta per product, flushed
+ * periodically as one relative UPDATE per product in a single JDBC batch.
+ *
+ * Each flush refreshes the flushed products in the {@link ReorderAlertService}. The flush
+ * leaves the version of the products alone, so it does not make edits of loaded Product
+ * entities fail; Product is written with dynamic updates, so those edits do not write a
+ * stale stock level back either.
+ *
+ * Orders reserve through {@link OrderService}. The PAID and CANCELLED listeners commit and
+ * release reservations once the transition has committed. A paid order without a reservation
+ * (built another way, or reserved before a restart) is recorded as a sale from its lines, and
+ * the stock of a paid order that is cancelled is put back.
+ *
+ * Counters are seeded from the database on first use and never dropped, so a delta added
+ * while a counter is flushed or refreshed is not lost. Stock changed through another path
+ * (e.g. Product.reduceStock on a loaded entity) is picked up by {@link #refresh(Long)}.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReorderAlertService reorderAlertService;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes flushes and refreshes, which read and write {@link StockCounter#persisted}.
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Open reservations: order id → (product id → quantity).
+     */
+    private final Map<Long, Map<Long, Integer>> reservations = new ConcurrentHashMap<>();
+
+    public StockReservationService(ProductRepository productRepository, OrderItemRepository orderItemRepository,
+                                   JdbcTemplate jdbcTemplate, ReorderAlertService reorderAlertService,
+                                   OrderStatusTransitionService transitionService) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.reorderAlertService = reorderAlertService;
+
+        transitionService.register(OrderStatus.PAID, this::onOrderPaid);
+        transitionService.register(OrderStatus.CANCELLED, this::onOrderCancelled);
+    }
+
+    /**
+     * Reserves the stock needed by all the items of an order, all or nothing.
+     *
+     * @param order The order, already persisted
+     * @throws IllegalArgumentException if there is insufficient stock for one of the products
+     */
+    public void reserve(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for(OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        reserve(order.getId(), quantities);
+    }
+
+    /**
+     * Reserves stock for an order, all or nothing.
+     *
+     * @param orderId The order
+     * @param quantities The quantity needed per product id
+     * @throws IllegalArgumentException if there is insufficient stock for one of the products
+     */
+    public void reserve(Long orderId, Map<Long, Integer> quantities) {
+        // checked before anything is taken, so a bad entry has nothing to give back
+        Map<Long, StockCounter> needed = new HashMap<>();
+        for(Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if(entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + entry.getKey());
+            }
+            needed.put(entry.getKey(), counter(entry.getKey()));
+        }
+
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>(quantities.size());
+        for(Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if(!needed.get(entry.getKey()).tryTake(entry.getValue())) {
+                taken.forEach(done -> needed.get(done.getKey()).available.addAndGet(done.getValue()));
+                throw new IllegalArgumentException("Insufficient stock available for product " + entry.getKey());
+            }
+
+            taken.add(entry);
+        }
+
+        reservations.merge(orderId, new HashMap<>(quantities), (existing, added) -> {
+            added.forEach((productId, quantity) -> existing.merge(productId, quantity, Integer::sum));
+            return existing;
+        });
+    }
+
+    /**
+     * Turns the reservation of a paid order into a sale, to be written to the database.
+     *
+     * @param orderId The order
+     * @return true if the order had a reservation
+     */
+    public boolean commit(Long orderId) {
+        Map<Long, Integer> reserved = reservations.remove(orderId);
+        if(reserved == null) return false;
+
+        reserved.forEach((productId, quantity) -> counter(productId).pendingDelta.addAndGet(-quantity));
+        return true;
+    }
+
+    /**
+     * Gives the reserved stock of an order back (e.g. when it is cancelled).
+     *
+     * @param orderId The order
+     * @return true if the order had a reservation
+     */
+    public boolean release(Long orderId) {
+        Map<Long, Integer> reserved = reservations.remove(orderId);
+        if(reserved == null) return false;
+
+        reserved.forEach((productId, quantity) -> counter(productId).available.addAndGet(quantity));
+        return true;
+    }
+
+    /**
+     * Gives back part of the reservation of an order (e.g. when a line is removed or lowered).
+     * Quantities above what the order has reserved are ignored.
+     *
+     * @param orderId The order
+     * @param quantities The quantity to give back per product id
+     */
+    public void release(Long orderId, Map<Long, Integer> quantities) {
+        reservations.computeIfPresent(orderId, (id, reserved) -> {
+            quantities.forEach((productId, quantity) -> {
+                int given = Math.min(quantity, reserved.getOrDefault(productId, 0));
+                if(given <= 0) return;
+
+                if(reserved.merge(productId, -given, Integer::sum) == 0) reserved.remove(productId);
+                counter(productId).available.addAndGet(given);
+            });
+
+            return reserved.isEmpty() ? null : reserved;
+        });
+    }
+
+    /**
+     * Gets the quantities reserved by an order.
+     *
+     * @param orderId The order
+     * @return The reserved quantity per product id, empty if none
+     */
+    public Map<Long, Integer> getReserved(Long orderId) {
+        Map<Long, Integer> reserved = reservations.get(orderId);
+
+        return reserved != null ? Map.copyOf(reserved) : Map.of();
+    }
+
+    /**
+     * Adds stock to a product, immediately available and written behind.
+     *
+     * @param productId The product
+     * @param quantity The quantity to add
+     * @return The new available stock
+     */
+    public long restock(Long productId, int quantity) {
+        if(quantity <= 0) throw new IllegalArgumentException("Restock quantity must be positive");
+
+        StockCounter counter = counter(productId);
+        counter.pendingDelta.addAndGet(quantity);
+        counter.restocked = true;
+
+        return counter.available.addAndGet(quantity);
+    }
+
+    /**
+     * Records sales made without a reservation (e.g. orders uploaded by an offline terminal).
+     * The goods are already sold, so the stock is taken even if it goes below zero.
+     *
+     * @param quantities The quantity sold per product id
+     */
+    public void recordSales(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            StockCounter counter = counter(productId);
+            counter.available.addAndGet(-quantity);
+            counter.pendingDelta.addAndGet(-quantity);
+        });
+    }
+
+    /**
+     * Puts back the stock of sales that did not happen after all (e.g. a paid order that is cancelled).
+     *
+     * @param quantities The quantity returned per product id
+     */
+    public void cancelSales(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            StockCounter counter = counter(productId);
+            counter.available.addAndGet(quantity);
+            counter.pendingDelta.addAndGet(quantity);
+        });
+    }
+
+    /**
+     * Gets the stock available for new reservations.
+     *
+     * @param productId The product
+     * @return The available stock
+     */
+    public long getAvailable(Long productId) {
+        return counter(productId).available.get();
+    }
+
+    /**
+     * Picks up stock changed in the database through another path (e.g. Product.reduceStock on a
+     * loaded entity): the pending delta is flushed, then the difference between the stock level
+     * in the database and the one this service last wrote is applied to the available stock.
+     * Reservations and deltas added meanwhile are kept.
+     *
+     * @param productId The product
+     * @return The new available stock
+     * @throws IllegalArgumentException if the product does not exist
+     */
+    public long refresh(Long productId) {
+        StockCounter counter = counter(productId);
+
+        synchronized(flushLock) {
+            flush();
+
+            Integer stockLevel = productRepository.findStockLevel(productId);
+            if(stockLevel == null) {
+                counters.remove(productId, counter);
+                throw new IllegalArgumentException("Product " + productId + " not found");
+            }
+
+            counter.available.addAndGet(stockLevel - counter.persisted);
+            counter.persisted = stockLevel;
+        }
+
+        return counter.available.get();
+    }
+
+    /**
+     * Writes the pending stock deltas to the products table, one relative UPDATE per
+     * product in a single JDBC batch. Failed deltas are kept for the next flush.
+     *
+     * @return The number of products updated
+     */
+    @Scheduled(fixedDelayString = "${cafe.stock.flush-interval-ms:1000}")
+    public int flush() {
+        synchronized(flushLock) {
+            List<Long> productIds = new ArrayList<>();
+            List<StockCounter> flushed = new ArrayList<>();
+            List<Object[]> batch = new ArrayList<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+            for(Map.Entry<Long, StockCounter> entry : counters.entrySet()) {
+                StockCounter counter = entry.getValue();
+                long delta = counter.pendingDelta.getAndSet(0);
+                boolean restocked = counter.restocked;
+                counter.restocked = false;
+
+                if(delta == 0) continue;
+
+                productIds.add(entry.getKey());
+                flushed.add(counter);
+                batch.add(new Object[]{delta, restocked ? now : null, entry.getKey()});
+            }
+
+            if(batch.isEmpty()) return 0;
+
+            try {
+                jdbcTemplate.batchUpdate("update products set stock_level = stock_level + ?, " +
+                        "last_restocked = coalesce(?, last_restocked) where id = ?", batch);
+            } catch(DataAccessException e) {
+                log.warn("Could not write stock deltas of {} products, retrying on next flush", batch.size(), e);
+
+                for(int i = 0; i < flushed.size(); i++) {
+                    flushed.get(i).pendingDelta.addAndGet((Long) batch.get(i)[0]);
+                    if(batch.get(i)[1] != null) flushed.get(i).restocked = true;
+                }
+                return 0;
+            }
+
+            for(int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).persisted += (Long) batch.get(i)[0];
+            }
+
+            reorderAlertService.refreshProducts(productIds);
+            return productIds.size();
+        }
+    }
+
+    /**
+     * Commits the reservation of a paid order, or records its lines as a sale if it has none.
+     * The lines are read now, while the order can still be loaded.
+     */
+    private void onOrderPaid(OrderStatusChange change) {
+        Long orderId = change.orderId();
+        if(orderId == null) return;
+
+        Map<Long, Integer> unreserved = reservations.containsKey(orderId) ? null : quantities(change);
+        afterCommit(() -> {
+            if(!commit(orderId) && unreserved != null) recordSales(unreserved);
+        });
+    }
+
+    /**
+     * Releases the reservation of an order cancelled before payment, or puts back the stock of a paid one.
+     */
+    private void onOrderCancelled(OrderStatusChange change) {
+        Long orderId = change.orderId();
+        if(orderId == null) return;
+
+        if(change.from() == OrderStatus.CREATED) {
+            afterCommit(() -> release(orderId));
+            return;
+        }
+
+        Map<Long, Integer> sold = quantities(change);
+        afterCommit(() -> cancelSales(sold));
+    }
+
+    /**
+     * Sums the quantities of an order per product id.
+     */
+    private Map<Long, Integer> quantities(OrderStatusChange change) {
+        Map<Long, Integer> quantities = new HashMap<>();
+
+        if(change.order() != null) {
+            for(OrderItem item : change.order().getItems()) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        } else {
+            for(Object[] row : orderItemRepository.sumQuantitiesByProduct(List.of(change.orderId()))) {
+                quantities.merge((Long) row[0], ((Number) row[2]).intValue(), Integer::sum);
+            }
+        }
+
+        return quantities;
+    }
+
+    /**
+     * Runs an action once the current transaction has committed, or right away without one.
+     */
+    private static void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private StockCounter counter(Long productId) {
+        return counters.computeIfAbsent(productId, id -> {
+            Integer stockLevel = productRepository.findStockLevel(id);
+            if(stockLevel == null) throw new IllegalArgumentException("Product " + id + " not found");
+
+            return new StockCounter(stockLevel);
+        });
+    }
+
+    private static final class StockCounter {
+
+        /**
+         * Stock that can still be reserved.
+         */
+        private final AtomicLong available;
+
+        /**
+         * Committed sales and restocks not written to the database yet.
+         */
+        private final AtomicLong pendingDelta = new AtomicLong();
+
+        private volatile boolean restocked;
+
+        /**
+         * The stock level last read from or written to the database. Guarded by the flush lock.
+         */
+        private long persisted;
+
+        private StockCounter(long stockLevel) {
+            this.available = new AtomicLong(stockLevel);
+            this.persisted = stockLevel;
+        }
+
+        private boolean tryTake(long quantity) {
+            if(quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
+
+            long current;
+            do {
+                current = available.get();
+                if(current < quantity) return false;
+            } while(!available.compareAndSet(current, current - quantity));
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.cafe.ordersystem.service;
+
+/**
+ * Outcome of re-tiering all the loyalty members.
+ *
+ * @param membersScanned The members checked
+ * @param membersRetiered The members whose stored tier changed
+ * @param batches The number of batches (one transaction each)
+ * @param elapsedMillis The duration
+ */
+public record TierRetierResult(long membersScanned, long membersRetiered, int batches, long elapsedMillis) {
+}
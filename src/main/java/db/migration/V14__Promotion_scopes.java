@@ -0,0 +1,85 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Moves the product and category scopes of the promotions from comma-separated ids
+ * (promotions.product_ids and category_ids) to the promotion_products and promotion_categories
+ * tables, then drops the columns.
+ * Done in Java because splitting a string into rows is not portable between MySQL and H2.
+ * Ids of products or categories that no longer exist are dropped.
+ */
+public class V14__Promotion_scopes extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE promotion_products (
+                        promotion_code VARCHAR(40) NOT NULL,
+                        product_id     BIGINT      NOT NULL,
+                        PRIMARY KEY (promotion_code, product_id),
+                        CONSTRAINT fk_promotion_products_promotion FOREIGN KEY (promotion_code) REFERENCES promotions (code),
+                        CONSTRAINT fk_promotion_products_product FOREIGN KEY (product_id) REFERENCES products (id)
+                    )""");
+            statement.execute("""
+                    CREATE TABLE promotion_categories (
+                        promotion_code VARCHAR(40) NOT NULL,
+                        category_id    BIGINT      NOT NULL,
+                        PRIMARY KEY (promotion_code, category_id),
+                        CONSTRAINT fk_promotion_categories_promotion FOREIGN KEY (promotion_code) REFERENCES promotions (code),
+                        CONSTRAINT fk_promotion_categories_category FOREIGN KEY (category_id) REFERENCES category (id)
+                    )""");
+
+            try(PreparedStatement products = connection.prepareStatement("insert into promotion_products " +
+                        "(promotion_code, product_id) select ?, id from products where id = ?");
+                PreparedStatement categories = connection.prepareStatement("insert into promotion_categories " +
+                        "(promotion_code, category_id) select ?, id from category where id = ?");
+                ResultSet rows = statement.executeQuery("select code, product_ids, category_ids from promotions")) {
+                while(rows.next()) {
+                    String code = rows.getString(1);
+                    addIds(products, code, rows.getString(2));
+                    addIds(categories, code, rows.getString(3));
+                }
+
+                products.executeBatch();
+                categories.executeBatch();
+            }
+
+            statement.execute("ALTER TABLE promotions DROP COLUMN product_ids");
+            statement.execute("ALTER TABLE promotions DROP COLUMN category_ids");
+        }
+    }
+
+    /**
+     * Adds a row per distinct id of a comma-separated list, skipping what is not a number.
+     */
+    private static void addIds(PreparedStatement insert, String code, String ids) throws Exception {
+        if(ids == null) return;
+
+        Set<Long> seen = new HashSet<>();
+        for(String id : ids.split(",")) {
+            long value;
+            try {
+                value = Long.parseLong(id.trim());
+            } catch(NumberFormatException e) {
+                continue;
+            }
+            if(!seen.add(value)) continue;
+
+            insert.setString(1, code);
+            insert.setLong(2, value);
+            insert.addBatch();
+        }
+    }
+}
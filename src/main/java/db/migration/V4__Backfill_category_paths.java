@@ -0,0 +1,62 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the materialized path and depth of the existing categories, top-down.
+ * Done in Java because self-referencing UPDATEs are not portable between MySQL and H2.
+ */
+public class V4__Backfill_category_paths extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        try(Statement statement = connection.createStatement();
+            ResultSet rows = statement.executeQuery("select id, parent_id from category")) {
+            while(rows.next()) {
+                long parentId = rows.getLong(2);
+                Long parent = rows.wasNull() ? null : parentId;
+                children.computeIfAbsent(parent, id -> new ArrayList<>()).add(rows.getLong(1));
+            }
+        }
+
+        try(PreparedStatement update = connection.prepareStatement("update category set path = ?, depth = ? where id = ?")) {
+            Deque<Object[]> pending = new ArrayDeque<>();
+            for(Long rootId : children.getOrDefault(null, List.of())) {
+                pending.push(new Object[]{rootId, "/" + rootId + "/", 0});
+            }
+
+            while(!pending.isEmpty()) {
+                Object[] category = pending.pop();
+                Long id = (Long) category[0];
+                String path = (String) category[1];
+                int depth = (Integer) category[2];
+
+                update.setString(1, path);
+                update.setInt(2, depth);
+                update.setLong(3, id);
+                update.addBatch();
+
+                for(Long childId : children.getOrDefault(id, List.of())) {
+                    pending.push(new Object[]{childId, path + childId + "/", depth + 1});
+                }
+            }
+
+            update.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Creates one id sequence per table, used by the pooled-lo sequence generators of the entities,
+ * and drops the id_generators table of V5 (its values are carried over to the orders sequences).
+ *
+ * H2 gets native sequences. MySQL has no sequences, Hibernate emulates them with a single-row
+ * table holding next_val, so that is what is created there.
+ *
+ * Each sequence starts after the ids already in use. The AUTO_INCREMENT columns are left as they
+ * are, they are simply no longer used.
+ */
+public class V6__Id_sequences extends BaseJavaMigration {
+
+    /**
+     * Must match the allocationSize of the entities' @SequenceGenerator.
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Table → sequence.
+     */
+    private static final Map<String, String> SEQUENCES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES.put("users", "users_seq");
+        SEQUENCES.put("roles", "roles_seq");
+        SEQUENCES.put("customers", "customers_seq");
+        SEQUENCES.put("loyalty_programs", "loyalty_programs_seq");
+        SEQUENCES.put("category", "category_seq");
+        SEQUENCES.put("products", "products_seq");
+        SEQUENCES.put("ingredients", "ingredients_seq");
+        SEQUENCES.put("orders", "orders_seq");
+        SEQUENCES.put("order_items", "order_items_seq");
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+
+        try(Statement statement = connection.createStatement()) {
+            Map<String, Long> pooled = new LinkedHashMap<>();
+            try(ResultSet rows = statement.executeQuery("select sequence_name, next_val from id_generators")) {
+                while(rows.next()) {
+                    pooled.put(rows.getString(1), rows.getLong(2));
+                }
+            }
+
+            for(Map.Entry<String, String> entry : SEQUENCES.entrySet()) {
+                long start = nextId(statement, entry.getKey());
+                start = Math.max(start, pooled.getOrDefault(entry.getKey(), 1L));
+
+                if(mysql) {
+                    statement.execute("create table " + entry.getValue() + " (next_val bigint)");
+                    statement.execute("insert into " + entry.getValue() + " values (" + start + ")");
+                } else {
+                    statement.execute("create sequence " + entry.getValue() + " start with " + start
+                            + " increment by " + ALLOCATION_SIZE);
+                }
+            }
+
+            statement.execute("drop table id_generators");
+        }
+    }
+
+    private long nextId(Statement statement, String table) throws Exception {
+        try(ResultSet rows = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- Append-only ledger of loyalty points (LoyaltyLedgerService). loyalty_programs.points is
+-- the running balance of the entries, maintained with atomic increments.
+
+CREATE TABLE loyalty_ledger (
+    id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loyalty_program_id BIGINT      NOT NULL,
+    entry_type         VARCHAR(10) NOT NULL,
+    points             INT         NOT NULL,
+    order_id           BIGINT,
+    created_at         DATETIME(6) NOT NULL,
+    CONSTRAINT fk_loyalty_ledger_program FOREIGN KEY (loyalty_program_id) REFERENCES loyalty_programs (id)
+);
+
+-- History of a member, newest first
+CREATE INDEX idx_loyalty_ledger_program ON loyalty_ledger (loyalty_program_id, id);
+
+-- An order earns (or redeems) points once
+CREATE UNIQUE INDEX uk_loyalty_ledger_order ON loyalty_ledger (order_id, entry_type);
+
+-- The balances so far are carried over as opening entries
+INSERT INTO loyalty_ledger (loyalty_program_id, entry_type, points, created_at)
+SELECT id, 'OPENING', points, CURRENT_TIMESTAMP
+FROM loyalty_programs
+WHERE points <> 0;
@@ -0,0 +1,19 @@
+-- Points expiration sweep (LoyaltyExpirationService): members are walked in keyset chunks
+-- ordered by (points_expiration_date, id), the sweep position is checkpointed with each chunk.
+
+CREATE INDEX idx_loyalty_programs_expiration ON loyalty_programs (points_expiration_date, id);
+
+-- The expiration date a member was last told about, so each date is announced once
+ALTER TABLE loyalty_programs ADD COLUMN expiry_notified_for DATETIME(6);
+
+-- Position and totals of the current (or last) sweep, a single row
+CREATE TABLE loyalty_expiration_sweep (
+    id              INT         NOT NULL PRIMARY KEY,
+    cutoff          DATETIME(6) NOT NULL,
+    cursor_date     DATETIME(6) NOT NULL,
+    cursor_id       BIGINT      NOT NULL,
+    members_expired BIGINT      NOT NULL,
+    points_expired  BIGINT      NOT NULL,
+    started_at      DATETIME(6) NOT NULL,
+    finished_at     DATETIME(6)
+);
@@ -0,0 +1,16 @@
+-- Configurable loyalty tiers (LoyaltyTierService), one row per LoyaltyProgram.Tier, reloaded
+-- periodically by every instance. Perks are separated by semicolons.
+
+CREATE TABLE loyalty_tiers (
+    tier              VARCHAR(20)   NOT NULL PRIMARY KEY,
+    points_required   INT           NOT NULL,
+    points_multiplier DECIMAL(5, 2) NOT NULL,
+    perks             VARCHAR(500),
+    updated_at        DATETIME(6)   NOT NULL
+);
+
+INSERT INTO loyalty_tiers (tier, points_required, points_multiplier, perks, updated_at) VALUES
+    ('BRONZE', 0, 1.00, NULL, CURRENT_TIMESTAMP),
+    ('SILVER', 100, 1.00, NULL, CURRENT_TIMESTAMP),
+    ('GOLD', 300, 1.00, NULL, CURRENT_TIMESTAMP),
+    ('PLATINUM', 500, 1.00, NULL, CURRENT_TIMESTAMP);
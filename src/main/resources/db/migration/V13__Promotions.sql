@@ -0,0 +1,27 @@
+-- Promotions evaluated by the PromotionService. Product and category scopes are
+-- comma-separated ids, days of week comma-separated DayOfWeek names.
+
+CREATE TABLE promotions (
+    code                VARCHAR(40)   NOT NULL PRIMARY KEY,
+    name                VARCHAR(100)  NOT NULL,
+    promotion_type      VARCHAR(20)   NOT NULL,
+    percent_off         DECIMAL(5, 2) NOT NULL,
+    product_ids         VARCHAR(1000),
+    category_ids        VARCHAR(1000),
+    trigger_category_id BIGINT,
+    min_tier            VARCHAR(20),
+    days_of_week        VARCHAR(100),
+    start_time          TIME,
+    end_time            TIME,
+    valid_from          DATETIME(6),
+    valid_to            DATETIME(6),
+    is_active           BOOLEAN       NOT NULL,
+    version             BIGINT,
+    created_at          DATETIME(6)   NOT NULL,
+    created_by          VARCHAR(50),
+    updated_at          DATETIME(6),
+    updated_by          VARCHAR(50),
+    CONSTRAINT fk_promotions_trigger_category FOREIGN KEY (trigger_category_id) REFERENCES category (id)
+);
+
+CREATE INDEX idx_promotions_active ON promotions (is_active);
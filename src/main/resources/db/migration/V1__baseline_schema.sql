@@ -0,0 +1,219 @@
+-- Baseline schema matching the JPA entities of the model package.
+
+CREATE TABLE roles (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name        VARCHAR(20)  NOT NULL,
+    description VARCHAR(255),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+CREATE TABLE users (
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version    BIGINT,
+    created_at DATETIME(6)  NOT NULL,
+    created_by VARCHAR(50),
+    updated_at DATETIME(6),
+    updated_by VARCHAR(50),
+    first_name VARCHAR(50)  NOT NULL,
+    last_name  VARCHAR(50)  NOT NULL,
+    username   VARCHAR(50)  NOT NULL,
+    email      VARCHAR(100) NOT NULL,
+    password   VARCHAR(120) NOT NULL,
+    active     BOOLEAN      NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE customers (
+    id                  BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version             BIGINT,
+    created_at          DATETIME(6)  NOT NULL,
+    created_by          VARCHAR(50),
+    updated_at          DATETIME(6),
+    updated_by          VARCHAR(50),
+    first_name          VARCHAR(50)  NOT NULL,
+    last_name           VARCHAR(50)  NOT NULL,
+    email               VARCHAR(100),
+    phone_number        VARCHAR(20),
+    address             VARCHAR(200),
+    city                VARCHAR(50),
+    state               VARCHAR(50),
+    postal_code         VARCHAR(10),
+    country             VARCHAR(50),
+    date_of_birth       DATE,
+    registration_date   DATETIME(6)  NOT NULL,
+    dietary_preferences VARCHAR(500),
+    favorite_products   VARCHAR(500),
+    marketing_consent   BOOLEAN,
+    is_active           BOOLEAN,
+    CONSTRAINT uk_customers_email UNIQUE (email),
+    CONSTRAINT uk_customers_phone_number UNIQUE (phone_number)
+);
+
+CREATE TABLE loyalty_programs (
+    id                        BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version                   BIGINT,
+    created_at                DATETIME(6) NOT NULL,
+    created_by                VARCHAR(50),
+    updated_at                DATETIME(6),
+    updated_by                VARCHAR(50),
+    customer_id               BIGINT      NOT NULL,
+    points                    INT         NOT NULL,
+    tier                      VARCHAR(20) NOT NULL,
+    enrollment_date           DATETIME(6) NOT NULL,
+    last_points_earned_date   DATETIME(6),
+    last_points_redeemed_date DATETIME(6),
+    points_expiration_date    DATETIME(6),
+    active                    BOOLEAN     NOT NULL,
+    member_number             VARCHAR(20),
+    special_offers            BOOLEAN,
+    CONSTRAINT uk_loyalty_programs_customer UNIQUE (customer_id),
+    CONSTRAINT uk_loyalty_programs_member_number UNIQUE (member_number),
+    CONSTRAINT fk_loyalty_programs_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE TABLE category (
+    id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version           BIGINT,
+    created_at        DATETIME(6) NOT NULL,
+    created_by        VARCHAR(50),
+    updated_at        DATETIME(6),
+    updated_by        VARCHAR(50),
+    name              VARCHAR(50) NOT NULL,
+    description       VARCHAR(255),
+    display_order     INT,
+    icon_url          VARCHAR(255),
+    active            BOOLEAN,
+    color_code        VARCHAR(7),
+    show_in_menu      BOOLEAN,
+    parent_id         BIGINT,
+    availability_time VARCHAR(255),
+    seasonal          BOOLEAN,
+    CONSTRAINT uk_category_name UNIQUE (name),
+    CONSTRAINT fk_category_parent FOREIGN KEY (parent_id) REFERENCES category (id)
+);
+
+CREATE TABLE products (
+    id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version            BIGINT,
+    created_at         DATETIME(6)    NOT NULL,
+    created_by         VARCHAR(50),
+    updated_at         DATETIME(6),
+    updated_by         VARCHAR(50),
+    name               VARCHAR(100)   NOT NULL,
+    description        VARCHAR(500),
+    price              DECIMAL(10, 2) NOT NULL,
+    image_url          VARCHAR(255),
+    active             BOOLEAN        NOT NULL,
+    category_id        BIGINT,
+    preparation_time   INT,
+    calories           INT,
+    contains_allergens BOOLEAN,
+    vegetarian         BOOLEAN,
+    vegan              BOOLEAN,
+    gluten_free        BOOLEAN,
+    reorder_threshold  INT,
+    stock_level        INT,
+    last_restocked     DATETIME(6),
+    featured           BOOLEAN,
+    notes              VARCHAR(255),
+    barcode            VARCHAR(255),
+    CONSTRAINT uk_products_barcode UNIQUE (barcode),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES category (id)
+);
+
+CREATE TABLE ingredients (
+    id                    BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version               BIGINT,
+    created_at            DATETIME(6)    NOT NULL,
+    created_by            VARCHAR(50),
+    updated_at            DATETIME(6),
+    updated_by            VARCHAR(50),
+    name                  VARCHAR(100)   NOT NULL,
+    description           VARCHAR(255),
+    allergen              BOOLEAN,
+    allergen_type         VARCHAR(255),
+    vegetarian            BOOLEAN,
+    vegan                 BOOLEAN,
+    gluten_free           BOOLEAN,
+    stock_level           DECIMAL(10, 3),
+    reorder_threshold     DECIMAL(10, 3),
+    unit_of_measure       VARCHAR(20),
+    cost_per_unit         DECIMAL(10, 4),
+    supplier              VARCHAR(100),
+    supplier_product_code VARCHAR(255),
+    storage_location      VARCHAR(100),
+    storage_temperature   VARCHAR(100),
+    shelf_life_days       INT,
+    last_restocked        DATETIME(6),
+    active                BOOLEAN,
+    notes                 VARCHAR(500),
+    CONSTRAINT uk_ingredients_name UNIQUE (name)
+);
+
+CREATE TABLE product_ingredients (
+    product_id      BIGINT NOT NULL,
+    ingredient_id   BIGINT NOT NULL,
+    quantity        DECIMAL(10, 3),
+    unit_of_measure VARCHAR(20),
+    PRIMARY KEY (product_id, ingredient_id),
+    CONSTRAINT fk_product_ingredients_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_product_ingredients_ingredient FOREIGN KEY (ingredient_id) REFERENCES ingredients (id)
+);
+
+CREATE TABLE orders (
+    id                    BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version               BIGINT,
+    created_at            DATETIME(6)    NOT NULL,
+    created_by            VARCHAR(50),
+    updated_at            DATETIME(6),
+    updated_by            VARCHAR(50),
+    order_number          VARCHAR(20)    NOT NULL,
+    customer_id           BIGINT,
+    order_date            DATETIME(6)    NOT NULL,
+    status                VARCHAR(20)    NOT NULL,
+    subtotal              DECIMAL(10, 2) NOT NULL,
+    tax_amount            DECIMAL(10, 2),
+    total_amount          DECIMAL(10, 2) NOT NULL,
+    discount_amount       DECIMAL(10, 2),
+    discount_reason       VARCHAR(100),
+    payment_method        VARCHAR(20),
+    payment_reference     VARCHAR(100),
+    payment_date          DATETIME(6),
+    notes                 VARCHAR(500),
+    is_takeaway           BOOLEAN,
+    table_number          INT,
+    loyalty_points_earned INT,
+    loyalty_points_used   INT,
+    CONSTRAINT uk_orders_order_number UNIQUE (order_number),
+    CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE INDEX idx_orders_status ON orders (status);
+
+CREATE TABLE order_items (
+    id                   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version              BIGINT,
+    created_at           DATETIME(6)    NOT NULL,
+    created_by           VARCHAR(50),
+    updated_at           DATETIME(6),
+    updated_by           VARCHAR(50),
+    order_id             BIGINT         NOT NULL,
+    product_id           BIGINT         NOT NULL,
+    quantity             INT            NOT NULL,
+    unit_price           DECIMAL(10, 2) NOT NULL,
+    special_instructions VARCHAR(255),
+    is_prepared          BOOLEAN,
+    discount_amount      DECIMAL(10, 2),
+    discount_reason      VARCHAR(50),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
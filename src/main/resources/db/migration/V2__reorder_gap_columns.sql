@@ -0,0 +1,9 @@
+-- Stock minus reorder threshold, computed by the database and indexed,
+-- so "what to reorder now" is an index range scan (reorder_gap <= 0).
+-- NULL when the item has no reorder threshold.
+
+ALTER TABLE products ADD COLUMN reorder_gap INT GENERATED ALWAYS AS (stock_level - reorder_threshold);
+CREATE INDEX idx_products_reorder_gap ON products (reorder_gap);
+
+ALTER TABLE ingredients ADD COLUMN reorder_gap DECIMAL(11, 3) GENERATED ALWAYS AS (stock_level - reorder_threshold);
+CREATE INDEX idx_ingredients_reorder_gap ON ingredients (reorder_gap);
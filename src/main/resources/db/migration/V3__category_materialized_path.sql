@@ -0,0 +1,7 @@
+-- Materialized path of each category ("/1/4/12/"), so a subtree is one
+-- indexed prefix range: path LIKE '/1/4/%'. Existing rows are filled by V4.
+
+ALTER TABLE category ADD COLUMN path VARCHAR(255);
+ALTER TABLE category ADD COLUMN depth INT DEFAULT 0;
+
+CREATE INDEX idx_category_path ON category (path);
@@ -0,0 +1,15 @@
+-- Orders and order items get their ids from a pooled-lo table generator (blocks of 50)
+-- instead of AUTO_INCREMENT, so Hibernate can batch their inserts.
+-- next_val is the first id of the next block.
+
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val      BIGINT      NOT NULL
+);
+
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'orders', COALESCE(MAX(id), 0) + 1 FROM orders;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'order_items', COALESCE(MAX(id), 0) + 1 FROM order_items;
+
+-- Number given to an order by the terminal that took it, used to ignore uploads of the same order twice
+ALTER TABLE orders ADD COLUMN client_order_number VARCHAR(64);
+CREATE UNIQUE INDEX uk_orders_client_order_number ON orders (client_order_number);
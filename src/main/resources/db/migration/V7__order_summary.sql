@@ -0,0 +1,42 @@
+-- Denormalized read model of the orders, maintained by OrderSummaryProjector,
+-- for history and dashboard screens that must not load the orders/order_items aggregates.
+-- No foreign keys: the projection is rebuilt from the orders and may lag behind them.
+
+CREATE TABLE order_summary (
+    order_id        BIGINT         NOT NULL PRIMARY KEY,
+    version         BIGINT,
+    order_number    VARCHAR(20)    NOT NULL,
+    customer_id     BIGINT,
+    customer_name   VARCHAR(101),
+    status          VARCHAR(20)    NOT NULL,
+    payment_method  VARCHAR(20),
+    is_takeaway     BOOLEAN        NOT NULL,
+    table_number    INT,
+    item_count      INT            NOT NULL,
+    subtotal        DECIMAL(10, 2) NOT NULL,
+    tax_amount      DECIMAL(10, 2),
+    discount_amount DECIMAL(10, 2),
+    total_amount    DECIMAL(10, 2) NOT NULL,
+    order_date      DATETIME(6)    NOT NULL,
+    payment_date    DATETIME(6),
+    created_at      DATETIME(6)    NOT NULL,
+    updated_at      DATETIME(6),
+    projected_at    DATETIME(6)    NOT NULL
+);
+
+-- Keyset pagination, newest first: all orders, per status, per customer
+CREATE INDEX idx_order_summary_date ON order_summary (order_date, order_id);
+CREATE INDEX idx_order_summary_status_date ON order_summary (status, order_date, order_id);
+CREATE INDEX idx_order_summary_customer_date ON order_summary (customer_id, order_date, order_id);
+
+INSERT INTO order_summary (order_id, version, order_number, customer_id, customer_name, status, payment_method,
+                           is_takeaway, table_number, item_count, subtotal, tax_amount, discount_amount, total_amount,
+                           order_date, payment_date, created_at, updated_at, projected_at)
+SELECT o.id, 0, o.order_number, o.customer_id,
+       CASE WHEN c.id IS NULL THEN NULL ELSE CONCAT(c.first_name, ' ', c.last_name) END,
+       o.status, o.payment_method, COALESCE(o.is_takeaway, FALSE), o.table_number,
+       (SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.id),
+       o.subtotal, o.tax_amount, o.discount_amount, o.total_amount,
+       o.order_date, o.payment_date, o.created_at, o.updated_at, CURRENT_TIMESTAMP
+FROM orders o
+LEFT JOIN customers c ON c.id = o.customer_id;
@@ -0,0 +1,10 @@
+-- Composite indexes matching the keyset pagination queries (newest first, id as tie-breaker),
+-- so every page is an index range scan starting at the cursor, whatever its depth.
+
+CREATE INDEX idx_orders_date ON orders (order_date, id);
+CREATE INDEX idx_orders_status_date ON orders (status, order_date, id);
+
+CREATE INDEX idx_customers_created ON customers (created_at, id);
+
+CREATE INDEX idx_products_created ON products (created_at, id);
+CREATE INDEX idx_products_category_created ON products (category_id, created_at, id);
@@ -0,0 +1,19 @@
+-- Checkpoints of the in-memory sales rollups (SalesAggregationService), one row per bucket,
+-- reloaded at startup. Amounts are in cents.
+
+CREATE TABLE sales_rollup (
+    granularity     VARCHAR(6)  NOT NULL,
+    dimension       VARCHAR(20) NOT NULL,
+    dimension_value VARCHAR(40) NOT NULL,
+    bucket_start    DATETIME(6) NOT NULL,
+    revenue_cents   BIGINT      NOT NULL,
+    tax_cents       BIGINT      NOT NULL,
+    discount_cents  BIGINT      NOT NULL,
+    item_count      BIGINT      NOT NULL,
+    order_count     BIGINT      NOT NULL,
+    updated_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (granularity, dimension, dimension_value, bucket_start)
+);
+
+-- Restoring a granularity reads its recent buckets only
+CREATE INDEX idx_sales_rollup_start ON sales_rollup (granularity, bucket_start);
@@ -0,0 +1,172 @@
+package com.cafe.ordersystem.model.order;
+
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk order insert with JDBC batching off (batch size 1, as with IDENTITY ids) and on (the
+ * configured batch size, possible now that ids come from pooled sequences), 2,000 orders of
+ * 2 items per run.
+ *
+ * What batching saves is statements sent to the database, counted by the Hibernate statistics.
+ * The in-memory H2 of the tests has no network between the application and the database, so
+ * the elapsed times are reported but not asserted on: they barely differ here, the difference
+ * grows with the round-trip time of a real database.
+ */
+@SpringBootTest
+class OrderInsertBenchmarkTests {
+
+	private static final int ORDERS = 2_000;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category category;
+	private Product coffee;
+	private Product muffin;
+
+	@BeforeEach
+	void createProducts() {
+		category = categoryRepository.save(Category.builder().name("Insert bench").build());
+		coffee = productRepository.save(Product.builder().name("Bench coffee").price(new BigDecimal("2.40")).category(category).build());
+		muffin = productRepository.save(Product.builder().name("Bench muffin").price(new BigDecimal("2.10")).category(category).build());
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		jdbcTemplate.update("delete from order_items where order_id in (select id from orders where notes = 'insert bench')");
+		jdbcTemplate.update("delete from orders where notes = 'insert bench'");
+		jdbcTemplate.update("delete from products where id in (?, ?)", coffee.getId(), muffin.getId());
+		jdbcTemplate.update("delete from category where id = ?", category.getId());
+	}
+
+	@Test
+	void batchedInsertsOfPooledIds() {
+		// warm-up
+		insert(200, 1);
+		insert(200, 50);
+
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		try {
+			statistics.clear();
+			long unbatched = insert(ORDERS, 1);
+			long unbatchedStatements = statistics.getPrepareStatementCount();
+
+			statistics.clear();
+			long batched = insert(ORDERS, 50);
+			long batchedStatements = statistics.getPrepareStatementCount();
+
+			System.out.printf("Bulk insert of %d orders: batch size 1 %d statements, %.0f orders/s; " +
+							"batch size 50 %d statements, %.0f orders/s%n", ORDERS, unbatchedStatements,
+					ORDERS * 1e9 / unbatched, batchedStatements, ORDERS * 1e9 / batched);
+
+			// one INSERT per row without batching, one per 50 rows of a table with it,
+			// plus a sequence call per 50 ids in both cases
+			assertTrue(unbatchedStatements >= 3 * ORDERS);
+			assertTrue(batchedStatements <= 3 * ORDERS / 50 + 2 * ORDERS / 50 + 20, batchedStatements + " statements");
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+
+		assertEquals(2 * ORDERS + 400, jdbcTemplate.queryForObject(
+				"select count(*) from orders where notes = 'insert bench'", Integer.class));
+		assertEquals(2 * (2 * ORDERS + 400), jdbcTemplate.queryForObject(
+				"select count(*) from order_items i join orders o on o.id = i.order_id where o.notes = 'insert bench'", Integer.class));
+	}
+
+	@Test
+	void idsAreAllocatedInBlocks() {
+		List<Long> ids = new ArrayList<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			Product[] products = loadProducts();
+			for(int i = 0; i < 120; i++) {
+				Order order = newOrder(products);
+				entityManager.persist(order);
+				ids.add(order.getId());
+			}
+		});
+
+		// pooled-lo: consecutive ids within a block of 50, a jump only when a new block is fetched
+		int jumps = 0;
+		for(int i = 1; i < ids.size(); i++) {
+			assertTrue(ids.get(i) > ids.get(i - 1));
+			if(ids.get(i) != ids.get(i - 1) + 1) jumps++;
+		}
+		assertTrue(jumps <= 3, jumps + " blocks fetched for 120 ids");
+	}
+
+	/**
+	 * @return The elapsed time in nanoseconds
+	 */
+	private long insert(int count, int batchSize) {
+		long start = System.nanoTime();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+			Product[] products = loadProducts();
+			for(int i = 0; i < count; i++) {
+				entityManager.persist(newOrder(products));
+
+				if((i + 1) % 500 == 0) {
+					entityManager.flush();
+					entityManager.clear();
+					products = loadProducts();
+				}
+			}
+		});
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Loads the products with their category, which the availability check of Order.addItem reads,
+	 * so that no SELECT is issued per order.
+	 */
+	private Product[] loadProducts() {
+		return entityManager.createQuery("select p from Product p left join fetch p.category where p.id in (:ids) " +
+						"order by p.id", Product.class)
+				.setParameter("ids", List.of(coffee.getId(), muffin.getId()))
+				.getResultList().toArray(Product[]::new);
+	}
+
+	private Order newOrder(Product[] products) {
+		Order order = Order.builder().notes("insert bench").build();
+		order.addItem(products[0], 1, null);
+		order.addItem(products[1], 2, null);
+		return order;
+	}
+}
@@ -0,0 +1,85 @@
+package com.cafe.ordersystem.model.order;
+
+import com.cafe.ordersystem.model.product.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderTotalsTests {
+
+	@BeforeEach
+	void enableVerification() {
+		OrderTotals.setVerificationEnabled(true);
+	}
+
+	@AfterEach
+	void disableVerification() {
+		OrderTotals.setVerificationEnabled(false);
+	}
+
+	@Test
+	void runningTotalsMatchFullRecompute() {
+		Order order = new Order();
+		Product latte = Product.builder().name("Latte").price(new BigDecimal("3.45")).build();
+		Product croissant = Product.builder().name("Croissant").price(new BigDecimal("2.15")).build();
+
+		OrderItem first = order.addItem(latte, 2, null);
+		order.addItem(croissant, 3, null);
+		order.updateItemQuantity(first, 5);
+		order.applyPercentageDiscount(10, "HAPPY_HOUR");
+
+		assertEquals(new BigDecimal("23.70"), order.getSubtotal());
+		assertEquals(new BigDecimal("2.37"), order.getTaxAmount());
+		assertEquals(new BigDecimal("2.37"), order.getDiscountAmount());
+		assertEquals(new BigDecimal("23.70"), order.getTotalAmount());
+
+		order.removeItem(first);
+		order.removeDiscount();
+
+		assertEquals(new BigDecimal("6.45"), order.getSubtotal());
+		assertEquals(new BigDecimal("0.65"), order.getTaxAmount());
+		assertEquals(new BigDecimal("7.10"), order.getTotalAmount());
+	}
+
+	@Test
+	void itemDiscountsAreReflectedInTheOrder() {
+		Order order = new Order();
+		Product mocha = Product.builder().name("Mocha").price(new BigDecimal("4.00")).build();
+		Product scone = Product.builder().name("Scone").price(new BigDecimal("2.50")).build();
+
+		OrderItem item = order.addItem(mocha, 2, null);
+		item.applyFixedDiscount(new BigDecimal("1.00"), "LOYALTY_DISCOUNT");
+
+		assertEquals(new BigDecimal("7.00"), order.getSubtotal());
+		assertEquals(new BigDecimal("7.70"), order.getTotalAmount());
+
+		// verified against a full recompute on every change
+		order.addItem(scone, 1, null);
+		item.applyPercentageDiscount(50, "STAFF");
+		assertEquals(new BigDecimal("6.50"), order.getSubtotal());
+
+		item.removeDiscount();
+		assertEquals(new BigDecimal("10.50"), order.getSubtotal());
+		assertEquals(new BigDecimal("11.55"), order.getTotalAmount());
+	}
+
+	@Test
+	void replacedItemsAreAccounted() {
+		Order order = new Order();
+		Product latte = Product.builder().name("Latte").price(new BigDecimal("3.45")).build();
+		order.addItem(latte, 1, null);
+
+		OrderItem replacement = OrderItem.builder().order(order).product(latte).quantity(4).unitPrice(latte.getPrice()).build();
+		order.setItems(new ArrayList<>(List.of(replacement)));
+		assertEquals(new BigDecimal("13.80"), order.getSubtotal());
+
+		order.updateItemQuantity(replacement, 2);
+		assertEquals(new BigDecimal("6.90"), order.getSubtotal());
+	}
+}
@@ -0,0 +1,59 @@
+package com.cafe.ordersystem.model.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequenceOrderNumberGeneratorTests {
+
+	private static final int THREADS = 64;
+	private static final int PER_THREAD = 20_000;
+
+	@Test
+	void generatesUniqueNumbersUnderContention() throws InterruptedException {
+		SequenceOrderNumberGenerator generator = new SequenceOrderNumberGenerator(7);
+		Set<String> numbers = ConcurrentHashMap.newKeySet(THREADS * PER_THREAD);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+		for(int t = 0; t < THREADS; t++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for(int i = 0; i < PER_THREAD; i++) {
+					numbers.add(generator.nextOrderNumber());
+				}
+			});
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+		long elapsed = System.nanoTime() - begin;
+
+		assertEquals(THREADS * PER_THREAD, numbers.size());
+		System.out.printf("Generated %d order numbers on %d threads in %d ms (%.0f ops/s)%n",
+				numbers.size(), THREADS, elapsed / 1_000_000, numbers.size() * 1e9 / elapsed);
+	}
+
+	@Test
+	void numbersFitTheOrderNumberColumn() {
+		String number = new SequenceOrderNumberGenerator(42).nextOrderNumber();
+
+		assertEquals(20, number.length());
+		assertTrue(number.matches("\\d{8}-42-[0-9A-F]{8}"), number);
+	}
+}
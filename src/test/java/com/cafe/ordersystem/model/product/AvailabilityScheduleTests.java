@@ -0,0 +1,65 @@
+package com.cafe.ordersystem.model.product;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilityScheduleTests {
+
+	private static final Map<String, String> PERIODS = Map.of(
+			"breakfast", "07:00-11:00",
+			"lunch", "11:30-15:00");
+
+	private static final LocalDateTime MORNING = LocalDateTime.of(2026, 1, 15, 8, 30);
+	private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 15, 12, 0);
+	private static final LocalDateTime NIGHT = LocalDateTime.of(2026, 1, 15, 23, 30);
+
+	@Test
+	void parsesPeriodsAndWindows() {
+		assertEquals(AvailabilitySchedule.MINUTES_PER_DAY, AvailabilitySchedule.parse(null, PERIODS).cardinality());
+		assertEquals(AvailabilitySchedule.MINUTES_PER_DAY, AvailabilitySchedule.parse("All-Day", PERIODS).cardinality());
+		assertEquals(240 + 210, AvailabilitySchedule.parse("breakfast, lunch", PERIODS).cardinality());
+
+		BitSet overnight = AvailabilitySchedule.parse("22:00-02:00", PERIODS);
+		assertEquals(240, overnight.cardinality());
+		assertTrue(overnight.get(23 * 60));
+		assertTrue(overnight.get(60));
+		assertFalse(overnight.get(3 * 60));
+
+		assertThrows(IllegalArgumentException.class, () -> AvailabilitySchedule.parse("tea-time", PERIODS));
+		assertThrows(IllegalArgumentException.class, () -> AvailabilitySchedule.parse("25:00-26:00", PERIODS));
+	}
+
+	@Test
+	void subCategoriesInheritTheirParentRestrictions() {
+		AvailabilitySchedule schedule = AvailabilitySchedule.compile(List.of(
+				new AvailabilitySchedule.CategoryRule(1L, null, "breakfast", false),
+				new AvailabilitySchedule.CategoryRule(2L, 1L, "08:00-20:00", false),
+				new AvailabilitySchedule.CategoryRule(3L, null, "all-day", true),
+				new AvailabilitySchedule.CategoryRule(4L, 3L, null, false)
+		), PERIODS, EnumSet.of(Month.DECEMBER));
+
+		assertTrue(schedule.isAvailable(1L, MORNING));
+		assertTrue(schedule.isAvailable(2L, MORNING));
+		assertFalse(schedule.isAvailable(2L, NOON));
+		assertFalse(schedule.isAvailable(1L, NIGHT));
+
+		// seasonal, out of season in January
+		assertFalse(schedule.isAvailable(4L, NOON));
+		assertTrue(schedule.isAvailable(4L, NOON.withMonth(12)));
+
+		assertTrue(schedule.isAvailable(99L, NIGHT));
+		assertEquals(List.of(1L, 2L), schedule.availableCategoryIds(MORNING));
+		assertEquals(List.of(), schedule.availableCategoryIds(NIGHT));
+	}
+}
@@ -0,0 +1,163 @@
+package com.cafe.ordersystem.model.product;
+
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Materialized category paths on a 5-level, 500-category tree.
+ */
+@SpringBootTest
+class CategoryPathTests {
+
+	private static final int[] LEVEL_SIZES = {5, 20, 75, 150, 250};
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<List<Category>> levels = new ArrayList<>();
+	private final List<Product> products = new ArrayList<>();
+
+	@BeforeEach
+	void createTree() {
+		for(int level = 0; level < LEVEL_SIZES.length; level++) {
+			List<Category> categories = new ArrayList<>();
+			for(int i = 0; i < LEVEL_SIZES[level]; i++) {
+				Category category = Category.builder().name("Tree L" + level + "-" + i).build();
+				if(level > 0) {
+					List<Category> parents = levels.get(level - 1);
+					parents.get(i % parents.size()).addSubCategory(category);
+				}
+				categories.add(category);
+			}
+			levels.add(categories);
+		}
+
+		// cascades to the whole tree
+		categoryRepository.saveAll(levels.get(0));
+
+		for(Category leaf : levels.get(4)) {
+			products.add(productRepository.save(Product.builder()
+					.name(leaf.getName() + " product")
+					.price(new BigDecimal("2.00"))
+					.category(leaf)
+					.build()));
+		}
+	}
+
+	@AfterEach
+	void deleteTree() {
+		productRepository.deleteAllInBatch(products);
+		jdbcTemplate.update("update category set parent_id = null where name like 'Tree L%'");
+		jdbcTemplate.update("delete from category where name like 'Tree L%'");
+	}
+
+	@Test
+	void pathsAreAssignedOnPersist() {
+		for(int level = 0; level < levels.size(); level++) {
+			for(Category category : levels.get(level)) {
+				Category stored = categoryRepository.findById(category.getId()).orElseThrow();
+
+				assertNotNull(stored.getPath());
+				assertEquals(level, stored.getDepth());
+				assertTrue(stored.getPath().endsWith("/" + stored.getId() + "/"));
+				assertEquals(level, category.getAncestorIds().size());
+			}
+		}
+	}
+
+	@Test
+	void subtreeIsOneQuery() {
+		Category root = levels.get(0).get(1);
+
+		List<Category> subtree = categoryRepository.findSubtree(root.getPath());
+		assertEquals(countSubtree(root), subtree.size());
+		assertEquals(root.getId(), subtree.get(0).getId());
+		subtree.forEach(category -> assertTrue(category.isInSubtreeOf(root)));
+
+		long leaves = levels.get(4).stream().filter(leaf -> leaf.isInSubtreeOf(root)).count();
+		assertEquals(leaves, productRepository.countInCategorySubtree(root.getPath()));
+		assertEquals(leaves, productRepository.findInCategorySubtree(root.getPath()).size());
+	}
+
+	@Test
+	void movingACategoryMovesItsSubtree() {
+		Long movedId = levels.get(1).get(0).getId();
+		Long targetId = levels.get(0).get(4).getId();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Category moved = categoryRepository.findById(movedId).orElseThrow();
+			Category target = categoryRepository.findById(targetId).orElseThrow();
+
+			moved.getParent().removeSubCategory(moved);
+			target.addSubCategory(moved);
+		});
+
+		Category moved = categoryRepository.findById(movedId).orElseThrow();
+		Category target = categoryRepository.findById(targetId).orElseThrow();
+		assertEquals(target.getPath() + movedId + "/", moved.getPath());
+
+		List<Category> subtree = categoryRepository.findSubtree(moved.getPath());
+		assertTrue(subtree.size() > 1);
+		subtree.forEach(category -> {
+			assertTrue(category.isInSubtreeOf(target));
+			assertEquals(category.getAncestorIds().size(), category.getDepth());
+		});
+
+		List<Category> targetSubtree = categoryRepository.findSubtree(target.getPath());
+		assertTrue(targetSubtree.stream().map(Category::getId).toList().containsAll(
+				subtree.stream().map(Category::getId).toList()));
+		assertTrue(targetSubtree.stream().map(Category::getDepth).max(Comparator.naturalOrder()).orElseThrow() <= 4);
+	}
+
+	@Test
+	void settingTheParentMovesTheSubtree() {
+		Long movedId = levels.get(2).get(0).getId();
+		Long targetId = levels.get(0).get(3).getId();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Category moved = categoryRepository.findById(movedId).orElseThrow();
+			moved.setParent(categoryRepository.findById(targetId).orElseThrow());
+		});
+
+		Category moved = categoryRepository.findById(movedId).orElseThrow();
+		Category target = categoryRepository.findById(targetId).orElseThrow();
+		assertEquals(target.getPath() + movedId + "/", moved.getPath());
+		assertEquals(1, moved.getDepth());
+
+		categoryRepository.findSubtree(moved.getPath()).forEach(category ->
+				assertEquals(category.getAncestorIds().size(), category.getDepth()));
+	}
+
+	private static int countSubtree(Category category) {
+		int count = 1;
+		for(Category subCategory : category.getSubCategories()) {
+			count += countSubtree(subCategory);
+		}
+		return count;
+	}
+}
@@ -0,0 +1,38 @@
+package com.cafe.ordersystem.model.product;
+
+import com.cafe.ordersystem.model.product.Ingredient.UnitOfMeasure;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuantityTests {
+
+	@Test
+	void convertsBetweenUnitsOfTheSameDimension() {
+		assertEquals(new BigDecimal("1250.000"), Quantity.of(new BigDecimal("1.25"), UnitOfMeasure.KILOGRAM).to(UnitOfMeasure.GRAM).toDecimal());
+		assertEquals(new BigDecimal("16.000"), Quantity.convert(BigDecimal.ONE, UnitOfMeasure.POUND, UnitOfMeasure.OUNCE));
+		assertEquals(new BigDecimal("3.000"), Quantity.convert(BigDecimal.ONE, UnitOfMeasure.TABLESPOON, UnitOfMeasure.TEASPOON));
+		assertEquals(Quantity.of(BigDecimal.ONE, UnitOfMeasure.LITER), Quantity.of(new BigDecimal("1000"), UnitOfMeasure.MILLILITER));
+	}
+
+	@Test
+	void rejectsConversionAcrossDimensions() {
+		assertThrows(IllegalArgumentException.class,
+				() -> Quantity.of(BigDecimal.ONE, UnitOfMeasure.GRAM).to(UnitOfMeasure.MILLILITER));
+	}
+
+	@Test
+	void stockValueMatchesBigDecimalMultiplication() {
+		Ingredient milk = Ingredient.builder()
+				.name("Milk")
+				.stockLevel(new BigDecimal("12.345"))
+				.costPerUnit(new BigDecimal("1.2345"))
+				.unitOfMeasure(UnitOfMeasure.LITER)
+				.build();
+
+		assertEquals(new BigDecimal("12.345").multiply(new BigDecimal("1.2345")), milk.calculateStockValue());
+	}
+}
@@ -0,0 +1,114 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.service.ListingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Customer list latency at page 1 and page 10,000 (10 rows per page, 100,000 customers):
+ * keyset pagination vs OFFSET.
+ */
+@SpringBootTest
+class KeysetPaginationBenchmarkTests {
+
+	private static final int CUSTOMERS = 100_000;
+	private static final int PAGE_SIZE = 10;
+	private static final int DEEP_PAGE = 10_000;
+	private static final int ITERATIONS = 20;
+
+	/**
+	 * Far above the ids allocated by customers_seq during the tests.
+	 */
+	private static final long FIRST_ID = 50_000_000L;
+
+	@Autowired
+	private ListingService listingService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createCustomers() {
+		// older than any customer created by the other tests, so they come first
+		LocalDateTime start = LocalDateTime.now().minusYears(5);
+		List<Object[]> rows = new ArrayList<>(CUSTOMERS);
+		for(int i = 0; i < CUSTOMERS; i++) {
+			// two customers per millisecond, the id breaks the ties
+			Timestamp createdAt = Timestamp.valueOf(start.plusNanos(i / 2 * 1_000_000L));
+			rows.add(new Object[]{FIRST_ID + i, 0L, createdAt, "Keyset", "Customer " + i, createdAt, true, false});
+		}
+
+		jdbcTemplate.batchUpdate("insert into customers (id, version, created_at, first_name, last_name, " +
+				"registration_date, is_active, marketing_consent) values (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+	}
+
+	@AfterEach
+	void deleteCustomers() {
+		jdbcTemplate.update("delete from customers where id >= ?", FIRST_ID);
+	}
+
+	@Test
+	void deepPagesCostTheSameAsTheFirstOne() {
+		// the service walks the pages with the cursors, OFFSET gives the expected rows
+		String cursor = null;
+		for(int page = 0; page < 3; page++) {
+			KeysetPage<CustomerListView> keyset = listingService.listCustomers(cursor, PAGE_SIZE);
+			assertEquals(customerRepository.findListViews(PageRequest.of(page, PAGE_SIZE)), keyset.items());
+			cursor = keyset.next();
+		}
+
+		// cursors of the deep pages 10,000, 9,999, ...: the last row of the page before each of them.
+		// Each timed call reads a different page, H2 reuses the result of a query repeated as is
+		KeysetCursor[] deepCursors = new KeysetCursor[ITERATIONS];
+		for(int i = 0; i < ITERATIONS; i++) {
+			CustomerListView last = customerRepository.findListViews(PageRequest.of((DEEP_PAGE - 1 - i) * PAGE_SIZE - 1, 1)).get(0);
+			deepCursors[i] = new KeysetCursor(last.createdAt(), last.id());
+		}
+
+		assertEquals(customerRepository.findListViews(PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE)),
+				listingService.listCustomers(deepCursors[0].encode(), PAGE_SIZE).items());
+
+		IntFunction<List<CustomerListView>> firstPage = i ->
+				customerRepository.findListViews(PageRequest.ofSize(PAGE_SIZE + i));
+		IntFunction<List<CustomerListView>> keysetDeep = i ->
+				customerRepository.findListViewsAfter(deepCursors[i].at(), deepCursors[i].id(), PageRequest.ofSize(PAGE_SIZE));
+		IntFunction<List<CustomerListView>> offsetDeep = i ->
+				customerRepository.findListViews(PageRequest.of(DEEP_PAGE - 1 - i, PAGE_SIZE));
+
+		// warm-up
+		time(firstPage);
+		time(keysetDeep);
+		time(offsetDeep);
+
+		System.out.printf("Customer list of %d: page 1 %.0f µs, page %d keyset %.0f µs, page %d OFFSET %.0f µs%n",
+				CUSTOMERS, time(firstPage), DEEP_PAGE, time(keysetDeep), DEEP_PAGE, time(offsetDeep));
+	}
+
+	/**
+	 * @return The average time of a call in microseconds
+	 */
+	private static double time(IntFunction<?> call) {
+		long start = System.nanoTime();
+		for(int i = 0; i < ITERATIONS; i++) {
+			call.apply(i);
+		}
+
+		return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+	}
+}
@@ -0,0 +1,158 @@
+package com.cafe.ordersystem.repository;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Number of SQL statements per order read use case, 10 orders of 20 items.
+ * Statistics are global: the order summary projection is slowed down so it does not run during the counts.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"cafe.orders.summary.interval-ms=3600000"
+})
+class OrderReadModelTests {
+
+	private static final int ORDERS = 10;
+	private static final int ITEMS = 20;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private final List<Category> categories = new ArrayList<>();
+	private final List<Product> products = new ArrayList<>();
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void createOrders() {
+		customer = customerRepository.save(Customer.builder().firstName("Read").lastName("Model").build());
+		for(int i = 0; i < 4; i++) {
+			Category category = categoryRepository.save(Category.builder().name("Read model " + i).build());
+			categories.add(category);
+			for(int j = 0; j < 5; j++) {
+				products.add(productRepository.save(Product.builder().name("Read model " + i + "." + j)
+						.price(new BigDecimal("3.10")).category(category).build()));
+			}
+		}
+
+		transactionTemplate.executeWithoutResult(status -> {
+			for(int i = 0; i < ORDERS; i++) {
+				Order order = Order.builder().customer(entityManager.getReference(Customer.class, customer.getId()))
+						.status(OrderStatus.READY).notes("read model").build();
+				for(int j = 0; j < ITEMS; j++) {
+					order.addItem(entityManager.find(Product.class, products.get(j % products.size()).getId()), 1, null);
+				}
+				entityManager.persist(order);
+				orderIds.add(order.getId());
+			}
+		});
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		jdbcTemplate.update("delete from order_items where order_id in (select id from orders where notes = 'read model')");
+		jdbcTemplate.update("delete from orders where notes = 'read model'");
+		products.forEach(product -> jdbcTemplate.update("delete from products where id = ?", product.getId()));
+		categories.forEach(category -> jdbcTemplate.update("delete from category where id = ?", category.getId()));
+		jdbcTemplate.update("delete from customers where id = ?", customer.getId());
+	}
+
+	@Test
+	void singleOrderShapes() {
+		Long orderId = orderIds.get(0);
+
+		// lazy by default: the order row, then the items only when they are read, products untouched
+		assertStatements(2, () -> {
+			Order order = orderRepository.findById(orderId).orElseThrow();
+			assertEquals(ITEMS, order.getItems().size());
+		});
+
+		assertStatements(1, () -> {
+			Order order = orderRepository.findSummaryById(orderId).orElseThrow();
+			assertEquals("Read", order.getCustomer().getFirstName());
+		});
+
+		assertStatements(1, () -> {
+			Order order = orderRepository.findReceiptById(orderId).orElseThrow();
+			assertEquals("Model", order.getCustomer().getLastName());
+			for(OrderItem item : order.getItems()) {
+				assertTrue(item.getProduct().getName().startsWith("Read model"));
+			}
+		});
+
+		assertStatements(1, () -> {
+			Order order = orderRepository.findKitchenTicketById(orderId).orElseThrow();
+			assertEquals(ITEMS, order.getItems().size());
+			for(OrderItem item : order.getItems()) {
+				assertTrue(item.getProduct().getCategory().getName().startsWith("Read model"));
+			}
+		});
+	}
+
+	@Test
+	void orderListIsOneStatement() {
+		assertStatements(1, () -> {
+			List<OrderListView> page = orderRepository.findListViewsByStatus(OrderStatus.READY, Pageable.ofSize(ORDERS));
+			assertEquals(ORDERS, page.size());
+			for(OrderListView view : page) {
+				assertEquals(ITEMS, view.itemCount());
+				assertEquals("Read Model", view.getCustomerName());
+			}
+		});
+	}
+
+	private void assertStatements(long expected, Runnable useCase) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			statistics.clear();
+			useCase.run();
+			assertEquals(expected, statistics.getPrepareStatementCount());
+		});
+	}
+}
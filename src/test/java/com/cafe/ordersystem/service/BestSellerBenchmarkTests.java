@@ -0,0 +1,214 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Accuracy and memory of the best-seller sketches against the exact GROUP BY, for 20,000 paid orders
+ * over 3 hours of 400 products with Zipf-like popularity, at several capacities and sketch widths.
+ */
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class BestSellerBenchmarkTests {
+
+	private static final int PRODUCTS = 400;
+	private static final int ORDERS = 20_000;
+	private static final int TOP = 10;
+
+	/**
+	 * Far above the ids allocated by the sequences during the tests.
+	 */
+	private static final long FIRST_ID = 60_000_000L;
+
+	@Autowired
+	private BestSellerService bestSellerService;
+
+	@Autowired
+	private OrderStatusTransitionService transitionService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category category;
+	private final List<Product> products = new ArrayList<>();
+
+	/**
+	 * The order items inserted: [product id, quantity, payment date].
+	 */
+	private final List<Object[]> sales = new ArrayList<>();
+
+	private final List<Long> paidOrderIds = new ArrayList<>();
+	private LocalDateTime start;
+
+	@BeforeEach
+	void createSales() {
+		category = categoryRepository.save(Category.builder().name("Best seller bench").build());
+		for(int i = 0; i < PRODUCTS; i++) {
+			products.add(Product.builder().name("Bench product " + i).price(new BigDecimal("3.00")).category(category).build());
+		}
+		productRepository.saveAll(products);
+
+		// popularity of the product of rank r proportional to 1 / r
+		double[] cumulative = new double[PRODUCTS];
+		double sum = 0;
+		for(int i = 0; i < PRODUCTS; i++) {
+			sum += 1.0 / (i + 1);
+			cumulative[i] = sum;
+		}
+
+		Random random = new Random(20);
+		start = LocalDateTime.now().minusHours(3);
+		List<Object[]> orders = new ArrayList<>(ORDERS);
+		List<Object[]> items = new ArrayList<>();
+		for(int i = 0; i < ORDERS; i++) {
+			long orderId = FIRST_ID + i;
+			Timestamp paidAt = Timestamp.valueOf(start.plusNanos(i * 500_000_000L));
+			orders.add(new Object[]{orderId, paidAt, "BS" + orderId, paidAt, OrderStatus.PAID.name(), paidAt});
+
+			int lines = 1 + random.nextInt(3);
+			for(int line = 0; line < lines; line++) {
+				double pick = random.nextDouble() * sum;
+				int rank = 0;
+				while(cumulative[rank] < pick) rank++;
+
+				int quantity = 1 + random.nextInt(2);
+				Long productId = products.get(rank).getId();
+				items.add(new Object[]{orderId * 4 + line, paidAt, orderId, productId, quantity});
+				sales.add(new Object[]{productId, quantity, paidAt.toLocalDateTime()});
+			}
+		}
+
+		jdbcTemplate.batchUpdate("insert into orders (id, version, created_at, order_number, order_date, status, " +
+				"subtotal, total_amount, payment_date) values (?, 0, ?, ?, ?, ?, 0, 0, ?)", orders);
+		jdbcTemplate.batchUpdate("insert into order_items (id, version, created_at, order_id, product_id, quantity, " +
+				"unit_price) values (?, 0, ?, ?, ?, ?, 3.00)", items);
+	}
+
+	@AfterEach
+	void deleteSales() {
+		for(Long orderId : paidOrderIds) {
+			jdbcTemplate.update("delete from order_items where order_id = ?", orderId);
+			jdbcTemplate.update("delete from orders where id = ?", orderId);
+		}
+		jdbcTemplate.update("delete from order_items where order_id >= ?", FIRST_ID);
+		jdbcTemplate.update("delete from orders where id >= ?", FIRST_ID);
+		jdbcTemplate.update("delete from products where category_id = ?", category.getId());
+		jdbcTemplate.update("delete from category where id = ?", category.getId());
+	}
+
+	@Test
+	void sketchesAgainstExactGroupBy() {
+		LocalDateTime to = LocalDateTime.now().plusSeconds(1);
+
+		// warm-up, then the exact answers
+		bestSellerService.exactTopSellers(category.getId(), start, to, TOP);
+		long exactStart = System.nanoTime();
+		List<BestSellerView> exactTop = bestSellerService.exactTopSellers(category.getId(), start, to, TOP);
+		long exactNanos = System.nanoTime() - exactStart;
+
+		Map<Long, Long> exact = new HashMap<>();
+		for(BestSellerView seller : bestSellerService.exactTopSellers(category.getId(), start, to, PRODUCTS)) {
+			exact.put(seller.productId(), seller.quantity());
+		}
+
+		System.out.printf("Best sellers of %d sales: exact GROUP BY %.0f µs%n", sales.size(), exactNanos / 1_000.0);
+
+		int[][] configurations = {{10, 64}, {25, 128}, {50, 256}, {100, 512}, {200, 1024}};
+		for(int[] configuration : configurations) {
+			BestSellerTracker tracker = new BestSellerTracker(configuration[0], configuration[0], configuration[1], 4);
+			for(Object[] sale : sales) {
+				tracker.record((Long) sale[0], category.getId(), (Integer) sale[1], (LocalDateTime) sale[2]);
+			}
+
+			tracker.top(category.getId(), start, to, TOP);
+			long sketchStart = System.nanoTime();
+			List<BestSellerTracker.BestSeller> top = tracker.top(category.getId(), start, to, TOP);
+			long sketchNanos = System.nanoTime() - sketchStart;
+
+			int found = 0;
+			double maxError = 0;
+			for(BestSellerTracker.BestSeller seller : top) {
+				long quantity = exact.getOrDefault(seller.productId(), 0L);
+				// both sketches only overestimate
+				assertTrue(seller.quantity() >= quantity && seller.minQuantity() <= quantity, seller + " sold " + quantity);
+
+				maxError = Math.max(maxError, (seller.quantity() - quantity) / (double) quantity);
+				if(exactTop.stream().anyMatch(e -> e.productId() == seller.productId())) found++;
+			}
+
+			System.out.printf("  %d counters per hour, sketch width %d: %d KB, top %d recall %d/%d, " +
+							"max error %.1f%%, %.0f µs%n", configuration[0], configuration[1],
+					tracker.getCounterBytes() / 1024, TOP, found, TOP, maxError * 100, sketchNanos / 1_000.0);
+
+			if(configuration[0] >= 100) assertEquals(TOP, found);
+		}
+	}
+
+	@Test
+	void paidOrdersAreCounted() {
+		Product tea = products.get(PRODUCTS - 1);
+		Product cake = products.get(PRODUCTS - 2);
+		LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			for(int i = 0; i < 3; i++) {
+				Order order = Order.builder().paymentDate(LocalDateTime.now()).build();
+				order.addItem(entityManager.getReference(Product.class, tea.getId()), 10, null);
+				if(i == 0) order.addItem(entityManager.getReference(Product.class, cake.getId()), 5, null);
+				entityManager.persist(order);
+				paidOrderIds.add(order.getId());
+
+				transitionService.transition(order, OrderStatus.PAID);
+			}
+		});
+
+		LocalDateTime to = LocalDateTime.now().plusSeconds(1);
+		assertEquals(30, bestSellerService.estimateSold(tea.getId(), from, to));
+		assertEquals(5, bestSellerService.estimateSold(cake.getId(), from, to));
+
+		List<BestSellerView> top = bestSellerService.topSellers(category.getId(), from, to, 2);
+		assertEquals(List.of(tea.getId(), cake.getId()), top.stream().map(BestSellerView::productId).toList());
+		assertEquals("Bench product " + (PRODUCTS - 1), top.get(0).productName());
+
+		assertEquals(top.stream().map(BestSellerView::quantity).toList(), bestSellerService
+				.exactTopSellers(category.getId(), from, to, 2).stream().map(BestSellerView::quantity).toList());
+
+		assertEquals(List.of(tea.getId()), bestSellerService.suggestFeatured(category.getId(), from, to, 1)
+				.stream().map(BestSellerView::productId).toList());
+	}
+}
@@ -0,0 +1,216 @@
+package com.cafe.ordersystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Customer lookups by phone, email, member number and name, and their latency with 1,000,000
+ * customers indexed.
+ */
+class CustomerSearchIndexBenchmarkTests {
+
+	private static final int CUSTOMERS = 1_000_000;
+	private static final int QUERIES = 20_000;
+
+	private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+			"Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+			"Thomas", "Sarah", "Charles", "Karen", "Christopher", "Nancy", "Daniel", "Lisa", "Matthew", "Margaret",
+			"Anthony", "Betty", "Mark", "Sandra", "Zoë", "Amélie", "Jean-Pierre", "Siobhan", "Chloé", "Noah"};
+
+	private static final String[] SYLLABLES = {"an", "ber", "ca", "del", "er", "fon", "gar", "ha", "is", "jo",
+			"kel", "lan", "mor", "ner", "ol", "pa", "quin", "ros", "sen", "tor", "ul", "van", "wil", "ya", "zel",
+			"ford", "son", "ley", "man", "ton"};
+
+	@Test
+	void lookupsByPhoneEmailAndMemberNumber() {
+		CustomerSearchIndex index = new CustomerSearchIndex();
+		index.put(new CustomerSearchEntry(1L, "Zoë", "O'Brien-Smith", "Zoe.OBrien@Example.com", "+447911123456", "LP-00000001"));
+		index.put(new CustomerSearchEntry(2L, "John", "Smith", null, "07911654321", null));
+
+		assertEquals(1L, index.findByPhone("+44 7911 123456").customerId());
+		assertEquals(1L, index.findByEmail(" zoe.obrien@example.COM ").customerId());
+		assertEquals(1L, index.findByMemberNumber("lp 00000001").customerId());
+		assertNull(index.findByPhone("+44 7911 123457"));
+
+		assertEquals(List.of(2L), ids(index.search("07911 654321", 10)));
+		assertEquals(List.of(1L), ids(index.search("LP-00000001", 10)));
+		assertEquals(List.of(1L), ids(index.search("zoe.obrien@example.com", 10)));
+		assertArrayEquals(new String[]{"zoe", "obrien", "smith"}, CustomerSearchIndex.tokens("Zoë O'Brien-Smith"));
+	}
+
+	@Test
+	void namesByPrefixAndWithTypos() {
+		CustomerSearchIndex index = new CustomerSearchIndex();
+		index.put(new CustomerSearchEntry(1L, "Zoë", "O'Brien-Smith", null, null, null));
+		index.put(new CustomerSearchEntry(2L, "John", "Smith", null, null, null));
+		index.put(new CustomerSearchEntry(3L, "Johanna", "Smithson", null, null, null));
+		index.put(new CustomerSearchEntry(4L, "Jonathan", "Baker", null, null, null));
+
+		assertEquals(List.of(1L, 2L, 3L), ids(index.searchNames("smith", 10)));
+		assertEquals(List.of(2L, 3L), ids(index.searchNames("smi jo", 10)));
+		assertEquals(2L, index.searchNames("Smith John", 10).get(0).customerId());
+		assertEquals(List.of(1L), ids(index.searchNames("zoe", 10)));
+
+		// one typo from 4 characters, two from 8
+		assertEquals(List.of(2L), ids(index.searchNames("jhon smiht", 10)));
+		assertEquals(List.of(4L), ids(index.searchNames("jonahtan", 10)));
+		assertTrue(index.searchNames("jhn", 10).isEmpty());
+		assertEquals(1, index.searchNames("smith", 1).size());
+	}
+
+	@Test
+	void changesAreReflected() {
+		CustomerSearchIndex index = new CustomerSearchIndex(1);
+		for(long id = 1; id <= 100; id++) {
+			index.put(new CustomerSearchEntry(id, "First" + id, "Last", "c" + id + "@example.com", "0700000" + (1000 + id), null));
+		}
+
+		index.put(new CustomerSearchEntry(42L, "Renamed", "Customer", "new42@example.com", "0711111111", null));
+		assertNull(index.findByEmail("c42@example.com"));
+		assertNull(index.findByPhone("07000001042"));
+		assertEquals(42L, index.findByEmail("new42@example.com").customerId());
+		assertEquals(List.of(42L), ids(index.searchNames("renamed", 10)));
+		assertFalse(ids(index.searchNames("first42", 10)).contains(42L));
+
+		assertTrue(index.setMemberNumber(42L, "LP-00000042"));
+		assertEquals(42L, index.findByMemberNumber("LP-00000042").customerId());
+		assertFalse(index.putIfAbsent(new CustomerSearchEntry(42L, "Stale", "Row", null, null, null)));
+
+		for(long id = 1; id <= 100; id += 2) {
+			assertTrue(index.remove(id));
+		}
+		assertFalse(index.remove(1L));
+		assertEquals(50, index.size());
+		assertEquals(49, index.searchNames("last", 1000).size());
+		assertNull(index.findByEmail("c41@example.com"));
+		for(long id = 2; id <= 100; id += 2) {
+			if(id != 42) assertEquals(id, index.findByEmail("c" + id + "@example.com").customerId());
+		}
+
+		// freed slots are reused
+		index.put(new CustomerSearchEntry(101L, "Newcomer", "Last", "c101@example.com", null, null));
+		assertEquals(101L, index.findByEmail("c101@example.com").customerId());
+		assertEquals(50, index.searchNames("last", 1000).size());
+	}
+
+	@Test
+	void lookupsAmongAMillionCustomers() {
+		Random random = new Random(7);
+		String[] lastNames = lastNames(random, 20_000);
+
+		long start = System.nanoTime();
+		CustomerSearchIndex index = new CustomerSearchIndex(CUSTOMERS);
+		for(int i = 1; i <= CUSTOMERS; i++) {
+			index.put(customer(i, lastNames));
+		}
+		long build = System.nanoTime() - start;
+		assertEquals(CUSTOMERS, index.size());
+
+		long[] ids = new long[QUERIES];
+		for(int i = 0; i < QUERIES; i++) {
+			ids[i] = 1 + random.nextInt(CUSTOMERS);
+		}
+
+		// warm-up
+		for(int i = 0; i < QUERIES / 4; i++) {
+			CustomerSearchEntry customer = customer(ids[i], lastNames);
+			index.search(customer.phoneNumber(), 10);
+			index.search(customer.firstName() + " " + customer.lastName().substring(0, 3), 10);
+		}
+
+		long phone = time(ids, id -> {
+			CustomerSearchEntry customer = customer(id, lastNames);
+			assertEquals(id, index.search(formatPhone(customer.phoneNumber()), 10).get(0).customerId());
+		});
+		long email = time(ids, id -> assertEquals(id, index.search("Customer" + id + "@Example.com", 10).get(0).customerId()));
+		long member = time(ids, id -> assertEquals(id, index.search(String.format("lp-%08d", id), 10).get(0).customerId()));
+		long name = time(ids, id -> {
+			CustomerSearchEntry customer = customer(id, lastNames);
+			List<CustomerSearchEntry> found = index.search(customer.firstName() + " " + customer.lastName(), 10);
+			assertFalse(found.isEmpty());
+		});
+		long prefix = time(ids, id -> {
+			CustomerSearchEntry customer = customer(id, lastNames);
+			assertFalse(index.search(customer.lastName().substring(0, 3), 10).isEmpty());
+		});
+		long typo = time(ids, id -> {
+			CustomerSearchEntry customer = customer(id, lastNames);
+			assertFalse(index.search(customer.firstName() + " " + typo(customer.lastName(), random), 10).isEmpty());
+		});
+
+		System.out.printf("Customer search, %d customers indexed in %d ms: phone %.1f us, email %.1f us, member %.1f us, " +
+						"full name %.1f us, last name prefix %.1f us, name with a typo %.1f us per query%n",
+				CUSTOMERS, build / 1_000_000, perQuery(phone), perQuery(email), perQuery(member),
+				perQuery(name), perQuery(prefix), perQuery(typo));
+	}
+
+	private interface IdQuery {
+		void run(long id);
+	}
+
+	/**
+	 * @return The elapsed time in nanoseconds
+	 */
+	private static long time(long[] ids, IdQuery query) {
+		long start = System.nanoTime();
+		for(long id : ids) {
+			query.run(id);
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static double perQuery(long nanos) {
+		return nanos / 1e3 / QUERIES;
+	}
+
+	/**
+	 * Customer i, the same on each call.
+	 */
+	private static CustomerSearchEntry customer(long i, String[] lastNames) {
+		int mixed = (int) ((i * 0x9E3779B97F4A7C15L) >>> 40);
+		return new CustomerSearchEntry(i, FIRST_NAMES[(int) (i % FIRST_NAMES.length)], lastNames[mixed % lastNames.length],
+				"customer" + i + "@example.com", "+447" + (100_000_000 + i), String.format("LP-%08d", i));
+	}
+
+	private static String[] lastNames(Random random, int count) {
+		String[] names = new String[count];
+		for(int i = 0; i < count; i++) {
+			StringBuilder name = new StringBuilder();
+			int syllables = 2 + random.nextInt(3);
+			for(int s = 0; s < syllables; s++) {
+				name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+			}
+			name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+			names[i] = name.toString();
+		}
+		return names;
+	}
+
+	private static String formatPhone(String phone) {
+		return phone.substring(0, 3) + " " + phone.substring(3, 7) + " " + phone.substring(7);
+	}
+
+	/**
+	 * Replaces one letter after the third one.
+	 */
+	private static String typo(String name, Random random) {
+		if(name.length() < 5) return name;
+
+		char[] chars = name.toLowerCase().toCharArray();
+		int at = 3 + random.nextInt(chars.length - 3);
+		chars[at] = chars[at] == 'x' ? 'y' : 'x';
+		return new String(chars);
+	}
+
+	private static List<Long> ids(List<CustomerSearchEntry> entries) {
+		return entries.stream().map(CustomerSearchEntry::customerId).toList();
+	}
+}
@@ -0,0 +1,138 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.product.Ingredient;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.IngredientRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class IngredientDepletionServiceTests {
+
+	@Autowired
+	private IngredientDepletionService depletionService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product latte;
+	private Product syrupShot;
+	private Ingredient milk;
+	private Ingredient syrup;
+	private Long latteOrder;
+	private Long syrupOrder;
+
+	@BeforeEach
+	void createOrders() {
+		milk = ingredientRepository.save(Ingredient.builder().name("Depletion milk").stockLevel(new BigDecimal("10"))
+				.unitOfMeasure(Ingredient.UnitOfMeasure.LITER).build());
+		syrup = ingredientRepository.save(Ingredient.builder().name("Depletion syrup").stockLevel(new BigDecimal("5"))
+				.unitOfMeasure(Ingredient.UnitOfMeasure.PIECE).build());
+		latte = productRepository.save(Product.builder().name("Depletion latte").price(new BigDecimal("3.00")).build());
+		syrupShot = productRepository.save(Product.builder().name("Depletion syrup shot").price(new BigDecimal("0.50")).build());
+
+		jdbcTemplate.update("insert into product_ingredients (product_id, ingredient_id, quantity, unit_of_measure) " +
+				"values (?, ?, 200, 'MILLILITER')", latte.getId(), milk.getId());
+		jdbcTemplate.update("insert into product_ingredients (product_id, ingredient_id, quantity, unit_of_measure) " +
+				"values (?, ?, 1, 'PIECE')", syrupShot.getId(), syrup.getId());
+
+		latteOrder = createOrder(latte, 2);
+		syrupOrder = createOrder(syrupShot, 1);
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		jdbcTemplate.update("delete from order_items where order_id in (?, ?)", latteOrder, syrupOrder);
+		jdbcTemplate.update("delete from orders where id in (?, ?)", latteOrder, syrupOrder);
+		jdbcTemplate.update("delete from product_ingredients where product_id in (?, ?)", latte.getId(), syrupShot.getId());
+		jdbcTemplate.update("delete from products where id in (?, ?)", latte.getId(), syrupShot.getId());
+		jdbcTemplate.update("delete from ingredients where id in (?, ?)", milk.getId(), syrup.getId());
+	}
+
+	@Test
+	void batchesAreSummedPerIngredient() {
+		depletionService.enqueue(latteOrder);
+		depletionService.enqueue(syrupOrder);
+		drain();
+
+		assertEquals(0, new BigDecimal("9.6").compareTo(stockLevel(milk)));
+		assertEquals(0, new BigDecimal("4").compareTo(stockLevel(syrup)));
+		assertTrue(depletionService.getParkedOrders().isEmpty());
+	}
+
+	@Test
+	void anOrderThatCannotBeDepletedIsParkedWithoutHoldingBackItsBatch() {
+		// fails validation when the ingredient is written back
+		jdbcTemplate.update("update ingredients set name = ' ' where id = ?", syrup.getId());
+
+		depletionService.enqueue(latteOrder);
+		depletionService.enqueue(syrupOrder);
+		for(int i = 0; i < 10 && depletionService.getParkedOrders().isEmpty(); i++) {
+			depletionService.processBatch();
+		}
+		drain();
+
+		assertEquals(Set.of(syrupOrder), depletionService.getParkedOrders());
+		assertEquals(0, depletionService.getPendingCount());
+		assertEquals(0, new BigDecimal("9.6").compareTo(stockLevel(milk)));
+		assertEquals(0, new BigDecimal("5").compareTo(stockLevel(syrup)));
+
+		// fixed, then retried
+		jdbcTemplate.update("update ingredients set name = 'Depletion syrup' where id = ?", syrup.getId());
+		assertEquals(1, depletionService.retryParked());
+		drain();
+
+		assertTrue(depletionService.getParkedOrders().isEmpty());
+		assertEquals(0, new BigDecimal("4").compareTo(stockLevel(syrup)));
+	}
+
+	private Long createOrder(Product product, int quantity) {
+		return transactionTemplate.execute(status -> {
+			Order order = Order.builder().notes("depletion").build();
+			order.addItem(entityManager.find(Product.class, product.getId()), quantity, null);
+			entityManager.persist(order);
+			return order.getId();
+		});
+	}
+
+	/**
+	 * Processes the queue until it is empty. The scheduled run may take some of it, and
+	 * processBatch waits for it to finish.
+	 */
+	private void drain() {
+		int runs = 0;
+		do {
+			depletionService.processBatch();
+		} while(++runs < 10 && depletionService.getPendingCount() > 0);
+	}
+
+	private BigDecimal stockLevel(Ingredient ingredient) {
+		return jdbcTemplate.queryForObject("select stock_level from ingredients where id = ?", BigDecimal.class, ingredient.getId());
+	}
+}
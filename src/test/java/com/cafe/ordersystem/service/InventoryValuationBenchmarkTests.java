@@ -0,0 +1,81 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.Quantity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Valuation of 2,000 ingredients: fixed-point longs ({@link Quantity}) vs BigDecimal multiplications.
+ */
+class InventoryValuationBenchmarkTests {
+
+	private static final int INGREDIENTS = 2_000;
+	private static final int ROUNDS = 2_000;
+
+	@Test
+	void fixedPointValuationMatchesBigDecimal() {
+		List<Object[]> rows = rows(new Random(11));
+
+		BigDecimal expected = bigDecimalTotal(rows);
+		assertEquals(0, expected.compareTo(InventoryValuationService.totalStockValue(rows)));
+
+		// an amount too large for the fixed-point path is still valued exactly
+		List<Object[]> huge = new ArrayList<>(rows);
+		huge.add(new Object[]{new BigDecimal("9999999999999.999"), new BigDecimal("999999.9999")});
+		assertEquals(0, bigDecimalTotal(huge).compareTo(InventoryValuationService.totalStockValue(huge)));
+
+		// warm-up
+		time(rows, InventoryValuationService::totalStockValue);
+		time(rows, InventoryValuationBenchmarkTests::bigDecimalTotal);
+
+		double fixedPoint = time(rows, InventoryValuationService::totalStockValue);
+		double bigDecimal = time(rows, InventoryValuationBenchmarkTests::bigDecimalTotal);
+
+		System.out.printf("Inventory valuation of %d ingredients: Quantity fixed-point %.1f µs, BigDecimal %.1f µs%n",
+				INGREDIENTS, fixedPoint, bigDecimal);
+	}
+
+	/**
+	 * [stock level, cost per unit] rows, at the scales of the columns.
+	 */
+	private static List<Object[]> rows(Random random) {
+		List<Object[]> rows = new ArrayList<>(INGREDIENTS);
+		for(int i = 0; i < INGREDIENTS; i++) {
+			BigDecimal stockLevel = BigDecimal.valueOf(random.nextInt(50_000_000), Quantity.STOCK_SCALE);
+			BigDecimal costPerUnit = BigDecimal.valueOf(random.nextInt(1_000_000), Quantity.COST_SCALE);
+			rows.add(new Object[]{stockLevel, costPerUnit});
+		}
+
+		return rows;
+	}
+
+	private static BigDecimal bigDecimalTotal(List<Object[]> rows) {
+		BigDecimal total = BigDecimal.ZERO;
+		for(Object[] row : rows) {
+			total = total.add(((BigDecimal) row[0]).multiply((BigDecimal) row[1]));
+		}
+
+		return total;
+	}
+
+	/**
+	 * @return The average time of a valuation in microseconds
+	 */
+	private static double time(List<Object[]> rows, Function<List<Object[]>, BigDecimal> valuation) {
+		long start = System.nanoTime();
+		BigDecimal sink = BigDecimal.ZERO;
+		for(int i = 0; i < ROUNDS; i++) {
+			sink = sink.max(valuation.apply(rows));
+		}
+		assertEquals(1, sink.signum());
+
+		return (System.nanoTime() - start) / 1_000.0 / ROUNDS;
+	}
+}
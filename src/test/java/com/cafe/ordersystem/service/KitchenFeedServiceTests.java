@@ -0,0 +1,131 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class KitchenFeedServiceTests {
+
+	@Autowired
+	private KitchenFeedService kitchenFeedService;
+
+	@Autowired
+	private OrderStatusTransitionService transitionService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product product;
+	private Long orderId;
+	private final List<Long> itemIds = new ArrayList<>();
+
+	@BeforeEach
+	void createOrder() {
+		product = productRepository.save(Product.builder().name("Kitchen toast").price(new BigDecimal("3.00")).build());
+		transactionTemplate.executeWithoutResult(status -> {
+			Order order = Order.builder().notes("kitchen feed").status(OrderStatus.IN_PREPARATION).build();
+			Product toast = entityManager.find(Product.class, product.getId());
+			List<OrderItem> items = List.of(order.addItem(toast, 1, null), order.addItem(toast, 2, "well done"));
+			entityManager.persist(order);
+
+			orderId = order.getId();
+			items.forEach(item -> itemIds.add(item.getId()));
+		});
+	}
+
+	@AfterEach
+	void deleteOrder() {
+		jdbcTemplate.update("delete from order_items where order_id = ?", orderId);
+		jdbcTemplate.update("delete from orders where id = ?", orderId);
+		jdbcTemplate.update("delete from products where id = ?", product.getId());
+	}
+
+	@Test
+	void lastPreparedItemMakesTheOrderReady() {
+		int tracked = kitchenFeedService.getTrackedOrderCount();
+
+		assertTrue(kitchenFeedService.markItemPrepared(itemIds.get(0)));
+		assertFalse(kitchenFeedService.markItemPrepared(itemIds.get(0)));
+		assertEquals(tracked + 1, kitchenFeedService.getTrackedOrderCount());
+
+		assertTrue(kitchenFeedService.markItemPrepared(itemIds.get(1)));
+		assertEquals(OrderStatus.READY, orderRepository.findById(orderId).orElseThrow().getStatus());
+		assertEquals(tracked, kitchenFeedService.getTrackedOrderCount());
+
+		assertThrows(IllegalArgumentException.class, () -> kitchenFeedService.markItemPrepared(-1L));
+	}
+
+	@Test
+	void paidOrderGoesThroughPreparationToReady() {
+		jdbcTemplate.update("update orders set status = 'PAID' where id = ?", orderId);
+		int tracked = kitchenFeedService.getTrackedOrderCount();
+
+		kitchenFeedService.markItemPrepared(itemIds.get(0));
+		assertEquals(OrderStatus.IN_PREPARATION, orderRepository.findById(orderId).orElseThrow().getStatus());
+
+		kitchenFeedService.markItemPrepared(itemIds.get(1));
+		assertEquals(OrderStatus.READY, orderRepository.findById(orderId).orElseThrow().getStatus());
+		assertEquals(tracked, kitchenFeedService.getTrackedOrderCount());
+	}
+
+	@Test
+	void rolledBackPreparationIsForgotten() {
+		int tracked = kitchenFeedService.getTrackedOrderCount();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			kitchenFeedService.markItemPrepared(itemIds.get(0));
+			status.setRollbackOnly();
+		});
+		assertEquals(tracked, kitchenFeedService.getTrackedOrderCount());
+
+		// seeded again from the database, where nothing was prepared
+		kitchenFeedService.markItemPrepared(itemIds.get(1));
+		assertEquals(OrderStatus.IN_PREPARATION, orderRepository.findById(orderId).orElseThrow().getStatus());
+		kitchenFeedService.markItemPrepared(itemIds.get(0));
+		assertEquals(OrderStatus.READY, orderRepository.findById(orderId).orElseThrow().getStatus());
+	}
+
+	@Test
+	void cancelledOrdersAreNoLongerTracked() {
+		int tracked = kitchenFeedService.getTrackedOrderCount();
+
+		kitchenFeedService.markItemPrepared(itemIds.get(0));
+		assertEquals(tracked + 1, kitchenFeedService.getTrackedOrderCount());
+
+		transitionService.transitionAll(List.of(orderId), OrderStatus.IN_PREPARATION, OrderStatus.CANCELLED);
+		assertEquals(tracked, kitchenFeedService.getTrackedOrderCount());
+	}
+}
@@ -0,0 +1,88 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class KitchenSchedulerServiceTests {
+
+	@Autowired
+	private KitchenSchedulerService kitchenSchedulerService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category station;
+	private Product product;
+	private Long orderId;
+
+	@BeforeEach
+	void createOrder() {
+		station = categoryRepository.save(Category.builder().name("Scheduled grill").build());
+		product = productRepository.save(Product.builder().name("Scheduled burger").price(new BigDecimal("9.00"))
+				.category(station).preparationTime(8).stockLevel(10).build());
+		orderId = orderService.create(Order.builder().notes("scheduled").build()).getId();
+		orderService.addItem(orderId, product.getId(), 1, null);
+		orderService.addItem(orderId, product.getId(), 2, "no onions");
+	}
+
+	@AfterEach
+	void deleteOrder() {
+		kitchenSchedulerService.cancel(orderId);
+		jdbcTemplate.update("delete from order_items where order_id = ?", orderId);
+		jdbcTemplate.update("delete from orders where id = ?", orderId);
+		jdbcTemplate.update("delete from products where id = ?", product.getId());
+		jdbcTemplate.update("delete from category where id = ?", station.getId());
+	}
+
+	@Test
+	void cancellingAPaidOrderEmptiesItsStation() {
+		orderService.pay(orderId, PaymentMethod.CASH, null);
+		assertEquals(2, kitchenSchedulerService.queuedAt(station.getId()));
+		assertNotNull(kitchenSchedulerService.estimateReadyAt(orderId));
+
+		orderService.cancel(orderId);
+		assertEquals(0, kitchenSchedulerService.queuedAt(station.getId()));
+		assertNull(kitchenSchedulerService.estimateReadyAt(orderId));
+	}
+
+	@Test
+	void rolledBackPaymentQueuesNothing() {
+		transactionTemplate.executeWithoutResult(status -> {
+			orderService.pay(orderId, PaymentMethod.CASH, null);
+			status.setRollbackOnly();
+		});
+
+		assertEquals(0, kitchenSchedulerService.queuedAt(station.getId()));
+		assertNull(kitchenSchedulerService.estimateReadyAt(orderId));
+	}
+}
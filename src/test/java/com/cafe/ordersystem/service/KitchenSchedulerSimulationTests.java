@@ -0,0 +1,202 @@
+package com.cafe.ordersystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Synthetic rush hour: 5,000 orders in one hour over 4 stations, simulated second by second.
+ *
+ * Items take 1 to 3 minutes, so each station gets about 5,000 minutes of work in the hour, for
+ * 75 cooks: the rush overloads the kitchen by about 10% and tickets queue. The same orders are
+ * run first-come first-served, by score without the dine-in boost, then by score with it.
+ */
+class KitchenSchedulerSimulationTests {
+
+	private static final int ORDERS_PER_HOUR = 5_000;
+	private static final long[] STATIONS = {1L, 2L, 3L, 4L};
+	private static final int WORKERS_PER_STATION = 75;
+	private static final int DEFAULT_PREP_MINUTES = 3;
+	private static final int DINE_IN_BOOST_MINUTES = 2;
+
+	private record SimulatedOrder(long orderId, long arrivalMillis, boolean dineIn, List<KitchenScheduler.Line> lines) {
+	}
+
+	/**
+	 * How a station picks its next ticket.
+	 */
+	private interface Discipline {
+		void submit(SimulatedOrder order);
+
+		KitchenTicket next(Long stationId, long now);
+
+		void complete(Long itemId);
+	}
+
+	private record Waits(List<Long> dineIn, List<Long> takeaway) {
+
+		List<Long> all() {
+			List<Long> all = new ArrayList<>(dineIn);
+			all.addAll(takeaway);
+			return all;
+		}
+	}
+
+	@Test
+	void rushHourWaitTimes() {
+		List<SimulatedOrder> orders = rushHour(new Random(42));
+		int submitted = orders.stream().mapToInt(order -> order.lines().size()).sum();
+
+		Waits fifo = simulate(orders, new FirstComeFirstServed());
+		Waits unboosted = simulate(orders, scheduled(0));
+		Waits boosted = simulate(orders, scheduled(DINE_IN_BOOST_MINUTES));
+
+		assertEquals(submitted, fifo.all().size());
+		assertEquals(submitted, boosted.all().size());
+
+		report("first come, first served", fifo);
+		report("shortest job / earliest due", unboosted);
+		report("shortest job / earliest due, dine-in boost", boosted);
+
+		// the rush queues
+		assertTrue(percentile(fifo.all(), 50) > 60_000);
+
+		// shorter jobs first lower the average wait
+		assertTrue(mean(unboosted.all()) < mean(fifo.all()));
+
+		// the boost serves dine-in orders sooner, at the expense of takeaway
+		assertTrue(percentile(boosted.dineIn(), 50) < percentile(boosted.takeaway(), 50));
+		assertTrue(percentile(boosted.dineIn(), 50) < percentile(unboosted.dineIn(), 50));
+		assertTrue(percentile(boosted.takeaway(), 50) > percentile(unboosted.takeaway(), 50));
+	}
+
+	private static List<SimulatedOrder> rushHour(Random random) {
+		// order arrival times, in seconds
+		long[] arrivals = new long[ORDERS_PER_HOUR];
+		for(int i = 0; i < arrivals.length; i++) {
+			arrivals[i] = (long) (random.nextDouble() * 3600);
+		}
+		Arrays.sort(arrivals);
+
+		List<SimulatedOrder> orders = new ArrayList<>(ORDERS_PER_HOUR);
+		long itemId = 0;
+		for(int order = 0; order < arrivals.length; order++) {
+			int items = 1 + random.nextInt(3);
+			List<KitchenScheduler.Line> lines = new ArrayList<>(items);
+			for(int i = 0; i < items; i++) {
+				lines.add(new KitchenScheduler.Line(itemId++, STATIONS[random.nextInt(STATIONS.length)],
+						1 + random.nextInt(3), 1));
+			}
+
+			// a table number for about half of the orders
+			orders.add(new SimulatedOrder(order, arrivals[order] * 1000, random.nextBoolean(), lines));
+		}
+
+		return orders;
+	}
+
+	private static Waits simulate(List<SimulatedOrder> orders, Discipline discipline) {
+		long[][] busyUntil = new long[STATIONS.length][WORKERS_PER_STATION];
+		Waits waits = new Waits(new ArrayList<>(), new ArrayList<>());
+
+		int nextOrder = 0;
+		for(long second = 0; second < 4 * 3600; second++) {
+			long now = second * 1000;
+
+			while(nextOrder < orders.size() && orders.get(nextOrder).arrivalMillis() == now) {
+				discipline.submit(orders.get(nextOrder++));
+			}
+
+			for(int s = 0; s < STATIONS.length; s++) {
+				for(int w = 0; w < WORKERS_PER_STATION; w++) {
+					if(busyUntil[s][w] > now) continue;
+
+					KitchenTicket ticket = discipline.next(STATIONS[s], now);
+					if(ticket == null) break;
+
+					busyUntil[s][w] = now + ticket.prepMillis();
+					(ticket.dineIn() ? waits.dineIn() : waits.takeaway()).add(now - ticket.arrivalMillis());
+					discipline.complete(ticket.itemId());
+				}
+			}
+		}
+
+		return waits;
+	}
+
+	private static Discipline scheduled(int dineInBoostMinutes) {
+		KitchenScheduler scheduler = new KitchenScheduler(DEFAULT_PREP_MINUTES, dineInBoostMinutes, WORKERS_PER_STATION);
+
+		return new Discipline() {
+			@Override
+			public void submit(SimulatedOrder order) {
+				scheduler.submit(order.orderId(), order.dineIn(), order.arrivalMillis(), order.lines());
+			}
+
+			@Override
+			public KitchenTicket next(Long stationId, long now) {
+				return scheduler.next(stationId, now);
+			}
+
+			@Override
+			public void complete(Long itemId) {
+				scheduler.complete(itemId);
+			}
+		};
+	}
+
+	/**
+	 * The baseline: each station serves its tickets in arrival order.
+	 */
+	private static final class FirstComeFirstServed implements Discipline {
+
+		private final Map<Long, ArrayDeque<KitchenTicket>> queues = new HashMap<>();
+
+		@Override
+		public void submit(SimulatedOrder order) {
+			for(KitchenScheduler.Line line : order.lines()) {
+				long prep = line.preparationMinutes() * 60_000L * line.quantity();
+				queues.computeIfAbsent(line.stationId(), id -> new ArrayDeque<>()).add(new KitchenTicket(order.orderId(),
+						line.itemId(), line.stationId(), prep, order.arrivalMillis(), order.dineIn(), order.arrivalMillis(), 0));
+			}
+		}
+
+		@Override
+		public KitchenTicket next(Long stationId, long now) {
+			ArrayDeque<KitchenTicket> queue = queues.get(stationId);
+
+			return queue != null ? queue.poll() : null;
+		}
+
+		@Override
+		public void complete(Long itemId) {
+		}
+	}
+
+	private static void report(String discipline, Waits waits) {
+		List<Long> all = waits.all();
+		System.out.printf("Rush hour, %s: %d orders, %d items, wait p50=%ds p99=%ds mean=%.0fs (dine-in p50=%ds, takeaway p50=%ds)%n",
+				discipline, ORDERS_PER_HOUR, all.size(), percentile(all, 50) / 1000, percentile(all, 99) / 1000,
+				mean(all) / 1000, percentile(waits.dineIn(), 50) / 1000, percentile(waits.takeaway(), 50) / 1000);
+	}
+
+	private static double mean(List<Long> values) {
+		return values.stream().mapToLong(Long::longValue).average().orElse(0);
+	}
+
+	private static long percentile(List<Long> values, int percentile) {
+		long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+
+		return sorted[Math.max(0, index)];
+	}
+}
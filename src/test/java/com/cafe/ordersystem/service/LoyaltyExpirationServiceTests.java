@@ -0,0 +1,153 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 25 members with expired points, 5 expiring within the notice period and 5 later,
+ * swept in chunks of 10.
+ */
+@SpringBootTest(properties = {"cafe.orders.summary.interval-ms=3600000", "cafe.loyalty.expiration.chunk-size=10"})
+class LoyaltyExpirationServiceTests {
+
+	private static final int EXPIRED = 25;
+	private static final int EXPIRING = 5;
+	private static final int LATER = 5;
+
+	@Autowired
+	private LoyaltyExpirationService loyaltyExpirationService;
+
+	@Autowired
+	private LoyaltyLedgerService loyaltyLedgerService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final List<Customer> customers = new ArrayList<>();
+	private final List<Long> programIds = new ArrayList<>();
+	private final List<ExpiringPoints> notified = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	void createMembers() {
+		LocalDateTime now = LocalDateTime.now();
+		for(int i = 0; i < EXPIRED + EXPIRING + LATER; i++) {
+			Customer member = Customer.builder().firstName("Expiring").lastName("Member " + i).build();
+			member.enrollInLoyaltyProgram();
+			customers.add(customerRepository.save(member));
+
+			Long programId = member.getLoyaltyProgram().getId();
+			programIds.add(programId);
+			loyaltyLedgerService.earn(programId, 10 + i, null);
+
+			LocalDateTime expiration = i < EXPIRED ? now.minusDays(EXPIRED - i)
+					: i < EXPIRED + EXPIRING ? now.plusDays(i - EXPIRED + 1)
+					: now.plusDays(100 + i);
+			jdbcTemplate.update("update loyalty_programs set points_expiration_date = ? where id = ?",
+					Timestamp.valueOf(expiration), programId);
+		}
+
+		Set<Long> ours = Set.copyOf(programIds);
+		loyaltyExpirationService.register(batch -> batch.stream()
+				.filter(points -> ours.contains(points.loyaltyProgramId()))
+				.forEach(notified::add));
+	}
+
+	@AfterEach
+	void deleteMembers() {
+		for(int i = 0; i < customers.size(); i++) {
+			jdbcTemplate.update("delete from loyalty_ledger where loyalty_program_id = ?", programIds.get(i));
+			jdbcTemplate.update("delete from loyalty_programs where id = ?", programIds.get(i));
+			jdbcTemplate.update("delete from customers where id = ?", customers.get(i).getId());
+		}
+	}
+
+	@Test
+	void interruptedSweepIsResumed() {
+		// the application crashes while the second chunk starts
+		TransactionTemplate crashing = new TransactionTemplate(transactionManager) {
+			private int chunks;
+
+			@Override
+			public <T> T execute(TransactionCallback<T> action) {
+				if(chunks++ == 1) throw new IllegalStateException("Crashed");
+				return super.execute(action);
+			}
+		};
+		LoyaltyExpirationService crashed = new LoyaltyExpirationService(namedParameterJdbcTemplate, crashing,
+				List.of(notified::addAll), 10, 30);
+		assertThrows(IllegalStateException.class, crashed::sweep);
+		assertTrue(notified.isEmpty());
+
+		// the first chunk is checkpointed
+		assertEquals(10, jdbcTemplate.queryForObject("select members_expired from loyalty_expiration_sweep where id = 1",
+				Long.class));
+		assertNull(jdbcTemplate.queryForObject("select finished_at from loyalty_expiration_sweep where id = 1",
+				Timestamp.class));
+		Timestamp cutoff = jdbcTemplate.queryForObject("select cutoff from loyalty_expiration_sweep where id = 1",
+				Timestamp.class);
+
+		LoyaltyExpirationSweep resumed = loyaltyExpirationService.sweep();
+		assertTrue(resumed.resumed());
+		assertEquals(cutoff.toLocalDateTime(), resumed.cutoff());
+		assertEquals(EXPIRED, resumed.membersExpired());
+
+		int expiredPoints = 0;
+		for(int i = 0; i < EXPIRED; i++) {
+			expiredPoints += 10 + i;
+		}
+		assertEquals(expiredPoints, resumed.pointsExpired());
+
+		for(int i = 0; i < programIds.size(); i++) {
+			Long programId = programIds.get(i);
+			assertEquals(i < EXPIRED ? 0 : 10 + i, loyaltyLedgerService.getBalance(programId));
+			assertEquals(loyaltyLedgerService.getBalance(programId), loyaltyLedgerService.sumEntries(programId));
+		}
+		assertEquals(EXPIRED, jdbcTemplate.queryForObject("select count(*) from loyalty_ledger where entry_type = 'EXPIRE'",
+				Integer.class));
+
+		// the members expiring soon, each once, by expiration date
+		assertEquals(programIds.subList(EXPIRED, EXPIRED + EXPIRING),
+				notified.stream().map(ExpiringPoints::loyaltyProgramId).toList());
+		System.out.printf("Expiration sweep: %.0f members/s%n", resumed.getMembersPerSecond());
+
+		LoyaltyExpirationSweep next = loyaltyExpirationService.sweep();
+		assertFalse(next.resumed());
+		assertEquals(0, next.membersExpired());
+		assertEquals(EXPIRING, notified.size());
+		assertEquals(Set.of(0), programIds.subList(0, EXPIRED).stream()
+				.map(loyaltyLedgerService::getBalance).collect(Collectors.toSet()));
+	}
+}
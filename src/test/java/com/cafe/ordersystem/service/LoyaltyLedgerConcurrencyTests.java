@@ -0,0 +1,133 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import com.cafe.ordersystem.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 32 parallel streams of earn/redeem for the same member, each operation in its own transaction.
+ */
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class LoyaltyLedgerConcurrencyTests {
+
+	private static final int STREAMS = 32;
+	private static final int ROUNDS = 50;
+
+	@Autowired
+	private LoyaltyLedgerService loyaltyLedgerService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private Long programId;
+
+	@BeforeEach
+	void enroll() {
+		Customer member = Customer.builder().firstName("Ledger").lastName("Member").build();
+		member.enrollInLoyaltyProgram();
+		customer = customerRepository.save(member);
+		programId = customer.getLoyaltyProgram().getId();
+	}
+
+	@AfterEach
+	void deleteMember() {
+		jdbcTemplate.update("delete from loyalty_ledger where loyalty_program_id = ?", programId);
+		jdbcTemplate.update("delete from loyalty_programs where id = ?", programId);
+		jdbcTemplate.update("delete from customers where id = ?", customer.getId());
+	}
+
+	@Test
+	void parallelEarnAndRedeemLoseNothing() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(STREAMS);
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<Future<?>> streams = new ArrayList<>();
+		for(int i = 0; i < STREAMS; i++) {
+			streams.add(executor.submit(() -> {
+				start.await();
+				for(int round = 0; round < ROUNDS; round++) {
+					loyaltyLedgerService.earn(programId, 10, null);
+					loyaltyLedgerService.redeem(programId, 5, null);
+				}
+				return null;
+			}));
+		}
+
+		long started = System.nanoTime();
+		start.countDown();
+
+		// no retries: any failed operation, optimistic lock or otherwise, fails its stream
+		for(Future<?> stream : streams) {
+			stream.get(60, TimeUnit.SECONDS);
+		}
+		long elapsed = System.nanoTime() - started;
+		executor.shutdown();
+
+		System.out.printf("%d earn/redeem operations in %d streams on one member: %.0f operations/s%n",
+				2 * STREAMS * ROUNDS, STREAMS, 2 * STREAMS * ROUNDS * 1e9 / elapsed);
+
+		int expected = STREAMS * ROUNDS * 5;
+		assertEquals(expected, loyaltyLedgerService.getBalance(programId));
+		assertEquals(expected, loyaltyLedgerService.sumEntries(programId));
+		assertEquals(2 * STREAMS * ROUNDS, jdbcTemplate.queryForObject(
+				"select count(*) from loyalty_ledger where loyalty_program_id = ?", Integer.class, programId));
+		assertEquals(LoyaltyProgram.Tier.PLATINUM, loyaltyLedgerService.getTier(programId));
+	}
+
+	@Test
+	void redemptionsNeverOverdraw() {
+		loyaltyLedgerService.earn(programId, 120, null);
+
+		assertThrows(IllegalArgumentException.class, () -> loyaltyLedgerService.redeem(programId, 121, null));
+		assertEquals(20, loyaltyLedgerService.redeem(programId, 100, null));
+
+		List<LoyaltyLedgerEntry> history = loyaltyLedgerService.getHistory(programId, 10);
+		assertEquals(List.of(LoyaltyLedgerEntry.Type.REDEEM, LoyaltyLedgerEntry.Type.EARN),
+				history.stream().map(LoyaltyLedgerEntry::type).toList());
+		assertEquals(-100, history.get(0).points());
+	}
+
+	@Test
+	void savingALoadedProgramKeepsTheBalance() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Customer loaded = customerRepository.findById(customer.getId()).orElseThrow();
+			LoyaltyProgram program = loaded.getLoyaltyProgram();
+
+			// earned while the entity is loaded, e.g. at another register
+			loyaltyLedgerService.earn(programId, 150, null);
+
+			program.setEligibleForSpecialOffers(false);
+		});
+
+		assertEquals(150, loyaltyLedgerService.getBalance(programId));
+		assertTrue(customerRepository.findById(customer.getId()).isPresent());
+		assertEquals(LoyaltyProgram.Tier.SILVER.name(), jdbcTemplate.queryForObject(
+				"select tier from loyalty_programs where id = ?", String.class, programId));
+	}
+}
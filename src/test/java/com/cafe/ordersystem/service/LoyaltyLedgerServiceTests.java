@@ -0,0 +1,89 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CustomerRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class LoyaltyLedgerServiceTests {
+
+	@Autowired
+	private LoyaltyLedgerService loyaltyLedgerService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private Long programId;
+	private Product product;
+	private Long orderId;
+
+	@BeforeEach
+	void createOrder() {
+		Customer member = Customer.builder().firstName("Paying").lastName("Member").build();
+		member.enrollInLoyaltyProgram();
+		customer = customerRepository.save(member);
+		programId = customer.getLoyaltyProgram().getId();
+
+		product = productRepository.save(Product.builder().name("Member cake").price(new BigDecimal("12.00"))
+				.stockLevel(10).build());
+		orderId = orderService.create(Order.builder().customer(customer).notes("member").build()).getId();
+		orderService.addItem(orderId, product.getId(), 2, null);
+	}
+
+	@AfterEach
+	void deleteOrder() {
+		jdbcTemplate.update("delete from loyalty_ledger where loyalty_program_id = ?", programId);
+		jdbcTemplate.update("delete from order_items where order_id = ?", orderId);
+		jdbcTemplate.update("delete from orders where id = ?", orderId);
+		jdbcTemplate.update("delete from products where id = ?", product.getId());
+		jdbcTemplate.update("delete from loyalty_programs where id = ?", programId);
+		jdbcTemplate.update("delete from customers where id = ?", customer.getId());
+	}
+
+	@Test
+	void payingAnOrderOfAMemberEarnsItsPointsOnce() {
+		Order paid = orderService.pay(orderId, PaymentMethod.CREDIT_CARD, "R-42");
+
+		int points = paid.getLoyaltyPointsEarned();
+		assertTrue(points >= 24);
+		assertEquals(points, loyaltyLedgerService.getBalance(programId));
+		assertEquals(points, loyaltyLedgerService.sumEntries(programId));
+		assertEquals(points, jdbcTemplate.queryForObject("select loyalty_points_earned from orders where id = ?",
+				Integer.class, orderId));
+
+		List<LoyaltyLedgerEntry> history = loyaltyLedgerService.getHistory(programId, 10);
+		assertEquals(1, history.size());
+		assertEquals(LoyaltyLedgerEntry.Type.EARN, history.get(0).type());
+		assertEquals(orderId, history.get(0).orderId());
+
+		// already paid, nothing more is earned
+		assertThrows(IllegalArgumentException.class, () -> orderService.pay(orderId, PaymentMethod.CREDIT_CARD, "R-42"));
+		assertEquals(points, loyaltyLedgerService.getBalance(programId));
+	}
+}
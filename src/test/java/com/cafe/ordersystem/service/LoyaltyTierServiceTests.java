@@ -0,0 +1,139 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.customer.LoyaltyProgram.Tier;
+import com.cafe.ordersystem.model.customer.TierTable;
+import com.cafe.ordersystem.model.customer.TierTables;
+import com.cafe.ordersystem.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class LoyaltyTierServiceTests {
+
+	@Autowired
+	private LoyaltyTierService loyaltyTierService;
+
+	@Autowired
+	private LoyaltyLedgerService loyaltyLedgerService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Customer> customers = new ArrayList<>();
+
+	@AfterEach
+	void restoreTiers() {
+		loyaltyTierService.update(TierTable.DEFAULT.levels());
+
+		for(Customer customer : customers) {
+			Long programId = customer.getLoyaltyProgram().getId();
+			jdbcTemplate.update("delete from loyalty_ledger where loyalty_program_id = ?", programId);
+			jdbcTemplate.update("delete from loyalty_programs where id = ?", programId);
+			jdbcTemplate.update("delete from customers where id = ?", customer.getId());
+		}
+	}
+
+	@Test
+	void tierLookupAtTheThresholds() {
+		TierTable tiers = TierTable.DEFAULT;
+
+		assertEquals(Tier.BRONZE, tiers.tierFor(-5));
+		assertEquals(Tier.BRONZE, tiers.tierFor(0));
+		assertEquals(Tier.BRONZE, tiers.tierFor(99));
+		assertEquals(Tier.SILVER, tiers.tierFor(100));
+		assertEquals(Tier.GOLD, tiers.tierFor(499));
+		assertEquals(Tier.PLATINUM, tiers.tierFor(500));
+		assertEquals(Tier.PLATINUM, tiers.tierFor(Integer.MAX_VALUE));
+
+		assertEquals(1, tiers.pointsToNextTier(99));
+		assertEquals(200, tiers.pointsToNextTier(100));
+		assertEquals(0, tiers.pointsToNextTier(800));
+
+		List<TierTable.Level> sameThresholds = new ArrayList<>(tiers.levels());
+		sameThresholds.set(1, new TierTable.Level(Tier.SILVER, 300, BigDecimal.ONE, List.of()));
+		assertThrows(IllegalArgumentException.class, () -> new TierTable(sameThresholds));
+		assertThrows(IllegalArgumentException.class, () -> new TierTable(tiers.levels().subList(0, 3)));
+
+		List<TierTable.Level> outOfOrder = new ArrayList<>(tiers.levels());
+		outOfOrder.set(1, new TierTable.Level(Tier.SILVER, 400, BigDecimal.ONE, List.of()));
+		assertThrows(IllegalArgumentException.class, () -> new TierTable(outOfOrder));
+	}
+
+	@Test
+	void movedThresholdsRetierTheMembers() {
+		Long low = member(50);
+		Long middle = member(150);
+		Long high = member(350);
+		assertEquals(List.of("BRONZE", "SILVER", "GOLD"), storedTiers(low, middle, high));
+
+		TierRetierResult result = loyaltyTierService.update(List.of(
+				new TierTable.Level(Tier.BRONZE, 0, BigDecimal.ONE, List.of()),
+				new TierTable.Level(Tier.SILVER, 40, BigDecimal.ONE, List.of("Free refill")),
+				new TierTable.Level(Tier.GOLD, 140, new BigDecimal("1.50"), List.of("Free refill", "Birthday cake")),
+				new TierTable.Level(Tier.PLATINUM, 340, new BigDecimal("2"), List.of())));
+
+		assertTrue(result.membersRetiered() >= 3);
+		assertEquals(List.of("SILVER", "GOLD", "PLATINUM"), storedTiers(low, middle, high));
+		assertEquals(Tier.GOLD, loyaltyLedgerService.getTier(middle));
+		assertEquals(15, TierTables.current().pointsEarned(Tier.GOLD, new BigDecimal("10.99")));
+
+		// the table written is the one installed, only changes are reloaded
+		assertFalse(loyaltyTierService.reload());
+
+		// a change made by another instance
+		jdbcTemplate.update("update loyalty_tiers set perks = 'Priority queue' where tier = 'PLATINUM'");
+		assertTrue(loyaltyTierService.reload());
+		assertEquals(List.of("Priority queue"), TierTables.current().level(Tier.PLATINUM).perks());
+
+		// thresholds moved by another instance, re-tiered on reload
+		jdbcTemplate.update("update loyalty_tiers set points_required = 60 where tier = 'SILVER'");
+		assertTrue(loyaltyTierService.reload());
+		assertEquals(List.of("BRONZE", "GOLD", "PLATINUM"), storedTiers(low, middle, high));
+
+		// a re-tiering interrupted by a shutdown is finished at startup
+		jdbcTemplate.update("update loyalty_programs set tier = 'SILVER' where id = ?", low);
+		loyaltyTierService.load();
+		assertEquals(List.of("BRONZE", "GOLD", "PLATINUM"), storedTiers(low, middle, high));
+
+		// perks and multipliers only, nobody changes tier
+		List<TierTable.Level> levels = new ArrayList<>(TierTables.current().levels());
+		levels.set(0, new TierTable.Level(Tier.BRONZE, 0, new BigDecimal("1.10"), List.of()));
+		assertNull(loyaltyTierService.update(levels));
+	}
+
+	private Long member(int points) {
+		Customer member = Customer.builder().firstName("Tiered").lastName("Member " + points).build();
+		member.enrollInLoyaltyProgram();
+		customers.add(customerRepository.save(member));
+
+		Long programId = member.getLoyaltyProgram().getId();
+		loyaltyLedgerService.earn(programId, points, null);
+		return programId;
+	}
+
+	private List<String> storedTiers(Long... programIds) {
+		List<String> tiers = new ArrayList<>();
+		for(Long programId : programIds) {
+			tiers.add(jdbcTemplate.queryForObject("select tier from loyalty_programs where id = ?", String.class, programId));
+		}
+
+		return tiers;
+	}
+}
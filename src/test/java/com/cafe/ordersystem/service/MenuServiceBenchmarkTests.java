@@ -0,0 +1,158 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menu fetch latency: walking the Category/Product entity graph vs reading the cached snapshot.
+ * 5 top-level categories, 3 levels deep, 10 products per leaf category.
+ */
+@SpringBootTest
+class MenuServiceBenchmarkTests {
+
+	private static final int ITERATIONS = 50;
+
+	@Autowired
+	private MenuService menuService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<Category> categories = new ArrayList<>();
+	private final List<Product> products = new ArrayList<>();
+
+	@BeforeEach
+	void createMenu() {
+		for(int r = 0; r < 5; r++) {
+			Category root = categoryRepository.save(category("Bench " + r, null));
+			for(int c = 0; c < 4; c++) {
+				Category child = categoryRepository.save(category(root.getName() + "." + c, root));
+				for(int g = 0; g < 3; g++) {
+					Category leaf = categoryRepository.save(category(child.getName() + "." + g, child));
+					for(int p = 0; p < 10; p++) {
+						products.add(productRepository.save(Product.builder()
+								.name(leaf.getName() + " product " + p)
+								.price(new BigDecimal("3.50"))
+								.category(leaf)
+								.build()));
+					}
+				}
+			}
+		}
+	}
+
+	@AfterEach
+	void deleteMenu() {
+		productRepository.deleteAllInBatch(products);
+		for(int i = categories.size() - 1; i >= 0; i--) {
+			categoryRepository.deleteById(categories.get(i).getId());
+		}
+	}
+
+	@Test
+	void snapshotIsFasterThanEntityWalk() {
+		// warm up both paths
+		walkEntities();
+		MenuSnapshot menu = menuService.getMenu();
+
+		long walkStart = System.nanoTime();
+		for(int i = 0; i < ITERATIONS; i++) {
+			walkEntities();
+		}
+		long walkNanos = (System.nanoTime() - walkStart) / ITERATIONS;
+
+		long snapshotStart = System.nanoTime();
+		for(int i = 0; i < ITERATIONS; i++) {
+			assertSame(menu, menuService.getMenu());
+		}
+		long snapshotNanos = (System.nanoTime() - snapshotStart) / ITERATIONS;
+
+		System.out.printf("Menu fetch (%d categories, %d products): entity walk %.1f µs, snapshot %.3f µs%n",
+				categories.size(), products.size(), walkNanos / 1000.0, snapshotNanos / 1000.0);
+
+		assertTrue(snapshotNanos < walkNanos);
+		assertEquals("Bench 0 > Bench 0.1 > Bench 0.1.0", menu.category(categories.get(6).getId()).fullPathName());
+		assertEquals(products.size(), products.stream().filter(p -> menu.product(p.getId()) != null).count());
+	}
+
+	@Test
+	void productChangeSwapsSnapshot() {
+		MenuSnapshot before = menuService.getMenu();
+
+		Product product = products.get(0);
+		product.setPrice(new BigDecimal("4.00"));
+		productRepository.save(product);
+
+		MenuSnapshot after = menuService.getMenu();
+		assertNotEquals(before.getVersion(), after.getVersion());
+		assertNotEquals(before.getContentHash(), after.getContentHash());
+		assertEquals(new BigDecimal("4.00"), after.product(product.getId()).price());
+
+		product = productRepository.findById(product.getId()).orElseThrow();
+		product.setStockLevel(product.getStockLevel() + 10);
+		productRepository.save(product);
+		assertSame(after, menuService.getMenu());
+
+		// back to the same menu, rebuilt: same hash, whatever the version
+		product = productRepository.findById(product.getId()).orElseThrow();
+		product.setPrice(new BigDecimal("3.50"));
+		productRepository.save(product);
+		MenuSnapshot reverted = menuService.getMenu();
+		assertNotEquals(before.getVersion(), reverted.getVersion());
+		assertEquals(before.getContentHash(), reverted.getContentHash());
+	}
+
+	private Category category(String name, Category parent) {
+		Category category = Category.builder().name(name).parent(parent).build();
+		categories.add(category);
+		return category;
+	}
+
+	/**
+	 * What rendering the menu from the entities costs: subCategories, isVisible,
+	 * getActiveProducts and getFullPathName at every level.
+	 */
+	private void walkEntities() {
+		transactionTemplate.executeWithoutResult(status -> {
+			int[] visited = new int[1];
+			for(Category category : categoryRepository.findAll()) {
+				if(category.getParent() == null && category.getName().startsWith("Bench")) {
+					walk(category, visited);
+				}
+			}
+			assertEquals(categories.size(), visited[0]);
+		});
+	}
+
+	private void walk(Category category, int[] visited) {
+		visited[0]++;
+		category.getFullPathName();
+		if(category.isVisible()) {
+			category.getActiveProducts().forEach(Product::getPrice);
+		}
+		category.getSubCategories().forEach(sub -> walk(sub, visited));
+	}
+}
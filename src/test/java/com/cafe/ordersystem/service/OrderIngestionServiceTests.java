@@ -0,0 +1,126 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OrderIngestionServiceTests {
+
+	private static final int ORDERS = 300;
+
+	@Autowired
+	private OrderIngestionService orderIngestionService;
+
+	@Autowired
+	private SalesAggregationService salesAggregationService;
+
+	@Autowired
+	private BestSellerService bestSellerService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category category;
+	private Product coffee;
+	private Product croissant;
+
+	@BeforeEach
+	void createProducts() {
+		category = categoryRepository.save(Category.builder().name("Offline test").build());
+		coffee = productRepository.save(Product.builder().name("Offline coffee").price(new BigDecimal("2.40")).category(category).build());
+		croissant = productRepository.save(Product.builder().name("Offline croissant").price(new BigDecimal("1.90")).category(category).build());
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		jdbcTemplate.update("delete from order_items where order_id in (select id from orders where client_order_number like 'POS1-%')");
+		jdbcTemplate.update("delete from orders where client_order_number like 'POS1-%'");
+		jdbcTemplate.update("delete from products where id in (?, ?)", coffee.getId(), croissant.getId());
+		jdbcTemplate.update("delete from category where id = ?", category.getId());
+	}
+
+	@Test
+	void batchIsStoredOnceAndReplaysAreDuplicates() {
+		LocalDateTime takenAt = LocalDateTime.now().minusHours(2);
+		List<OfflineOrder> batch = new ArrayList<>();
+		for(int i = 0; i < ORDERS; i++) {
+			batch.add(new OfflineOrder("POS1-" + i, null, takenAt.plusSeconds(i), PaymentMethod.CASH, null, i % 2 == 0,
+					null, null, List.of(
+							new OfflineOrder.Line(coffee.getId(), 1 + i % 3, null),
+							new OfflineOrder.Line(croissant.getId(), 1, "warm"))));
+		}
+		batch.add(new OfflineOrder("POS1-card", null, takenAt, PaymentMethod.CREDIT_CARD, null, true, null, null,
+				List.of(new OfflineOrder.Line(coffee.getId(), 1, null))));
+		batch.add(new OfflineOrder("POS1-unknown", null, takenAt, PaymentMethod.CASH, null, true, null, null,
+				List.of(new OfflineOrder.Line(-1L, 1, null))));
+		batch.add(batch.get(0));
+
+		List<OrderIngestionResult> results = orderIngestionService.ingest(batch);
+		Map<OrderIngestionResult.Status, Long> counts = results.stream()
+				.collect(Collectors.groupingBy(OrderIngestionResult::status, Collectors.counting()));
+
+		assertEquals(ORDERS, counts.get(OrderIngestionResult.Status.ACCEPTED));
+		assertEquals(2, counts.get(OrderIngestionResult.Status.REJECTED));
+		assertEquals(1, counts.get(OrderIngestionResult.Status.DUPLICATE));
+		assertEquals(results.get(0).orderId(), results.get(ORDERS + 2).orderId());
+
+		assertEquals(ORDERS, jdbcTemplate.queryForObject(
+				"select count(*) from orders where client_order_number like 'POS1-%' and status = 'COMPLETED'", Integer.class));
+		assertEquals(2 * ORDERS, jdbcTemplate.queryForObject(
+				"select count(*) from order_items i join orders o on o.id = i.order_id where o.client_order_number like 'POS1-%'", Integer.class));
+		assertEquals(new BigDecimal("4.73"), jdbcTemplate.queryForObject(
+				"select total_amount from orders where client_order_number = 'POS1-0'", BigDecimal.class));
+
+		// the terminal did not get the response and uploads the same batch again
+		Map<String, OrderIngestionResult> replay = orderIngestionService.ingest(batch).stream()
+				.filter(result -> result.clientOrderNumber() != null)
+				.collect(Collectors.toMap(OrderIngestionResult::clientOrderNumber, Function.identity(), (a, b) -> a));
+
+		for(int i = 0; i < ORDERS; i++) {
+			OrderIngestionResult result = replay.get("POS1-" + i);
+			assertEquals(OrderIngestionResult.Status.DUPLICATE, result.status());
+			assertEquals(results.get(i).orderId(), result.orderId());
+		}
+		assertTrue(replay.get("POS1-card").error().contains("offline"));
+		assertEquals(ORDERS, jdbcTemplate.queryForObject(
+				"select count(*) from orders where client_order_number like 'POS1-%'", Integer.class));
+
+		// counted in the live sales figures once, at upload time
+		LocalDateTime now = LocalDateTime.now();
+		SalesFigures sales = salesAggregationService.total(SalesRollups.Granularity.HOUR, SalesKey.category(category.getId()),
+				now.minusHours(1), now.plusHours(1));
+		assertEquals(ORDERS, sales.orderCount());
+		assertEquals(3 * ORDERS, sales.itemCount());
+
+		List<BestSellerView> bestSellers = bestSellerService.topSellers(category.getId(), now.minusHours(1), now.plusHours(1), 2);
+		assertEquals(coffee.getId(), bestSellers.get(0).productId());
+		assertTrue(bestSellers.get(0).minQuantity() <= 2 * ORDERS && bestSellers.get(0).quantity() >= 2 * ORDERS);
+		assertTrue(bestSellerService.estimateSold(croissant.getId(), now.minusHours(1), now.plusHours(1)) >= ORDERS);
+	}
+}
@@ -0,0 +1,128 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.OrderRepository;
+import com.cafe.ordersystem.repository.OrderTransitionResult;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class OrderStatusTransitionServiceTests {
+
+	private static final int ORDERS = 3;
+
+	@Autowired
+	private OrderStatusTransitionService transitionService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Orders notified as cancelled. Listeners cannot be unregistered, the one of the first test is kept.
+	 */
+	private static final List<Long> cancelled = new CopyOnWriteArrayList<>();
+	private static boolean listening;
+
+	private Product product;
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void createOrders() {
+		if(!listening) {
+			transitionService.register(OrderStatus.CANCELLED, change -> cancelled.add(change.orderId()));
+			listening = true;
+		}
+		cancelled.clear();
+
+		product = productRepository.save(Product.builder().name("Transition tea").price(new BigDecimal("2.00")).build());
+		transactionTemplate.executeWithoutResult(status -> {
+			for(int i = 0; i < ORDERS; i++) {
+				Order order = Order.builder().notes("transitions").build();
+				order.addItem(entityManager.find(Product.class, product.getId()), 1, null);
+				entityManager.persist(order);
+				orderIds.add(order.getId());
+			}
+		});
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		jdbcTemplate.update("delete from order_items where order_id in (select id from orders where notes = 'transitions')");
+		jdbcTemplate.update("delete from orders where notes = 'transitions'");
+		jdbcTemplate.update("delete from products where id = ?", product.getId());
+	}
+
+	@Test
+	void bulkTransitionsNotifyOnlyTheOrdersTheyMoved() {
+		Long alreadyCancelled = orderIds.get(0);
+		assertEquals(List.of(alreadyCancelled), transitionService.transitionAll(List.of(alreadyCancelled),
+				OrderStatus.CREATED, OrderStatus.CANCELLED));
+		cancelled.clear();
+
+		// the first order was cancelled before, the second one is requested twice
+		List<Long> moved = transitionService.transitionAll(List.of(alreadyCancelled, orderIds.get(1), orderIds.get(1)),
+				OrderStatus.CREATED, OrderStatus.CANCELLED);
+
+		assertEquals(List.of(orderIds.get(1)), moved);
+		assertEquals(List.of(orderIds.get(1)), cancelled);
+		assertEquals(OrderStatus.CANCELLED, orderRepository.findById(orderIds.get(1)).orElseThrow().getStatus());
+		assertEquals(OrderStatus.CREATED, orderRepository.findById(orderIds.get(2)).orElseThrow().getStatus());
+	}
+
+	@Test
+	void versionedTransitionsReportEachOrder() {
+		Map<Long, Long> expected = new HashMap<>();
+		for(Long id : orderIds) {
+			expected.put(id, jdbcTemplate.queryForObject("select version from orders where id = ?", Long.class, id));
+		}
+		expected.put(-1L, 0L);
+
+		// cancelled by someone else, as this call would have, after the versions were read
+		transitionService.transitionAll(List.of(orderIds.get(1)), OrderStatus.CREATED, OrderStatus.CANCELLED);
+		// moved on without a version change
+		jdbcTemplate.update("update orders set status = 'PAID' where id = ?", orderIds.get(2));
+		cancelled.clear();
+
+		Map<Long, OrderTransitionResult> results = new HashMap<>();
+		transitionService.transitionVersioned(expected, OrderStatus.CREATED, OrderStatus.CANCELLED)
+				.forEach(result -> results.put(result.orderId(), result));
+
+		assertEquals(OrderTransitionResult.Outcome.UPDATED, results.get(orderIds.get(0)).outcome());
+		assertEquals(expected.get(orderIds.get(0)) + 1, results.get(orderIds.get(0)).version());
+		assertEquals(OrderTransitionResult.Outcome.VERSION_CONFLICT, results.get(orderIds.get(1)).outcome());
+		assertEquals(OrderStatus.CANCELLED, results.get(orderIds.get(1)).status());
+		assertEquals(OrderTransitionResult.Outcome.STATUS_CONFLICT, results.get(orderIds.get(2)).outcome());
+		assertEquals(OrderTransitionResult.Outcome.NOT_FOUND, results.get(-1L).outcome());
+		assertEquals(List.of(orderIds.get(0)), cancelled);
+	}
+}
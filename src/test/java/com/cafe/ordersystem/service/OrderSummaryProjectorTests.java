@@ -0,0 +1,184 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.Customer;
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderStatus;
+import com.cafe.ordersystem.model.order.OrderSummary;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.CustomerRepository;
+import com.cafe.ordersystem.repository.KeysetPage;
+import com.cafe.ordersystem.repository.OrderSummaryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The scheduled projection is slowed down so the tests drive it.
+ */
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class OrderSummaryProjectorTests {
+
+	private static final int ORDERS = 5;
+
+	@Autowired
+	private OrderSummaryProjector projector;
+
+	@Autowired
+	private OrderHistoryService orderHistoryService;
+
+	@Autowired
+	private OrderStatusTransitionService transitionService;
+
+	@Autowired
+	private OrderSummaryRepository orderSummaryRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private Category category;
+	private Product product;
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void createOrders() {
+		customer = customerRepository.save(Customer.builder().firstName("History").lastName("Reader").build());
+		category = categoryRepository.save(Category.builder().name("History test").build());
+		product = productRepository.save(Product.builder().name("History tea").price(new BigDecimal("2.00")).category(category).build());
+
+		LocalDateTime start = LocalDateTime.now().minusHours(1);
+		transactionTemplate.executeWithoutResult(status -> {
+			for(int i = 0; i < ORDERS; i++) {
+				Order order = Order.builder().customer(entityManager.getReference(Customer.class, customer.getId()))
+						.orderDate(start.plusMinutes(i)).notes("history").build();
+				order.addItem(entityManager.find(Product.class, product.getId()), 1 + i, null);
+				entityManager.persist(order);
+				orderIds.add(order.getId());
+			}
+		});
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		jdbcTemplate.update("delete from order_summary where customer_id = ?", customer.getId());
+		jdbcTemplate.update("delete from order_items where order_id in (select id from orders where notes = 'history')");
+		jdbcTemplate.update("delete from orders where notes = 'history'");
+		jdbcTemplate.update("delete from products where id = ?", product.getId());
+		jdbcTemplate.update("delete from category where id = ?", category.getId());
+		jdbcTemplate.update("delete from customers where id = ?", customer.getId());
+	}
+
+	@Test
+	void committedOrdersAreProjected() {
+		assertTrue(projector.getPendingCount() >= ORDERS);
+		projector.project();
+
+		OrderSummary last = orderSummaryRepository.findById(orderIds.get(ORDERS - 1)).orElseThrow();
+		assertEquals("History Reader", last.getCustomerName());
+		assertEquals(OrderStatus.CREATED, last.getStatus());
+		assertEquals(1, last.getItemCount());
+		assertEquals(0, new BigDecimal("10.00").compareTo(last.getSubtotal()));
+		assertEquals(ORDERS, orderHistoryService.countOrders(customer.getId()));
+
+		// bulk transitions bypass Hibernate, they are picked up after their commit
+		transitionService.transitionAll(orderIds.subList(0, 2), OrderStatus.CREATED, OrderStatus.CANCELLED);
+		projector.project();
+		assertEquals(OrderStatus.CANCELLED, orderSummaryRepository.findById(orderIds.get(0)).orElseThrow().getStatus());
+
+		transactionTemplate.executeWithoutResult(status ->
+				entityManager.find(Customer.class, customer.getId()).setLastName("Writer"));
+		projector.project();
+		assertEquals("History Writer", orderSummaryRepository.findById(orderIds.get(3)).orElseThrow().getCustomerName());
+
+		jdbcTemplate.update("delete from order_items where order_id = ?", orderIds.get(4));
+		jdbcTemplate.update("delete from orders where id = ?", orderIds.get(4));
+		projector.markDirty(orderIds.get(4));
+		projector.project();
+		assertFalse(orderSummaryRepository.existsById(orderIds.get(4)));
+	}
+
+	@Test
+	void aBatchThatDoesNotCommitIsProjectedAgain() {
+		transactionTemplate.executeWithoutResult(status -> {
+			projector.project();
+			status.setRollbackOnly();
+		});
+		assertFalse(orderSummaryRepository.existsById(orderIds.get(0)));
+		assertTrue(projector.getPendingCount() >= ORDERS);
+
+		projector.project();
+		assertTrue(orderSummaryRepository.existsById(orderIds.get(0)));
+	}
+
+	@Test
+	void changesWhoseEventsWereLostAreCaughtUpAtStartup() {
+		projector.project();
+
+		// changed and deleted behind the projector's back, as if the dirty marks were lost in a restart
+		jdbcTemplate.update("update orders set status = 'CANCELLED', updated_at = ? where id = ?",
+				LocalDateTime.now(), orderIds.get(0));
+		jdbcTemplate.update("delete from order_items where order_id = ?", orderIds.get(4));
+		jdbcTemplate.update("delete from orders where id = ?", orderIds.get(4));
+
+		assertTrue(projector.catchUp() >= 2);
+		projector.project();
+
+		assertEquals(OrderStatus.CANCELLED, orderSummaryRepository.findById(orderIds.get(0)).orElseThrow().getStatus());
+		assertFalse(orderSummaryRepository.existsById(orderIds.get(4)));
+	}
+
+	@Test
+	void customerHistoryIsPaginatedByCursor() {
+		projector.project();
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			KeysetPage<OrderSummary> page = orderHistoryService.listForCustomer(customer.getId(), cursor, 2);
+			page.items().forEach(summary -> seen.add(summary.getOrderId()));
+			cursor = page.next();
+			pages++;
+		} while(cursor != null);
+
+		assertEquals(3, pages);
+		assertEquals(List.of(orderIds.get(4), orderIds.get(3), orderIds.get(2), orderIds.get(1), orderIds.get(0)), seen);
+
+		KeysetPage<OrderSummary> last = orderHistoryService.listForCustomer(customer.getId(), null, ORDERS + 1);
+		assertEquals(ORDERS, last.items().size());
+		assertNull(last.next());
+	}
+}
@@ -0,0 +1,200 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.customer.LoyaltyProgram;
+import com.cafe.ordersystem.model.order.Promotion;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Promotion rule evaluation: the rules of each promotion type, and the indexed single pass
+ * against the full scan of every rule for every line, with 500 active rules and a 30-line order.
+ */
+class PromotionRuleSetBenchmarkTests {
+
+	private static final int RULES = 500;
+	private static final int LINES = 30;
+	private static final int PRODUCTS = 400;
+	private static final int EVALUATIONS = 20_000;
+
+	/**
+	 * A Friday at 17:30.
+	 */
+	private static final LocalDateTime FRIDAY_EVENING = LocalDateTime.of(2026, 10, 16, 17, 30);
+
+	@Test
+	void happyHourAppliesInItsWindowOnly() {
+		PromotionRuleSet rules = PromotionRuleSet.compile(List.of(
+				rule("HAPPY", Promotion.Type.HAPPY_HOUR, 2_000, Set.of(), Set.of(10L), null, null, 1 << 4, 17 * 60, 19 * 60)));
+		List<PromotionLine> lines = List.of(line(1L, 500, 2, 10L), line(2L, 300, 1, 20L));
+
+		assertEquals(List.of(new AppliedPromotion(0, "HAPPY", 200)),
+				rules.evaluate(new PromotionContext(FRIDAY_EVENING, null, false), lines));
+		assertTrue(rules.evaluate(new PromotionContext(FRIDAY_EVENING.withHour(19), null, false), lines).isEmpty());
+		assertTrue(rules.evaluate(new PromotionContext(FRIDAY_EVENING.minusDays(1), null, false), lines).isEmpty());
+	}
+
+	@Test
+	void comboDiscountsOneUnitPerTriggerUnitCheapestFirst() {
+		// a pastry (category 20) half price with each coffee (category 10)
+		PromotionRuleSet rules = PromotionRuleSet.compile(List.of(
+				rule("COFFEE_PASTRY", Promotion.Type.COMBO, 5_000, Set.of(), Set.of(20L), 10L, null, 0, 0, 0)));
+		List<PromotionLine> lines = List.of(
+				line(1L, 350, 2, 10L),
+				line(2L, 400, 1, 21L, 20L),
+				line(3L, 300, 3, 22L, 20L));
+
+		assertEquals(List.of(new AppliedPromotion(2, "COFFEE_PASTRY", 300)),
+				rules.evaluate(new PromotionContext(FRIDAY_EVENING, null, false), lines));
+	}
+
+	@Test
+	void comboTriggerUnitsAreOnlyTakenByTheLinesTheComboWins() {
+		// the croissant (category 21) is cheaper with the happy hour, the coffee goes to the muffin
+		PromotionRuleSet rules = PromotionRuleSet.compile(List.of(
+				rule("COFFEE_PASTRY", Promotion.Type.COMBO, 5_000, Set.of(), Set.of(20L), 10L, null, 0, 0, 0),
+				rule("CROISSANT_HOUR", Promotion.Type.HAPPY_HOUR, 7_000, Set.of(), Set.of(21L), null, null, 1 << 4, 17 * 60, 19 * 60)));
+		List<PromotionLine> lines = List.of(
+				line(1L, 350, 1, 10L),
+				line(2L, 200, 1, 21L, 20L),
+				line(3L, 300, 1, 22L, 20L));
+
+		assertEquals(List.of(new AppliedPromotion(1, "CROISSANT_HOUR", 140), new AppliedPromotion(2, "COFFEE_PASTRY", 150)),
+				rules.evaluate(new PromotionContext(FRIDAY_EVENING, null, false), lines));
+	}
+
+	@Test
+	void tierAndBirthdayOffers() {
+		PromotionRuleSet rules = PromotionRuleSet.compile(List.of(
+				rule("GOLD", Promotion.Type.TIER_DISCOUNT, 1_000, Set.of(), Set.of(), null, LoyaltyProgram.Tier.GOLD, 0, 0, 0),
+				rule("BIRTHDAY", Promotion.Type.BIRTHDAY, 10_000, Set.of(), Set.of(20L), null, null, 0, 0, 0)));
+		List<PromotionLine> lines = List.of(line(1L, 350, 2, 10L), line(2L, 400, 1, 20L), line(3L, 250, 1, 20L));
+
+		assertEquals(List.of(
+				new AppliedPromotion(0, "GOLD", 70),
+				new AppliedPromotion(1, "GOLD", 40),
+				new AppliedPromotion(2, "BIRTHDAY", 250)),
+				rules.evaluate(new PromotionContext(FRIDAY_EVENING, LoyaltyProgram.Tier.PLATINUM, true), lines));
+
+		assertEquals(List.of(new AppliedPromotion(2, "BIRTHDAY", 250)),
+				rules.evaluate(new PromotionContext(FRIDAY_EVENING, LoyaltyProgram.Tier.SILVER, true), lines));
+		assertTrue(rules.evaluate(new PromotionContext(FRIDAY_EVENING, null, false), lines).isEmpty());
+	}
+
+	@Test
+	void invalidRulesAreRejected() {
+		assertThrows(IllegalArgumentException.class, () ->
+				rule("COMBO", Promotion.Type.COMBO, 1_000, Set.of(), Set.of(20L), null, null, 0, 0, 0));
+		assertThrows(IllegalArgumentException.class, () ->
+				rule("FREE", Promotion.Type.BIRTHDAY, 10_001, Set.of(), Set.of(), null, null, 0, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> PromotionRuleSet.compile(List.of(
+				rule("A", Promotion.Type.BIRTHDAY, 100, Set.of(), Set.of(), null, null, 0, 0, 0),
+				rule("A", Promotion.Type.BIRTHDAY, 200, Set.of(), Set.of(), null, null, 0, 0, 0))));
+	}
+
+	@Test
+	void indexedEvaluationOf500Rules() {
+		Random random = new Random(42);
+		List<PromotionRule> rules = randomRules(random);
+		PromotionRuleSet indexed = PromotionRuleSet.compile(rules);
+		PromotionRuleSet unindexed = PromotionRuleSet.compileUnindexed(rules);
+
+		List<List<PromotionLine>> orders = new ArrayList<>();
+		List<PromotionContext> contexts = new ArrayList<>();
+		for(int i = 0; i < 64; i++) {
+			orders.add(randomOrder(random));
+			contexts.add(new PromotionContext(FRIDAY_EVENING.plusMinutes(random.nextInt(24 * 60)),
+					LoyaltyProgram.Tier.values()[random.nextInt(4)], random.nextInt(10) == 0));
+		}
+
+		int discounted = 0;
+		for(int i = 0; i < orders.size(); i++) {
+			List<AppliedPromotion> applied = indexed.evaluate(contexts.get(i), orders.get(i));
+			assertEquals(unindexed.evaluate(contexts.get(i), orders.get(i)), applied);
+			discounted += applied.size();
+		}
+		assertFalse(discounted == 0);
+
+		// warm-up
+		run(unindexed, contexts, orders, EVALUATIONS / 4);
+		run(indexed, contexts, orders, EVALUATIONS / 4);
+
+		long scan = run(unindexed, contexts, orders, EVALUATIONS);
+		long index = run(indexed, contexts, orders, EVALUATIONS);
+
+		System.out.printf("Promotions, %d rules x %d lines: full scan %.1f us/order, indexed %.1f us/order (%d lines discounted in %d orders)%n",
+				RULES, LINES, scan / 1e3 / EVALUATIONS, index / 1e3 / EVALUATIONS, discounted, orders.size());
+	}
+
+	/**
+	 * @return The elapsed time in nanoseconds
+	 */
+	private static long run(PromotionRuleSet rules, List<PromotionContext> contexts, List<List<PromotionLine>> orders, int count) {
+		long sink = 0;
+		long start = System.nanoTime();
+		for(int i = 0; i < count; i++) {
+			int order = i % orders.size();
+			sink += rules.evaluate(contexts.get(order), orders.get(order)).size();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		assertTrue(sink >= 0);
+		return elapsed;
+	}
+
+	/**
+	 * Products 1 to 400, in 40 leaf categories (1001 to 1040) under 8 top-level ones (1 to 8).
+	 */
+	private static List<PromotionRule> randomRules(Random random) {
+		List<PromotionRule> rules = new ArrayList<>(RULES);
+		for(int i = 0; i < RULES; i++) {
+			Promotion.Type type = Promotion.Type.values()[random.nextInt(4)];
+			Set<Long> products = Set.of();
+			Set<Long> categories = Set.of();
+
+			int scope = random.nextInt(20);
+			if(scope < 12) {
+				products = Set.of(1L + random.nextInt(PRODUCTS / 2), 1L + PRODUCTS / 2 + random.nextInt(PRODUCTS / 2));
+			} else if(scope < 19) {
+				categories = Set.of(scope < 16 ? 1001L + random.nextInt(40) : 1L + random.nextInt(8));
+			}
+
+			int start = random.nextInt(24) * 60;
+			rules.add(rule("P" + i, type, 500 + 500 * random.nextInt(10), products, categories,
+					type == Promotion.Type.COMBO ? 1L + random.nextInt(8) : null,
+					type == Promotion.Type.TIER_DISCOUNT ? LoyaltyProgram.Tier.values()[random.nextInt(4)] : null,
+					1 + random.nextInt(127), start, (start + 120) % (24 * 60)));
+		}
+		return rules;
+	}
+
+	private static List<PromotionLine> randomOrder(Random random) {
+		List<PromotionLine> lines = new ArrayList<>(LINES);
+		for(int i = 0; i < LINES; i++) {
+			long product = 1 + random.nextInt(PRODUCTS);
+			long leaf = 1001 + (product % 40);
+			lines.add(line(product, 150 + random.nextInt(600), 1 + random.nextInt(3), leaf, 1 + (leaf - 1001) / 5));
+		}
+		return lines;
+	}
+
+	private static PromotionRule rule(String code, Promotion.Type type, int basisPoints, Set<Long> products,
+									  Set<Long> categories, Long trigger, LoyaltyProgram.Tier minTier,
+									  int dayMask, int startMinute, int endMinute) {
+		return new PromotionRule(code, type, basisPoints, products, categories, trigger, minTier,
+				dayMask, startMinute, endMinute, null, null);
+	}
+
+	private static PromotionLine line(Long productId, long unitPriceCents, int quantity, long... categoryIds) {
+		return new PromotionLine(productId, categoryIds, quantity, unitPriceCents);
+	}
+}
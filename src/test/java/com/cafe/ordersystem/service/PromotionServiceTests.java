@@ -0,0 +1,115 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.Promotion;
+import com.cafe.ordersystem.model.product.Category;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.CategoryRepository;
+import com.cafe.ordersystem.repository.ProductRepository;
+import com.cafe.ordersystem.repository.PromotionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class PromotionServiceTests {
+
+	@Autowired
+	private PromotionService promotionService;
+
+	@Autowired
+	private PromotionRepository promotionRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category pastries;
+	private Product croissant;
+	private Product tea;
+	private Long orderId;
+
+	@BeforeEach
+	void createOrder() {
+		pastries = categoryRepository.save(Category.builder().name("Promoted pastries").build());
+		croissant = productRepository.save(Product.builder().name("Promoted croissant").price(new BigDecimal("2.00"))
+				.category(pastries).build());
+		tea = productRepository.save(Product.builder().name("Promoted tea").price(new BigDecimal("3.00")).build());
+
+		// happy hours all day long
+		promotionRepository.save(Promotion.builder().code("TEST_PASTRIES").name("Pastries -25%")
+				.type(Promotion.Type.HAPPY_HOUR).percentOff(new BigDecimal("25"))
+				.startTime(LocalTime.MIDNIGHT).endTime(LocalTime.MIDNIGHT)
+				.categoryIds(Set.of(pastries.getId())).build());
+		promotionRepository.save(Promotion.builder().code("TEST_TEA").name("Tea -10%")
+				.type(Promotion.Type.HAPPY_HOUR).percentOff(new BigDecimal("10"))
+				.startTime(LocalTime.MIDNIGHT).endTime(LocalTime.MIDNIGHT)
+				.productIds(Set.of(tea.getId())).build());
+
+		orderId = transactionTemplate.execute(status -> {
+			Order order = Order.builder().notes("promotions").build();
+			order.addItem(entityManager.find(Product.class, croissant.getId()), 2, null);
+			order.addItem(entityManager.find(Product.class, tea.getId()), 1, null);
+			entityManager.persist(order);
+			return order.getId();
+		});
+	}
+
+	@AfterEach
+	void deleteOrder() {
+		jdbcTemplate.update("delete from order_items where order_id = ?", orderId);
+		jdbcTemplate.update("delete from orders where id = ?", orderId);
+		jdbcTemplate.update("delete from promotion_products where promotion_code like 'TEST_%'");
+		jdbcTemplate.update("delete from promotion_categories where promotion_code like 'TEST_%'");
+		jdbcTemplate.update("delete from promotions where code like 'TEST_%'");
+		jdbcTemplate.update("delete from products where id in (?, ?)", croissant.getId(), tea.getId());
+		jdbcTemplate.update("delete from category where id = ?", pastries.getId());
+	}
+
+	@Test
+	void scopesAreStoredAndApplied() {
+		Promotion stored = promotionRepository.findAll().stream()
+				.filter(promotion -> promotion.getCode().equals("TEST_TEA")).findFirst().orElseThrow();
+		assertEquals(Set.of(tea.getId()), stored.getProductIds());
+
+		assertEquals(List.of(new AppliedPromotion(0, "TEST_PASTRIES", 100), new AppliedPromotion(1, "TEST_TEA", 30)),
+				promotionService.applyPromotions(orderId));
+		assertEquals(new BigDecimal("1.00"), jdbcTemplate.queryForObject("select discount_amount from order_items " +
+				"where order_id = ? and product_id = ?", BigDecimal.class, orderId, croissant.getId()));
+	}
+
+	@Test
+	void itemsWithAManualDiscountAreNotEvaluated() {
+		List<AppliedPromotion> applied = transactionTemplate.execute(status -> {
+			Order order = entityManager.find(Order.class, orderId);
+			order.getItems().get(1).applyFixedDiscount(new BigDecimal("0.50"), "Regular customer");
+
+			return promotionService.evaluate(order);
+		});
+
+		assertEquals(List.of(new AppliedPromotion(0, "TEST_PASTRIES", 100)), applied);
+	}
+}
@@ -0,0 +1,73 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.repository.KeysetPage;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReorderIndexTests {
+
+	@Test
+	void crossingsAreReportedOnce() {
+		ReorderIndex index = new ReorderIndex();
+
+		assertNull(index.update(ReorderItem.product(1L, "Croissant", 10, 5)));
+		assertEquals(ReorderAlert.Type.REORDER_NEEDED, index.update(ReorderItem.product(1L, "Croissant", 5, 5)));
+		assertNull(index.update(ReorderItem.product(1L, "Croissant", 2, 5)));
+		assertTrue(index.needsReordering(ReorderItem.Kind.PRODUCT, 1L));
+
+		assertEquals(ReorderAlert.Type.BACK_IN_STOCK, index.update(ReorderItem.product(1L, "Croissant", 20, 5)));
+		assertFalse(index.needsReordering(ReorderItem.Kind.PRODUCT, 1L));
+		assertNull(index.update(ReorderItem.product(2L, "Muffin", 0, null)));
+	}
+
+	@Test
+	void pagesAreSortedByGap() {
+		ReorderIndex index = new ReorderIndex();
+		for(long id = 1; id <= 100; id++) {
+			index.update(ReorderItem.product(id, "Product " + id, (int) (id % 10), 10));
+		}
+		index.update(ReorderItem.ingredient(1L, "Milk", new BigDecimal("0.250"), new BigDecimal("2.000")));
+
+		KeysetPage<ReorderItem> first = index.page(ReorderItem.Kind.PRODUCT, null, 10);
+		assertEquals(10, first.items().size());
+		first.items().forEach(item -> assertEquals(0, item.stockLevel().intValue()));
+
+		// walking the cursors visits every item once, most depleted first
+		List<Long> seen = new ArrayList<>();
+		KeysetPage<ReorderItem> page = first;
+		int pages = 1;
+		while(true) {
+			page.items().forEach(item -> seen.add(item.id()));
+			if(page.next() == null) break;
+
+			page = index.page(ReorderItem.Kind.PRODUCT, page.next(), 10);
+			pages++;
+		}
+		assertEquals(100, seen.size());
+		assertEquals(100, Set.copyOf(seen).size());
+		assertEquals(11, pages);
+		assertEquals(9L, seen.get(90));
+
+		// the cursor stays valid when items before it are removed or added
+		String second = first.next();
+		index.update(ReorderItem.product(10L, "Product 10", 20, 10));
+		index.update(ReorderItem.product(0L, "Product 0", 0, 10));
+		assertEquals(seen.subList(10, 20), index.page(ReorderItem.Kind.PRODUCT, second, 10).items().stream()
+				.map(ReorderItem::id).toList());
+
+		assertEquals(1, index.page(ReorderItem.Kind.INGREDIENT, null, 10).items().size());
+		assertThrows(IllegalArgumentException.class, () -> index.page(ReorderItem.Kind.PRODUCT, "not a cursor", 10));
+		assertThrows(IllegalArgumentException.class, () -> index.page(ReorderItem.Kind.PRODUCT, null, 0));
+		assertEquals(101, index.size());
+	}
+}
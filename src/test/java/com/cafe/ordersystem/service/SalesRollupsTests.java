@@ -0,0 +1,78 @@
+package com.cafe.ordersystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalesRollupsTests {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 14, 12, 0);
+
+	@Test
+	void salesAndRefundsRollUp() {
+		SalesRollups rollups = new SalesRollups();
+		SalesFigures order = new SalesFigures(1250, 104, 50, 3, 1);
+
+		rollups.add(SalesKey.TOTAL, NOON.plusSeconds(5), order);
+		rollups.add(SalesKey.TOTAL, NOON.plusSeconds(50), order);
+		rollups.add(SalesKey.TOTAL, NOON.plusMinutes(1), order);
+		rollups.add(SalesKey.TOTAL, NOON.plusMinutes(75), order.negate());
+
+		assertEquals(new SalesFigures(2500, 208, 100, 6, 2),
+				rollups.total(SalesRollups.Granularity.MINUTE, SalesKey.TOTAL, NOON, NOON.plusMinutes(1)));
+		assertEquals(new SalesFigures(3750, 312, 150, 9, 3),
+				rollups.total(SalesRollups.Granularity.HOUR, SalesKey.TOTAL, NOON, NOON.plusHours(1)));
+		assertEquals(new SalesFigures(2500, 208, 100, 6, 2),
+				rollups.total(SalesRollups.Granularity.DAY, SalesKey.TOTAL, NOON.toLocalDate().atStartOfDay(), NOON.plusDays(1)));
+		assertEquals(SalesFigures.ZERO,
+				rollups.total(SalesRollups.Granularity.DAY, SalesKey.DINE_IN, NOON, NOON.plusDays(1)));
+
+		List<SalesRollups.Bucket> minutes = rollups.series(SalesRollups.Granularity.MINUTE, SalesKey.TOTAL, NOON, NOON.plusHours(2));
+		assertEquals(3, minutes.size());
+		assertEquals(NOON.plusMinutes(75), minutes.get(2).start());
+		assertEquals("-12.50", minutes.get(2).figures().getRevenue().toPlainString());
+	}
+
+	@Test
+	void ringsKeepAWindowAndReportDirtyBuckets() {
+		SalesRollups rollups = new SalesRollups();
+		SalesFigures sale = new SalesFigures(100, 0, 0, 1, 1);
+
+		rollups.add(SalesKey.TAKEAWAY, NOON, sale);
+		assertEquals(3, rollups.drainDirty().size());
+		assertTrue(rollups.drainDirty().isEmpty());
+
+		// a day later the minute slot is reused, the hour and day rings still have it
+		assertTrue(rollups.add(SalesKey.TAKEAWAY, NOON.plusDays(1), sale));
+		assertEquals(SalesFigures.ZERO,
+				rollups.total(SalesRollups.Granularity.MINUTE, SalesKey.TAKEAWAY, NOON, NOON.plusMinutes(1)));
+		assertEquals(sale,
+				rollups.total(SalesRollups.Granularity.HOUR, SalesKey.TAKEAWAY, NOON, NOON.plusHours(1)));
+
+		// older than the minute window
+		assertFalse(rollups.add(SalesKey.TAKEAWAY, NOON, sale));
+
+		// checkpointed buckets come back as they were
+		List<SalesRollups.Bucket> dirty = rollups.drainDirty();
+		SalesRollups restored = new SalesRollups();
+		dirty.forEach(restored::restore);
+		assertTrue(restored.drainDirty().isEmpty());
+		for(SalesRollups.Granularity granularity : SalesRollups.Granularity.values()) {
+			assertEquals(rollups.total(granularity, SalesKey.TAKEAWAY, NOON, NOON.plusDays(2)),
+					restored.total(granularity, SalesKey.TAKEAWAY, NOON, NOON.plusDays(2)));
+		}
+	}
+
+	@Test
+	void amountsAreConvertedToCents() {
+		assertEquals(1999, SalesFigures.cents(new BigDecimal("19.99")));
+		assertEquals(1000, SalesFigures.cents(new BigDecimal("10")));
+		assertEquals(0, SalesFigures.cents(null));
+	}
+}
@@ -0,0 +1,138 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 8 terminals selling the same product, 100 sales each: the stock taken on the loaded Product
+ * entity (Product.reduceStock, retried on optimistic lock failures) vs the reservations of
+ * {@link StockReservationService}, written behind.
+ */
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class StockContentionBenchmarkTests {
+
+	private static final int TERMINALS = 8;
+	private static final int SALES_PER_TERMINAL = 100;
+	private static final int STOCK = 10_000;
+
+	/**
+	 * Below any order id, the reservations of this test do not belong to real orders.
+	 */
+	private static final AtomicLong orderIds = new AtomicLong(-1_000_000_000L);
+
+	@Autowired
+	private StockReservationService stockReservationService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product entityProduct;
+	private Product reservedProduct;
+
+	@BeforeEach
+	void createProducts() {
+		entityProduct = productRepository.save(Product.builder().name("Hot latte").price(new BigDecimal("3.50"))
+				.stockLevel(STOCK).build());
+		reservedProduct = productRepository.save(Product.builder().name("Hot flat white").price(new BigDecimal("3.50"))
+				.stockLevel(STOCK).build());
+	}
+
+	@AfterEach
+	void deleteProducts() {
+		jdbcTemplate.update("delete from products where id in (?, ?)", entityProduct.getId(), reservedProduct.getId());
+	}
+
+	@Test
+	void hotProductUnderContention() throws Exception {
+		AtomicInteger retries = new AtomicInteger();
+		Long entityId = entityProduct.getId();
+		long entity = run(() -> {
+			while(true) {
+				try {
+					transactionTemplate.executeWithoutResult(status ->
+							productRepository.findById(entityId).orElseThrow().reduceStock(1));
+					return null;
+				} catch(ObjectOptimisticLockingFailureException e) {
+					retries.incrementAndGet();
+				}
+			}
+		});
+
+		Long reservedId = reservedProduct.getId();
+		long reserved = run(() -> {
+			long orderId = orderIds.decrementAndGet();
+			stockReservationService.reserve(orderId, Map.of(reservedId, 1));
+			stockReservationService.commit(orderId);
+			return null;
+		});
+		stockReservationService.flush();
+
+		int sales = TERMINALS * SALES_PER_TERMINAL;
+		assertEquals(STOCK - sales, stockLevel(entityId));
+		assertEquals(STOCK - sales, stockLevel(reservedId));
+		assertEquals(STOCK - sales, stockReservationService.getAvailable(reservedId));
+
+		System.out.printf("Hot product, %d terminals, %d sales: Product.reduceStock %.0f sales/s with %d optimistic " +
+						"lock retries, reservations %.0f sales/s and one flush%n",
+				TERMINALS, sales, sales * 1e9 / entity, retries.get(), sales * 1e9 / reserved);
+	}
+
+	/**
+	 * Runs the sales of all the terminals concurrently.
+	 *
+	 * @return The elapsed time in nanoseconds
+	 */
+	private static long run(Callable<Void> sale) throws Exception {
+		ExecutorService terminals = Executors.newFixedThreadPool(TERMINALS);
+		try {
+			List<Callable<Void>> work = new ArrayList<>();
+			for(int t = 0; t < TERMINALS; t++) {
+				work.add(() -> {
+					for(int i = 0; i < SALES_PER_TERMINAL; i++) {
+						sale.call();
+					}
+					return null;
+				});
+			}
+
+			long start = System.nanoTime();
+			for(Future<Void> done : terminals.invokeAll(work)) {
+				done.get();
+			}
+			return System.nanoTime() - start;
+		} finally {
+			terminals.shutdown();
+		}
+	}
+
+	private int stockLevel(Long productId) {
+		return jdbcTemplate.queryForObject("select stock_level from products where id = ?", Integer.class, productId);
+	}
+}
@@ -0,0 +1,202 @@
+package com.cafe.ordersystem.service;
+
+import com.cafe.ordersystem.model.order.Order;
+import com.cafe.ordersystem.model.order.OrderItem;
+import com.cafe.ordersystem.model.order.PaymentMethod;
+import com.cafe.ordersystem.model.product.Product;
+import com.cafe.ordersystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "cafe.orders.summary.interval-ms=3600000")
+class StockReservationServiceTests {
+
+	@Autowired
+	private StockReservationService stockReservationService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product product;
+	private Long orderId;
+
+	@BeforeEach
+	void createOrder() {
+		product = productRepository.save(Product.builder().name("Reserved scone").price(new BigDecimal("3.00"))
+				.stockLevel(10).build());
+		orderId = orderService.create(Order.builder().notes("reservations").build()).getId();
+	}
+
+	@AfterEach
+	void deleteOrder() {
+		jdbcTemplate.update("delete from order_items where order_id = ?", orderId);
+		jdbcTemplate.update("delete from orders where id = ?", orderId);
+		jdbcTemplate.update("delete from products where id = ?", product.getId());
+	}
+
+	@Test
+	void paymentCommitsTheReservation() {
+		orderService.addItem(orderId, product.getId(), 3, null);
+		assertEquals(7, stockReservationService.getAvailable(product.getId()));
+		assertEquals(Map.of(product.getId(), 3), stockReservationService.getReserved(orderId));
+
+		// all or nothing: the item is not added either
+		assertThrows(IllegalArgumentException.class, () -> orderService.addItem(orderId, product.getId(), 8, null));
+		assertEquals(7, stockReservationService.getAvailable(product.getId()));
+		assertEquals(Map.of(product.getId(), 3), stockReservationService.getReserved(orderId));
+
+		orderService.pay(orderId, PaymentMethod.CASH, "R-1");
+		assertTrue(stockReservationService.getReserved(orderId).isEmpty());
+		assertEquals(7, stockReservationService.getAvailable(product.getId()));
+
+		long version = version();
+		stockReservationService.flush();
+		assertEquals(7, stockLevel());
+		assertEquals(version, version());
+	}
+
+	@Test
+	void loweredLinesAndCancellationGiveTheStockBack() {
+		OrderItem item = orderService.addItem(orderId, product.getId(), 4, null);
+		orderService.updateItemQuantity(orderId, item.getId(), 6);
+		assertEquals(4, stockReservationService.getAvailable(product.getId()));
+
+		orderService.updateItemQuantity(orderId, item.getId(), 1);
+		assertEquals(9, stockReservationService.getAvailable(product.getId()));
+		assertEquals(Map.of(product.getId(), 1), stockReservationService.getReserved(orderId));
+
+		assertTrue(orderService.cancel(orderId));
+		assertEquals(10, stockReservationService.getAvailable(product.getId()));
+		assertTrue(stockReservationService.getReserved(orderId).isEmpty());
+
+		stockReservationService.flush();
+		assertEquals(10, stockLevel());
+	}
+
+	@Test
+	void paymentWithoutReservationIsRecordedAsASale() {
+		orderService.addItem(orderId, product.getId(), 3, null);
+
+		// the reservation is lost, as after a restart
+		assertTrue(stockReservationService.release(orderId));
+		assertEquals(10, stockReservationService.getAvailable(product.getId()));
+
+		orderService.pay(orderId, PaymentMethod.CASH, "R-2");
+		assertEquals(7, stockReservationService.getAvailable(product.getId()));
+
+		stockReservationService.flush();
+		assertEquals(7, stockLevel());
+	}
+
+	@Test
+	void cancellingAPaidOrderPutsTheStockBack() {
+		orderService.addItem(orderId, product.getId(), 3, null);
+		orderService.pay(orderId, PaymentMethod.CASH, "R-3");
+		assertEquals(7, stockReservationService.getAvailable(product.getId()));
+
+		assertTrue(orderService.cancel(orderId));
+		assertEquals(10, stockReservationService.getAvailable(product.getId()));
+
+		stockReservationService.flush();
+		assertEquals(10, stockLevel());
+	}
+
+	@Test
+	void invalidReservationsTakeNothing() {
+		Map<Long, Integer> unknownProduct = new LinkedHashMap<>();
+		unknownProduct.put(product.getId(), 2);
+		unknownProduct.put(-1L, 1);
+		assertThrows(IllegalArgumentException.class, () -> stockReservationService.reserve(orderId, unknownProduct));
+
+		Map<Long, Integer> negativeQuantity = new LinkedHashMap<>();
+		negativeQuantity.put(product.getId(), 2);
+		negativeQuantity.put(product.getId() + 1, -1);
+		assertThrows(IllegalArgumentException.class, () -> stockReservationService.reserve(orderId, negativeQuantity));
+
+		assertEquals(10, stockReservationService.getAvailable(product.getId()));
+		assertTrue(stockReservationService.getReserved(orderId).isEmpty());
+	}
+
+	@Test
+	void rolledBackReservationsAreGivenBack() {
+		transactionTemplate.executeWithoutResult(status -> {
+			orderService.addItem(orderId, product.getId(), 5, null);
+			assertEquals(5, stockReservationService.getAvailable(product.getId()));
+			status.setRollbackOnly();
+		});
+
+		assertEquals(10, stockReservationService.getAvailable(product.getId()));
+		assertTrue(stockReservationService.getReserved(orderId).isEmpty());
+	}
+
+	@Test
+	void refreshPicksUpOtherWritesAndKeepsPendingDeltas() {
+		orderService.addItem(orderId, product.getId(), 2, null);
+
+		// sold through the entity, behind the counter's back
+		transactionTemplate.executeWithoutResult(status ->
+				productRepository.findById(product.getId()).orElseThrow().reduceStock(4));
+		stockReservationService.restock(product.getId(), 5);
+
+		assertEquals(9, stockReservationService.refresh(product.getId()));
+		assertEquals(11, stockLevel());
+		assertEquals(Map.of(product.getId(), 2), stockReservationService.getReserved(orderId));
+
+		// nothing new, nothing changes
+		assertEquals(9, stockReservationService.refresh(product.getId()));
+	}
+
+	@Test
+	void flushDoesNotOverwriteOrConflictWithEntityEdits() {
+		stockReservationService.restock(product.getId(), 5);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Product loaded = productRepository.findById(product.getId()).orElseThrow();
+
+			// flushed by another thread while the product is being edited
+			Thread flusher = new Thread(stockReservationService::flush);
+			flusher.start();
+			try {
+				flusher.join();
+			} catch(InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+
+			loaded.setPrice(new BigDecimal("3.20"));
+		});
+
+		assertEquals(15, stockLevel());
+		assertEquals(new BigDecimal("3.20"), productRepository.findById(product.getId()).orElseThrow().getPrice());
+		assertEquals(15, stockReservationService.getAvailable(product.getId()));
+	}
+
+	private int stockLevel() {
+		return jdbcTemplate.queryForObject("select stock_level from products where id = ?", Integer.class, product.getId());
+	}
+
+	private long version() {
+		return jdbcTemplate.queryForObject("select version from products where id = ?", Long.class, product.getId());
+	}
+}